@@ -0,0 +1,102 @@
+package com.codeashen.benchmark;
+
+import com.codeashen.benchmark.mock.MockHttpServletRequest;
+import com.codeashen.benchmark.mock.MockHttpServletResponse;
+import com.codeashen.benchmark.support.DispatchFixture;
+import org.openjdk.jmh.annotations.*;
+
+import javax.servlet.http.HttpServlet;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 处理器方法阻塞时，v3 DispatcherServlet 各个 dispatchMode 的吞吐量对比。
+ * <p>
+ * JMH 线程模拟数量有限的容器线程，每次调用由一个容器线程连续接收 {@value #CONCURRENCY} 个请求，全部结束后才返回：
+ * container 模式下请求在容器线程上依次阻塞；virtual、pool 模式下容器线程只负责开启异步请求，阻塞发生在分发线程上。
+ * 结果的单位是每秒完成的请求数。
+ * <pre>
+ * java -jar mvc-framework-benchmarks/target/benchmarks.jar BlockingDispatchBenchmark
+ * </pre>
+ * virtual 模式需要在 JDK 21 及以上运行，低版本 JDK 上与 pool 模式相同。
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+public class BlockingDispatchBenchmark {
+
+    private static final int CONCURRENCY = 256;
+
+    @State(Scope.Benchmark)
+    public static class Server {
+
+        @Param({"container", "pool", "virtual"})
+        private String mode;
+
+        // 每个处理器方法阻塞的毫秒数，模拟下游服务调用
+        @Param({"1", "10"})
+        private int blockMillis;
+
+        private DispatchFixture fixture;
+
+        @Setup(Level.Trial)
+        public void setup() throws Exception {
+            Map<String, String> config = new HashMap<>();
+            config.put("dispatchMode", mode);
+            config.put("dispatchPoolSize", "200");
+            config.put("dispatchQueueCapacity", String.valueOf(CONCURRENCY * 64));
+            String body = "        try {\n"
+                    + "            Thread.sleep(" + blockMillis + ");\n"
+                    + "        } catch (InterruptedException e) {\n"
+                    + "            Thread.currentThread().interrupt();\n"
+                    + "        }";
+            fixture = DispatchFixture.create("v3", 10, 0, config, body);
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() throws Exception {
+            fixture.close();
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Connections {
+        private MockHttpServletRequest[] requests;
+        private MockHttpServletResponse[] responses;
+
+        @Setup(Level.Trial)
+        public void setup(Server server) {
+            requests = server.fixture.requests(CONCURRENCY, true);
+            responses = new MockHttpServletResponse[CONCURRENCY];
+            for (int i = 0; i < CONCURRENCY; i++) {
+                requests[i].setAsyncSupported(true);
+                responses[i] = new MockHttpServletResponse();
+            }
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(CONCURRENCY)
+    public int dispatch(Server server, Connections connections) throws Exception {
+        HttpServlet servlet = server.fixture.getServlet();
+        MockHttpServletRequest[] requests = connections.requests;
+        MockHttpServletResponse[] responses = connections.responses;
+        for (int i = 0; i < CONCURRENCY; i++) {
+            requests[i].resetAsync();
+            responses[i].reset();
+            servlet.service(requests[i], responses[i]);
+        }
+        int completed = 0;
+        for (int i = 0; i < CONCURRENCY; i++) {
+            if (requests[i].isAsyncStarted() && !requests[i].getAsyncContext().await(30, TimeUnit.SECONDS)) {
+                throw new IllegalStateException("Request did not complete in 30 seconds");
+            }
+            completed += responses[i].getStatus() == 200 ? 1 : 0;
+        }
+        return completed;
+    }
+}
@@ -0,0 +1,68 @@
+package com.codeashen.benchmark;
+
+import com.codeashen.mvcframework.annotation.ASCacheable;
+import com.codeashen.mvcframework.v3.cache.CacheableBeanPostProcessor;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @ASCacheable 缓存代理的开销。
+ * hit 是命中缓存时经 JDK 动态代理调用一次的耗时，direct 是直接调用原始对象计算结果的耗时；
+ * 多线程运行（-t）可以观察分段加锁在竞争下的表现。单参数方法的 key 就是参数本身，命中时除代理的参数数组外不分配对象。
+ * <pre>
+ * java -jar mvc-framework-benchmarks/target/benchmarks.jar CacheableBenchmark
+ * java -jar mvc-framework-benchmarks/target/benchmarks.jar CacheableBenchmark.hit -t 8 -prof gc
+ * </pre>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CacheableBenchmark {
+
+    private static final int KEYS = 256;
+
+    public interface Greeting {
+        String greet(String name);
+    }
+
+    public static class GreetingService implements Greeting {
+        @Override
+        @ASCacheable(maxSize = KEYS * 2)
+        public String greet(String name) {
+            return "My name is " + name;
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class Services {
+        private final GreetingService direct = new GreetingService();
+        private final Greeting cached = (Greeting) new CacheableBeanPostProcessor().postProcess("greeting", direct);
+        private final String[] names = new String[KEYS];
+
+        @Setup(Level.Trial)
+        public void setup() {
+            for (int i = 0; i < KEYS; i++) {
+                names[i] = "user" + i;
+                cached.greet(names[i]);
+            }
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        private int index;
+    }
+
+    @Benchmark
+    public String hit(Services services, Cursor cursor) {
+        return services.cached.greet(services.names[cursor.index++ & (KEYS - 1)]);
+    }
+
+    @Benchmark
+    public String direct(Services services, Cursor cursor) {
+        return services.direct.greet(services.names[cursor.index++ & (KEYS - 1)]);
+    }
+}
@@ -0,0 +1,67 @@
+package com.codeashen.benchmark;
+
+import com.codeashen.benchmark.mock.MockHttpServletRequest;
+import com.codeashen.benchmark.mock.MockHttpServletResponse;
+import com.codeashen.benchmark.support.DispatchFixture;
+import org.openjdk.jmh.annotations.*;
+
+import javax.servlet.http.HttpServlet;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * v2、v3 DispatcherServlet 分发流程的对比基准。
+ * 覆盖路由数量、命中与 404、绑定参数个数三个维度，同时输出吞吐量和延迟分位数，
+ * 配合 -prof gc（或 DispatchBenchmarkRunner）可以得到每次分发的内存分配量。
+ * <pre>
+ * mvn -pl mvc-framework-benchmarks -am package -DskipTests
+ * java -jar mvc-framework-benchmarks/target/benchmarks.jar DispatchBenchmark -prof gc -p routes=10,10000
+ * </pre>
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class DispatchBenchmark {
+
+    private static final int REQUESTS = 64;
+
+    @Param({"v2", "v3"})
+    private String version;
+
+    @Param({"10", "100", "1000", "10000"})
+    private int routes;
+
+    @Param({"true", "false"})
+    private boolean hit;
+
+    @Param({"0", "1", "5", "10"})
+    private int params;
+
+    private DispatchFixture fixture;
+    private HttpServlet servlet;
+    private MockHttpServletRequest[] requests;
+    private MockHttpServletResponse response;
+    private int index;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        fixture = DispatchFixture.create(version, routes, params, null);
+        servlet = fixture.getServlet();
+        requests = fixture.requests(REQUESTS, hit);
+        response = new MockHttpServletResponse();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        fixture.close();
+    }
+
+    @Benchmark
+    public int dispatch() throws Exception {
+        MockHttpServletRequest request = requests[index++ & (REQUESTS - 1)];
+        servlet.service(request, response);
+        return response.getStatus();
+    }
+}
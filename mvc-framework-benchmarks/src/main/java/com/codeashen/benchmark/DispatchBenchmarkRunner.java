@@ -0,0 +1,22 @@
+package com.codeashen.benchmark;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * 在 IDE 中直接运行全部分发基准，并开启 GC profiler 统计分配速率（gc.alloc.rate.norm 即每次分发分配的字节数）。
+ * 可以通过参数指定要运行的基准类名正则，默认运行 DispatchBenchmark 和 V1DispatchBenchmark。
+ */
+public class DispatchBenchmarkRunner {
+
+    public static void main(String[] args) throws Exception {
+        String include = args.length > 0 ? args[0] : "DispatchBenchmark";
+        Options options = new OptionsBuilder()
+                .include(include)
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(options).run();
+    }
+}
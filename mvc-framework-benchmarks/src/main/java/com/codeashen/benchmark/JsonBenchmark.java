@@ -0,0 +1,97 @@
+package com.codeashen.benchmark;
+
+import com.codeashen.benchmark.mock.MockHttpServletResponse;
+import com.codeashen.mvcframework.v3.json.JsonWriter;
+import com.codeashen.mvcframework.v3.response.BufferPool;
+import com.codeashen.mvcframework.v3.response.JsonReturnValueHandler;
+import com.codeashen.mvcframework.v3.response.ObjectReturnValueHandler;
+import com.codeashen.mvcframework.v3.response.ReturnValueHandler;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @ASResponseBody 的 JSON 写出与手工拼接字符串后 toString() 写出的对比基准。
+ * toString 模拟 DemoController#add 的写法：字符串拼接出 JSON，再经过 PrintWriter 编码为 UTF-8。
+ * <pre>
+ * java -jar mvc-framework-benchmarks/target/benchmarks.jar JsonBenchmark -prof gc
+ * </pre>
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class JsonBenchmark {
+
+    @Param({"json", "toString"})
+    private String writer;
+
+    @Param({"1", "20"})
+    private int items;
+
+    private ReturnValueHandler handler;
+    private Order order;
+    private MockHttpServletResponse response;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        handler = "json".equals(writer)
+                ? new JsonReturnValueHandler(new JsonWriter(), new BufferPool(8192, 4))
+                : new ObjectReturnValueHandler();
+        order = new Order();
+        order.id = 10086;
+        order.amount = 99.5;
+        order.paid = true;
+        order.customer = "codeashen";
+        for (int i = 0; i < items; i++) {
+            order.items.add(new Item("item-" + i, i, i * 1.25));
+        }
+        response = new MockHttpServletResponse();
+    }
+
+    @Benchmark
+    public long write() throws Exception {
+        response.reset();
+        handler.handleReturnValue(order, response);
+        return response.getBodyLength();
+    }
+
+    public static class Order {
+        long id;
+        double amount;
+        boolean paid;
+        String customer;
+        List<Item> items = new ArrayList<>();
+
+        @Override
+        public String toString() {
+            String json = "{\"id\":" + id + ",\"amount\":" + amount + ",\"paid\":" + paid
+                    + ",\"customer\":\"" + customer + "\",\"items\":[";
+            for (int i = 0; i < items.size(); i++) {
+                json += (i > 0 ? "," : "") + items.get(i);
+            }
+            return json + "]}";
+        }
+    }
+
+    public static class Item {
+        String name;
+        int count;
+        double price;
+
+        Item(String name, int count, double price) {
+            this.name = name;
+            this.count = count;
+            this.price = price;
+        }
+
+        @Override
+        public String toString() {
+            return "{\"name\":\"" + name + "\",\"count\":" + count + ",\"price\":" + price + "}";
+        }
+    }
+}
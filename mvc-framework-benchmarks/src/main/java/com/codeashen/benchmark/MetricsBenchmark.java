@@ -0,0 +1,78 @@
+package com.codeashen.benchmark;
+
+import com.codeashen.benchmark.mock.MockHttpServletRequest;
+import com.codeashen.benchmark.mock.MockHttpServletResponse;
+import com.codeashen.benchmark.support.DispatchFixture;
+import com.codeashen.mvcframework.v3.metrics.HandlerMetrics;
+import org.openjdk.jmh.annotations.*;
+
+import javax.servlet.http.HttpServlet;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 请求指标的开销。
+ * dispatch 对比 metrics=true 和 metrics=false 时 v3 DispatcherServlet 的单次分发耗时，两者之差就是每个请求的指标开销；
+ * record 单独测量 HandlerMetrics 记录一次请求的耗时，多线程运行（-t）可以观察竞争下的表现。
+ * 预期开销在百纳秒以内。
+ * <pre>
+ * java -jar mvc-framework-benchmarks/target/benchmarks.jar MetricsBenchmark
+ * java -jar mvc-framework-benchmarks/target/benchmarks.jar MetricsBenchmark.record -t 8
+ * </pre>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MetricsBenchmark {
+
+    private static final int REQUESTS = 64;
+
+    @State(Scope.Thread)
+    public static class Dispatch {
+
+        @Param({"true", "false"})
+        private boolean metrics;
+
+        private DispatchFixture fixture;
+        private HttpServlet servlet;
+        private MockHttpServletRequest[] requests;
+        private MockHttpServletResponse response;
+        private int index;
+
+        @Setup(Level.Trial)
+        public void setup() throws Exception {
+            fixture = DispatchFixture.create("v3", 100, 1,
+                    Collections.singletonMap("metrics", String.valueOf(metrics)));
+            servlet = fixture.getServlet();
+            requests = fixture.requests(REQUESTS, true);
+            response = new MockHttpServletResponse();
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() throws Exception {
+            fixture.close();
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class Recorder {
+        private final HandlerMetrics metrics = new HandlerMetrics("/c0/m0", "Controller0#m0");
+    }
+
+    @Benchmark
+    public int dispatch(Dispatch state) throws Exception {
+        MockHttpServletRequest request = state.requests[state.index++ & (REQUESTS - 1)];
+        state.servlet.service(request, state.response);
+        return state.response.getStatus();
+    }
+
+    @Benchmark
+    public void record(Recorder recorder) {
+        // 与 DispatcherServlet 相同，每个请求读取三次时钟
+        long start = System.nanoTime();
+        long bindingNanos = System.nanoTime() - start;
+        recorder.metrics.record(200, System.nanoTime() - start, bindingNanos);
+    }
+}
@@ -0,0 +1,56 @@
+package com.codeashen.benchmark;
+
+import com.codeashen.benchmark.mock.MockHttpServletRequest;
+import com.codeashen.benchmark.mock.MockHttpServletResponse;
+import com.codeashen.benchmark.support.DispatchFixture;
+import org.openjdk.jmh.annotations.*;
+
+import javax.servlet.http.HttpServlet;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * v1 DispatcherServlet 的分发基准。
+ * v1 只能调用 (req, resp, name) 形式的处理器方法，因此没有参数个数维度，其他设置与 DispatchBenchmark 一致，结果可以直接对比。
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class V1DispatchBenchmark {
+
+    private static final int REQUESTS = 64;
+
+    @Param({"10", "100", "1000", "10000"})
+    private int routes;
+
+    @Param({"true", "false"})
+    private boolean hit;
+
+    private DispatchFixture fixture;
+    private HttpServlet servlet;
+    private MockHttpServletRequest[] requests;
+    private MockHttpServletResponse response;
+    private int index;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        fixture = DispatchFixture.create("v1", routes, 1, null);
+        servlet = fixture.getServlet();
+        requests = fixture.requests(REQUESTS, hit);
+        response = new MockHttpServletResponse();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        fixture.close();
+    }
+
+    @Benchmark
+    public int dispatch() throws Exception {
+        MockHttpServletRequest request = requests[index++ & (REQUESTS - 1)];
+        servlet.service(request, response);
+        return response.getStatus();
+    }
+}
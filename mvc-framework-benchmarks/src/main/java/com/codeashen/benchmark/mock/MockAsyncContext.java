@@ -0,0 +1,122 @@
+package com.codeashen.benchmark.mock;
+
+import javax.servlet.AsyncContext;
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.ServletContext;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 内存中的 AsyncContext，不会触发超时，complete 后唤醒等待的线程，供基准测试等待异步请求结束
+ */
+public class MockAsyncContext implements AsyncContext {
+
+    private final ServletRequest request;
+    private final ServletResponse response;
+    private final List<AsyncListener> listeners = new CopyOnWriteArrayList<>();
+    private final CountDownLatch completed = new CountDownLatch(1);
+    private volatile long timeout;
+
+    public MockAsyncContext(ServletRequest request, ServletResponse response) {
+        this.request = request;
+        this.response = response;
+    }
+
+    /**
+     * 等待异步请求结束
+     *
+     * @return 是否在超时之前结束
+     */
+    public boolean await(long timeout, TimeUnit unit) throws InterruptedException {
+        return completed.await(timeout, unit);
+    }
+
+    public boolean isCompleted() {
+        return completed.getCount() == 0;
+    }
+
+    @Override
+    public ServletRequest getRequest() {
+        return request;
+    }
+
+    @Override
+    public ServletResponse getResponse() {
+        return response;
+    }
+
+    @Override
+    public boolean hasOriginalRequestAndResponse() {
+        return true;
+    }
+
+    @Override
+    public void dispatch() {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void dispatch(String path) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void dispatch(ServletContext context, String path) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void complete() {
+        if (completed.getCount() == 0) {
+            return;
+        }
+        for (AsyncListener listener : listeners) {
+            try {
+                listener.onComplete(new AsyncEvent(this, request, response));
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+        completed.countDown();
+    }
+
+    @Override
+    public void start(Runnable run) {
+        new Thread(run).start();
+    }
+
+    @Override
+    public void addListener(AsyncListener listener) {
+        listeners.add(listener);
+    }
+
+    @Override
+    public void addListener(AsyncListener listener, ServletRequest servletRequest, ServletResponse servletResponse) {
+        listeners.add(listener);
+    }
+
+    @Override
+    public <T extends AsyncListener> T createListener(Class<T> clazz) {
+        try {
+            return clazz.newInstance();
+        } catch (InstantiationException | IllegalAccessException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Override
+    public void setTimeout(long timeout) {
+        this.timeout = timeout;
+    }
+
+    @Override
+    public long getTimeout() {
+        return timeout;
+    }
+}
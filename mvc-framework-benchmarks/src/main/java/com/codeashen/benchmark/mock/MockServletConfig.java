@@ -0,0 +1,41 @@
+package com.codeashen.benchmark.mock;
+
+import javax.servlet.ServletConfig;
+import javax.servlet.ServletContext;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 只提供 init-param 的 ServletConfig
+ */
+public class MockServletConfig implements ServletConfig {
+
+    private final Map<String, String> initParameters = new HashMap<>();
+
+    public MockServletConfig addInitParameter(String name, String value) {
+        initParameters.put(name, value);
+        return this;
+    }
+
+    @Override
+    public String getServletName() {
+        return "mvc";
+    }
+
+    @Override
+    public ServletContext getServletContext() {
+        return null;
+    }
+
+    @Override
+    public String getInitParameter(String name) {
+        return initParameters.get(name);
+    }
+
+    @Override
+    public Enumeration<String> getInitParameterNames() {
+        return Collections.enumeration(initParameters.keySet());
+    }
+}
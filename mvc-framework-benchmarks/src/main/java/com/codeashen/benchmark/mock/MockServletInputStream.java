@@ -0,0 +1,48 @@
+package com.codeashen.benchmark.mock;
+
+import javax.servlet.ReadListener;
+import javax.servlet.ServletInputStream;
+
+/**
+ * 基于字节数组的 ServletInputStream
+ */
+public class MockServletInputStream extends ServletInputStream {
+
+    private final byte[] bytes;
+    private int position;
+
+    public MockServletInputStream(byte[] bytes) {
+        this.bytes = bytes;
+    }
+
+    @Override
+    public int read() {
+        return position < bytes.length ? bytes[position++] & 0xff : -1;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) {
+        if (position >= bytes.length) {
+            return -1;
+        }
+        int n = Math.min(len, bytes.length - position);
+        System.arraycopy(bytes, position, b, off, n);
+        position += n;
+        return n;
+    }
+
+    @Override
+    public boolean isFinished() {
+        return position >= bytes.length;
+    }
+
+    @Override
+    public boolean isReady() {
+        return true;
+    }
+
+    @Override
+    public void setReadListener(ReadListener readListener) {
+        throw new UnsupportedOperationException();
+    }
+}
@@ -0,0 +1,49 @@
+package com.codeashen.benchmark.support;
+
+import java.net.URL;
+import java.net.URLClassLoader;
+
+/**
+ * 对指定包优先由自身加载的类加载器。
+ * DispatcherServlet 通过自身的类加载器扫描包、加载 Controller，
+ * 因此框架类和运行时生成的 Controller 必须由同一个加载器加载，servlet api 等其他类仍然委托给父加载器。
+ */
+public class ChildFirstClassLoader extends URLClassLoader {
+
+    private final String[] childFirstPrefixes;
+
+    public ChildFirstClassLoader(URL[] urls, ClassLoader parent, String... childFirstPrefixes) {
+        super(urls, parent);
+        this.childFirstPrefixes = childFirstPrefixes;
+    }
+
+    @Override
+    protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+        if (!isChildFirst(name)) {
+            return super.loadClass(name, resolve);
+        }
+        synchronized (getClassLoadingLock(name)) {
+            Class<?> clazz = findLoadedClass(name);
+            if (clazz == null) {
+                try {
+                    clazz = findClass(name);
+                } catch (ClassNotFoundException e) {
+                    clazz = super.loadClass(name, false);
+                }
+            }
+            if (resolve) {
+                resolveClass(clazz);
+            }
+            return clazz;
+        }
+    }
+
+    private boolean isChildFirst(String name) {
+        for (String prefix : childFirstPrefixes) {
+            if (name.startsWith(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,212 @@
+package com.codeashen.benchmark.support;
+
+import com.codeashen.benchmark.mock.MockHttpServletRequest;
+import com.codeashen.benchmark.mock.MockServletConfig;
+import com.codeashen.mvcframework.annotation.ASController;
+
+import javax.servlet.http.HttpServlet;
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.Stream;
+
+/**
+ * 基准测试夹具：按路由数量生成 Controller 源码并在运行时编译，再用独立的类加载器初始化指定版本的 DispatcherServlet。
+ * <p>
+ * 每个 Controller 最多包含 100 个处理器方法，第 k 个路由的 url 为 /c{k/100}/m{k%100}。
+ * 三个版本拼接 url 的方式不同，这里统一不在类上声明 @ASRequestMapping，方法上使用不带前导 / 的 "c0/m0"，
+ * 三个版本得到的都是 /c0/m0。
+ * <ul>
+ *     <li>v1 只能调用 (req, resp, name) 形式的方法，因此 v1 的处理器固定绑定一个 name 参数；</li>
+ *     <li>v2、v3 的处理器除 req、resp 外绑定 params 个 String 参数 p0..p{n-1}。</li>
+ * </ul>
+ */
+public class DispatchFixture implements AutoCloseable {
+
+    public static final String SCAN_PACKAGE = "bench.routes";
+    private static final int METHODS_PER_CONTROLLER = 100;
+
+    private final String version;
+    private final int routes;
+    private final int params;
+    private final String handlerBody;
+    private final Path workDir;
+    private final ChildFirstClassLoader classLoader;
+    private final HttpServlet servlet;
+
+    private DispatchFixture(String version, int routes, int params, Map<String, String> config,
+                            String handlerBody) throws Exception {
+        this.version = version;
+        this.routes = routes;
+        this.params = params;
+        this.handlerBody = handlerBody;
+        this.workDir = Files.createTempDirectory("mvc-bench-");
+        Path sourceDir = Files.createDirectories(workDir.resolve("src"));
+        Path classDir = Files.createDirectories(workDir.resolve("classes"));
+
+        List<File> sources = generateControllers(sourceDir);
+        compile(sources, classDir);
+        writeConfig(classDir, config);
+
+        URL frameworkLocation = ASController.class.getProtectionDomain().getCodeSource().getLocation();
+        this.classLoader = new ChildFirstClassLoader(
+                new URL[]{classDir.toUri().toURL(), frameworkLocation},
+                DispatchFixture.class.getClassLoader(),
+                "com.codeashen.mvcframework.", SCAN_PACKAGE + ".");
+
+        String servletClass = "com.codeashen.mvcframework." + version + ".servlet.DispatcherServlet";
+        this.servlet = (HttpServlet) classLoader.loadClass(servletClass).newInstance();
+        ClassLoader previous = Thread.currentThread().getContextClassLoader();
+        Thread.currentThread().setContextClassLoader(classLoader);
+        try {
+            servlet.init(new MockServletConfig().addInitParameter("contextConfigLocation", "bench-application.properties"));
+        } finally {
+            Thread.currentThread().setContextClassLoader(previous);
+        }
+    }
+
+    /**
+     * 创建夹具
+     *
+     * @param version servlet 版本，v1、v2 或 v3
+     * @param routes  路由数量
+     * @param params  每个处理器绑定的请求参数个数，v1 忽略该值
+     * @param config  追加到 application.properties 中的配置
+     */
+    public static DispatchFixture create(String version, int routes, int params, Map<String, String> config) throws Exception {
+        return new DispatchFixture(version, routes, params, config, "");
+    }
+
+    /**
+     * 创建夹具，处理器方法体使用指定的代码，例如模拟阻塞调用
+     *
+     * @param handlerBody 每个处理器方法的方法体
+     */
+    public static DispatchFixture create(String version, int routes, int params, Map<String, String> config,
+                                         String handlerBody) throws Exception {
+        return new DispatchFixture(version, routes, params, config, handlerBody);
+    }
+
+    public HttpServlet getServlet() {
+        return servlet;
+    }
+
+    /**
+     * 构造一组请求，命中时随机选取已映射的路由，未命中时构造同样形状但不存在的 url
+     *
+     * @param count 请求个数
+     * @param hit   是否命中路由
+     */
+    public MockHttpServletRequest[] requests(int count, boolean hit) {
+        Random random = new Random(42);
+        MockHttpServletRequest[] requests = new MockHttpServletRequest[count];
+        for (int i = 0; i < count; i++) {
+            int route = random.nextInt(routes);
+            String url = hit
+                    ? "/c" + (route / METHODS_PER_CONTROLLER) + "/m" + (route % METHODS_PER_CONTROLLER)
+                    : "/c" + (route / METHODS_PER_CONTROLLER) + "/x" + (route % METHODS_PER_CONTROLLER);
+            MockHttpServletRequest request = new MockHttpServletRequest("GET", url);
+            if ("v1".equals(version)) {
+                request.addParameter("name", "value");
+            } else {
+                for (int p = 0; p < params; p++) {
+                    request.addParameter("p" + p, "value" + p);
+                }
+            }
+            requests[i] = request;
+        }
+        return requests;
+    }
+
+    private List<File> generateControllers(Path sourceDir) throws IOException {
+        Path packageDir = Files.createDirectories(sourceDir.resolve(SCAN_PACKAGE.replace('.', '/')));
+        List<File> sources = new ArrayList<>();
+        int controllers = (routes + METHODS_PER_CONTROLLER - 1) / METHODS_PER_CONTROLLER;
+        for (int c = 0; c < controllers; c++) {
+            StringBuilder sb = new StringBuilder();
+            sb.append("package ").append(SCAN_PACKAGE).append(";\n\n")
+                    .append("import com.codeashen.mvcframework.annotation.*;\n")
+                    .append("import javax.servlet.http.HttpServletRequest;\n")
+                    .append("import javax.servlet.http.HttpServletResponse;\n\n")
+                    .append("@ASController\n")
+                    .append("public class Controller").append(c).append(" {\n");
+            int methods = Math.min(METHODS_PER_CONTROLLER, routes - c * METHODS_PER_CONTROLLER);
+            for (int m = 0; m < methods; m++) {
+                sb.append("    @ASRequestMapping(\"c").append(c).append("/m").append(m).append("\")\n")
+                        .append("    public void m").append(m).append("(HttpServletRequest req, HttpServletResponse resp");
+                if ("v1".equals(version)) {
+                    sb.append(", @ASRequestParam(\"name\") String name");
+                } else {
+                    for (int p = 0; p < params; p++) {
+                        sb.append(", @ASRequestParam(\"p").append(p).append("\") String p").append(p);
+                    }
+                }
+                sb.append(") {\n").append(handlerBody).append("\n    }\n\n");
+            }
+            sb.append("}\n");
+            Path file = packageDir.resolve("Controller" + c + ".java");
+            Files.write(file, sb.toString().getBytes(StandardCharsets.UTF_8));
+            sources.add(file.toFile());
+        }
+        return sources;
+    }
+
+    private static void compile(List<File> sources, Path classDir) {
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        if (compiler == null) {
+            throw new IllegalStateException("Benchmarks must run on a JDK, javax.tools.JavaCompiler is not available");
+        }
+        List<String> args = new ArrayList<>();
+        args.add("-classpath");
+        args.add(System.getProperty("java.class.path"));
+        args.add("-d");
+        args.add(classDir.toString());
+        args.add("-proc:none");
+        args.add("-nowarn");
+        args.add("-encoding");
+        args.add("UTF-8");
+        for (File source : sources) {
+            args.add(source.getPath());
+        }
+        ByteArrayOutputStream err = new ByteArrayOutputStream();
+        int code = compiler.run(null, null, err, args.toArray(new String[0]));
+        if (code != 0) {
+            throw new IllegalStateException("Failed to compile generated controllers:\n" + err);
+        }
+    }
+
+    private static void writeConfig(Path classDir, Map<String, String> config) throws IOException {
+        try (OutputStream out = Files.newOutputStream(classDir.resolve("bench-application.properties"));
+             Writer writer = new OutputStreamWriter(out, StandardCharsets.ISO_8859_1)) {
+            writer.write("scanPackage=" + SCAN_PACKAGE + "\n");
+            if (config != null) {
+                for (Map.Entry<String, String> entry : config.entrySet()) {
+                    writer.write(entry.getKey() + "=" + entry.getValue() + "\n");
+                }
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        servlet.destroy();
+        classLoader.close();
+        try (Stream<Path> paths = Files.walk(workDir)) {
+            paths.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+        }
+    }
+}
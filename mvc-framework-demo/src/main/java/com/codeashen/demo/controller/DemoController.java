@@ -3,12 +3,19 @@ package com.codeashen.demo.controller;
 import com.codeashen.demo.service.IDemoService;
 import com.codeashen.mvcframework.annotation.ASAutowired;
 import com.codeashen.mvcframework.annotation.ASController;
+import com.codeashen.mvcframework.annotation.ASPathVariable;
+import com.codeashen.mvcframework.annotation.ASRequestBody;
 import com.codeashen.mvcframework.annotation.ASRequestMapping;
 import com.codeashen.mvcframework.annotation.ASRequestParam;
+import com.codeashen.mvcframework.annotation.ASResponseBody;
+import com.codeashen.mvcframework.annotation.RequestMethod;
 
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 @ASController
 @ASRequestMapping("/demo")
@@ -28,6 +35,12 @@ public class DemoController {
         }
     }
 
+    @ASRequestMapping("/queryAsync")
+    public CompletableFuture<String> queryAsync(@ASRequestParam("name") String name) {
+        // 耗时的服务调用在其他线程执行，容器线程立即释放
+        return CompletableFuture.supplyAsync(() -> demoService.get(name));
+    }
+
     @ASRequestMapping("/add")
     public void add(HttpServletRequest req, HttpServletResponse resp,
                     @ASRequestParam("a") Integer a, @ASRequestParam("b") Integer b) {
@@ -38,6 +51,29 @@ public class DemoController {
         }
     }
 
+    @ASResponseBody
+    @ASRequestMapping("/addJson")
+    public Map<String, Integer> addJson(@ASRequestParam("a") Integer a, @ASRequestParam("b") Integer b) {
+        // 返回值由框架序列化为 {"a":1,"b":2,"sum":3}
+        Map<String, Integer> result = new LinkedHashMap<>();
+        result.put("a", a);
+        result.put("b", b);
+        result.put("sum", a + b);
+        return result;
+    }
+
+    @ASResponseBody
+    @ASRequestMapping(value = "/echo", method = RequestMethod.POST)
+    public Map<String, Object> echo(@ASRequestBody Map<String, Object> body) {
+        // 请求体 JSON 由框架解析后传入
+        return body;
+    }
+
+    @ASRequestMapping(value = "/users/{id}/orders/{orderId}", method = RequestMethod.GET)
+    public String order(@ASPathVariable("id") long id, @ASPathVariable("orderId") Integer orderId) {
+        return "user " + id + ", order " + orderId;
+    }
+
     @ASRequestMapping("/remove")
     public void remove(HttpServletRequest req, HttpServletResponse resp,
                        @ASRequestParam("id") Integer id) {
@@ -1,10 +1,12 @@
 package com.codeashen.demo.service.impl;
 
 import com.codeashen.demo.service.IDemoService;
+import com.codeashen.mvcframework.annotation.ASCacheable;
 import com.codeashen.mvcframework.annotation.ASService;
 
 @ASService
 public class DemoService implements IDemoService {
+    @ASCacheable(ttl = 60000, maxSize = 256)
     public String get(String name) {
         return "My name is " + name;
     }
@@ -0,0 +1,31 @@
+package com.codeashen.mvcframework.annotation;
+
+import java.lang.annotation.*;
+
+/**
+ * 缓存 @ASService 方法的返回值，相同参数的调用直接返回缓存的结果。
+ * 通过 JDK 动态代理实现，只有经接口调用的方法才会被缓存，bean 需要按接口注入；
+ * 参数按 equals/hashCode 比较，数组参数按内容比较。返回 null 也会被缓存。
+ * 除数组以外的参数直接作为缓存的 key，不会复制，调用之后不能再修改，否则缓存中的条目无法命中也无法正确淘汰；
+ * 可变对象请先转换为不可变的值再作为参数。
+ */
+@Target({ElementType.METHOD})
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface ASCacheable {
+    /**
+     * 缓存名称，名称相同的方法共用一个缓存（容量和统计），key 中包含方法本身，不同方法的结果不会混淆；
+     * 默认为 beanName.方法名
+     */
+    String value() default "";
+
+    /**
+     * 写入后的存活时间，单位毫秒，默认 0 不过期
+     */
+    long ttl() default 0;
+
+    /**
+     * 最多缓存的条目数，超过时按分段 LRU 淘汰
+     */
+    int maxSize() default 1024;
+}
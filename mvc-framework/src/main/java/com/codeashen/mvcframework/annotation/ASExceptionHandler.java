@@ -0,0 +1,25 @@
+package com.codeashen.mvcframework.annotation;
+
+import java.lang.annotation.*;
+
+/**
+ * 异常处理方法。
+ * 声明在 @ASController 中时只处理该控制器的处理器方法抛出的异常，声明在 @ASService 中时处理所有处理器方法的异常，
+ * 控制器自己的异常处理方法优先。
+ * <p>
+ * 形参可以是异常、HttpServletRequest、HttpServletResponse，返回值与处理器方法一样写出。
+ */
+@Target({ElementType.METHOD})
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface ASExceptionHandler {
+    /**
+     * 处理的异常类型，为空时使用形参中的异常类型
+     */
+    Class<? extends Throwable>[] value() default {};
+
+    /**
+     * 响应状态码
+     */
+    int status() default 500;
+}
@@ -0,0 +1,12 @@
+package com.codeashen.mvcframework.annotation;
+
+import java.lang.annotation.*;
+
+/**
+ * 标记 bean 延迟创建，启动时不实例化，第一次获取时才创建
+ */
+@Target({ElementType.TYPE})
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface ASLazy {
+}
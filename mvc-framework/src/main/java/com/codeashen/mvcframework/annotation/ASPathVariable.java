@@ -0,0 +1,16 @@
+package com.codeashen.mvcframework.annotation;
+
+import java.lang.annotation.*;
+
+/**
+ * 绑定路径模板中的变量，例如 @ASRequestMapping("/users/{id}") 中的 id
+ */
+@Target({ElementType.PARAMETER})
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface ASPathVariable {
+    /**
+     * 变量名，为空时使用形参名
+     */
+    String value() default "";
+}
@@ -0,0 +1,12 @@
+package com.codeashen.mvcframework.annotation;
+
+import java.lang.annotation.*;
+
+/**
+ * 按类型注入时存在多个候选 bean，优先注入带有该注解的 bean
+ */
+@Target({ElementType.TYPE})
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface ASPrimary {
+}
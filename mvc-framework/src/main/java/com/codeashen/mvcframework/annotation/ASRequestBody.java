@@ -0,0 +1,16 @@
+package com.codeashen.mvcframework.annotation;
+
+import java.lang.annotation.*;
+
+/**
+ * 请求体按 JSON 解析后绑定到形参
+ */
+@Target({ElementType.PARAMETER})
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface ASRequestBody {
+    /**
+     * 请求体是否必须存在，为 true 时请求体为空会报错
+     */
+    boolean required() default true;
+}
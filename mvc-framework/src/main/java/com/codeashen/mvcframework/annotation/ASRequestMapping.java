@@ -7,4 +7,10 @@ import java.lang.annotation.*;
 @Documented
 public @interface ASRequestMapping {
     String value() default "";
+
+    /**
+     * 处理的请求方法，为空时处理所有方法。
+     * 方法上未声明时使用类上声明的值；映射了 GET 的 url 自动处理 HEAD，OPTIONS 由框架直接应答。
+     */
+    RequestMethod[] method() default {};
 }
@@ -0,0 +1,12 @@
+package com.codeashen.mvcframework.annotation;
+
+import java.lang.annotation.*;
+
+/**
+ * 返回值序列化为 JSON 写入响应体，标注在 Controller 上时对所有处理器方法生效
+ */
+@Target({ElementType.TYPE, ElementType.METHOD})
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface ASResponseBody {
+}
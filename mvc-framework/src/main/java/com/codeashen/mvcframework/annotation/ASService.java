@@ -7,4 +7,15 @@ import java.lang.annotation.*;
 @Documented
 public @interface ASService {
     String value() default "";
+
+    /**
+     * 作用域，默认单例
+     */
+    BeanScope scope() default BeanScope.SINGLETON;
+
+    /**
+     * prototype 和 request 作用域的对象池大小，默认 0 不复用实例。
+     * 实现了 PoolableBean 的实例在归还对象池前调用 reset()
+     */
+    int poolSize() default 0;
 }
@@ -0,0 +1,19 @@
+package com.codeashen.mvcframework.annotation;
+
+/**
+ * bean 的作用域，用于 @ASService 的 scope 属性
+ */
+public enum BeanScope {
+    /**
+     * 容器中只有一个实例，默认值
+     */
+    SINGLETON,
+    /**
+     * 每次获取都返回一个实例，配置了 poolSize 时从对象池中取出
+     */
+    PROTOTYPE,
+    /**
+     * 同一次请求分发中获取到同一个实例，请求结束后丢弃，配置了 poolSize 时归还对象池
+     */
+    REQUEST
+}
@@ -0,0 +1,40 @@
+package com.codeashen.mvcframework.annotation;
+
+/**
+ * HTTP 请求方法，用于 @ASRequestMapping 的 method 属性
+ */
+public enum RequestMethod {
+    GET, HEAD, POST, PUT, PATCH, DELETE, OPTIONS, TRACE;
+
+    /**
+     * 按请求行中的方法名查找，区分大小写
+     *
+     * @param method 方法名，例如 HttpServletRequest.getMethod() 的返回值
+     * @return 对应的枚举值，不是标准方法时返回 null
+     */
+    public static RequestMethod resolve(String method) {
+        if (method == null) {
+            return null;
+        }
+        switch (method) {
+            case "GET":
+                return GET;
+            case "HEAD":
+                return HEAD;
+            case "POST":
+                return POST;
+            case "PUT":
+                return PUT;
+            case "PATCH":
+                return PATCH;
+            case "DELETE":
+                return DELETE;
+            case "OPTIONS":
+                return OPTIONS;
+            case "TRACE":
+                return TRACE;
+            default:
+                return null;
+        }
+    }
+}
@@ -16,6 +16,7 @@ import java.io.InputStream;
 import java.lang.reflect.Field;
 import java.lang.reflect.Method;
 import java.net.URL;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
@@ -69,7 +70,8 @@ public class DispatcherServlet extends HttpServlet {
             String scanPackage = configContext.getProperty("scanPackage");
             doScanner(scanPackage);
 
-            for (String clazzName : mapping.keySet()) {
+            // 遍历过程中会向 mapping 中添加 url 和 beanName，需要遍历副本
+            for (String clazzName : new ArrayList<>(mapping.keySet())) {
                 if (!clazzName.contains(".")) {
                     continue;
                 }
@@ -149,7 +151,7 @@ public class DispatcherServlet extends HttpServlet {
     }
 
     private void doScanner(String scanPackage) {
-        URL url = this.getClass().getClassLoader().getResource("/" + scanPackage.replaceAll("\\.", "/"));
+        URL url = this.getClass().getClassLoader().getResource(scanPackage.replaceAll("\\.", "/"));
         File classDir = new File(url.getFile());
 
         for (File file : classDir.listFiles()) {
@@ -143,7 +143,7 @@ public class DispatcherServlet extends HttpServlet {
      */
     private void doScanner(String scanPackage) {
         // 包路径转为文件路径
-        URL url = this.getClass().getClassLoader().getResource("/" + scanPackage.replaceAll("\\.", "/"));
+        URL url = this.getClass().getClassLoader().getResource(scanPackage.replaceAll("\\.", "/"));
         File classPath = new File(url.getFile());
         for (File file : classPath.listFiles()) {
             if (file.isDirectory()) {
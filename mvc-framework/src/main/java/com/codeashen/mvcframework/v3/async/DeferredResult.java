@@ -0,0 +1,90 @@
+package com.codeashen.mvcframework.v3.async;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+
+/**
+ * 延迟结果，处理器方法返回后由其他线程（例如消息回调、定时任务）设置结果，再由 DispatcherServlet 写出响应。
+ * 与返回 CompletableFuture 的区别是可以为单个请求指定超时时间和超时后的默认结果。
+ *
+ * @param <T> 结果类型
+ */
+public class DeferredResult<T> {
+
+    private static final Object NO_TIMEOUT_RESULT = new Object();
+
+    private final CompletableFuture<T> future = new CompletableFuture<>();
+    private final Long timeout;
+    private final Object timeoutResult;
+
+    /**
+     * 使用 DispatcherServlet 配置的超时时间
+     */
+    public DeferredResult() {
+        this(null, NO_TIMEOUT_RESULT);
+    }
+
+    /**
+     * @param timeout 超时时间，单位毫秒，0 表示不超时
+     */
+    public DeferredResult(Long timeout) {
+        this(timeout, NO_TIMEOUT_RESULT);
+    }
+
+    /**
+     * @param timeout       超时时间，单位毫秒，0 表示不超时，null 表示使用 DispatcherServlet 配置的超时时间
+     * @param timeoutResult 超时后写出的结果
+     */
+    public DeferredResult(Long timeout, Object timeoutResult) {
+        this.timeout = timeout;
+        this.timeoutResult = timeoutResult;
+    }
+
+    /**
+     * 设置结果
+     *
+     * @return 是否设置成功，已经设置过结果或已经超时时返回 false
+     */
+    public boolean setResult(T result) {
+        return future.complete(result);
+    }
+
+    /**
+     * 设置异常结果，按处理器方法抛出异常处理
+     *
+     * @return 是否设置成功，已经设置过结果或已经超时时返回 false
+     */
+    public boolean setErrorResult(Throwable error) {
+        return future.completeExceptionally(error);
+    }
+
+    public boolean isSetOrExpired() {
+        return future.isDone();
+    }
+
+    public Long getTimeout() {
+        return timeout;
+    }
+
+    public boolean hasTimeoutResult() {
+        return timeoutResult != NO_TIMEOUT_RESULT;
+    }
+
+    public Object getTimeoutResult() {
+        return hasTimeoutResult() ? timeoutResult : null;
+    }
+
+    /**
+     * 结果对应的 CompletionStage，设置结果后完成
+     */
+    public CompletionStage<T> toCompletionStage() {
+        return future;
+    }
+
+    /**
+     * 超时后调用，之后再设置结果将返回 false
+     */
+    public void expire() {
+        future.cancel(false);
+    }
+}
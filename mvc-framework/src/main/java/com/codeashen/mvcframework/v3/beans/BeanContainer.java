@@ -0,0 +1,834 @@
+package com.codeashen.mvcframework.v3.beans;
+
+import com.codeashen.mvcframework.annotation.BeanScope;
+
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * IoC 容器，从 DispatcherServlet 中独立出来，注册表都是并发安全的，请求线程可以直接读取。
+ * <ul>
+ *     <li>非延迟的 bean 在启动时并行创建：先并行实例化全部 bean，再并行完成依赖注入，最后统一发布；</li>
+ *     <li>延迟的 bean 在第一次获取时创建，与 LazySingleton 一样使用双重检查，但只在实例化时锁定当前 bean，
+ *     依赖注入在锁外进行，不同 bean 的创建互不阻塞；</li>
+ *     <li>正在创建的 bean 先放入所属 SingletonCreation 的 earlySingletonObjects，参与同一次创建的线程遇到循环依赖时
+ *     可以拿到提前暴露的实例。</li>
+ * </ul>
+ * 一次创建中的 bean 在这次创建全部完成依赖注入后才一起放入 singletonObjects，包括注入时按需创建的延迟 bean；
+ * 其他线程获取正在创建的 bean 时在锁外等待这次创建结束，不会拿到未注入完成的 bean，也不会拿到引用了未注入完成的 bean 的 bean。
+ * <p>
+ * 注册 bean 时按 Class 建立类型索引，覆盖所有父类和接口，按类型查找不需要拼接类名或遍历容器。
+ * 每个注入点只解析一次并缓存解析结果，支持按名称限定、@ASPrimary 优先、注入 List&lt;T&gt;、Map&lt;String, T&gt; 和数组。
+ * 每个类的注入点缓存在 {@link InjectionMetadata} 中，支持构造器、字段和方法注入，包括父类中声明的注入点。
+ * <p>
+ * prototype 作用域的 bean 每次获取都是一个实例，request 作用域的 bean 绑定到 {@link #beginRequest()} 开启的请求作用域；
+ * 两者配置了 poolSize 时从 {@link BeanPool} 中复用实例。单例中通过 {@link BeanProvider} 按需获取它们。
+ * <p>
+ * {@link BeanPostProcessor} 可以把 bean 替换为包装后的对象，容器对原始对象完成依赖注入，对外只暴露包装后的对象。
+ */
+public class BeanContainer {
+
+    // beanName -> bean 定义
+    private final Map<String, BeanDefinition> beanDefinitions = new ConcurrentHashMap<>();
+    // bean 的注册顺序
+    private final List<String> beanDefinitionNames = new CopyOnWriteArrayList<>();
+    // 别名 -> beanName，例如以接口名作为别名
+    private final Map<String, String> aliases = new ConcurrentHashMap<>();
+    // 完成创建的单例 bean
+    private final Map<String, Object> singletonObjects = new ConcurrentHashMap<>();
+    // 正在创建的单例 -> 所属的一次创建，不参与这次创建的线程等待它结束
+    private final Map<String, SingletonCreation> singletonsInCreation = new ConcurrentHashMap<>();
+    // 当前线程参与的一次创建：getBean 创建延迟的单例，或 preInstantiateSingletons 并行创建的一批单例
+    private final ThreadLocal<SingletonCreation> currentCreation = new ThreadLocal<>();
+    // 提前暴露的单例经 BeanPostProcessor 包装后的对象，保证创建期间的引用与最终发布的是同一个对象
+    private final Map<String, Object> earlyExposedObjects = new ConcurrentHashMap<>();
+    // bean 创建后的扩展点，例如 @ASCacheable 的代理
+    private final List<BeanPostProcessor> beanPostProcessors = new CopyOnWriteArrayList<>();
+    // 类型索引：父类、接口 -> 按注册顺序排列的 beanName
+    private final Map<Class<?>, List<String>> typeIndex = new ConcurrentHashMap<>();
+    // 每个类的注入元数据，包含已解析的注入点
+    private final Map<Class<?>, InjectionMetadata> injectionMetadataCache = new ConcurrentHashMap<>();
+    // 当前线程正在通过构造器创建的 bean，用于发现无法解决的构造器循环依赖
+    private final ThreadLocal<Set<String>> currentlyInstantiating = ThreadLocal.withInitial(HashSet::new);
+    // beanName -> 对象池，只有配置了 poolSize 的 prototype 和 request 作用域 bean
+    private final Map<String, BeanPool> beanPools = new ConcurrentHashMap<>();
+    // 当前线程正在分发的请求的作用域
+    private final ThreadLocal<RequestScope> currentRequest = new ThreadLocal<>();
+    // 存在 request 作用域或池化的 prototype bean 时，请求分发才需要开启请求作用域
+    private volatile boolean requestScopeRequired;
+    // 注入的 BeanProvider 绑定的容器：热加载的暂存容器中为原容器，提交后 BeanProvider 仍然有效
+    private final BeanContainer owner;
+
+    public BeanContainer() {
+        this.owner = this;
+    }
+
+    /**
+     * 热加载的暂存容器，复制原容器的定义、类型索引和已创建的单例，之后的修改不影响原容器
+     */
+    private BeanContainer(BeanContainer source) {
+        this.owner = source;
+        beanDefinitions.putAll(source.beanDefinitions);
+        beanDefinitionNames.addAll(source.beanDefinitionNames);
+        aliases.putAll(source.aliases);
+        singletonObjects.putAll(source.singletonObjects);
+        beanPostProcessors.addAll(source.beanPostProcessors);
+        for (Map.Entry<Class<?>, List<String>> entry : source.typeIndex.entrySet()) {
+            typeIndex.put(entry.getKey(), new CopyOnWriteArrayList<>(entry.getValue()));
+        }
+        beanPools.putAll(source.beanPools);
+        requestScopeRequired = source.requestScopeRequired;
+    }
+
+    /**
+     * 注册 bean 定义
+     *
+     * @throws BeanCreationException beanName 已经存在
+     */
+    public void registerBeanDefinition(BeanDefinition definition) {
+        String beanName = definition.getBeanName();
+        if (beanDefinitions.putIfAbsent(beanName, definition) != null || aliases.containsKey(beanName)) {
+            throw new BeanCreationException("The \"" + beanName + "\" is exists!");
+        }
+        beanDefinitionNames.add(beanName);
+        for (Class<?> type : typesOf(definition.getBeanClass())) {
+            typeIndex.computeIfAbsent(type, k -> new CopyOnWriteArrayList<>()).add(beanName);
+        }
+        registerScope(definition);
+        // 新的 bean 可能改变已解析注入点的候选
+        injectionMetadataCache.clear();
+    }
+
+    /**
+     * 热加载时替换 bean 的实现类，beanName 不存在时直接注册。
+     * 被替换的 bean 以及直接或间接依赖它们的单例在暂存容器中按新的类创建，创建期间容器对外不变，请求继续使用旧的 bean；
+     * 调用 {@link BeanRefresh#commit()} 后一起替换。创建失败时抛出异常，容器同样不受影响。
+     *
+     * @param definitions 新的 bean 定义
+     * @return 已创建好新单例的热加载，需要提交后才生效
+     * @throws BeanCreationException 按新的定义创建 bean 失败
+     */
+    public BeanRefresh refreshBeanDefinitions(Collection<BeanDefinition> definitions) {
+        BeanContainer staging = new BeanContainer(this);
+        Set<String> refreshed = staging.applyDefinitions(definitions);
+        staging.preInstantiateSingletons();
+        return new BeanRefresh(this, staging, refreshed);
+    }
+
+    /**
+     * 在暂存容器中替换 bean 定义，并移除需要重新创建的单例
+     *
+     * @return 需要重新创建的 beanName，按注册顺序排列
+     */
+    private Set<String> applyDefinitions(Collection<BeanDefinition> definitions) {
+        Set<String> refreshed = new HashSet<>();
+        for (BeanDefinition definition : definitions) {
+            String beanName = definition.getBeanName();
+            BeanDefinition previous = beanDefinitions.get(beanName);
+            if (previous == null) {
+                registerBeanDefinition(definition);
+            } else {
+                replaceBeanDefinition(previous, definition);
+            }
+            refreshed.add(beanName);
+        }
+        injectionMetadataCache.clear();
+
+        // 找出依赖被替换的 bean 的单例，直到不再有新的 bean 加入
+        boolean changed = !refreshed.isEmpty();
+        while (changed) {
+            changed = false;
+            for (String beanName : singletonObjects.keySet()) {
+                if (refreshed.contains(beanName)) {
+                    continue;
+                }
+                Set<String> dependencies = getInjectionMetadata(beanDefinitions.get(beanName).getBeanClass()).getDependencyNames();
+                for (String dependency : dependencies) {
+                    if (refreshed.contains(dependency)) {
+                        refreshed.add(beanName);
+                        changed = true;
+                        break;
+                    }
+                }
+            }
+        }
+
+        Set<String> ordered = new LinkedHashSet<>();
+        for (String beanName : beanDefinitionNames) {
+            if (refreshed.contains(beanName)) {
+                singletonObjects.remove(beanName);
+                ordered.add(beanName);
+            }
+        }
+        return ordered;
+    }
+
+    /**
+     * 替换已注册的 bean 定义，重建它的类型索引；池中的旧实例不再复用
+     */
+    private void replaceBeanDefinition(BeanDefinition previous, BeanDefinition definition) {
+        String beanName = definition.getBeanName();
+        for (Class<?> type : typesOf(previous.getBeanClass())) {
+            List<String> beanNames = typeIndex.get(type);
+            if (beanNames != null) {
+                beanNames.remove(beanName);
+            }
+        }
+        beanDefinitions.put(beanName, definition);
+        for (Class<?> type : typesOf(definition.getBeanClass())) {
+            typeIndex.computeIfAbsent(type, k -> new CopyOnWriteArrayList<>()).add(beanName);
+        }
+        beanPools.remove(beanName);
+        registerScope(definition);
+    }
+
+    /**
+     * 提交热加载：先替换定义，再替换单例。暂存容器中按需创建的其他延迟单例一并放入，避免提交后重复创建
+     *
+     * @param beanNames 需要重新创建的 beanName，按注册顺序排列
+     */
+    void commitRefresh(BeanContainer staging, Set<String> beanNames) {
+        for (String beanName : beanNames) {
+            BeanDefinition definition = staging.beanDefinitions.get(beanName);
+            BeanDefinition previous = beanDefinitions.get(beanName);
+            if (previous == null) {
+                registerBeanDefinition(definition);
+            } else if (previous != definition) {
+                replaceBeanDefinition(previous, definition);
+            }
+        }
+        injectionMetadataCache.clear();
+        for (String beanName : beanNames) {
+            Object bean = staging.singletonObjects.get(beanName);
+            if (bean != null) {
+                singletonObjects.put(beanName, bean);
+            } else {
+                // 延迟的 bean 还没有创建，之后按新的定义创建
+                singletonObjects.remove(beanName);
+            }
+        }
+        for (Map.Entry<String, Object> entry : staging.singletonObjects.entrySet()) {
+            singletonObjects.putIfAbsent(entry.getKey(), entry.getValue());
+        }
+    }
+
+    /**
+     * 注册 bean 创建后的扩展点，只对之后创建的 bean 生效
+     */
+    public void addBeanPostProcessor(BeanPostProcessor processor) {
+        beanPostProcessors.add(processor);
+    }
+
+    private void registerScope(BeanDefinition definition) {
+        if (definition.getPoolSize() > 0) {
+            beanPools.put(definition.getBeanName(), new BeanPool(definition.getPoolSize()));
+        }
+        if (definition.getScope() == BeanScope.REQUEST || definition.getPoolSize() > 0) {
+            requestScopeRequired = true;
+        }
+    }
+
+    /**
+     * 注册别名，通过别名也可以获取到 bean
+     *
+     * @throws BeanCreationException 别名已经存在
+     */
+    public void registerAlias(String alias, String beanName) {
+        if (beanDefinitions.containsKey(alias) || aliases.putIfAbsent(alias, beanName) != null) {
+            throw new BeanCreationException("The \"" + alias + "\" is exists!");
+        }
+    }
+
+    public boolean containsBean(String name) {
+        return beanDefinitions.containsKey(canonicalName(name));
+    }
+
+    public BeanDefinition getBeanDefinition(String name) {
+        return beanDefinitions.get(canonicalName(name));
+    }
+
+    /**
+     * 按注册顺序返回所有 beanName
+     */
+    public List<String> getBeanDefinitionNames() {
+        return Collections.unmodifiableList(beanDefinitionNames);
+    }
+
+    public boolean isEmpty() {
+        return beanDefinitionNames.isEmpty();
+    }
+
+    /**
+     * 获取指定类型的所有 beanName，包括子类和实现类
+     *
+     * @param type 类型
+     * @return 按注册顺序排列的 beanName，没有时返回空数组
+     */
+    public String[] getBeanNamesForType(Class<?> type) {
+        if (type == Object.class) {
+            return beanDefinitionNames.toArray(new String[0]);
+        }
+        List<String> beanNames = typeIndex.get(type);
+        return beanNames == null ? new String[0] : beanNames.toArray(new String[0]);
+    }
+
+    /**
+     * 按类型获取唯一的 bean
+     *
+     * @throws BeanCreationException 没有该类型的 bean，或者存在多个候选且无法确定优先的一个
+     */
+    public <T> T getBean(Class<T> type) {
+        String beanName = determineCandidate(type, getBeanNamesForType(type), null, type.getName());
+        return type.cast(getBean(beanName));
+    }
+
+    /**
+     * 获取指定类型的所有 bean
+     *
+     * @return beanName -> bean，按注册顺序排列
+     */
+    public <T> Map<String, T> getBeansOfType(Class<T> type) {
+        Map<String, T> beans = new LinkedHashMap<>();
+        for (String beanName : getBeanNamesForType(type)) {
+            beans.put(beanName, type.cast(getBean(beanName)));
+        }
+        return beans;
+    }
+
+    /**
+     * 获取 bean，延迟的 bean 在这里创建
+     *
+     * @param name beanName 或别名
+     * @return bean 实例，没有定义时返回 null
+     */
+    public Object getBean(String name) {
+        String beanName = canonicalName(name);
+        // 第一次检查，已创建的 bean 直接返回，不需要加锁
+        Object bean = singletonObjects.get(beanName);
+        if (bean != null) {
+            return bean;
+        }
+        BeanDefinition definition = beanDefinitions.get(beanName);
+        if (definition == null) {
+            return null;
+        }
+        if (!definition.isSingleton()) {
+            return getScopedBean(definition);
+        }
+        SingletonCreation creation = currentCreation.get();
+        while (true) {
+            SingletonCreation other = singletonsInCreation.get(beanName);
+            if (other == null) {
+                // 第二次检查，发布时先放入 singletonObjects 再移出 singletonsInCreation
+                bean = singletonObjects.get(beanName);
+                if (bean != null) {
+                    return bean;
+                }
+                if (creation == null) {
+                    bean = createSingleton(definition);
+                    if (bean != null) {
+                        return bean;
+                    }
+                } else if (register(creation, definition)) {
+                    // 加入当前线程参与的创建，在锁外注入，由这次创建统一发布
+                    Object early = creation.earlySingletonObjects.get(beanName);
+                    populate(early);
+                    return getEarlyExposedObject(beanName, early);
+                }
+                // 加锁前已经创建完成，或被其他线程登记为正在创建，重新检查
+                continue;
+            }
+            // 当前线程参与的创建中出现了循环依赖，或者由参与这次创建的其他线程正在注入，返回提前暴露的实例
+            if (other == creation) {
+                return getEarlyExposedObject(beanName, creation.earlySingletonObjects.get(beanName));
+            }
+            // 其他线程正在创建该 bean，在锁外等待它发布，不持有锁等待也就不会与创建线程互相阻塞
+            other.await();
+            bean = singletonObjects.get(beanName);
+            if (bean != null) {
+                return bean;
+            }
+            // 创建失败，重新检查
+        }
+    }
+
+    /**
+     * 开启一次新的创建来创建延迟的单例，注入时按需创建的其他延迟单例加入这次创建，全部注入完成后一起发布
+     *
+     * @return 发布的 bean，加锁前已经创建完成或被其他线程登记为正在创建时返回 null
+     */
+    private Object createSingleton(BeanDefinition definition) {
+        String beanName = definition.getBeanName();
+        SingletonCreation creation = new SingletonCreation();
+        currentCreation.set(creation);
+        try {
+            if (!register(creation, definition)) {
+                return null;
+            }
+            populate(creation.earlySingletonObjects.get(beanName));
+            publish(creation);
+            return singletonObjects.get(beanName);
+        } finally {
+            currentCreation.remove();
+            release(creation);
+        }
+    }
+
+    /**
+     * 把一次创建中完成依赖注入的 bean 放入 singletonObjects，经 BeanPostProcessor 包装的 bean 发布包装后的对象
+     */
+    private void publish(SingletonCreation creation) {
+        for (Map.Entry<String, Object> entry : creation.earlySingletonObjects.entrySet()) {
+            String beanName = entry.getKey();
+            singletonObjects.put(beanName, getEarlyExposedObject(beanName, entry.getValue()));
+        }
+    }
+
+    /**
+     * 结束一次创建，移出登记的 bean 并唤醒等待的线程。包括出错时已登记、还没有发布的 bean
+     */
+    private void release(SingletonCreation creation) {
+        for (String beanName : creation.earlySingletonObjects.keySet()) {
+            singletonsInCreation.remove(beanName, creation);
+            earlyExposedObjects.remove(beanName);
+        }
+        creation.finish();
+    }
+
+    /**
+     * 启动时创建所有非延迟的 bean。
+     * 分为三步：实例化、依赖注入、发布到 singletonObjects。
+     * 无参构造的 bean 相互独立，并行实例化；构造器需要注入的 bean 随后在当前线程依次实例化，依赖的 bean 按需创建。
+     * 字段和方法注入时从这次创建的 earlySingletonObjects 中读取，并行执行，互相依赖的 bean 不会因为加锁顺序而死锁。
+     * 注入时按需创建的延迟 bean 同样只在实例化时加锁，在锁外注入，并在第 3 步与这批 bean 一起发布。
+     * 执行注入的线程都参与这次创建，其他线程获取这批 bean 时等待发布。
+     */
+    public void preInstantiateSingletons() {
+        List<BeanDefinition> independent = new ArrayList<>();
+        List<BeanDefinition> dependent = new ArrayList<>();
+        for (String beanName : beanDefinitionNames) {
+            BeanDefinition definition = beanDefinitions.get(beanName);
+            if (definition.isLazy() || !definition.isSingleton() || singletonObjects.containsKey(beanName)) {
+                continue;
+            }
+            if (getInjectionMetadata(definition.getBeanClass()).hasConstructorArguments()) {
+                dependent.add(definition);
+            } else {
+                independent.add(definition);
+            }
+        }
+        if (independent.isEmpty() && dependent.isEmpty()) {
+            return;
+        }
+
+        SingletonCreation creation = new SingletonCreation();
+        SingletonCreation previous = currentCreation.get();
+        currentCreation.set(creation);
+        List<BeanDefinition> created = new ArrayList<>();
+        try {
+            // 1. 实例化，已被其他线程创建或正在创建的 bean 跳过
+            independent.parallelStream().forEach(definition -> register(creation, definition));
+            for (BeanDefinition definition : independent) {
+                if (creation.earlySingletonObjects.containsKey(definition.getBeanName())) {
+                    created.add(definition);
+                }
+            }
+            for (BeanDefinition definition : dependent) {
+                // 可能已作为其他 bean 的构造器参数创建完成
+                if (register(creation, definition)) {
+                    created.add(definition);
+                }
+            }
+            // 2. 并行依赖注入，依赖的 bean 已全部实例化，延迟的 bean 在这里按需创建
+            created.parallelStream().forEach(definition -> runInCreation(creation,
+                    () -> populate(creation.earlySingletonObjects.get(definition.getBeanName()))));
+            // 3. 发布，包括注入时按需创建的延迟 bean
+            publish(creation);
+        } finally {
+            if (previous == null) {
+                currentCreation.remove();
+            } else {
+                currentCreation.set(previous);
+            }
+            release(creation);
+        }
+    }
+
+    /**
+     * 实例化 bean 并登记到这次创建中，只在实例化和登记时持有 bean 定义的锁
+     *
+     * @return bean 已经创建完成或正在由其他创建处理时返回 false
+     */
+    private boolean register(SingletonCreation creation, BeanDefinition definition) {
+        String beanName = definition.getBeanName();
+        synchronized (definition) {
+            if (singletonObjects.containsKey(beanName) || singletonsInCreation.containsKey(beanName)) {
+                return false;
+            }
+            creation.earlySingletonObjects.put(beanName, instantiate(definition));
+            singletonsInCreation.put(beanName, creation);
+            return true;
+        }
+    }
+
+    /**
+     * 在并行流的工作线程上执行任务时，让该线程也参与这次创建
+     */
+    private void runInCreation(SingletonCreation creation, Runnable task) {
+        SingletonCreation previous = currentCreation.get();
+        currentCreation.set(creation);
+        try {
+            task.run();
+        } finally {
+            if (previous == null) {
+                currentCreation.remove();
+            } else {
+                currentCreation.set(previous);
+            }
+        }
+    }
+
+    /**
+     * 是否存在 request 作用域或池化的 prototype bean，没有时请求分发不需要开启请求作用域
+     */
+    public boolean isRequestScopeRequired() {
+        return requestScopeRequired;
+    }
+
+    /**
+     * 为当前线程开启请求作用域，处理器方法返回后调用 {@link RequestScope#detach()}，请求结束后调用 {@link RequestScope#destroy()}
+     */
+    public RequestScope beginRequest() {
+        RequestScope scope = new RequestScope(this, currentRequest.get());
+        currentRequest.set(scope);
+        return scope;
+    }
+
+    void detachRequest(RequestScope scope) {
+        if (currentRequest.get() != scope) {
+            return;
+        }
+        if (scope.getPrevious() == null) {
+            currentRequest.remove();
+        } else {
+            currentRequest.set(scope.getPrevious());
+        }
+    }
+
+    /**
+     * 归还 prototype 或 request 作用域的实例，实现了 PoolableBean 的实例先调用 reset()。
+     * 没有对象池时什么都不做
+     */
+    public void releaseBean(String beanName, Object bean) {
+        BeanPool pool = beanPools.get(beanName);
+        if (pool == null || bean == null) {
+            return;
+        }
+        if (bean instanceof PoolableBean) {
+            try {
+                ((PoolableBean) bean).reset();
+            } catch (RuntimeException e) {
+                e.printStackTrace();
+                pool.discard();
+                return;
+            }
+        }
+        pool.release(bean);
+    }
+
+    /**
+     * 对象池，beanName -> 对象池，用于输出命中次数等统计
+     */
+    public Map<String, BeanPool> getBeanPools() {
+        return Collections.unmodifiableMap(beanPools);
+    }
+
+    /**
+     * 注入的 BeanProvider 绑定的容器
+     */
+    BeanContainer getOwner() {
+        return owner;
+    }
+
+    /**
+     * BeanProvider 获取 bean，请求中取出的池化 prototype 实例在请求结束时归还
+     */
+    Object provideBean(String beanName) {
+        Object bean = getBean(beanName);
+        BeanDefinition definition = beanDefinitions.get(beanName);
+        if (definition != null && definition.getScope() == BeanScope.PROTOTYPE && definition.getPoolSize() > 0) {
+            RequestScope scope = currentRequest.get();
+            if (scope != null) {
+                scope.addPrototype(beanName, bean);
+            }
+        }
+        return bean;
+    }
+
+    /**
+     * 获取 prototype 或 request 作用域的 bean
+     *
+     * @throws BeanCreationException request 作用域的 bean 在请求之外获取
+     */
+    private Object getScopedBean(BeanDefinition definition) {
+        String beanName = definition.getBeanName();
+        if (definition.getScope() == BeanScope.PROTOTYPE) {
+            return acquire(definition);
+        }
+        RequestScope scope = currentRequest.get();
+        if (scope == null) {
+            throw new BeanCreationException("No request is bound to the current thread for request scoped bean "
+                    + definition + ", inject it through BeanProvider");
+        }
+        Object bean = scope.get(beanName);
+        if (bean == null) {
+            bean = acquire(definition);
+            scope.put(beanName, bean);
+        }
+        return bean;
+    }
+
+    /**
+     * 优先从对象池中取出实例，池空时创建新实例并完成依赖注入
+     */
+    private Object acquire(BeanDefinition definition) {
+        BeanPool pool = beanPools.get(definition.getBeanName());
+        Object bean = pool == null ? null : pool.acquire();
+        if (bean != null) {
+            return bean;
+        }
+        String beanName = definition.getBeanName();
+        Set<String> instantiating = currentlyInstantiating.get();
+        // 非单例不会提前暴露，互相依赖会无限创建下去
+        if (instantiating.contains(beanName)) {
+            throw new BeanCreationException("Circular dependency on " + definition.getScope().name().toLowerCase()
+                    + " bean " + definition);
+        }
+        bean = instantiate(definition);
+        instantiating.add(beanName);
+        try {
+            populate(bean);
+        } finally {
+            instantiating.remove(beanName);
+        }
+        return postProcess(beanName, bean);
+    }
+
+    /**
+     * 单例在创建期间可能被多次引用，只包装一次，之后的引用和最终发布的都是同一个对象
+     */
+    private Object getEarlyExposedObject(String beanName, Object bean) {
+        if (beanPostProcessors.isEmpty()) {
+            return bean;
+        }
+        Object exposed = earlyExposedObjects.get(beanName);
+        if (exposed == null) {
+            exposed = postProcess(beanName, bean);
+            Object previous = earlyExposedObjects.putIfAbsent(beanName, exposed);
+            if (previous != null) {
+                exposed = previous;
+            }
+        }
+        return exposed;
+    }
+
+    private Object postProcess(String beanName, Object bean) {
+        for (BeanPostProcessor processor : beanPostProcessors) {
+            bean = processor.postProcess(beanName, bean);
+        }
+        return bean;
+    }
+
+    private String canonicalName(String name) {
+        String beanName = aliases.get(name);
+        return beanName == null ? name : beanName;
+    }
+
+    /**
+     * 获取类的注入元数据，每个类只构建一次
+     */
+    private InjectionMetadata getInjectionMetadata(Class<?> beanClass) {
+        InjectionMetadata metadata = injectionMetadataCache.get(beanClass);
+        if (metadata == null) {
+            // 构建过程不会访问缓存本身，并发时重复构建的结果相同，保留先放入的即可
+            metadata = InjectionMetadata.build(beanClass, this);
+            InjectionMetadata previous = injectionMetadataCache.putIfAbsent(beanClass, metadata);
+            if (previous != null) {
+                metadata = previous;
+            }
+        }
+        return metadata;
+    }
+
+    private Object instantiate(BeanDefinition definition) {
+        String beanName = definition.getBeanName();
+        Set<String> instantiating = currentlyInstantiating.get();
+        // 构造器参数要求的 bean 无法提前暴露，构造器之间的循环依赖无法解决
+        if (!instantiating.add(beanName)) {
+            throw new BeanCreationException("Circular constructor dependency on bean " + definition
+                    + ", use field or setter injection instead");
+        }
+        try {
+            return getInjectionMetadata(definition.getBeanClass()).instantiate(this);
+        } finally {
+            instantiating.remove(beanName);
+        }
+    }
+
+    /**
+     * 自动进行依赖注入
+     */
+    private void populate(Object bean) {
+        getInjectionMetadata(bean.getClass()).inject(bean, this);
+    }
+
+    /**
+     * 解析一个注入点
+     *
+     * @param type        注入点的类型
+     * @param genericType 注入点的泛型类型，用于确定 List、Map 的元素类型
+     * @param qualifier   限定的 beanName 或别名，为空串时按类型注入
+     * @param name        字段名或参数名，存在多个候选时与 beanName 相同的优先
+     * @param description 注入点描述，用于错误信息
+     * @throws BeanCreationException 找不到 bean，或者存在多个候选且无法确定优先的一个
+     */
+    Dependency resolveDependency(Class<?> type, Type genericType, String qualifier, String name, String description) {
+        // 按需获取 bean，用于注入 prototype 和 request 作用域的 bean
+        if (type == BeanProvider.class) {
+            Class<?> beanType = typeArgument(genericType, 0, description);
+            Dependency target = resolveDependency(beanType, beanType, qualifier, name, description);
+            if (!(target instanceof Dependency.Single)) {
+                throw new BeanCreationException("BeanProvider only supports a single bean for " + description);
+            }
+            return new Dependency.Provider(((Dependency.Single) target).getBeanName(), beanType);
+        }
+        // 指定了 beanName，按名称注入
+        if (!qualifier.isEmpty()) {
+            BeanDefinition definition = getBeanDefinition(qualifier);
+            if (definition == null) {
+                throw new BeanCreationException("No bean named \"" + qualifier + "\" for " + description);
+            }
+            if (!type.isAssignableFrom(definition.getBeanClass())) {
+                throw new BeanCreationException("Bean \"" + qualifier + "\" of type " + definition.getBeanClass().getName()
+                        + " is not assignable to " + description);
+            }
+            return new Dependency.Single(definition.getBeanName());
+        }
+
+        // 注入某个类型的全部 bean
+        if (type.isArray()) {
+            return new Dependency.BeanArray(type.getComponentType(), getBeanNamesForType(type.getComponentType()));
+        }
+        if (type == List.class || type == Collection.class || type == Iterable.class) {
+            return new Dependency.BeanList(getBeanNamesForType(typeArgument(genericType, 0, description)));
+        }
+        if (type == Map.class) {
+            if (typeArgument(genericType, 0, description) != String.class) {
+                throw new BeanCreationException("Map key must be String for " + description);
+            }
+            return new Dependency.BeanMap(getBeanNamesForType(typeArgument(genericType, 1, description)));
+        }
+
+        return new Dependency.Single(determineCandidate(type, getBeanNamesForType(type), name, description));
+    }
+
+    /**
+     * 从多个候选中确定唯一的 bean：只有一个候选时直接使用，否则依次取唯一的 @ASPrimary bean、与注入点同名的 bean
+     */
+    private String determineCandidate(Class<?> type, String[] candidates, String name, String description) {
+        if (candidates.length == 1) {
+            return candidates[0];
+        }
+        if (candidates.length == 0) {
+            throw new BeanCreationException("No bean of type " + type.getName() + " for " + description);
+        }
+        String primary = null;
+        for (String candidate : candidates) {
+            if (beanDefinitions.get(candidate).isPrimary()) {
+                if (primary != null) {
+                    throw new BeanCreationException("More than one primary bean of type " + type.getName()
+                            + " for " + description + ": " + primary + ", " + candidate);
+                }
+                primary = candidate;
+            }
+        }
+        if (primary != null) {
+            return primary;
+        }
+        for (String candidate : candidates) {
+            if (candidate.equals(name)) {
+                return candidate;
+            }
+        }
+        throw new BeanCreationException("Expected a single bean of type " + type.getName() + " for " + description
+                + " but found " + candidates.length + ": " + String.join(", ", candidates)
+                + ", mark one with @ASPrimary or specify the bean name in @ASAutowired");
+    }
+
+    private static Class<?> typeArgument(Type genericType, int index, String description) {
+        if (genericType instanceof ParameterizedType) {
+            Type argument = ((ParameterizedType) genericType).getActualTypeArguments()[index];
+            if (argument instanceof Class) {
+                return (Class<?>) argument;
+            }
+            if (argument instanceof ParameterizedType) {
+                return (Class<?>) ((ParameterizedType) argument).getRawType();
+            }
+        }
+        throw new BeanCreationException("Cannot determine the bean type to inject for " + description);
+    }
+
+    /**
+     * 类本身、所有父类（不含 Object）以及直接或间接实现的所有接口
+     */
+    private static Set<Class<?>> typesOf(Class<?> beanClass) {
+        Set<Class<?>> types = new LinkedHashSet<>();
+        for (Class<?> clazz = beanClass; clazz != null && clazz != Object.class; clazz = clazz.getSuperclass()) {
+            types.add(clazz);
+            addInterfaces(clazz, types);
+        }
+        return types;
+    }
+
+    private static void addInterfaces(Class<?> clazz, Set<Class<?>> types) {
+        for (Class<?> i : clazz.getInterfaces()) {
+            if (types.add(i)) {
+                addInterfaces(i, types);
+            }
+        }
+    }
+
+    /**
+     * 一次单例的创建：提前暴露的实例只对参与这次创建的线程可见，创建结束后唤醒等待的线程
+     */
+    private static final class SingletonCreation {
+        // 已实例化但还未完成依赖注入的 bean
+        final Map<String, Object> earlySingletonObjects = new ConcurrentHashMap<>();
+        private final CountDownLatch finished = new CountDownLatch(1);
+
+        void finish() {
+            finished.countDown();
+        }
+
+        void await() {
+            try {
+                finished.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new BeanCreationException("Interrupted while waiting for a singleton in creation");
+            }
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package com.codeashen.mvcframework.v3.beans;
+
+/**
+ * 注册或创建 bean 失败
+ */
+public class BeanCreationException extends RuntimeException {
+
+    public BeanCreationException(String message) {
+        super(message);
+    }
+
+    public BeanCreationException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,82 @@
+package com.codeashen.mvcframework.v3.beans;
+
+import com.codeashen.mvcframework.annotation.BeanScope;
+
+/**
+ * bean 的定义，描述如何创建一个 bean
+ */
+public class BeanDefinition {
+
+    private final String beanName;
+    private final Class<?> beanClass;
+    private final boolean lazy;
+    private final boolean primary;
+    private final BeanScope scope;
+    private final int poolSize;
+
+    public BeanDefinition(String beanName, Class<?> beanClass, boolean lazy) {
+        this(beanName, beanClass, lazy, false);
+    }
+
+    /**
+     * @param beanName  bean 名称
+     * @param beanClass bean 的类型，需要有无参构造器
+     * @param lazy      是否延迟到第一次获取时才创建
+     * @param primary   按类型注入存在多个候选时是否优先选择
+     */
+    public BeanDefinition(String beanName, Class<?> beanClass, boolean lazy, boolean primary) {
+        this(beanName, beanClass, lazy, primary, BeanScope.SINGLETON, 0);
+    }
+
+    /**
+     * @param scope    作用域
+     * @param poolSize prototype 和 request 作用域的对象池大小，0 表示不复用实例
+     * @throws BeanCreationException 单例配置了对象池
+     */
+    public BeanDefinition(String beanName, Class<?> beanClass, boolean lazy, boolean primary, BeanScope scope,
+                          int poolSize) {
+        if (poolSize < 0 || poolSize > 0 && scope == BeanScope.SINGLETON) {
+            throw new BeanCreationException("Invalid poolSize " + poolSize + " for " + scope + " bean " + beanName);
+        }
+        this.beanName = beanName;
+        this.beanClass = beanClass;
+        this.lazy = lazy;
+        this.primary = primary;
+        this.scope = scope;
+        this.poolSize = poolSize;
+    }
+
+    public String getBeanName() {
+        return beanName;
+    }
+
+    public Class<?> getBeanClass() {
+        return beanClass;
+    }
+
+    public boolean isLazy() {
+        return lazy;
+    }
+
+    public boolean isPrimary() {
+        return primary;
+    }
+
+    public BeanScope getScope() {
+        return scope;
+    }
+
+    public boolean isSingleton() {
+        return scope == BeanScope.SINGLETON;
+    }
+
+    public int getPoolSize() {
+        return poolSize;
+    }
+
+    @Override
+    public String toString() {
+        return beanName + "(" + beanClass.getName() + (lazy ? ", lazy" : "") + (primary ? ", primary" : "")
+                + (scope != BeanScope.SINGLETON ? ", " + scope.name().toLowerCase() : "") + ")";
+    }
+}
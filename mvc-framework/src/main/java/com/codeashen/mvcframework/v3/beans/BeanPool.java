@@ -0,0 +1,115 @@
+package com.codeashen.mvcframework.v3.beans;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * prototype 和 request 作用域 bean 的对象池，容量固定。
+ * <p>
+ * 空闲实例放在定长的槽位中，取出和归还都只对一个槽位做 CAS，不加锁；
+ * 每个线程从不同的槽位开始查找，并发时很少争用同一个槽位。池空时由容器创建新实例，池满时归还的实例直接丢弃。
+ */
+public class BeanPool {
+
+    private final AtomicReferenceArray<Object> slots;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder discards = new LongAdder();
+
+    public BeanPool(int capacity) {
+        this.slots = new AtomicReferenceArray<>(capacity);
+    }
+
+    /**
+     * 取出一个空闲实例
+     *
+     * @return 空闲实例，池空时返回 null
+     */
+    Object acquire() {
+        int length = slots.length();
+        int start = startIndex(length);
+        for (int i = 0; i < length; i++) {
+            int index = (start + i) % length;
+            Object bean = slots.get(index);
+            if (bean != null && slots.compareAndSet(index, bean, null)) {
+                hits.increment();
+                return bean;
+            }
+        }
+        misses.increment();
+        return null;
+    }
+
+    /**
+     * 归还实例，调用前已经完成 reset
+     *
+     * @return 池满时返回 false，实例被丢弃
+     */
+    boolean release(Object bean) {
+        int length = slots.length();
+        int start = startIndex(length);
+        for (int i = 0; i < length; i++) {
+            int index = (start + i) % length;
+            if (slots.get(index) == null && slots.compareAndSet(index, null, bean)) {
+                return true;
+            }
+        }
+        discards.increment();
+        return false;
+    }
+
+    /**
+     * reset 失败等原因丢弃实例
+     */
+    void discard() {
+        discards.increment();
+    }
+
+    private static int startIndex(int length) {
+        return (int) (Thread.currentThread().getId() % length);
+    }
+
+    public int getCapacity() {
+        return slots.length();
+    }
+
+    /**
+     * 当前空闲的实例数，只是近似值
+     */
+    public int getIdleCount() {
+        int idle = 0;
+        for (int i = 0; i < slots.length(); i++) {
+            if (slots.get(i) != null) {
+                idle++;
+            }
+        }
+        return idle;
+    }
+
+    /**
+     * 从池中取到实例的次数
+     */
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    /**
+     * 池空时新建实例的次数
+     */
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    /**
+     * 池满或 reset 失败时丢弃实例的次数
+     */
+    public long getDiscardCount() {
+        return discards.sum();
+    }
+
+    @Override
+    public String toString() {
+        return "BeanPool{capacity=" + getCapacity() + ", idle=" + getIdleCount() + ", hits=" + getHitCount()
+                + ", misses=" + getMissCount() + ", discards=" + getDiscardCount() + "}";
+    }
+}
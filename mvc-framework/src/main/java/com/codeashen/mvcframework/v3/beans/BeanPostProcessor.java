@@ -0,0 +1,15 @@
+package com.codeashen.mvcframework.v3.beans;
+
+/**
+ * bean 创建完成后的扩展点，可以把 bean 替换为包装后的对象，例如 JDK 动态代理。
+ * <p>
+ * 单例在第一次被其他 bean 引用时就会调用，此时依赖注入可能还没有完成，包装时不能调用 bean 的方法；
+ * 容器内部仍然对原始对象完成依赖注入，其他 bean 注入和 getBean 拿到的都是包装后的对象。
+ */
+public interface BeanPostProcessor {
+
+    /**
+     * @return 替换原始对象的 bean，不需要包装时返回原始对象
+     */
+    Object postProcess(String beanName, Object bean);
+}
@@ -0,0 +1,43 @@
+package com.codeashen.mvcframework.v3.beans;
+
+/**
+ * 按需获取 bean，用于在单例中使用 prototype 和 request 作用域的 bean，例如：
+ * <pre>
+ * &#64;ASAutowired
+ * BeanProvider&lt;OrderContext&gt; orderContext;
+ * </pre>
+ * request 作用域的 bean 在同一次请求中每次 get() 都返回同一个实例；
+ * prototype 作用域的 bean 每次 get() 都返回一个实例，请求中取出的池化实例在请求结束时自动归还对象池。
+ *
+ * @param <T> bean 的类型
+ */
+public final class BeanProvider<T> {
+
+    private final BeanContainer container;
+    private final String beanName;
+    private final Class<T> type;
+
+    BeanProvider(BeanContainer container, String beanName, Class<T> type) {
+        this.container = container;
+        this.beanName = beanName;
+        this.type = type;
+    }
+
+    /**
+     * @throws BeanCreationException request 作用域的 bean 在请求之外获取
+     */
+    public T get() {
+        return type.cast(container.provideBean(beanName));
+    }
+
+    /**
+     * 提前归还请求之外取出的 prototype 实例，没有对象池时什么都不做
+     */
+    public void release(T bean) {
+        container.releaseBean(beanName, bean);
+    }
+
+    public String getBeanName() {
+        return beanName;
+    }
+}
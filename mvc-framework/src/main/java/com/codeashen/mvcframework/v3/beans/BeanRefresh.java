@@ -0,0 +1,51 @@
+package com.codeashen.mvcframework.v3.beans;
+
+import java.util.Collections;
+import java.util.Set;
+
+/**
+ * 一次热加载：新的 bean 定义以及依赖它们的单例已经在暂存容器中创建完成，调用 {@link #commit()} 之前容器对外没有任何变化。
+ * <p>
+ * 由 {@link BeanContainer#refreshBeanDefinitions(java.util.Collection)} 创建。调用方可以先用新的 bean 完成其他准备工作
+ * （例如构建新的路由表），全部成功后再提交；中途失败时直接丢弃即可，容器中的旧 bean 继续使用。
+ */
+public final class BeanRefresh {
+
+    private final BeanContainer container;
+    private final BeanContainer staging;
+    private final Set<String> beanNames;
+
+    BeanRefresh(BeanContainer container, BeanContainer staging, Set<String> beanNames) {
+        this.container = container;
+        this.staging = staging;
+        this.beanNames = Collections.unmodifiableSet(beanNames);
+    }
+
+    /**
+     * 需要重新创建的 beanName，按注册顺序排列
+     */
+    public Set<String> getBeanNames() {
+        return beanNames;
+    }
+
+    /**
+     * 按新的定义获取 bean 定义
+     */
+    public BeanDefinition getBeanDefinition(String name) {
+        return staging.getBeanDefinition(name);
+    }
+
+    /**
+     * 按新的定义获取 bean，未提交前不影响容器
+     */
+    public Object getBean(String name) {
+        return staging.getBean(name);
+    }
+
+    /**
+     * 新的定义和单例一起替换容器中的旧对象，已经拿到旧实例的调用方不受影响
+     */
+    public void commit() {
+        container.commitRefresh(staging, beanNames);
+    }
+}
@@ -0,0 +1,152 @@
+package com.codeashen.mvcframework.v3.beans;
+
+import java.lang.reflect.Array;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 一个注入点解析后的结果，只记录 beanName，不持有 bean 实例，每次注入时再从容器中获取，
+ * 这样延迟的 bean 仍然在第一次使用时才创建。
+ */
+abstract class Dependency {
+
+    /**
+     * 从容器中取出要注入的值
+     */
+    abstract Object resolve(BeanContainer container);
+
+    /**
+     * 注入点依赖的 beanName，用于热加载时找出需要重新创建的 bean
+     */
+    abstract void collectBeanNames(Collection<String> result);
+
+    /**
+     * 注入单个 bean
+     */
+    static class Single extends Dependency {
+        private final String beanName;
+
+        Single(String beanName) {
+            this.beanName = beanName;
+        }
+
+        @Override
+        Object resolve(BeanContainer container) {
+            return container.getBean(beanName);
+        }
+
+        @Override
+        void collectBeanNames(Collection<String> result) {
+            result.add(beanName);
+        }
+
+        String getBeanName() {
+            return beanName;
+        }
+    }
+
+    /**
+     * 注入 BeanProvider，使用时才从容器中获取
+     */
+    static class Provider extends Dependency {
+        private final String beanName;
+        private final Class<?> type;
+
+        Provider(String beanName, Class<?> type) {
+            this.beanName = beanName;
+            this.type = type;
+        }
+
+        @Override
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        Object resolve(BeanContainer container) {
+            return new BeanProvider(container.getOwner(), beanName, type);
+        }
+
+        @Override
+        void collectBeanNames(Collection<String> result) {
+            result.add(beanName);
+        }
+    }
+
+    /**
+     * 注入 List、Collection、Iterable，按注册顺序包含所有候选 bean
+     */
+    static class BeanList extends Dependency {
+        private final String[] beanNames;
+
+        BeanList(String[] beanNames) {
+            this.beanNames = beanNames;
+        }
+
+        @Override
+        Object resolve(BeanContainer container) {
+            List<Object> beans = new ArrayList<>(beanNames.length);
+            for (String beanName : beanNames) {
+                beans.add(container.getBean(beanName));
+            }
+            return Collections.unmodifiableList(beans);
+        }
+
+        @Override
+        void collectBeanNames(Collection<String> result) {
+            Collections.addAll(result, beanNames);
+        }
+    }
+
+    /**
+     * 注入数组
+     */
+    static class BeanArray extends Dependency {
+        private final Class<?> componentType;
+        private final String[] beanNames;
+
+        BeanArray(Class<?> componentType, String[] beanNames) {
+            this.componentType = componentType;
+            this.beanNames = beanNames;
+        }
+
+        @Override
+        Object resolve(BeanContainer container) {
+            Object beans = Array.newInstance(componentType, beanNames.length);
+            for (int i = 0; i < beanNames.length; i++) {
+                Array.set(beans, i, container.getBean(beanNames[i]));
+            }
+            return beans;
+        }
+
+        @Override
+        void collectBeanNames(Collection<String> result) {
+            Collections.addAll(result, beanNames);
+        }
+    }
+
+    /**
+     * 注入 Map&lt;String, T&gt;，key 为 beanName
+     */
+    static class BeanMap extends Dependency {
+        private final String[] beanNames;
+
+        BeanMap(String[] beanNames) {
+            this.beanNames = beanNames;
+        }
+
+        @Override
+        Object resolve(BeanContainer container) {
+            Map<String, Object> beans = new LinkedHashMap<>();
+            for (String beanName : beanNames) {
+                beans.put(beanName, container.getBean(beanName));
+            }
+            return Collections.unmodifiableMap(beans);
+        }
+
+        @Override
+        void collectBeanNames(Collection<String> result) {
+            Collections.addAll(result, beanNames);
+        }
+    }
+}
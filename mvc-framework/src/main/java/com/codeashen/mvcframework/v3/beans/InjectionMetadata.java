@@ -0,0 +1,272 @@
+package com.codeashen.mvcframework.v3.beans;
+
+import com.codeashen.mvcframework.annotation.ASAutowired;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Parameter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 一个类的注入元数据，每个类只构建一次：沿继承链收集所有 @ASAutowired 字段和方法，确定注入用的构造器，
+ * 并提前解析每个注入点、创建 MethodHandle。之后每次创建该类的实例都直接复用，
+ * 不再调用 getDeclaredFields、isAnnotationPresent、setAccessible。
+ * <p>
+ * 注入顺序：构造器参数、父类的字段和方法、子类的字段和方法，与 Spring 一致。
+ */
+class InjectionMetadata {
+
+    private static final MethodType CONSTRUCTOR_TYPE = MethodType.methodType(Object.class, Object[].class);
+    private static final MethodType FIELD_SETTER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+    private static final MethodType METHOD_TYPE = MethodType.methodType(void.class, Object.class, Object[].class);
+
+    private final Class<?> beanClass;
+    // (Object[] args) -> Object
+    private final MethodHandle constructor;
+    private final Dependency[] constructorArguments;
+    private final InjectedElement[] elements;
+
+    private InjectionMetadata(Class<?> beanClass, MethodHandle constructor, Dependency[] constructorArguments,
+                              InjectedElement[] elements) {
+        this.beanClass = beanClass;
+        this.constructor = constructor;
+        this.constructorArguments = constructorArguments;
+        this.elements = elements;
+    }
+
+    /**
+     * 构建注入元数据，注入点在这里一次性解析
+     *
+     * @throws BeanCreationException 找不到可用的构造器，或者注入点无法解析
+     */
+    static InjectionMetadata build(Class<?> beanClass, BeanContainer container) {
+        MethodHandles.Lookup lookup = MethodHandles.lookup();
+        try {
+            Constructor<?> ctor = determineConstructor(beanClass);
+            ctor.setAccessible(true);
+            MethodHandle constructor = lookup.unreflectConstructor(ctor)
+                    .asSpreader(Object[].class, ctor.getParameterCount())
+                    .asType(CONSTRUCTOR_TYPE);
+            Dependency[] constructorArguments = resolveParameters(ctor.getParameters(), "", container);
+
+            // 从子类向父类遍历，子类重写的方法只注入一次
+            List<List<InjectedElement>> hierarchy = new ArrayList<>();
+            Set<String> methodSignatures = new HashSet<>();
+            for (Class<?> clazz = beanClass; clazz != null && clazz != Object.class; clazz = clazz.getSuperclass()) {
+                List<InjectedElement> elements = new ArrayList<>();
+                for (Field field : clazz.getDeclaredFields()) {
+                    ASAutowired autowired = field.getAnnotation(ASAutowired.class);
+                    if (autowired == null || Modifier.isStatic(field.getModifiers())) {
+                        continue;
+                    }
+                    field.setAccessible(true);
+                    MethodHandle setter = lookup.unreflectSetter(field).asType(FIELD_SETTER_TYPE);
+                    Dependency dependency = container.resolveDependency(field.getType(), field.getGenericType(),
+                            autowired.value().trim(), field.getName(), field.toString());
+                    elements.add(new FieldElement(field.toString(), setter, dependency));
+                }
+                for (Method method : clazz.getDeclaredMethods()) {
+                    if (method.isBridge() || Modifier.isStatic(method.getModifiers())) {
+                        continue;
+                    }
+                    String signature = method.getName() + Arrays.toString(method.getParameterTypes());
+                    boolean overridden = !Modifier.isPrivate(method.getModifiers()) && !methodSignatures.add(signature);
+                    ASAutowired autowired = method.getAnnotation(ASAutowired.class);
+                    if (autowired == null || overridden) {
+                        continue;
+                    }
+                    if (method.getParameterCount() == 0) {
+                        throw new BeanCreationException("@ASAutowired method must have parameters: " + method);
+                    }
+                    method.setAccessible(true);
+                    MethodHandle invoker = lookup.unreflect(method)
+                            .asSpreader(Object[].class, method.getParameterCount())
+                            .asType(METHOD_TYPE);
+                    Dependency[] arguments = resolveParameters(method.getParameters(),
+                            method.getParameterCount() == 1 ? autowired.value().trim() : "", container);
+                    elements.add(new MethodElement(method.toString(), invoker, arguments));
+                }
+                hierarchy.add(0, elements);
+            }
+
+            List<InjectedElement> elements = new ArrayList<>();
+            for (List<InjectedElement> classElements : hierarchy) {
+                elements.addAll(classElements);
+            }
+            return new InjectionMetadata(beanClass, constructor, constructorArguments,
+                    elements.toArray(new InjectedElement[0]));
+        } catch (IllegalAccessException e) {
+            throw new BeanCreationException("Failed to access injection points of " + beanClass.getName(), e);
+        }
+    }
+
+    /**
+     * 创建实例，构造器参数从容器中获取
+     */
+    Object instantiate(BeanContainer container) {
+        try {
+            return constructor.invokeExact(resolve(constructorArguments, container));
+        } catch (BeanCreationException e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new BeanCreationException("Failed to instantiate " + beanClass.getName(), e);
+        }
+    }
+
+    /**
+     * 构造器、字段和方法注入点依赖的所有 beanName
+     */
+    Set<String> getDependencyNames() {
+        Set<String> beanNames = new HashSet<>();
+        for (Dependency dependency : constructorArguments) {
+            dependency.collectBeanNames(beanNames);
+        }
+        for (InjectedElement element : elements) {
+            element.collectBeanNames(beanNames);
+        }
+        return beanNames;
+    }
+
+    /**
+     * 为实例注入字段和方法
+     */
+    void inject(Object bean, BeanContainer container) {
+        for (InjectedElement element : elements) {
+            try {
+                element.inject(bean, container);
+            } catch (BeanCreationException e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new BeanCreationException("Failed to inject " + element.description, e);
+            }
+        }
+    }
+
+    /**
+     * 构造器是否有需要注入的参数
+     */
+    boolean hasConstructorArguments() {
+        return constructorArguments.length > 0;
+    }
+
+    /**
+     * 依次选择：带 @ASAutowired 的构造器、唯一的构造器、无参构造器
+     */
+    private static Constructor<?> determineConstructor(Class<?> beanClass) {
+        Constructor<?>[] constructors = beanClass.getDeclaredConstructors();
+        Constructor<?> autowired = null;
+        for (Constructor<?> constructor : constructors) {
+            if (constructor.isAnnotationPresent(ASAutowired.class)) {
+                if (autowired != null) {
+                    throw new BeanCreationException("More than one @ASAutowired constructor in " + beanClass.getName());
+                }
+                autowired = constructor;
+            }
+        }
+        if (autowired != null) {
+            return autowired;
+        }
+        if (constructors.length == 1) {
+            return constructors[0];
+        }
+        try {
+            return beanClass.getDeclaredConstructor();
+        } catch (NoSuchMethodException e) {
+            throw new BeanCreationException("No default constructor or @ASAutowired constructor in " + beanClass.getName());
+        }
+    }
+
+    /**
+     * 解析构造器或方法的参数，参数上的 @ASAutowired 可以指定 beanName
+     *
+     * @param defaultQualifier 参数没有指定 beanName 时使用的 beanName，单参数方法取方法上的 @ASAutowired
+     */
+    private static Dependency[] resolveParameters(Parameter[] parameters, String defaultQualifier, BeanContainer container) {
+        Dependency[] dependencies = new Dependency[parameters.length];
+        for (int i = 0; i < parameters.length; i++) {
+            Parameter parameter = parameters[i];
+            ASAutowired autowired = parameter.getAnnotation(ASAutowired.class);
+            String qualifier = autowired == null ? defaultQualifier : autowired.value().trim();
+            // 编译时没有 -parameters 时参数名为 arg0，不会与 beanName 相同
+            dependencies[i] = container.resolveDependency(parameter.getType(), parameter.getParameterizedType(),
+                    qualifier, parameter.getName(), parameter + " of " + parameter.getDeclaringExecutable());
+        }
+        return dependencies;
+    }
+
+    private static Object[] resolve(Dependency[] dependencies, BeanContainer container) {
+        Object[] values = new Object[dependencies.length];
+        for (int i = 0; i < dependencies.length; i++) {
+            values[i] = dependencies[i].resolve(container);
+        }
+        return values;
+    }
+
+    private abstract static class InjectedElement {
+        final String description;
+
+        InjectedElement(String description) {
+            this.description = description;
+        }
+
+        abstract void inject(Object bean, BeanContainer container) throws Throwable;
+
+        abstract void collectBeanNames(Collection<String> result);
+    }
+
+    private static class FieldElement extends InjectedElement {
+        // (Object bean, Object value) -> void
+        private final MethodHandle setter;
+        private final Dependency dependency;
+
+        FieldElement(String description, MethodHandle setter, Dependency dependency) {
+            super(description);
+            this.setter = setter;
+            this.dependency = dependency;
+        }
+
+        @Override
+        void inject(Object bean, BeanContainer container) throws Throwable {
+            setter.invokeExact(bean, dependency.resolve(container));
+        }
+
+        @Override
+        void collectBeanNames(Collection<String> result) {
+            dependency.collectBeanNames(result);
+        }
+    }
+
+    private static class MethodElement extends InjectedElement {
+        // (Object bean, Object[] args) -> void
+        private final MethodHandle invoker;
+        private final Dependency[] arguments;
+
+        MethodElement(String description, MethodHandle invoker, Dependency[] arguments) {
+            super(description);
+            this.invoker = invoker;
+            this.arguments = arguments;
+        }
+
+        @Override
+        void inject(Object bean, BeanContainer container) throws Throwable {
+            invoker.invokeExact(bean, resolve(arguments, container));
+        }
+
+        @Override
+        void collectBeanNames(Collection<String> result) {
+            for (Dependency argument : arguments) {
+                argument.collectBeanNames(result);
+            }
+        }
+    }
+}
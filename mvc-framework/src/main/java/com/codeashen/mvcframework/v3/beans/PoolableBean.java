@@ -0,0 +1,10 @@
+package com.codeashen.mvcframework.v3.beans;
+
+/**
+ * 可以放回对象池的 bean，prototype 和 request 作用域配置了 poolSize 时生效。
+ * 实例归还对象池前调用 reset() 清理上一次使用留下的状态，抛出异常时丢弃该实例。
+ */
+public interface PoolableBean {
+
+    void reset();
+}
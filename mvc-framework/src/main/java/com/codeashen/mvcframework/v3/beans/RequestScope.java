@@ -0,0 +1,80 @@
+package com.codeashen.mvcframework.v3.beans;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 一次请求分发的作用域，保存 request 作用域的实例以及请求中通过 BeanProvider 取出的池化 prototype 实例。
+ * <p>
+ * 由 {@link BeanContainer#beginRequest()} 绑定到当前线程，处理器方法返回后调用 {@link #detach()} 解除绑定；
+ * 请求结束（异步请求写出结果）后调用 {@link #destroy()}，池化的实例归还对象池。
+ * 只在分发请求的线程上使用，不需要同步。
+ */
+public final class RequestScope {
+
+    private final BeanContainer container;
+    // 绑定之前当前线程上的作用域，例如 include 的嵌套分发
+    private final RequestScope previous;
+    // beanName -> 本次请求的实例，大多数请求用不到，第一次获取时才创建
+    private Map<String, Object> beans;
+    // 请求中取出的池化 prototype 实例及其 beanName，按取出顺序排列
+    private List<Object> prototypes;
+    private List<String> prototypeNames;
+
+    RequestScope(BeanContainer container, RequestScope previous) {
+        this.container = container;
+        this.previous = previous;
+    }
+
+    Object get(String beanName) {
+        return beans == null ? null : beans.get(beanName);
+    }
+
+    void put(String beanName, Object bean) {
+        if (beans == null) {
+            beans = new HashMap<>();
+        }
+        beans.put(beanName, bean);
+    }
+
+    void addPrototype(String beanName, Object bean) {
+        if (prototypes == null) {
+            prototypes = new ArrayList<>();
+            prototypeNames = new ArrayList<>();
+        }
+        prototypes.add(bean);
+        prototypeNames.add(beanName);
+    }
+
+    RequestScope getPrevious() {
+        return previous;
+    }
+
+    /**
+     * 解除与当前线程的绑定，恢复之前的作用域
+     */
+    public void detach() {
+        container.detachRequest(this);
+    }
+
+    /**
+     * 结束请求，池化的实例归还对象池
+     */
+    public void destroy() {
+        if (beans != null) {
+            for (Map.Entry<String, Object> entry : beans.entrySet()) {
+                container.releaseBean(entry.getKey(), entry.getValue());
+            }
+            beans = null;
+        }
+        if (prototypes != null) {
+            for (int i = 0; i < prototypes.size(); i++) {
+                container.releaseBean(prototypeNames.get(i), prototypes.get(i));
+            }
+            prototypes = null;
+            prototypeNames = null;
+        }
+    }
+}
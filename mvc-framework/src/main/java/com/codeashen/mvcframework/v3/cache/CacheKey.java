@@ -0,0 +1,107 @@
+package com.codeashen.mvcframework.v3.cache;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.Method;
+import java.util.Arrays;
+
+/**
+ * 方法参数到缓存 key 的转换。默认名称的缓存只属于一个方法，key 不需要包含方法本身：
+ * <ul>
+ *     <li>没有参数时使用同一个常量；</li>
+ *     <li>只有一个参数时直接使用参数本身，不创建新对象，null 使用常量代替；</li>
+ *     <li>多个参数或数组参数时包装为按内容比较的 key，hash 在创建时计算一次。</li>
+ * </ul>
+ * 显式指定名称的缓存可能被多个方法共用，key 包含方法本身，见 {@link #of(Method, Object[])}。
+ * <p>
+ * 数组参数会复制一份，其他参数直接作为 key 的一部分，写入缓存后再修改参数会破坏缓存中的 hash，参数需要是不可变对象。
+ */
+final class CacheKey {
+
+    static final Object EMPTY = new Object() {
+        @Override
+        public String toString() {
+            return "CacheKey.EMPTY";
+        }
+    };
+
+    static final Object NULL = new Object() {
+        @Override
+        public String toString() {
+            return "CacheKey.NULL";
+        }
+    };
+
+    private final Object[] args;
+    private final int hash;
+
+    private CacheKey(Object[] args) {
+        this.args = args;
+        this.hash = Arrays.deepHashCode(args);
+    }
+
+    /**
+     * 数组参数复制一份，调用方之后修改数组不会影响已缓存的 key
+     */
+    private static Object[] copyArrays(Object[] args) {
+        for (int i = 0; i < args.length; i++) {
+            Object arg = args[i];
+            if (arg != null && arg.getClass().isArray()) {
+                args[i] = cloneArray(arg);
+            }
+        }
+        return args;
+    }
+
+    private static Object cloneArray(Object array) {
+        int length = Array.getLength(array);
+        Object copy = Array.newInstance(array.getClass().getComponentType(), length);
+        System.arraycopy(array, 0, copy, 0, length);
+        return copy;
+    }
+
+    static Object of(Object[] args) {
+        if (args == null || args.length == 0) {
+            return EMPTY;
+        }
+        if (args.length == 1) {
+            Object arg = args[0];
+            if (arg == null) {
+                return NULL;
+            }
+            if (!arg.getClass().isArray()) {
+                return arg;
+            }
+        }
+        // 参数数组之后还要原样传给目标方法，复制后再替换其中的数组参数
+        return new CacheKey(copyArrays(args.clone()));
+    }
+
+    /**
+     * 共用缓存的方法使用的 key，包含方法本身，不同方法相同参数的调用不会互相覆盖
+     */
+    static Object of(Method method, Object[] args) {
+        int length = args == null ? 0 : args.length;
+        Object[] key = new Object[length + 1];
+        key[0] = method;
+        if (length > 0) {
+            System.arraycopy(args, 0, key, 1, length);
+        }
+        return new CacheKey(copyArrays(key));
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return this == o || o instanceof CacheKey && hash == ((CacheKey) o).hash
+                && Arrays.deepEquals(args, ((CacheKey) o).args);
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        return Arrays.deepToString(args);
+    }
+}
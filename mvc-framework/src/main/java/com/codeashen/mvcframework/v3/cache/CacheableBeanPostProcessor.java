@@ -0,0 +1,190 @@
+package com.codeashen.mvcframework.v3.cache;
+
+import com.codeashen.mvcframework.annotation.ASCacheable;
+import com.codeashen.mvcframework.annotation.ASController;
+import com.codeashen.mvcframework.v3.beans.BeanPostProcessor;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 为带有 @ASCacheable 方法的 bean 创建 JDK 动态代理，代理实现 bean 的所有接口，
+ * 被缓存的方法先查缓存，未命中时调用原始对象再写入缓存，其余方法直接转发。
+ * <p>
+ * 每个方法对应的缓存在创建代理时确定，调用时按 Method 查找；缓存按名称注册，同名的方法共用一个缓存，
+ * prototype bean 的多个实例也共用同一个缓存。显式指定名称的缓存可能被多个方法共用，key 中包含方法本身。
+ * 并发未命中时可能重复调用原始方法，以最后写入的结果为准。
+ */
+public class CacheableBeanPostProcessor implements BeanPostProcessor {
+
+    // 缓存名称 -> 缓存
+    private final Map<String, MethodCache> caches = new ConcurrentHashMap<>();
+
+    @Override
+    public Object postProcess(String beanName, Object bean) {
+        Class<?> clazz = bean.getClass();
+        // 控制器的处理器方法直接调用原始对象，不经过代理
+        if (clazz.isAnnotationPresent(ASController.class)) {
+            return bean;
+        }
+        Class<?>[] interfaces = interfacesOf(clazz);
+        Map<Method, MethodCache> methodCaches = new HashMap<>();
+        // 使用显式名称缓存的方法
+        Set<Method> sharedCacheMethods = new HashSet<>();
+        for (Class<?> type : interfaces) {
+            for (Method method : type.getMethods()) {
+                ASCacheable cacheable = findCacheable(clazz, method);
+                if (cacheable != null && method.getReturnType() != void.class) {
+                    methodCaches.put(method, getCache(beanName, clazz, method, cacheable));
+                    if (!cacheable.value().trim().isEmpty()) {
+                        sharedCacheMethods.add(method);
+                    }
+                }
+            }
+        }
+        if (methodCaches.isEmpty()) {
+            if (interfaces.length == 0 && hasCacheable(clazz)) {
+                System.out.println("@ASCacheable on " + clazz.getName() + " is ignored, the bean implements no interface");
+            }
+            return bean;
+        }
+        return Proxy.newProxyInstance(clazz.getClassLoader(), interfaces, new CachingInvocationHandler(bean, methodCaches,
+                sharedCacheMethods));
+    }
+
+    /**
+     * 所有缓存，缓存名称 -> 缓存，用于输出命中率等统计
+     */
+    public Map<String, MethodCache> getCaches() {
+        return Collections.unmodifiableMap(caches);
+    }
+
+    private MethodCache getCache(String beanName, Class<?> clazz, Method method, ASCacheable cacheable) {
+        String name = cacheable.value().trim();
+        if (name.isEmpty()) {
+            name = beanName + "." + method.getName();
+            if (isOverloaded(clazz, method)) {
+                StringBuilder sb = new StringBuilder(name).append('(');
+                Class<?>[] types = method.getParameterTypes();
+                for (int i = 0; i < types.length; i++) {
+                    sb.append(i == 0 ? "" : ",").append(types[i].getSimpleName());
+                }
+                name = sb.append(')').toString();
+            }
+        }
+        MethodCache cache = caches.get(name);
+        if (cache == null) {
+            cache = new MethodCache(name, cacheable.maxSize(), cacheable.ttl());
+            MethodCache previous = caches.putIfAbsent(name, cache);
+            if (previous != null) {
+                cache = previous;
+            }
+        }
+        return cache;
+    }
+
+    /**
+     * 注解可以标注在接口方法或实现类的方法上
+     */
+    private static ASCacheable findCacheable(Class<?> clazz, Method method) {
+        ASCacheable cacheable = method.getAnnotation(ASCacheable.class);
+        if (cacheable != null) {
+            return cacheable;
+        }
+        try {
+            return clazz.getMethod(method.getName(), method.getParameterTypes()).getAnnotation(ASCacheable.class);
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+
+    private static boolean hasCacheable(Class<?> clazz) {
+        for (Method method : clazz.getMethods()) {
+            if (method.isAnnotationPresent(ASCacheable.class)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isOverloaded(Class<?> clazz, Method method) {
+        int count = 0;
+        for (Method m : clazz.getMethods()) {
+            if (m.getName().equals(method.getName()) && m.isAnnotationPresent(ASCacheable.class)) {
+                count++;
+            }
+        }
+        return count > 1;
+    }
+
+    private static Class<?>[] interfacesOf(Class<?> clazz) {
+        Set<Class<?>> interfaces = new LinkedHashSet<>();
+        for (Class<?> c = clazz; c != null && c != Object.class; c = c.getSuperclass()) {
+            Collections.addAll(interfaces, c.getInterfaces());
+        }
+        return interfaces.toArray(new Class<?>[0]);
+    }
+
+    /**
+     * 缓存方法的调用处理，null 结果以占位对象缓存
+     */
+    private static class CachingInvocationHandler implements InvocationHandler {
+        private static final Object NULL_VALUE = new Object();
+
+        private final Object target;
+        private final Map<Method, MethodCache> methodCaches;
+        private final Set<Method> sharedCacheMethods;
+
+        CachingInvocationHandler(Object target, Map<Method, MethodCache> methodCaches, Set<Method> sharedCacheMethods) {
+            this.target = target;
+            this.methodCaches = methodCaches;
+            this.sharedCacheMethods = sharedCacheMethods;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            MethodCache cache = methodCaches.get(method);
+            if (cache == null) {
+                if (method.getDeclaringClass() == Object.class) {
+                    return invokeObjectMethod(proxy, method, args);
+                }
+                return invokeTarget(method, args);
+            }
+            Object key = sharedCacheMethods.contains(method) ? CacheKey.of(method, args) : CacheKey.of(args);
+            Object value = cache.get(key);
+            if (value == null) {
+                value = invokeTarget(method, args);
+                cache.put(key, value == null ? NULL_VALUE : value);
+                return value;
+            }
+            return value == NULL_VALUE ? null : value;
+        }
+
+        private Object invokeTarget(Method method, Object[] args) throws Throwable {
+            try {
+                return method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+
+        /**
+         * equals 按代理对象本身比较，hashCode 和 toString 转发给原始对象
+         */
+        private Object invokeObjectMethod(Object proxy, Method method, Object[] args) throws Throwable {
+            if (method.getName().equals("equals")) {
+                return proxy == args[0];
+            }
+            return invokeTarget(method, args);
+        }
+    }
+}
@@ -0,0 +1,267 @@
+package com.codeashen.mvcframework.v3.cache;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * @ASCacheable 方法的结果缓存，条目数有上限，可以设置写入后的存活时间。
+ * <p>
+ * 按 key 的 hash 分到多个段，每段独立加锁。段内使用分段 LRU（SLRU）淘汰：
+ * 新条目先进入试用区，再次命中后晋升到保护区；保护区满时把最久未访问的条目降回试用区，
+ * 淘汰只发生在试用区。只访问一次的 key 不会把反复命中的 key 挤出缓存。
+ * <p>
+ * 过期的条目在读取时发现并移除，不需要后台线程。命中、未命中、淘汰和过期次数使用 LongAdder 统计。
+ */
+public class MethodCache {
+
+    // 保护区占每段容量的比例
+    private static final double PROTECTED_RATIO = 0.8;
+    private static final int MAX_SEGMENTS = 16;
+    // 每段至少的条目数，容量较小时减少分段，避免每段只有一两个条目
+    private static final int MIN_SEGMENT_SIZE = 16;
+
+    private final String name;
+    private final long ttlNanos;
+    private final int maxSize;
+    private final Segment[] segments;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder expirations = new LongAdder();
+
+    /**
+     * @param name      缓存名称
+     * @param maxSize   最多缓存的条目数
+     * @param ttlMillis 写入后的存活时间，单位毫秒，0 表示不过期
+     */
+    public MethodCache(String name, int maxSize, long ttlMillis) {
+        if (maxSize <= 0 || ttlMillis < 0) {
+            throw new IllegalArgumentException("Invalid cache " + name + ": maxSize=" + maxSize + ", ttl=" + ttlMillis);
+        }
+        this.name = name;
+        this.maxSize = maxSize;
+        this.ttlNanos = ttlMillis * 1_000_000L;
+        int count = Integer.highestOneBit(Math.max(1, Math.min(MAX_SEGMENTS, maxSize / MIN_SEGMENT_SIZE)));
+        this.segments = new Segment[count];
+        int segmentSize = (maxSize + count - 1) / count;
+        for (int i = 0; i < count; i++) {
+            segments[i] = new Segment(segmentSize);
+        }
+    }
+
+    /**
+     * @param key 不能为 null，见 {@link CacheKey}
+     * @return 缓存的值，没有或已过期时返回 null
+     */
+    public Object get(Object key) {
+        long now = ttlNanos > 0 ? System.nanoTime() : 0L;
+        Segment segment = segmentFor(key);
+        Object value;
+        synchronized (segment) {
+            value = segment.get(key, now);
+        }
+        if (value == null) {
+            misses.increment();
+        } else {
+            hits.increment();
+        }
+        return value;
+    }
+
+    public void put(Object key, Object value) {
+        long expireAt = ttlNanos > 0 ? System.nanoTime() + ttlNanos : 0L;
+        Segment segment = segmentFor(key);
+        synchronized (segment) {
+            segment.put(key, value, expireAt);
+        }
+    }
+
+    public void clear() {
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                segment.clear();
+            }
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public int size() {
+        int size = 0;
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                size += segment.entries.size();
+            }
+        }
+        return size;
+    }
+
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    /**
+     * 超过容量被淘汰的条目数
+     */
+    public long getEvictionCount() {
+        return evictions.sum();
+    }
+
+    /**
+     * 读取时发现已过期的条目数
+     */
+    public long getExpirationCount() {
+        return expirations.sum();
+    }
+
+    /**
+     * 命中率，尚未访问过时返回 0
+     */
+    public double getHitRate() {
+        long hit = hits.sum();
+        long total = hit + misses.sum();
+        return total == 0 ? 0D : (double) hit / total;
+    }
+
+    private Segment segmentFor(Object key) {
+        int h = key.hashCode();
+        h ^= (h >>> 16);
+        return segments[h & (segments.length - 1)];
+    }
+
+    @Override
+    public String toString() {
+        return "MethodCache{name=" + name + ", size=" + size() + ", hits=" + getHitCount() + ", misses=" + getMissCount()
+                + ", evictions=" + getEvictionCount() + ", expirations=" + getExpirationCount()
+                + ", hitRate=" + String.format("%.2f", getHitRate()) + "}";
+    }
+
+    private static class Node {
+        final Object key;
+        Object value;
+        long expireAt;
+        boolean protectedZone;
+        Node prev;
+        Node next;
+
+        Node(Object key) {
+            this.key = key;
+        }
+    }
+
+    /**
+     * 一个分段，试用区和保护区各是一条双向链表，表头是最近访问的条目
+     */
+    private class Segment {
+        private final Map<Object, Node> entries = new HashMap<>();
+        private final Node probation = sentinel();
+        private final Node protectedHead = sentinel();
+        private final int maxSize;
+        private final int maxProtected;
+        private int protectedSize;
+
+        Segment(int maxSize) {
+            this.maxSize = maxSize;
+            // 容量为 1 时没有保护区
+            this.maxProtected = Math.min(maxSize - 1, (int) (maxSize * PROTECTED_RATIO));
+        }
+
+        Object get(Object key, long now) {
+            Node node = entries.get(key);
+            if (node == null) {
+                return null;
+            }
+            if (node.expireAt != 0L && now - node.expireAt >= 0) {
+                remove(node);
+                expirations.increment();
+                return null;
+            }
+            unlink(node);
+            if (node.protectedZone || maxProtected == 0) {
+                linkFirst(node.protectedZone ? protectedHead : probation, node);
+            } else {
+                // 试用区中再次命中，晋升到保护区
+                promote(node);
+            }
+            return node.value;
+        }
+
+        void put(Object key, Object value, long expireAt) {
+            Node node = entries.get(key);
+            if (node != null) {
+                node.value = value;
+                node.expireAt = expireAt;
+                return;
+            }
+            node = new Node(key);
+            node.value = value;
+            node.expireAt = expireAt;
+            entries.put(key, node);
+            linkFirst(probation, node);
+            if (entries.size() > maxSize) {
+                // 试用区为空时保护区已超出比例，从保护区淘汰
+                Node eldest = probation.prev != probation ? probation.prev : protectedHead.prev;
+                remove(eldest);
+                evictions.increment();
+            }
+        }
+
+        void clear() {
+            entries.clear();
+            probation.next = probation.prev = probation;
+            protectedHead.next = protectedHead.prev = protectedHead;
+            protectedSize = 0;
+        }
+
+        private void promote(Node node) {
+            node.protectedZone = true;
+            linkFirst(protectedHead, node);
+            protectedSize++;
+            if (protectedSize > maxProtected) {
+                Node demoted = protectedHead.prev;
+                unlink(demoted);
+                demoted.protectedZone = false;
+                protectedSize--;
+                linkFirst(probation, demoted);
+            }
+        }
+
+        private void remove(Node node) {
+            entries.remove(node.key);
+            unlink(node);
+            if (node.protectedZone) {
+                protectedSize--;
+            }
+        }
+
+        private void unlink(Node node) {
+            node.prev.next = node.next;
+            node.next.prev = node.prev;
+        }
+
+        private void linkFirst(Node head, Node node) {
+            node.prev = head;
+            node.next = head.next;
+            head.next.prev = node;
+            head.next = node;
+        }
+    }
+
+    private static Node sentinel() {
+        Node node = new Node(null);
+        node.prev = node;
+        node.next = node;
+        return node;
+    }
+}
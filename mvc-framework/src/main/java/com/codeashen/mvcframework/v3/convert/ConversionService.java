@@ -0,0 +1,281 @@
+package com.codeashen.mvcframework.v3.convert;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.Map;
+import java.util.ServiceLoader;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 类型转换注册中心，取代原来 DispatcherServlet#convert 中的 if 判断链。
+ * - 内置基本类型及其包装类、BigDecimal、日期时间等常用类型的转换器；
+ * - 枚举类型按需创建 EnumConverter 并缓存；
+ * - 带有 static valueOf(String) 方法或 String 构造器的类型自动适配；
+ * - 用户可以通过 ConverterRegistrar 注册自定义转换器。
+ * <p>
+ * 转换器在初始化阶段按形参解析好，请求时不会再访问注册中心。
+ */
+public class ConversionService {
+
+    private final Map<Class<?>, Converter> converters = new ConcurrentHashMap<>();
+
+    public ConversionService() {
+        registerDefaults();
+    }
+
+    /**
+     * 注册转换器，同一类型重复注册时后注册的生效
+     *
+     * @param type      目标类型
+     * @param converter 转换器
+     */
+    public void register(Class<?> type, Converter converter) {
+        converters.put(type, converter);
+    }
+
+    /**
+     * 通过 ServiceLoader 加载 META-INF/services 中声明的 ConverterRegistrar
+     *
+     * @param classLoader 类加载器
+     */
+    public void loadRegistrars(ClassLoader classLoader) {
+        for (ConverterRegistrar registrar : ServiceLoader.load(ConverterRegistrar.class, classLoader)) {
+            registrar.registerConverters(this);
+        }
+    }
+
+    /**
+     * 获取单值转换器
+     *
+     * @param type 目标类型
+     * @return 转换器，无法转换的类型返回 Converter.IDENTITY，即保持 String 原值
+     */
+    public Converter getConverter(Class<?> type) {
+        Converter converter = converters.get(type);
+        if (converter != null) {
+            return converter;
+        }
+        converter = createConverter(type);
+        Converter existing = converters.putIfAbsent(type, converter);
+        return existing != null ? existing : converter;
+    }
+
+    /**
+     * 获取形参级别的转换器，支持数组、List/Set 等多值类型
+     *
+     * @param type        形参类型
+     * @param genericType 形参的泛型类型，用于解析集合元素类型
+     * @return 形参转换器
+     */
+    public ParameterConverter getParameterConverter(Class<?> type, Type genericType) {
+        if (type.isArray()) {
+            Class<?> componentType = type.getComponentType();
+            return new ParameterConverter.ToArray(componentType, getConverter(componentType));
+        }
+        if (ParameterConverter.ToCollection.supports(type)) {
+            Class<?> elementType = String.class;
+            if (genericType instanceof ParameterizedType) {
+                Type argument = ((ParameterizedType) genericType).getActualTypeArguments()[0];
+                if (argument instanceof Class) {
+                    elementType = (Class<?>) argument;
+                }
+            }
+            return new ParameterConverter.ToCollection(type, getConverter(elementType));
+        }
+        // 基本类型不能传 null，请求中没有对应参数时按错误的请求处理
+        return new ParameterConverter.Scalar(getConverter(type), type.isPrimitive());
+    }
+
+    private Converter createConverter(Class<?> type) {
+        if (type.isEnum()) {
+            return new EnumConverter(type);
+        }
+        // 约定大于配置，带有 valueOf(String) 或 String 构造器的类型直接适配
+        try {
+            Method valueOf = type.getMethod("valueOf", String.class);
+            if (Modifier.isStatic(valueOf.getModifiers()) && type.isAssignableFrom(valueOf.getReturnType())) {
+                return value -> invoke(valueOf, value);
+            }
+        } catch (NoSuchMethodException ignored) {
+            // 继续尝试构造器
+        }
+        try {
+            Constructor<?> constructor = type.getConstructor(String.class);
+            return value -> newInstance(constructor, value);
+        } catch (NoSuchMethodException ignored) {
+            // 无法转换，保持原值
+        }
+        return Converter.IDENTITY;
+    }
+
+    private static Object invoke(Method method, String value) {
+        try {
+            return method.invoke(null, value);
+        } catch (Exception e) {
+            throw new IllegalArgumentException("Cannot convert \"" + value + "\" by " + method, e);
+        }
+    }
+
+    private static Object newInstance(Constructor<?> constructor, String value) {
+        try {
+            return constructor.newInstance(value);
+        } catch (Exception e) {
+            throw new IllegalArgumentException("Cannot convert \"" + value + "\" by " + constructor, e);
+        }
+    }
+
+    private void registerDefaults() {
+        register(String.class, Converter.IDENTITY);
+        register(Object.class, Converter.IDENTITY);
+
+        Converter.OfInt intConverter = new IntConverter();
+        register(int.class, intConverter);
+        register(Integer.class, intConverter);
+
+        Converter.OfLong longConverter = new LongConverter();
+        register(long.class, longConverter);
+        register(Long.class, longConverter);
+
+        Converter.OfDouble doubleConverter = value -> Double.parseDouble(value.trim());
+        register(double.class, doubleConverter);
+        register(Double.class, doubleConverter);
+
+        Converter.OfBoolean booleanConverter = ConversionService::parseBoolean;
+        register(boolean.class, booleanConverter);
+        register(Boolean.class, booleanConverter);
+
+        Converter floatConverter = value -> Float.valueOf(value.trim());
+        register(float.class, floatConverter);
+        register(Float.class, floatConverter);
+
+        Converter shortConverter = value -> Short.valueOf(value.trim());
+        register(short.class, shortConverter);
+        register(Short.class, shortConverter);
+
+        Converter byteConverter = value -> Byte.valueOf(value.trim());
+        register(byte.class, byteConverter);
+        register(Byte.class, byteConverter);
+
+        register(char.class, ConversionService::parseChar);
+        register(Character.class, value -> value.isEmpty() ? null : value.charAt(0));
+
+        register(BigDecimal.class, value -> new BigDecimal(value.trim()));
+        register(BigInteger.class, value -> new BigInteger(value.trim()));
+
+        register(LocalDate.class, value -> LocalDate.parse(value.trim()));
+        register(LocalTime.class, value -> LocalTime.parse(value.trim()));
+        register(LocalDateTime.class, value -> LocalDateTime.parse(value.trim().replace(' ', 'T')));
+        register(Date.class, ConversionService::parseDate);
+    }
+
+    /**
+     * int 转换器，路径变量可以直接按区间解析，不截取子串
+     */
+    private static class IntConverter implements Converter.OfInt {
+        @Override
+        public int convertInt(String value) {
+            return Integer.parseInt(value.trim());
+        }
+
+        @Override
+        public Object convert(String source, int start, int end) {
+            return (int) parseLong(source, start, end, Integer.MIN_VALUE, Integer.MAX_VALUE);
+        }
+    }
+
+    private static class LongConverter implements Converter.OfLong {
+        @Override
+        public long convertLong(String value) {
+            return Long.parseLong(value.trim());
+        }
+
+        @Override
+        public Object convert(String source, int start, int end) {
+            return parseLong(source, start, end, Long.MIN_VALUE, Long.MAX_VALUE);
+        }
+    }
+
+    /**
+     * 按区间解析十进制整数，首尾空白忽略，与 Long.parseLong(value.trim()) 的结果一致
+     */
+    static long parseLong(String source, int start, int end, long min, long max) {
+        int i = start;
+        int last = end;
+        while (i < last && source.charAt(i) <= ' ') {
+            i++;
+        }
+        while (last > i && source.charAt(last - 1) <= ' ') {
+            last--;
+        }
+        boolean negative = false;
+        if (i < last && (source.charAt(i) == '-' || source.charAt(i) == '+')) {
+            negative = source.charAt(i) == '-';
+            i++;
+        }
+        if (i == last) {
+            throw new NumberFormatException("For input string: \"" + source.substring(start, end) + "\"");
+        }
+        // 按负数累加，最小值也能表示
+        long limit = negative ? min : -max;
+        long result = 0;
+        for (; i < last; i++) {
+            int digit = source.charAt(i) - '0';
+            if (digit < 0 || digit > 9 || result < (limit + digit) / 10) {
+                throw new NumberFormatException("For input string: \"" + source.substring(start, end) + "\"");
+            }
+            result = result * 10 - digit;
+        }
+        return negative ? result : -result;
+    }
+
+    /**
+     * 支持 true/false、1/0、on/off、yes/no，不区分大小写，其余取值无法转换
+     */
+    private static boolean parseBoolean(String value) {
+        String text = value.trim();
+        if ("true".equalsIgnoreCase(text) || "1".equals(text)
+                || "on".equalsIgnoreCase(text) || "yes".equalsIgnoreCase(text)) {
+            return true;
+        }
+        if ("false".equalsIgnoreCase(text) || "0".equals(text)
+                || "off".equalsIgnoreCase(text) || "no".equalsIgnoreCase(text)) {
+            return false;
+        }
+        throw new IllegalArgumentException("Cannot convert \"" + value + "\" to boolean");
+    }
+
+    private static Object parseChar(String value) {
+        if (value.isEmpty()) {
+            throw new IllegalArgumentException("Cannot convert an empty string to char");
+        }
+        return value.charAt(0);
+    }
+
+    /**
+     * 支持毫秒时间戳、yyyy-MM-dd、yyyy-MM-dd HH:mm:ss 及 ISO 格式
+     */
+    private static Date parseDate(String value) {
+        value = value.trim();
+        boolean digits = !value.isEmpty();
+        for (int i = 0; i < value.length() && digits; i++) {
+            digits = Character.isDigit(value.charAt(i));
+        }
+        if (digits) {
+            return new Date(Long.parseLong(value));
+        }
+        LocalDateTime dateTime = value.length() == 10
+                ? LocalDate.parse(value).atStartOfDay()
+                : LocalDateTime.parse(value.replace(' ', 'T'));
+        return Date.from(dateTime.atZone(ZoneId.systemDefault()).toInstant());
+    }
+}
@@ -0,0 +1,68 @@
+package com.codeashen.mvcframework.v3.convert;
+
+/**
+ * 类型转换器，把请求中的 String 参数转换为处理器方法形参需要的类型。
+ * 转换器在初始化阶段按形参类型解析好，请求时直接调用，不再做类型判断。
+ */
+@FunctionalInterface
+public interface Converter {
+
+    /**
+     * 原样返回 String，不做任何转换
+     */
+    Converter IDENTITY = value -> value;
+
+    Object convert(String value);
+
+    /**
+     * 转换 source 中 [start, end) 区间的内容，用于路径变量等只记录了起止下标的值。
+     * 默认截取子串后转换，整数等转换器可以覆盖此方法直接按区间解析。
+     */
+    default Object convert(String source, int start, int end) {
+        return convert(source.substring(start, end));
+    }
+
+    /**
+     * int 专用转换器，填充 int[] 等场景可以直接取基本类型，避免装箱
+     */
+    @FunctionalInterface
+    interface OfInt extends Converter {
+        int convertInt(String value);
+
+        @Override
+        default Object convert(String value) {
+            return convertInt(value);
+        }
+    }
+
+    @FunctionalInterface
+    interface OfLong extends Converter {
+        long convertLong(String value);
+
+        @Override
+        default Object convert(String value) {
+            return convertLong(value);
+        }
+    }
+
+    @FunctionalInterface
+    interface OfDouble extends Converter {
+        double convertDouble(String value);
+
+        @Override
+        default Object convert(String value) {
+            return convertDouble(value);
+        }
+    }
+
+    @FunctionalInterface
+    interface OfBoolean extends Converter {
+        boolean convertBoolean(String value);
+
+        @Override
+        default Object convert(String value) {
+            // Boolean.valueOf 返回常量，不会产生新对象
+            return Boolean.valueOf(convertBoolean(value));
+        }
+    }
+}
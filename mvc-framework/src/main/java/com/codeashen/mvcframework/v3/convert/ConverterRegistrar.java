@@ -0,0 +1,11 @@
+package com.codeashen.mvcframework.v3.convert;
+
+/**
+ * 注册自定义转换器的扩展点。
+ * 实现类可以通过 META-INF/services/com.codeashen.mvcframework.v3.convert.ConverterRegistrar 声明，
+ * 也可以直接作为 @ASService 交给 IoC 容器管理，DispatcherServlet 初始化 handlerMapping 前会统一调用。
+ */
+public interface ConverterRegistrar {
+
+    void registerConverters(ConversionService conversionService);
+}
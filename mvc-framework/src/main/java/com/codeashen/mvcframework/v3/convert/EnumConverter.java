@@ -0,0 +1,36 @@
+package com.codeashen.mvcframework.v3.convert;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 枚举转换器，初始化时缓存枚举名到枚举常量的映射，转换时只需一次 HashMap 查找。
+ * 先按名称精确匹配，找不到再按忽略大小写匹配。
+ */
+public class EnumConverter implements Converter {
+
+    private final Class<?> enumType;
+    private final Map<String, Object> constants = new HashMap<>();
+    private final Map<String, Object> upperCaseConstants = new HashMap<>();
+
+    public EnumConverter(Class<?> enumType) {
+        this.enumType = enumType;
+        for (Object constant : enumType.getEnumConstants()) {
+            String name = ((Enum<?>) constant).name();
+            constants.put(name, constant);
+            upperCaseConstants.put(name.toUpperCase(), constant);
+        }
+    }
+
+    @Override
+    public Object convert(String value) {
+        Object constant = constants.get(value);
+        if (constant == null) {
+            constant = upperCaseConstants.get(value.trim().toUpperCase());
+        }
+        if (constant == null) {
+            throw new IllegalArgumentException("No enum constant " + enumType.getName() + "." + value);
+        }
+        return constant;
+    }
+}
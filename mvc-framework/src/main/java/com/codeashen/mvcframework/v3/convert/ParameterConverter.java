@@ -0,0 +1,150 @@
+package com.codeashen.mvcframework.v3.convert;
+
+import java.lang.reflect.Array;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 形参级别的转换器，把同名参数的全部取值（String[]）转换为形参类型。
+ * 由 ConversionService 在初始化阶段为每个形参解析一次，请求时直接调用。
+ */
+public interface ParameterConverter {
+
+    /**
+     * @param values 参数值，没有该参数时为 null
+     * @return 转换后的实参
+     */
+    Object convert(String[] values);
+
+    /**
+     * 单值类型：只有一个值时直接转换，多个值时用逗号拼接后再转换。
+     * 没有取值时，必需的参数（例如基本类型）抛出 IllegalArgumentException，其他类型返回 null。
+     */
+    class Scalar implements ParameterConverter {
+        private final Converter converter;
+        private final boolean required;
+
+        /**
+         * @param converter 单值转换器
+         * @param required  是否必须有值，基本类型的形参不能传 null
+         */
+        public Scalar(Converter converter, boolean required) {
+            this.converter = converter;
+            this.required = required;
+        }
+
+        @Override
+        public Object convert(String[] values) {
+            if (values == null || values.length == 0) {
+                if (required) {
+                    throw new IllegalArgumentException("Missing value for a required parameter");
+                }
+                return null;
+            }
+            if (values.length == 1) {
+                return converter.convert(values[0]);
+            }
+            StringBuilder sb = new StringBuilder();
+            for (int i = 0; i < values.length; i++) {
+                if (i > 0) {
+                    sb.append(',');
+                }
+                sb.append(values[i]);
+            }
+            return converter.convert(sb.toString());
+        }
+    }
+
+    /**
+     * 数组类型，每个值转换为一个元素。int[]、long[]、double[]、boolean[] 直接写入基本类型，不装箱。
+     */
+    class ToArray implements ParameterConverter {
+        private final Class<?> componentType;
+        private final Converter converter;
+
+        public ToArray(Class<?> componentType, Converter converter) {
+            this.componentType = componentType;
+            this.converter = converter;
+        }
+
+        @Override
+        public Object convert(String[] values) {
+            if (values == null) {
+                return null;
+            }
+            int length = values.length;
+            if (componentType == String.class) {
+                return values.clone();
+            }
+            if (componentType == int.class && converter instanceof Converter.OfInt) {
+                Converter.OfInt c = (Converter.OfInt) converter;
+                int[] result = new int[length];
+                for (int i = 0; i < length; i++) {
+                    result[i] = c.convertInt(values[i]);
+                }
+                return result;
+            }
+            if (componentType == long.class && converter instanceof Converter.OfLong) {
+                Converter.OfLong c = (Converter.OfLong) converter;
+                long[] result = new long[length];
+                for (int i = 0; i < length; i++) {
+                    result[i] = c.convertLong(values[i]);
+                }
+                return result;
+            }
+            if (componentType == double.class && converter instanceof Converter.OfDouble) {
+                Converter.OfDouble c = (Converter.OfDouble) converter;
+                double[] result = new double[length];
+                for (int i = 0; i < length; i++) {
+                    result[i] = c.convertDouble(values[i]);
+                }
+                return result;
+            }
+            if (componentType == boolean.class && converter instanceof Converter.OfBoolean) {
+                Converter.OfBoolean c = (Converter.OfBoolean) converter;
+                boolean[] result = new boolean[length];
+                for (int i = 0; i < length; i++) {
+                    result[i] = c.convertBoolean(values[i]);
+                }
+                return result;
+            }
+            Object result = Array.newInstance(componentType, length);
+            for (int i = 0; i < length; i++) {
+                Array.set(result, i, converter.convert(values[i]));
+            }
+            return result;
+        }
+    }
+
+    /**
+     * 集合类型，支持 List、Set 及 Collection，元素类型取自泛型参数
+     */
+    class ToCollection implements ParameterConverter {
+        private final boolean set;
+        private final Converter converter;
+
+        public ToCollection(Class<?> collectionType, Converter converter) {
+            this.set = Set.class.isAssignableFrom(collectionType);
+            this.converter = converter;
+        }
+
+        @Override
+        public Object convert(String[] values) {
+            if (values == null) {
+                return null;
+            }
+            Collection<Object> result = set ? new LinkedHashSet<>() : new ArrayList<>(values.length);
+            for (String value : values) {
+                result.add(converter.convert(value));
+            }
+            return result;
+        }
+
+        static boolean supports(Class<?> type) {
+            return type == List.class || type == Collection.class || type == Set.class || type == Iterable.class;
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.codeashen.mvcframework.v3.interceptor;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.lang.reflect.Method;
+
+/**
+ * 处理器拦截器，用于鉴权、计时、链路追踪等横切逻辑。
+ * 实现类声明为 @ASService 交给 IoC 容器管理即可生效。
+ * <p>
+ * 拦截的范围按映射的 url 而不是请求 url 匹配，在初始化 handlerMapping 时为每个处理器方法确定好，
+ * 请求时只执行自己的拦截器链，不再匹配路径。
+ * 执行顺序：preHandle 按 getOrder 升序，postHandle 和 afterCompletion 按相反顺序。
+ */
+public interface ASHandlerInterceptor {
+
+    /**
+     * 处理器方法执行前调用
+     *
+     * @param handler 处理器方法
+     * @return false 表示请求已经在拦截器中处理完，不再执行后续拦截器和处理器方法
+     */
+    default boolean preHandle(HttpServletRequest req, HttpServletResponse resp, Method handler) throws Exception {
+        return true;
+    }
+
+    /**
+     * 处理器方法执行后、写出返回值前调用，异步结果不会调用
+     *
+     * @param returnValue 处理器方法的返回值
+     */
+    default void postHandle(HttpServletRequest req, HttpServletResponse resp, Method handler,
+                            Object returnValue) throws Exception {
+    }
+
+    /**
+     * 请求结束后调用，异步结果在写出后调用。只有 preHandle 返回 true 的拦截器会调用，抛出的异常只打印不影响响应
+     *
+     * @param ex 处理过程中抛出的异常，没有时为 null
+     */
+    default void afterCompletion(HttpServletRequest req, HttpServletResponse resp, Method handler,
+                                 Exception ex) throws Exception {
+    }
+
+    /**
+     * 拦截的 url 模式，支持 ?、* 和 **，默认拦截所有处理器方法
+     */
+    default String[] getPathPatterns() {
+        return new String[]{"/**"};
+    }
+
+    /**
+     * 排除的 url 模式，优先于 getPathPatterns
+     */
+    default String[] getExcludePathPatterns() {
+        return new String[0];
+    }
+
+    /**
+     * 执行顺序，越小越先执行，相同时按注册顺序
+     */
+    default int getOrder() {
+        return 0;
+    }
+}
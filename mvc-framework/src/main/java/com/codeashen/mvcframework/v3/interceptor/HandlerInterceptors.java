@@ -0,0 +1,136 @@
+package com.codeashen.mvcframework.v3.interceptor;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * 所有拦截器，按映射的 url 为每个处理器方法解析出拦截器链
+ */
+public class HandlerInterceptors {
+
+    public static final ASHandlerInterceptor[] EMPTY = new ASHandlerInterceptor[0];
+
+    private final List<MappedInterceptor> interceptors = new ArrayList<>();
+
+    /**
+     * @param interceptors 拦截器，按 getOrder 稳定排序
+     */
+    public HandlerInterceptors(Collection<? extends ASHandlerInterceptor> interceptors) {
+        for (ASHandlerInterceptor interceptor : interceptors) {
+            this.interceptors.add(new MappedInterceptor(interceptor));
+        }
+        this.interceptors.sort((a, b) -> Integer.compare(a.interceptor.getOrder(), b.interceptor.getOrder()));
+    }
+
+    /**
+     * 解析映射的 url 对应的拦截器链
+     *
+     * @param url 处理器方法映射的 url，可以是路径模板或正则
+     * @return 拦截器链，没有时返回 EMPTY
+     */
+    public ASHandlerInterceptor[] getInterceptors(String url) {
+        List<ASHandlerInterceptor> chain = new ArrayList<>();
+        for (MappedInterceptor mapped : interceptors) {
+            if (mapped.matches(url)) {
+                chain.add(mapped.interceptor);
+            }
+        }
+        return chain.isEmpty() ? EMPTY : chain.toArray(new ASHandlerInterceptor[0]);
+    }
+
+    public boolean isEmpty() {
+        return interceptors.isEmpty();
+    }
+
+    /**
+     * url 是否匹配模式，按 / 分段比较：? 匹配一个字符，* 匹配段内任意个字符，** 匹配任意个路径段。
+     * 映射 url 中的路径变量 {id} 或正则片段按普通字符处理，可以被 * 匹配。
+     */
+    static boolean matches(String pattern, String url) {
+        return matchSegments(segments(pattern), 0, segments(url), 0);
+    }
+
+    private static boolean matchSegments(String[] pattern, int pi, String[] path, int si) {
+        if (pi == pattern.length) {
+            return si == path.length;
+        }
+        if ("**".equals(pattern[pi])) {
+            for (int k = si; k <= path.length; k++) {
+                if (matchSegments(pattern, pi + 1, path, k)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        return si < path.length && matchSegment(pattern[pi], path[si]) && matchSegments(pattern, pi + 1, path, si + 1);
+    }
+
+    /**
+     * 段内的通配符匹配，* 失配时回溯到上一个 * 的位置
+     */
+    private static boolean matchSegment(String pattern, String segment) {
+        int p = 0;
+        int s = 0;
+        int star = -1;
+        int mark = 0;
+        while (s < segment.length()) {
+            if (p < pattern.length() && (pattern.charAt(p) == '?' || pattern.charAt(p) == segment.charAt(s))) {
+                p++;
+                s++;
+            } else if (p < pattern.length() && pattern.charAt(p) == '*') {
+                star = p++;
+                mark = s;
+            } else if (star >= 0) {
+                p = star + 1;
+                s = ++mark;
+            } else {
+                return false;
+            }
+        }
+        while (p < pattern.length() && pattern.charAt(p) == '*') {
+            p++;
+        }
+        return p == pattern.length();
+    }
+
+    private static String[] segments(String path) {
+        List<String> segments = new ArrayList<>();
+        int start = 0;
+        for (int i = 0; i <= path.length(); i++) {
+            if (i == path.length() || path.charAt(i) == '/') {
+                if (i > start) {
+                    segments.add(path.substring(start, i));
+                }
+                start = i + 1;
+            }
+        }
+        return segments.toArray(new String[0]);
+    }
+
+    private static class MappedInterceptor {
+        private final ASHandlerInterceptor interceptor;
+        private final String[] includes;
+        private final String[] excludes;
+
+        MappedInterceptor(ASHandlerInterceptor interceptor) {
+            this.interceptor = interceptor;
+            this.includes = interceptor.getPathPatterns();
+            this.excludes = interceptor.getExcludePathPatterns();
+        }
+
+        boolean matches(String url) {
+            for (String exclude : excludes) {
+                if (HandlerInterceptors.matches(exclude, url)) {
+                    return false;
+                }
+            }
+            for (String include : includes) {
+                if (HandlerInterceptors.matches(include, url)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
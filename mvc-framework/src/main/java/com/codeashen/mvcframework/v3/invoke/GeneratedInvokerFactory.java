@@ -0,0 +1,341 @@
+package com.codeashen.mvcframework.v3.invoke;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 为每个处理器方法生成一个实现了 HandlerInvoker 的类，在 invoke 中直接用 invokevirtual 调用目标方法，
+ * 效果等同于手写的：
+ * <pre>
+ * public Object invoke(Object[] args) {
+ *     return target.query((HttpServletRequest) args[0], (HttpServletResponse) args[1], (String) args[2]);
+ * }
+ * </pre>
+ * 调用开销接近直接调用。字节码是直线代码，不需要 StackMapTable，因此不依赖 ASM 等字节码库。
+ * <p>
+ * 只支持 public 类的 public 实例方法，且所有用到的类型必须对生成类可见，不满足条件时抛出 IllegalArgumentException，
+ * 由调用方降级为其他实现。
+ */
+public class GeneratedInvokerFactory {
+
+    private static final String INVOKER_NAME = HandlerInvoker.class.getName().replace('.', '/');
+    private static final String CLASS_NAME_PREFIX = "com/codeashen/mvcframework/v3/invoke/GeneratedInvoker$$";
+    private static final AtomicInteger COUNTER = new AtomicInteger();
+    // 每个控制器类对应一个生成类的加载器，父加载器是控制器类的加载器。
+    // 加载器挂在控制器类上，热加载丢弃旧的类加载器后，生成的类随之一起回收
+    private static final ClassValue<InvokerClassLoader> LOADERS = new ClassValue<InvokerClassLoader>() {
+        @Override
+        protected InvokerClassLoader computeValue(Class<?> type) {
+            return new InvokerClassLoader(type.getClassLoader());
+        }
+    };
+
+    public static HandlerInvoker create(Object target, Method method) throws Exception {
+        Class<?> owner = method.getDeclaringClass();
+        if (!Modifier.isPublic(owner.getModifiers()) || owner.isInterface()
+                || !Modifier.isPublic(method.getModifiers()) || Modifier.isStatic(method.getModifiers())) {
+            throw new IllegalArgumentException("Only public instance methods of public classes are supported: " + method);
+        }
+
+        InvokerClassLoader loader = LOADERS.get(target.getClass());
+        checkVisible(loader, HandlerInvoker.class);
+        checkVisible(loader, owner);
+        for (Class<?> type : method.getParameterTypes()) {
+            checkVisible(loader, type);
+        }
+
+        String className = CLASS_NAME_PREFIX + COUNTER.incrementAndGet();
+        byte[] bytes = generate(className, method);
+        Class<?> clazz = loader.define(className.replace('/', '.'), bytes);
+        Constructor<?> constructor = clazz.getConstructor(Object.class);
+        return (HandlerInvoker) constructor.newInstance(target);
+    }
+
+    private static void checkVisible(ClassLoader loader, Class<?> type) throws ClassNotFoundException {
+        while (type.isArray()) {
+            type = type.getComponentType();
+        }
+        if (type.isPrimitive()) {
+            return;
+        }
+        if (!Modifier.isPublic(type.getModifiers())) {
+            throw new IllegalArgumentException("Type is not public: " + type.getName());
+        }
+        if (Class.forName(type.getName(), false, loader) != type) {
+            throw new IllegalArgumentException("Type is not visible: " + type.getName());
+        }
+    }
+
+    /**
+     * 生成 invoker 类的字节码
+     */
+    private static byte[] generate(String className, Method method) throws IOException {
+        ConstantPool cp = new ConstantPool();
+        String ownerName = internalName(method.getDeclaringClass());
+        String ownerDesc = "L" + ownerName + ";";
+
+        int thisClass = cp.classRef(className);
+        int superClass = cp.classRef("java/lang/Object");
+        int interfaceClass = cp.classRef(INVOKER_NAME);
+        int targetField = cp.fieldRef(className, "target", ownerDesc);
+        int objectInit = cp.methodRef("java/lang/Object", "<init>", "()V");
+        int ownerClass = cp.classRef(ownerName);
+        int targetMethod = cp.methodRef(ownerName, method.getName(), methodDescriptor(method));
+        int codeName = cp.utf8("Code");
+
+        // 构造器：this.target = (Owner) target
+        ByteArrayOutputStream initCode = new ByteArrayOutputStream();
+        DataOutputStream init = new DataOutputStream(initCode);
+        init.writeByte(0x2a);                       // aload_0
+        init.writeByte(0xb7);                       // invokespecial Object.<init>
+        init.writeShort(objectInit);
+        init.writeByte(0x2a);                       // aload_0
+        init.writeByte(0x2b);                       // aload_1
+        init.writeByte(0xc0);                       // checkcast Owner
+        init.writeShort(ownerClass);
+        init.writeByte(0xb5);                       // putfield target
+        init.writeShort(targetField);
+        init.writeByte(0xb1);                       // return
+
+        // invoke：return target.method((T0) args[0], (T1) args[1], ...)
+        ByteArrayOutputStream invokeCode = new ByteArrayOutputStream();
+        DataOutputStream invoke = new DataOutputStream(invokeCode);
+        invoke.writeByte(0x2a);                     // aload_0
+        invoke.writeByte(0xb4);                     // getfield target
+        invoke.writeShort(targetField);
+        Class<?>[] parameterTypes = method.getParameterTypes();
+        int slots = 1;
+        for (int i = 0; i < parameterTypes.length; i++) {
+            Class<?> type = parameterTypes[i];
+            invoke.writeByte(0x2b);                 // aload_1
+            pushInt(invoke, i);
+            invoke.writeByte(0x32);                 // aaload
+            if (type.isPrimitive()) {
+                Class<?> wrapper = wrapper(type);
+                invoke.writeByte(0xc0);             // checkcast Wrapper
+                invoke.writeShort(cp.classRef(internalName(wrapper)));
+                invoke.writeByte(0xb6);             // invokevirtual Wrapper.xxxValue()
+                invoke.writeShort(cp.methodRef(internalName(wrapper), type.getName() + "Value", "()" + descriptor(type)));
+            } else if (type != Object.class) {
+                invoke.writeByte(0xc0);             // checkcast Type
+                invoke.writeShort(cp.classRef(internalName(type)));
+            }
+            slots += (type == long.class || type == double.class) ? 2 : 1;
+        }
+        invoke.writeByte(0xb6);                     // invokevirtual Owner.method
+        invoke.writeShort(targetMethod);
+        Class<?> returnType = method.getReturnType();
+        if (returnType == void.class) {
+            invoke.writeByte(0x01);                 // aconst_null
+        } else if (returnType.isPrimitive()) {
+            Class<?> wrapper = wrapper(returnType);
+            invoke.writeByte(0xb8);                 // invokestatic Wrapper.valueOf
+            invoke.writeShort(cp.methodRef(internalName(wrapper), "valueOf",
+                    "(" + descriptor(returnType) + ")L" + internalName(wrapper) + ";"));
+        }
+        invoke.writeByte(0xb0);                     // areturn
+        // 操作数栈：target + 已压栈的实参 + 正在取值的 args 和下标
+        int invokeMaxStack = Math.max(slots + 2, 2);
+
+        int targetFieldName = cp.utf8("target");
+        int targetFieldDesc = cp.utf8(ownerDesc);
+        int initName = cp.utf8("<init>");
+        int initDesc = cp.utf8("(Ljava/lang/Object;)V");
+        int invokeName = cp.utf8("invoke");
+        int invokeDesc = cp.utf8("([Ljava/lang/Object;)Ljava/lang/Object;");
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(0xCAFEBABE);
+        out.writeShort(0);                          // minor_version
+        out.writeShort(52);                         // major_version，Java 8
+        cp.writeTo(out);
+        out.writeShort(0x0001 | 0x0010 | 0x0020);   // ACC_PUBLIC | ACC_FINAL | ACC_SUPER
+        out.writeShort(thisClass);
+        out.writeShort(superClass);
+        out.writeShort(1);
+        out.writeShort(interfaceClass);
+
+        out.writeShort(1);                          // fields_count
+        out.writeShort(0x0002 | 0x0010);            // ACC_PRIVATE | ACC_FINAL
+        out.writeShort(targetFieldName);
+        out.writeShort(targetFieldDesc);
+        out.writeShort(0);
+
+        out.writeShort(2);                          // methods_count
+        writeMethod(out, initName, initDesc, codeName, 3, 2, initCode.toByteArray());
+        writeMethod(out, invokeName, invokeDesc, codeName, invokeMaxStack, 2, invokeCode.toByteArray());
+
+        out.writeShort(0);                          // attributes_count
+        return bytes.toByteArray();
+    }
+
+    private static void writeMethod(DataOutputStream out, int name, int desc, int codeName,
+                                    int maxStack, int maxLocals, byte[] code) throws IOException {
+        out.writeShort(0x0001);                     // ACC_PUBLIC
+        out.writeShort(name);
+        out.writeShort(desc);
+        out.writeShort(1);                          // attributes_count
+        out.writeShort(codeName);
+        out.writeInt(12 + code.length);
+        out.writeShort(maxStack);
+        out.writeShort(maxLocals);
+        out.writeInt(code.length);
+        out.write(code);
+        out.writeShort(0);                          // exception_table_length
+        out.writeShort(0);                          // attributes_count
+    }
+
+    private static void pushInt(DataOutputStream out, int value) throws IOException {
+        if (value <= 5) {
+            out.writeByte(0x03 + value);            // iconst_<n>
+        } else if (value <= Byte.MAX_VALUE) {
+            out.writeByte(0x10);                    // bipush
+            out.writeByte(value);
+        } else {
+            out.writeByte(0x11);                    // sipush，方法最多 255 个参数
+            out.writeShort(value);
+        }
+    }
+
+    private static String methodDescriptor(Method method) {
+        StringBuilder sb = new StringBuilder("(");
+        for (Class<?> type : method.getParameterTypes()) {
+            sb.append(descriptor(type));
+        }
+        return sb.append(')').append(descriptor(method.getReturnType())).toString();
+    }
+
+    private static String descriptor(Class<?> type) {
+        if (type.isArray()) {
+            return internalName(type);
+        }
+        if (type.isPrimitive()) {
+            if (type == int.class) return "I";
+            if (type == long.class) return "J";
+            if (type == double.class) return "D";
+            if (type == float.class) return "F";
+            if (type == boolean.class) return "Z";
+            if (type == byte.class) return "B";
+            if (type == char.class) return "C";
+            if (type == short.class) return "S";
+            return "V";
+        }
+        return "L" + internalName(type) + ";";
+    }
+
+    /**
+     * 类的内部名称，数组类型使用描述符形式，可直接用于 checkcast
+     */
+    private static String internalName(Class<?> type) {
+        return type.getName().replace('.', '/');
+    }
+
+    private static Class<?> wrapper(Class<?> type) {
+        if (type == int.class) return Integer.class;
+        if (type == long.class) return Long.class;
+        if (type == double.class) return Double.class;
+        if (type == float.class) return Float.class;
+        if (type == boolean.class) return Boolean.class;
+        if (type == byte.class) return Byte.class;
+        if (type == char.class) return Character.class;
+        return Short.class;
+    }
+
+    /**
+     * 常量池，相同的常量只写一次
+     */
+    private static class ConstantPool {
+        private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        private final DataOutputStream out = new DataOutputStream(bytes);
+        private final Map<String, Integer> indexes = new HashMap<>();
+        private int count = 1;
+
+        int utf8(String value) throws IOException {
+            Integer index = indexes.get("U" + value);
+            if (index == null) {
+                out.writeByte(1);
+                out.writeUTF(value);
+                index = put("U" + value);
+            }
+            return index;
+        }
+
+        int classRef(String internalName) throws IOException {
+            Integer index = indexes.get("C" + internalName);
+            if (index == null) {
+                int name = utf8(internalName);
+                out.writeByte(7);
+                out.writeShort(name);
+                index = put("C" + internalName);
+            }
+            return index;
+        }
+
+        int fieldRef(String owner, String name, String desc) throws IOException {
+            return memberRef(9, owner, name, desc);
+        }
+
+        int methodRef(String owner, String name, String desc) throws IOException {
+            return memberRef(10, owner, name, desc);
+        }
+
+        private int memberRef(int tag, String owner, String name, String desc) throws IOException {
+            String key = tag + owner + "." + name + desc;
+            Integer index = indexes.get(key);
+            if (index == null) {
+                int ownerIndex = classRef(owner);
+                int nameAndType = nameAndType(name, desc);
+                out.writeByte(tag);
+                out.writeShort(ownerIndex);
+                out.writeShort(nameAndType);
+                index = put(key);
+            }
+            return index;
+        }
+
+        private int nameAndType(String name, String desc) throws IOException {
+            String key = "N" + name + desc;
+            Integer index = indexes.get(key);
+            if (index == null) {
+                int nameIndex = utf8(name);
+                int descIndex = utf8(desc);
+                out.writeByte(12);
+                out.writeShort(nameIndex);
+                out.writeShort(descIndex);
+                index = put(key);
+            }
+            return index;
+        }
+
+        private int put(String key) {
+            int index = count++;
+            indexes.put(key, index);
+            return index;
+        }
+
+        void writeTo(DataOutputStream target) throws IOException {
+            out.flush();
+            target.writeShort(count);
+            bytes.writeTo(target);
+        }
+    }
+
+    private static class InvokerClassLoader extends ClassLoader {
+
+        InvokerClassLoader(ClassLoader parent) {
+            super(parent);
+        }
+
+        Class<?> define(String name, byte[] bytes) {
+            return defineClass(name, bytes, 0, bytes.length);
+        }
+    }
+}
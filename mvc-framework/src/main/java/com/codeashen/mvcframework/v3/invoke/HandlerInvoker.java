@@ -0,0 +1,10 @@
+package com.codeashen.mvcframework.v3.invoke;
+
+/**
+ * 处理器方法调用器，已经绑定了 Controller 实例和 Method，调用时只需传入实参。
+ * 所有实现都直接抛出处理器方法本身抛出的异常，不再包装为 InvocationTargetException。
+ */
+public interface HandlerInvoker {
+
+    Object invoke(Object[] args) throws Exception;
+}
@@ -0,0 +1,45 @@
+package com.codeashen.mvcframework.v3.invoke;
+
+import java.lang.reflect.Method;
+
+/**
+ * 按配置创建处理器方法调用器，默认使用 MethodHandle，生成类需要显式配置为 generated。
+ * 创建失败时逐级降级：generated -> methodhandle -> reflection
+ */
+public class HandlerInvokerFactory {
+
+    public static final String GENERATED = "generated";
+    public static final String METHOD_HANDLE = "methodhandle";
+    public static final String REFLECTION = "reflection";
+
+    /**
+     * 创建调用器
+     *
+     * @param type   调用方式，取值为 generated、methodhandle、reflection，为空时使用 methodhandle
+     * @param target Controller 实例
+     * @param method 处理器方法
+     * @return 调用器
+     */
+    public static HandlerInvoker create(String type, Object target, Method method) {
+        if (type == null || "".equals(type.trim())) {
+            type = METHOD_HANDLE;
+        }
+        type = type.trim().toLowerCase();
+        if (GENERATED.equals(type)) {
+            try {
+                return GeneratedInvokerFactory.create(target, method);
+            } catch (Exception | LinkageError e) {
+                System.out.println("Generated invoker is not available for " + method + ", fallback to method handle: " + e);
+                type = METHOD_HANDLE;
+            }
+        }
+        if (METHOD_HANDLE.equals(type)) {
+            try {
+                return new MethodHandleInvoker(target, method);
+            } catch (Exception e) {
+                System.out.println("Method handle invoker is not available for " + method + ", fallback to reflection: " + e);
+            }
+        }
+        return new ReflectiveInvoker(target, method);
+    }
+}
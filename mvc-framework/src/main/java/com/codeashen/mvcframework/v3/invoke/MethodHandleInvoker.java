@@ -0,0 +1,42 @@
+package com.codeashen.mvcframework.v3.invoke;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+
+/**
+ * 基于 MethodHandle 的调用。
+ * 初始化时把 Controller 实例绑定到句柄上，并统一适配成 (Object[])Object 的签名，
+ * 调用时使用 invokeExact，省去了反射每次调用的参数校验和访问检查。
+ */
+public class MethodHandleInvoker implements HandlerInvoker {
+
+    private static final MethodType INVOKE_TYPE = MethodType.methodType(Object.class, Object[].class);
+
+    private final MethodHandle handle;
+
+    public MethodHandleInvoker(Object target, Method method) throws IllegalAccessException {
+        try {
+            // 非 public 类中的方法需要关闭访问检查
+            method.setAccessible(true);
+        } catch (RuntimeException e) {
+            // 所在模块不开放时保持原样，由 unreflect 按 lookup 的权限检查
+        }
+        this.handle = MethodHandles.lookup().unreflect(method)
+                .bindTo(target)
+                .asSpreader(Object[].class, method.getParameterCount())
+                .asType(INVOKE_TYPE);
+    }
+
+    @Override
+    public Object invoke(Object[] args) throws Exception {
+        try {
+            return (Object) handle.invokeExact(args);
+        } catch (Exception | Error e) {
+            throw e;
+        } catch (Throwable t) {
+            throw new IllegalStateException(t);
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.codeashen.mvcframework.v3.invoke;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+
+/**
+ * 基于 Method.invoke 的反射调用，兼容性最好，作为兜底实现
+ */
+public class ReflectiveInvoker implements HandlerInvoker {
+
+    private final Object target;
+    private final Method method;
+
+    public ReflectiveInvoker(Object target, Method method) {
+        this.target = target;
+        this.method = method;
+        if (!method.isAccessible()) {
+            method.setAccessible(true);
+        }
+    }
+
+    @Override
+    public Object invoke(Object[] args) throws Exception {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof Exception) {
+                throw (Exception) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw e;
+        }
+    }
+}
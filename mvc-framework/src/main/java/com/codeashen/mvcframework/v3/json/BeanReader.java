@@ -0,0 +1,229 @@
+package com.codeashen.mvcframework.v3.json;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 普通 Java 对象的读取计划，每个类只构建一次：无参构造器和每个实例字段的 MethodHandle 写入器，按字段名索引。
+ * int、long、double、boolean 字段直接从 JSON 解析为基本类型写入，不装箱；JSON 中多余的属性直接跳过，
+ * static、transient、final 字段不写入。
+ * <p>
+ * 引用类型字段的读取方式在第一次遇到该字段时才解析，自引用的类型（如树节点）不会无限递归。
+ */
+class BeanReader extends ValueReader {
+
+    private static final MethodType CONSTRUCTOR_TYPE = MethodType.methodType(Object.class);
+
+    private final Class<?> beanClass;
+    // () -> Object
+    private final MethodHandle constructor;
+    private final Map<String, FieldReader> fields;
+
+    private BeanReader(Class<?> beanClass, MethodHandle constructor, Map<String, FieldReader> fields) {
+        this.beanClass = beanClass;
+        this.constructor = constructor;
+        this.fields = fields;
+    }
+
+    static BeanReader build(Class<?> beanClass) {
+        if (beanClass.isInterface() || Modifier.isAbstract(beanClass.getModifiers())) {
+            throw new JsonException("Cannot read JSON into abstract type " + beanClass.getName());
+        }
+        List<Class<?>> hierarchy = new ArrayList<>();
+        for (Class<?> clazz = beanClass; clazz != null && clazz != Object.class; clazz = clazz.getSuperclass()) {
+            hierarchy.add(0, clazz);
+        }
+        MethodHandles.Lookup lookup = MethodHandles.lookup();
+        try {
+            Constructor<?> ctor = beanClass.getDeclaredConstructor();
+            ctor.setAccessible(true);
+            MethodHandle constructor = lookup.unreflectConstructor(ctor).asType(CONSTRUCTOR_TYPE);
+
+            // 子类的同名字段覆盖父类的
+            Map<String, FieldReader> fields = new HashMap<>();
+            for (Class<?> clazz : hierarchy) {
+                for (Field field : clazz.getDeclaredFields()) {
+                    int modifiers = field.getModifiers();
+                    if (Modifier.isStatic(modifiers) || Modifier.isTransient(modifiers) || Modifier.isFinal(modifiers)
+                            || field.isSynthetic()) {
+                        continue;
+                    }
+                    field.setAccessible(true);
+                    fields.put(field.getName(), FieldReader.create(field, lookup.unreflectSetter(field)));
+                }
+            }
+            return new BeanReader(beanClass, constructor, fields);
+        } catch (NoSuchMethodException e) {
+            throw new JsonException("No default constructor in " + beanClass.getName());
+        } catch (IllegalAccessException | RuntimeException e) {
+            throw new JsonException("Failed to access fields of " + beanClass.getName(), e);
+        }
+    }
+
+    @Override
+    Object read(JsonInput in, JsonReader json, int depth) throws IOException {
+        Object bean;
+        try {
+            bean = constructor.invokeExact();
+        } catch (Throwable e) {
+            throw new JsonException("Failed to instantiate " + beanClass.getName(), e);
+        }
+        in.expect('{');
+        if (in.consume('}')) {
+            return bean;
+        }
+        do {
+            String name = in.readString();
+            in.expect(':');
+            FieldReader field = fields.get(name);
+            if (field == null) {
+                in.skipValue(depth + 1);
+                continue;
+            }
+            try {
+                field.read(bean, in, json, depth + 1);
+            } catch (IOException | RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new JsonException("Failed to set " + field.description, e);
+            }
+        } while (in.consume(','));
+        in.expect('}');
+        return bean;
+    }
+
+    /**
+     * 一个字段的读取方式
+     */
+    private abstract static class FieldReader {
+        final String description;
+
+        FieldReader(Field field) {
+            this.description = field.toString();
+        }
+
+        abstract void read(Object bean, JsonInput in, JsonReader json, int depth) throws Throwable;
+
+        static FieldReader create(Field field, MethodHandle setter) {
+            Class<?> type = field.getType();
+            if (type == int.class) {
+                return new IntField(field, setter.asType(MethodType.methodType(void.class, Object.class, int.class)));
+            } else if (type == long.class) {
+                return new LongField(field, setter.asType(MethodType.methodType(void.class, Object.class, long.class)));
+            } else if (type == double.class) {
+                return new DoubleField(field, setter.asType(MethodType.methodType(void.class, Object.class, double.class)));
+            } else if (type == boolean.class) {
+                return new BooleanField(field, setter.asType(MethodType.methodType(void.class, Object.class, boolean.class)));
+            }
+            return new ObjectField(field, setter.asType(MethodType.methodType(void.class, Object.class, Object.class)));
+        }
+    }
+
+    private static class IntField extends FieldReader {
+        // (Object bean, int value) -> void
+        private final MethodHandle setter;
+
+        IntField(Field field, MethodHandle setter) {
+            super(field);
+            this.setter = setter;
+        }
+
+        @Override
+        void read(Object bean, JsonInput in, JsonReader json, int depth) throws Throwable {
+            // null 保留字段的默认值
+            if (!in.consumeNull()) {
+                setter.invokeExact(bean, (int) checkRange(in, readIntegral(in), Integer.MIN_VALUE, Integer.MAX_VALUE));
+            }
+        }
+    }
+
+    private static class LongField extends FieldReader {
+        // (Object bean, long value) -> void
+        private final MethodHandle setter;
+
+        LongField(Field field, MethodHandle setter) {
+            super(field);
+            this.setter = setter;
+        }
+
+        @Override
+        void read(Object bean, JsonInput in, JsonReader json, int depth) throws Throwable {
+            if (!in.consumeNull()) {
+                setter.invokeExact(bean, readIntegral(in));
+            }
+        }
+    }
+
+    private static class DoubleField extends FieldReader {
+        // (Object bean, double value) -> void
+        private final MethodHandle setter;
+
+        DoubleField(Field field, MethodHandle setter) {
+            super(field);
+            this.setter = setter;
+        }
+
+        @Override
+        void read(Object bean, JsonInput in, JsonReader json, int depth) throws Throwable {
+            if (!in.consumeNull()) {
+                setter.invokeExact(bean, in.peek() == '"' ? Double.parseDouble(in.readString()) : in.readDouble());
+            }
+        }
+    }
+
+    private static class BooleanField extends FieldReader {
+        // (Object bean, boolean value) -> void
+        private final MethodHandle setter;
+
+        BooleanField(Field field, MethodHandle setter) {
+            super(field);
+            this.setter = setter;
+        }
+
+        @Override
+        void read(Object bean, JsonInput in, JsonReader json, int depth) throws Throwable {
+            if (!in.consumeNull()) {
+                setter.invokeExact(bean, in.peek() == '"' ? Boolean.parseBoolean(in.readString().trim()) : in.readBoolean());
+            }
+        }
+    }
+
+    private static class ObjectField extends FieldReader {
+        // (Object bean, Object value) -> void
+        private final MethodHandle setter;
+        private final Type type;
+        private final boolean primitive;
+        private volatile ValueReader reader;
+
+        ObjectField(Field field, MethodHandle setter) {
+            super(field);
+            this.setter = setter;
+            this.type = field.getGenericType();
+            this.primitive = field.getType().isPrimitive();
+        }
+
+        @Override
+        void read(Object bean, JsonInput in, JsonReader json, int depth) throws Throwable {
+            ValueReader reader = this.reader;
+            if (reader == null) {
+                reader = json.getReader(type);
+                this.reader = reader;
+            }
+            Object value = json.readValue(in, reader, depth);
+            // 基本类型字段遇到 null 时保留默认值
+            if (value != null || !primitive) {
+                setter.invokeExact(bean, value);
+            }
+        }
+    }
+}
@@ -0,0 +1,218 @@
+package com.codeashen.mvcframework.v3.json;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 普通 Java 对象的写出计划，每个类只构建一次：沿继承链收集实例字段，父类字段在前，
+ * 为每个字段创建 MethodHandle 读取器并预先编码好 "name": 的字节。
+ * <p>
+ * 基本类型字段的读取器返回对应的基本类型，写出时不装箱；static、transient 字段不写出。
+ */
+class BeanWriter extends ValueWriter {
+
+    private final PropertyWriter[] properties;
+
+    private BeanWriter(PropertyWriter[] properties) {
+        this.properties = properties;
+    }
+
+    static BeanWriter build(Class<?> beanClass) {
+        List<Class<?>> hierarchy = new ArrayList<>();
+        for (Class<?> clazz = beanClass; clazz != null && clazz != Object.class; clazz = clazz.getSuperclass()) {
+            hierarchy.add(0, clazz);
+        }
+        MethodHandles.Lookup lookup = MethodHandles.lookup();
+        List<PropertyWriter> properties = new ArrayList<>();
+        try {
+            for (Class<?> clazz : hierarchy) {
+                for (Field field : clazz.getDeclaredFields()) {
+                    int modifiers = field.getModifiers();
+                    if (Modifier.isStatic(modifiers) || Modifier.isTransient(modifiers) || field.isSynthetic()) {
+                        continue;
+                    }
+                    field.setAccessible(true);
+                    properties.add(PropertyWriter.create(field, lookup.unreflectGetter(field)));
+                }
+            }
+        } catch (IllegalAccessException | RuntimeException e) {
+            throw new JsonException("Failed to access fields of " + beanClass.getName(), e);
+        }
+        return new BeanWriter(properties.toArray(new PropertyWriter[0]));
+    }
+
+    @Override
+    void write(Object value, JsonOutput out, JsonWriter json, int depth) throws IOException {
+        out.writeByte('{');
+        PropertyWriter[] properties = this.properties;
+        for (int i = 0; i < properties.length; i++) {
+            if (i > 0) {
+                out.writeByte(',');
+            }
+            PropertyWriter property = properties[i];
+            out.writeBytes(property.name);
+            try {
+                property.write(value, out, json, depth);
+            } catch (IOException | RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new JsonException("Failed to read " + property.description, e);
+            }
+        }
+        out.writeByte('}');
+    }
+
+    /**
+     * 一个字段的写出方式
+     */
+    private abstract static class PropertyWriter {
+        final byte[] name;   // "name": 的 UTF-8 编码，字段名是 Java 标识符，不需要转义
+        final String description;
+
+        PropertyWriter(Field field) {
+            this.name = ('"' + field.getName() + "\":").getBytes(StandardCharsets.UTF_8);
+            this.description = field.toString();
+        }
+
+        abstract void write(Object bean, JsonOutput out, JsonWriter json, int depth) throws Throwable;
+
+        static PropertyWriter create(Field field, MethodHandle getter) {
+            Class<?> type = field.getType();
+            if (type == int.class || type == short.class || type == byte.class) {
+                return new IntProperty(field, getter.asType(MethodType.methodType(int.class, Object.class)));
+            } else if (type == long.class) {
+                return new LongProperty(field, getter.asType(MethodType.methodType(long.class, Object.class)));
+            } else if (type == double.class || type == float.class) {
+                return new DoubleProperty(field, getter.asType(MethodType.methodType(double.class, Object.class)),
+                        type == float.class);
+            } else if (type == boolean.class) {
+                return new BooleanProperty(field, getter.asType(MethodType.methodType(boolean.class, Object.class)));
+            } else if (type == char.class) {
+                return new CharProperty(field, getter.asType(MethodType.methodType(char.class, Object.class)));
+            }
+            return new ObjectProperty(field, getter.asType(MethodType.methodType(Object.class, Object.class)));
+        }
+    }
+
+    private static class IntProperty extends PropertyWriter {
+        // (Object bean) -> int
+        private final MethodHandle getter;
+
+        IntProperty(Field field, MethodHandle getter) {
+            super(field);
+            this.getter = getter;
+        }
+
+        @Override
+        void write(Object bean, JsonOutput out, JsonWriter json, int depth) throws Throwable {
+            out.writeLong((int) getter.invokeExact(bean));
+        }
+    }
+
+    private static class LongProperty extends PropertyWriter {
+        // (Object bean) -> long
+        private final MethodHandle getter;
+
+        LongProperty(Field field, MethodHandle getter) {
+            super(field);
+            this.getter = getter;
+        }
+
+        @Override
+        void write(Object bean, JsonOutput out, JsonWriter json, int depth) throws Throwable {
+            out.writeLong((long) getter.invokeExact(bean));
+        }
+    }
+
+    private static class DoubleProperty extends PropertyWriter {
+        // (Object bean) -> double
+        private final MethodHandle getter;
+        private final boolean isFloat;
+
+        DoubleProperty(Field field, MethodHandle getter, boolean isFloat) {
+            super(field);
+            this.getter = getter;
+            this.isFloat = isFloat;
+        }
+
+        @Override
+        void write(Object bean, JsonOutput out, JsonWriter json, int depth) throws Throwable {
+            double value = (double) getter.invokeExact(bean);
+            if (isFloat) {
+                // 按 float 的精度输出，0.1f 写出 0.1 而不是 0.10000000149011612
+                out.writeFloat((float) value);
+            } else {
+                out.writeDouble(value);
+            }
+        }
+    }
+
+    private static class BooleanProperty extends PropertyWriter {
+        // (Object bean) -> boolean
+        private final MethodHandle getter;
+
+        BooleanProperty(Field field, MethodHandle getter) {
+            super(field);
+            this.getter = getter;
+        }
+
+        @Override
+        void write(Object bean, JsonOutput out, JsonWriter json, int depth) throws Throwable {
+            out.writeBoolean((boolean) getter.invokeExact(bean));
+        }
+    }
+
+    private static class CharProperty extends PropertyWriter {
+        // (Object bean) -> char
+        private final MethodHandle getter;
+
+        CharProperty(Field field, MethodHandle getter) {
+            super(field);
+            this.getter = getter;
+        }
+
+        @Override
+        void write(Object bean, JsonOutput out, JsonWriter json, int depth) throws Throwable {
+            out.writeChar((char) getter.invokeExact(bean));
+        }
+    }
+
+    private static class ObjectProperty extends PropertyWriter {
+        // (Object bean) -> Object
+        private final MethodHandle getter;
+        // 字段类型为 final 类时，第一次写出后记住写出方式，之后不再按运行时类型查找
+        private final boolean finalType;
+        private ValueWriter writer;
+
+        ObjectProperty(Field field, MethodHandle getter) {
+            super(field);
+            this.getter = getter;
+            this.finalType = Modifier.isFinal(field.getType().getModifiers());
+        }
+
+        @Override
+        void write(Object bean, JsonOutput out, JsonWriter json, int depth) throws Throwable {
+            Object value = (Object) getter.invokeExact(bean);
+            if (value == null) {
+                out.writeNull();
+                return;
+            }
+            ValueWriter writer = this.writer;
+            if (writer == null) {
+                writer = json.getWriter(value.getClass());
+                if (finalType) {
+                    this.writer = writer;
+                }
+            }
+            json.checkDepth(value, depth + 1);
+            writer.write(value, out, json, depth + 1);
+        }
+    }
+}
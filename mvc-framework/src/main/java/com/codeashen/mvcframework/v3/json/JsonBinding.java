@@ -0,0 +1,45 @@
+package com.codeashen.mvcframework.v3.json;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * 一个目标类型的 JSON 读取计划，由 JsonReader#getBinding 创建。
+ * 处理器方法的 @ASRequestBody 形参在初始化时创建一次，请求时直接使用，不再按类型查找。
+ */
+public class JsonBinding {
+
+    private final JsonReader jsonReader;
+    private final ValueReader reader;
+
+    JsonBinding(JsonReader jsonReader, ValueReader reader) {
+        this.jsonReader = jsonReader;
+        this.reader = reader;
+    }
+
+    /**
+     * 从输入流读取一个 JSON 值，值之后只允许有空白
+     *
+     * @param buffer 读取缓冲区，由调用方复用
+     * @return 输入流为空时返回 null
+     * @throws JsonException JSON 格式错误或者与目标类型不匹配
+     */
+    public Object read(InputStream in, byte[] buffer) throws IOException {
+        JsonInput input = new JsonInput(in, buffer);
+        if (input.peek() == -1) {
+            return null;
+        }
+        Object value = jsonReader.readValue(input, reader, 0);
+        if (input.peek() != -1) {
+            throw input.error("Unexpected content after JSON value");
+        }
+        return value;
+    }
+
+    /**
+     * JSON 为 null 或请求体为空时的值，基本类型为默认值
+     */
+    public Object nullValue() {
+        return reader.nullValue();
+    }
+}
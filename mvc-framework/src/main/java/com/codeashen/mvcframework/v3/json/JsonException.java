@@ -0,0 +1,15 @@
+package com.codeashen.mvcframework.v3.json;
+
+/**
+ * JSON 序列化、反序列化失败
+ */
+public class JsonException extends RuntimeException {
+
+    public JsonException(String message) {
+        super(message);
+    }
+
+    public JsonException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
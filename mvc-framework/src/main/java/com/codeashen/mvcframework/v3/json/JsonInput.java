@@ -0,0 +1,354 @@
+package com.codeashen.mvcframework.v3.json;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * 读取 JSON 的字节缓冲，从 InputStream 分批读入缓冲区后逐字节解析，UTF-8 在解析字符串时直接解码，
+ * 整数按位累加，不经过 String，请求体不会整体读入内存。
+ */
+final class JsonInput {
+
+    private final InputStream in;
+    private final byte[] buffer;
+    private int position;
+    private int limit;
+    // 已经处理过的缓冲区的总字节数，用于错误信息中的位置
+    private long consumed;
+    // 解析字符串和数字时复用的字符缓冲
+    private char[] chars = new char[64];
+
+    JsonInput(InputStream in, byte[] buffer) {
+        if (buffer.length == 0) {
+            throw new IllegalArgumentException("JSON buffer must not be empty");
+        }
+        this.in = in;
+        this.buffer = buffer;
+    }
+
+    /**
+     * 跳过空白后查看下一个字节，不消费
+     *
+     * @return 下一个字节，已到末尾时返回 -1
+     */
+    int peek() throws IOException {
+        while (true) {
+            if (position == limit && !fill()) {
+                return -1;
+            }
+            int b = buffer[position] & 0xff;
+            if (b != ' ' && b != '\n' && b != '\r' && b != '\t') {
+                return b;
+            }
+            position++;
+        }
+    }
+
+    /**
+     * 跳过空白后消费一个字节
+     */
+    int next() throws IOException {
+        int b = peek();
+        if (b != -1) {
+            position++;
+        }
+        return b;
+    }
+
+    void expect(char c) throws IOException {
+        int b = next();
+        if (b != c) {
+            throw error("Expected '" + c + "' but found " + describe(b));
+        }
+    }
+
+    /**
+     * 下一个字节是 c 时消费并返回 true
+     */
+    boolean consume(char c) throws IOException {
+        if (peek() == c) {
+            position++;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * 下一个值是 null 时消费并返回 true
+     */
+    boolean consumeNull() throws IOException {
+        if (peek() != 'n') {
+            return false;
+        }
+        readLiteral("null");
+        return true;
+    }
+
+    boolean readBoolean() throws IOException {
+        int b = peek();
+        if (b == 't') {
+            readLiteral("true");
+            return true;
+        } else if (b == 'f') {
+            readLiteral("false");
+            return false;
+        }
+        throw error("Expected boolean but found " + describe(b));
+    }
+
+    /**
+     * 读取 JSON 整数，按位累加，溢出时报错
+     */
+    long readLong() throws IOException {
+        int b = next();
+        boolean negative = b == '-';
+        if (negative) {
+            b = readRaw();
+        }
+        if (b < '0' || b > '9') {
+            throw error("Expected integer but found " + describe(b));
+        }
+        // 按负数累加，Long.MIN_VALUE 也能表示
+        long result = -(b - '0');
+        while (true) {
+            b = peekRaw();
+            if (b < '0' || b > '9') {
+                break;
+            }
+            position++;
+            int digit = b - '0';
+            if (result < (Long.MIN_VALUE + digit) / 10) {
+                throw error("Integer overflow");
+            }
+            result = result * 10 - digit;
+        }
+        if (b == '.' || b == 'e' || b == 'E') {
+            throw error("Expected integer but found a decimal number");
+        }
+        if (!negative) {
+            if (result == Long.MIN_VALUE) {
+                throw error("Integer overflow");
+            }
+            return -result;
+        }
+        return result;
+    }
+
+    double readDouble() throws IOException {
+        return Double.parseDouble(readNumberText());
+    }
+
+    /**
+     * 读取数字的原始文本，用于 BigDecimal、double 等
+     */
+    String readNumberText() throws IOException {
+        int b = peek();
+        int length = 0;
+        while (b == '-' || b == '+' || b == '.' || b == 'e' || b == 'E' || (b >= '0' && b <= '9')) {
+            position++;
+            length = append(length, (char) b);
+            b = peekRaw();
+        }
+        if (length == 0) {
+            throw error("Expected number but found " + describe(b));
+        }
+        return new String(chars, 0, length);
+    }
+
+    /**
+     * 读取字符串，处理转义并解码 UTF-8
+     */
+    String readString() throws IOException {
+        expect('"');
+        int length = 0;
+        while (true) {
+            int b = readRaw();
+            if (b == '"') {
+                return new String(chars, 0, length);
+            } else if (b == '\\') {
+                length = append(length, readEscape());
+            } else if (b < 0) {
+                throw error("Unterminated string");
+            } else if (b < 0x20) {
+                throw error("Unescaped control character in string");
+            } else if (b < 0x80) {
+                length = append(length, (char) b);
+            } else if ((b & 0xe0) == 0xc0) {
+                length = append(length, (char) ((b & 0x1f) << 6 | continuation()));
+            } else if ((b & 0xf0) == 0xe0) {
+                length = append(length, (char) ((b & 0x0f) << 12 | continuation() << 6 | continuation()));
+            } else if ((b & 0xf8) == 0xf0) {
+                int codePoint = (b & 0x07) << 18 | continuation() << 12 | continuation() << 6 | continuation();
+                length = append(length, Character.highSurrogate(codePoint));
+                length = append(length, Character.lowSurrogate(codePoint));
+            } else {
+                throw error("Invalid UTF-8 byte " + b);
+            }
+        }
+    }
+
+    /**
+     * 读取字符串、数字或布尔值的文本，用于按 ConversionService 转换的类型
+     */
+    String readScalarText() throws IOException {
+        int b = peek();
+        if (b == '"') {
+            return readString();
+        } else if (b == 't' || b == 'f') {
+            return String.valueOf(readBoolean());
+        }
+        return readNumberText();
+    }
+
+    /**
+     * 跳过一个任意的值，用于目标类型中不存在的属性
+     */
+    void skipValue(int depth) throws IOException {
+        if (depth > JsonReader.MAX_DEPTH) {
+            throw error("JSON nesting exceeds " + JsonReader.MAX_DEPTH + " levels");
+        }
+        int b = peek();
+        if (b == '{') {
+            position++;
+            if (consume('}')) {
+                return;
+            }
+            do {
+                readString();
+                expect(':');
+                skipValue(depth + 1);
+            } while (consume(','));
+            expect('}');
+        } else if (b == '[') {
+            position++;
+            if (consume(']')) {
+                return;
+            }
+            do {
+                skipValue(depth + 1);
+            } while (consume(','));
+            expect(']');
+        } else if (b == '"') {
+            skipString();
+        } else if (b == 'n') {
+            readLiteral("null");
+        } else if (b == 't' || b == 'f') {
+            readBoolean();
+        } else {
+            readNumberText();
+        }
+    }
+
+    JsonException error(String message) {
+        return error(message, null);
+    }
+
+    JsonException error(String message, Throwable cause) {
+        return new JsonException(message + " at byte " + (consumed + position), cause);
+    }
+
+    private void skipString() throws IOException {
+        expect('"');
+        while (true) {
+            int b = readRaw();
+            if (b == '"') {
+                return;
+            } else if (b == '\\') {
+                readRaw();
+            } else if (b < 0) {
+                throw error("Unterminated string");
+            }
+        }
+    }
+
+    private char readEscape() throws IOException {
+        int b = readRaw();
+        switch (b) {
+            case '"':
+            case '\\':
+            case '/':
+                return (char) b;
+            case 'n':
+                return '\n';
+            case 'r':
+                return '\r';
+            case 't':
+                return '\t';
+            case 'b':
+                return '\b';
+            case 'f':
+                return '\f';
+            case 'u':
+                int c = 0;
+                for (int i = 0; i < 4; i++) {
+                    int digit = Character.digit(readRaw(), 16);
+                    if (digit < 0) {
+                        throw error("Invalid unicode escape");
+                    }
+                    c = c << 4 | digit;
+                }
+                return (char) c;
+            default:
+                throw error("Invalid escape " + describe(b));
+        }
+    }
+
+    private int continuation() throws IOException {
+        int b = readRaw();
+        if ((b & 0xc0) != 0x80) {
+            throw error("Invalid UTF-8 continuation byte");
+        }
+        return b & 0x3f;
+    }
+
+    private void readLiteral(String literal) throws IOException {
+        for (int i = 0; i < literal.length(); i++) {
+            if (readRaw() != literal.charAt(i)) {
+                throw error("Expected " + literal);
+            }
+        }
+    }
+
+    private int append(int length, char c) {
+        if (length == chars.length) {
+            char[] larger = new char[length * 2];
+            System.arraycopy(chars, 0, larger, 0, length);
+            chars = larger;
+        }
+        chars[length] = c;
+        return length + 1;
+    }
+
+    /**
+     * 不跳过空白，读取下一个字节
+     */
+    private int readRaw() throws IOException {
+        if (position == limit && !fill()) {
+            return -1;
+        }
+        return buffer[position++] & 0xff;
+    }
+
+    private int peekRaw() throws IOException {
+        if (position == limit && !fill()) {
+            return -1;
+        }
+        return buffer[position] & 0xff;
+    }
+
+    private boolean fill() throws IOException {
+        consumed += limit;
+        position = 0;
+        limit = 0;
+        int n = in.read(buffer, 0, buffer.length);
+        if (n <= 0) {
+            return false;
+        }
+        limit = n;
+        return true;
+    }
+
+    private static String describe(int b) {
+        return b < 0 ? "end of input" : "'" + (char) b + "'";
+    }
+}
@@ -0,0 +1,208 @@
+package com.codeashen.mvcframework.v3.json;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * 写出 JSON 的字节缓冲，字符直接编码为 UTF-8 写入缓冲区，缓冲区满时刷出到 OutputStream，不生成中间的 String。
+ * 整数按位写出，不经过 Long.toString。
+ */
+final class JsonOutput {
+
+    // 单次写出需要的最大字节数：long 的最小值 20 字节，一个字符转义后最多 6 字节
+    static final int MIN_BUFFER_SIZE = 32;
+
+    private static final byte[] HEX = {'0', '1', '2', '3', '4', '5', '6', '7', '8', '9', 'a', 'b', 'c', 'd', 'e', 'f'};
+    private static final byte[] MIN_LONG = {'-', '9', '2', '2', '3', '3', '7', '2', '0', '3', '6', '8', '5', '4', '7', '7', '5', '8', '0', '8'};
+    private static final byte[] NULL = {'n', 'u', 'l', 'l'};
+    private static final byte[] TRUE = {'t', 'r', 'u', 'e'};
+    private static final byte[] FALSE = {'f', 'a', 'l', 's', 'e'};
+
+    private final OutputStream out;
+    private final byte[] buffer;
+    private int position;
+
+    JsonOutput(OutputStream out, byte[] buffer) {
+        if (buffer.length < MIN_BUFFER_SIZE) {
+            throw new IllegalArgumentException("JSON buffer must be at least " + MIN_BUFFER_SIZE + " bytes");
+        }
+        this.out = out;
+        this.buffer = buffer;
+    }
+
+    void writeByte(int b) throws IOException {
+        if (position == buffer.length) {
+            flushBuffer();
+        }
+        buffer[position++] = (byte) b;
+    }
+
+    void writeBytes(byte[] bytes) throws IOException {
+        if (bytes.length > buffer.length - position) {
+            flushBuffer();
+            if (bytes.length > buffer.length) {
+                out.write(bytes);
+                return;
+            }
+        }
+        System.arraycopy(bytes, 0, buffer, position, bytes.length);
+        position += bytes.length;
+    }
+
+    void writeNull() throws IOException {
+        writeBytes(NULL);
+    }
+
+    void writeBoolean(boolean value) throws IOException {
+        writeBytes(value ? TRUE : FALSE);
+    }
+
+    void writeLong(long value) throws IOException {
+        if (value == Long.MIN_VALUE) {
+            writeBytes(MIN_LONG);
+            return;
+        }
+        ensure(20);
+        if (value < 0) {
+            buffer[position++] = '-';
+            value = -value;
+        }
+        int digits = 1;
+        for (long v = value; v >= 10; v /= 10) {
+            digits++;
+        }
+        int end = position + digits;
+        for (int i = end - 1; i >= position; i--) {
+            buffer[i] = (byte) ('0' + value % 10);
+            value /= 10;
+        }
+        position = end;
+    }
+
+    /**
+     * NaN 和无穷大不是合法的 JSON 数字，写出 null
+     */
+    void writeDouble(double value) throws IOException {
+        if (Double.isNaN(value) || Double.isInfinite(value)) {
+            writeNull();
+        } else if (value == (long) value && Math.abs(value) < 1e15
+                && Double.doubleToRawLongBits(value) != Long.MIN_VALUE) {
+            // 整数值不经过 Double.toString，与 Double.toString 一样保留 .0；-0.0 转为 long 会丢失符号，不走这里
+            writeLong((long) value);
+            writeByte('.');
+            writeByte('0');
+        } else {
+            writeAscii(Double.toString(value));
+        }
+    }
+
+    void writeFloat(float value) throws IOException {
+        if (Float.isNaN(value) || Float.isInfinite(value)) {
+            writeNull();
+        } else {
+            writeAscii(Float.toString(value));
+        }
+    }
+
+    /**
+     * 写出只包含 ASCII 字符的内容，例如 BigDecimal.toString 的结果
+     */
+    void writeAscii(String value) throws IOException {
+        for (int i = 0; i < value.length(); i++) {
+            writeByte(value.charAt(i));
+        }
+    }
+
+    void writeString(CharSequence value) throws IOException {
+        writeByte('"');
+        for (int i = 0, length = value.length(); i < length; i++) {
+            char c = value.charAt(i);
+            ensure(6);
+            if (c >= 0x20 && c < 0x80) {
+                if (c == '"' || c == '\\') {
+                    buffer[position++] = '\\';
+                }
+                buffer[position++] = (byte) c;
+            } else if (c < 0x20) {
+                writeControl(c);
+            } else if (c < 0x800) {
+                buffer[position++] = (byte) (0xc0 | c >> 6);
+                buffer[position++] = (byte) (0x80 | c & 0x3f);
+            } else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(value.charAt(i + 1))) {
+                int codePoint = Character.toCodePoint(c, value.charAt(++i));
+                buffer[position++] = (byte) (0xf0 | codePoint >> 18);
+                buffer[position++] = (byte) (0x80 | codePoint >> 12 & 0x3f);
+                buffer[position++] = (byte) (0x80 | codePoint >> 6 & 0x3f);
+                buffer[position++] = (byte) (0x80 | codePoint & 0x3f);
+            } else if (Character.isSurrogate(c)) {
+                // 不成对的代理字符无法编码为 UTF-8，转义后原样保留
+                writeUnicodeEscape(c);
+            } else {
+                buffer[position++] = (byte) (0xe0 | c >> 12);
+                buffer[position++] = (byte) (0x80 | c >> 6 & 0x3f);
+                buffer[position++] = (byte) (0x80 | c & 0x3f);
+            }
+        }
+        writeByte('"');
+    }
+
+    void writeChar(char value) throws IOException {
+        writeString(String.valueOf(value));
+    }
+
+    private void writeControl(char c) {
+        switch (c) {
+            case '\n':
+                buffer[position++] = '\\';
+                buffer[position++] = 'n';
+                break;
+            case '\r':
+                buffer[position++] = '\\';
+                buffer[position++] = 'r';
+                break;
+            case '\t':
+                buffer[position++] = '\\';
+                buffer[position++] = 't';
+                break;
+            case '\b':
+                buffer[position++] = '\\';
+                buffer[position++] = 'b';
+                break;
+            case '\f':
+                buffer[position++] = '\\';
+                buffer[position++] = 'f';
+                break;
+            default:
+                writeUnicodeEscape(c);
+        }
+    }
+
+    private void writeUnicodeEscape(char c) {
+        buffer[position++] = '\\';
+        buffer[position++] = 'u';
+        buffer[position++] = HEX[c >> 12 & 0xf];
+        buffer[position++] = HEX[c >> 8 & 0xf];
+        buffer[position++] = HEX[c >> 4 & 0xf];
+        buffer[position++] = HEX[c & 0xf];
+    }
+
+    private void ensure(int length) throws IOException {
+        if (buffer.length - position < length) {
+            flushBuffer();
+        }
+    }
+
+    private void flushBuffer() throws IOException {
+        if (position > 0) {
+            out.write(buffer, 0, position);
+            position = 0;
+        }
+    }
+
+    /**
+     * 把缓冲区中剩余的内容写入 OutputStream，不调用 OutputStream#flush，由容器决定何时提交响应
+     */
+    void flush() throws IOException {
+        flushBuffer();
+    }
+}
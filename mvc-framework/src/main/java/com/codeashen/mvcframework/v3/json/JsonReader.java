@@ -0,0 +1,210 @@
+package com.codeashen.mvcframework.v3.json;
+
+import com.codeashen.mvcframework.v3.convert.ConversionService;
+import com.codeashen.mvcframework.v3.convert.Converter;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.GenericArrayType;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.lang.reflect.TypeVariable;
+import java.lang.reflect.WildcardType;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.SortedSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
+/**
+ * 不依赖第三方库的 JSON 反序列化，与 JsonWriter 对应。
+ * - 每个目标类型（包括泛型参数）的读取方式创建一次并缓存，普通 Java 对象按字段生成读取计划，见 BeanReader；
+ * - 从 InputStream 分批读入调用方提供的缓冲区后逐字节解析，不会先把整个请求体读成 String；
+ * - 枚举、日期时间等 JDK 类型读取文本后交给 ConversionService，与 @ASRequestParam 的转换规则一致。
+ * <p>
+ * 泛型类中以类型变量声明的字段按 Object 读取。线程安全，整个应用共用一个实例即可。
+ */
+public class JsonReader {
+
+    static final int MAX_DEPTH = 256;
+
+    private final ConversionService conversionService;
+    private final ConcurrentMap<Type, ValueReader> readers = new ConcurrentHashMap<>();
+
+    public JsonReader(ConversionService conversionService) {
+        this.conversionService = conversionService;
+    }
+
+    /**
+     * 获取目标类型的读取计划，调用方可以保存下来重复使用
+     *
+     * @param type 目标类型，可以是带泛型参数的类型，例如 List&lt;User&gt;
+     */
+    public JsonBinding getBinding(Type type) {
+        return new JsonBinding(this, getReader(type));
+    }
+
+    /**
+     * 从输入流读取一个 JSON 值
+     *
+     * @param buffer 读取缓冲区，由调用方复用
+     * @return 输入流为空时返回 null
+     */
+    public Object read(InputStream in, Type type, byte[] buffer) throws IOException {
+        return getBinding(type).read(in, buffer);
+    }
+
+    Object readValue(JsonInput in, ValueReader reader, int depth) throws IOException {
+        if (depth > MAX_DEPTH) {
+            throw in.error("JSON nesting exceeds " + MAX_DEPTH + " levels");
+        }
+        if (in.consumeNull()) {
+            return reader.nullValue();
+        }
+        return reader.read(in, this, depth);
+    }
+
+    ValueReader getReader(Type type) {
+        ValueReader reader = readers.get(type);
+        if (reader == null) {
+            // 不使用 computeIfAbsent：创建集合的读取方式时会递归获取元素的读取方式
+            reader = createReader(type);
+            ValueReader existing = readers.putIfAbsent(type, reader);
+            if (existing != null) {
+                reader = existing;
+            }
+        }
+        return reader;
+    }
+
+    private ValueReader createReader(Type type) {
+        if (type instanceof Class) {
+            return createReader((Class<?>) type, new Type[0]);
+        } else if (type instanceof ParameterizedType) {
+            ParameterizedType parameterized = (ParameterizedType) type;
+            return createReader((Class<?>) parameterized.getRawType(), parameterized.getActualTypeArguments());
+        } else if (type instanceof GenericArrayType) {
+            Type componentType = ((GenericArrayType) type).getGenericComponentType();
+            return new ValueReader.ArrayReader(rawType(componentType), getReader(componentType));
+        } else if (type instanceof WildcardType) {
+            return getReader(((WildcardType) type).getUpperBounds()[0]);
+        } else if (type instanceof TypeVariable) {
+            return getReader(((TypeVariable<?>) type).getBounds()[0]);
+        }
+        throw new JsonException("Unsupported type " + type);
+    }
+
+    private ValueReader createReader(Class<?> type, Type[] typeArguments) {
+        if (type == String.class || type == CharSequence.class) {
+            return ValueReader.STRING;
+        } else if (type == Object.class) {
+            return ValueReader.UNTYPED;
+        } else if (type == int.class || type == Integer.class) {
+            return ValueReader.ofInt(type.isPrimitive());
+        } else if (type == long.class || type == Long.class) {
+            return ValueReader.ofLong(type.isPrimitive());
+        } else if (type == double.class || type == Double.class) {
+            return ValueReader.ofDouble(type.isPrimitive());
+        } else if (type == boolean.class || type == Boolean.class) {
+            return ValueReader.ofBoolean(type.isPrimitive());
+        } else if (type == float.class || type == Float.class) {
+            return ValueReader.ofFloat(type.isPrimitive());
+        } else if (type == short.class || type == Short.class) {
+            return ValueReader.ofShort(type.isPrimitive());
+        } else if (type == byte.class || type == Byte.class) {
+            return ValueReader.ofByte(type.isPrimitive());
+        } else if (type == char.class || type == Character.class) {
+            return ValueReader.ofChar(type.isPrimitive());
+        } else if (type == BigDecimal.class) {
+            return ValueReader.BIG_DECIMAL;
+        } else if (type == BigInteger.class) {
+            return ValueReader.BIG_INTEGER;
+        } else if (type.isArray()) {
+            return new ValueReader.ArrayReader(type.getComponentType(), getReader(type.getComponentType()));
+        } else if (Collection.class.isAssignableFrom(type) || type == Iterable.class) {
+            return new ValueReader.CollectionReader(collectionFactory(type), getReader(typeArgument(typeArguments, 0)));
+        } else if (Map.class.isAssignableFrom(type)) {
+            Converter keyConverter = conversionService.getConverter(rawType(typeArgument(typeArguments, 0)));
+            return new ValueReader.MapReader(mapFactory(type), keyConverter, getReader(typeArgument(typeArguments, 1)));
+        } else if (type.isEnum() || type.getName().startsWith("java.")) {
+            Converter converter = conversionService.getConverter(type);
+            if (converter == Converter.IDENTITY) {
+                throw new JsonException("No converter for " + type.getName());
+            }
+            return new ValueReader.Converted(converter);
+        }
+        return BeanReader.build(type);
+    }
+
+    private static Type typeArgument(Type[] typeArguments, int index) {
+        return index < typeArguments.length ? typeArguments[index] : Object.class;
+    }
+
+    private static Class<?> rawType(Type type) {
+        if (type instanceof Class) {
+            return (Class<?>) type;
+        } else if (type instanceof ParameterizedType) {
+            return (Class<?>) ((ParameterizedType) type).getRawType();
+        }
+        return Object.class;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Supplier<Collection<Object>> collectionFactory(Class<?> type) {
+        if (type.isInterface() || Modifier.isAbstract(type.getModifiers())) {
+            if (SortedSet.class.isAssignableFrom(type)) {
+                return TreeSet::new;
+            } else if (Set.class.isAssignableFrom(type)) {
+                return LinkedHashSet::new;
+            }
+            return ArrayList::new;
+        }
+        MethodHandle constructor = defaultConstructor(type);
+        return () -> (Collection<Object>) newInstance(constructor, type);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Supplier<Map<Object, Object>> mapFactory(Class<?> type) {
+        if (type.isInterface() || Modifier.isAbstract(type.getModifiers())) {
+            if (SortedMap.class.isAssignableFrom(type)) {
+                return TreeMap::new;
+            }
+            return LinkedHashMap::new;
+        }
+        MethodHandle constructor = defaultConstructor(type);
+        return () -> (Map<Object, Object>) newInstance(constructor, type);
+    }
+
+    private static MethodHandle defaultConstructor(Class<?> type) {
+        try {
+            Constructor<?> constructor = type.getDeclaredConstructor();
+            constructor.setAccessible(true);
+            return MethodHandles.lookup().unreflectConstructor(constructor).asType(MethodType.methodType(Object.class));
+        } catch (NoSuchMethodException | IllegalAccessException | RuntimeException e) {
+            throw new JsonException("No accessible default constructor in " + type.getName(), e);
+        }
+    }
+
+    private static Object newInstance(MethodHandle constructor, Class<?> type) {
+        try {
+            return constructor.invokeExact();
+        } catch (Throwable e) {
+            throw new JsonException("Failed to instantiate " + type.getName(), e);
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package com.codeashen.mvcframework.v3.json;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 不依赖第三方库的 JSON 序列化。
+ * - 每种类型的写出方式按 Class 创建一次并缓存，普通 Java 对象按字段生成写出计划，见 BeanWriter；
+ * - 直接按 UTF-8 编码写入调用方提供的缓冲区，缓冲区满时刷出到 OutputStream，不生成中间的 String；
+ * - 基本类型字段和 int[]、long[]、double[]、boolean[] 写出时不装箱。
+ * <p>
+ * 嵌套超过 256 层时认为存在循环引用，抛出 JsonException。线程安全，整个应用共用一个实例即可。
+ */
+public class JsonWriter {
+
+    private static final int MAX_DEPTH = 256;
+
+    private final ConcurrentMap<Class<?>, ValueWriter> writers = new ConcurrentHashMap<>();
+
+    /**
+     * 序列化后写入输出流，方法返回时所有内容已写入 out
+     *
+     * @param buffer 写出缓冲区，至少 32 字节，由调用方复用
+     */
+    public void write(Object value, OutputStream out, byte[] buffer) throws IOException {
+        JsonOutput output = new JsonOutput(out, buffer);
+        writeValue(value, output, 0);
+        output.flush();
+    }
+
+    /**
+     * 序列化为字符串，用于测试和日志
+     */
+    public String toJson(Object value) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try {
+            write(value, out, new byte[256]);
+        } catch (IOException e) {
+            throw new JsonException("Failed to write JSON", e);
+        }
+        return new String(out.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    void writeValue(Object value, JsonOutput out, int depth) throws IOException {
+        if (value == null) {
+            out.writeNull();
+            return;
+        }
+        checkDepth(value, depth);
+        getWriter(value.getClass()).write(value, out, this, depth);
+    }
+
+    void checkDepth(Object value, int depth) {
+        if (depth > MAX_DEPTH) {
+            throw new JsonException("JSON nesting exceeds " + MAX_DEPTH + " levels, possibly a circular reference in "
+                    + value.getClass().getName());
+        }
+    }
+
+    /**
+     * 获取类型的写出方式，第一次使用时创建
+     */
+    ValueWriter getWriter(Class<?> type) {
+        ValueWriter writer = writers.get(type);
+        if (writer == null) {
+            writer = createWriter(type);
+            ValueWriter existing = writers.putIfAbsent(type, writer);
+            if (existing != null) {
+                writer = existing;
+            }
+        }
+        return writer;
+    }
+
+    private static ValueWriter createWriter(Class<?> type) {
+        if (CharSequence.class.isAssignableFrom(type)) {
+            return ValueWriter.STRING;
+        } else if (type == Boolean.class) {
+            return ValueWriter.BOOLEAN;
+        } else if (type == Character.class) {
+            return ValueWriter.CHARACTER;
+        } else if (type == Integer.class || type == Long.class || type == Short.class || type == Byte.class
+                || type == AtomicInteger.class || type == AtomicLong.class) {
+            return ValueWriter.INTEGRAL;
+        } else if (type == Double.class) {
+            return ValueWriter.DOUBLE;
+        } else if (type == Float.class) {
+            return ValueWriter.FLOAT;
+        } else if (Number.class.isAssignableFrom(type)) {
+            return ValueWriter.NUMBER;
+        } else if (type.isEnum() || Enum.class.isAssignableFrom(type)) {
+            // 带有方法体的枚举常量是枚举类的匿名子类
+            return ValueWriter.ENUM;
+        } else if (type == Optional.class) {
+            return ValueWriter.OPTIONAL;
+        } else if (Map.class.isAssignableFrom(type)) {
+            return ValueWriter.MAP;
+        } else if (Iterable.class.isAssignableFrom(type)) {
+            return ValueWriter.ITERABLE;
+        } else if (type.isArray()) {
+            Class<?> componentType = type.getComponentType();
+            if (!componentType.isPrimitive()) {
+                return ValueWriter.OBJECT_ARRAY;
+            } else if (componentType == int.class) {
+                return ValueWriter.INT_ARRAY;
+            } else if (componentType == long.class) {
+                return ValueWriter.LONG_ARRAY;
+            } else if (componentType == double.class) {
+                return ValueWriter.DOUBLE_ARRAY;
+            } else if (componentType == boolean.class) {
+                return ValueWriter.BOOLEAN_ARRAY;
+            } else if (componentType == char.class) {
+                return ValueWriter.CHAR_ARRAY;
+            }
+            return ValueWriter.PRIMITIVE_ARRAY;
+        } else if (type.getName().startsWith("java.")) {
+            // 日期时间、UUID、URI 等 JDK 类型的字段是内部实现，写出 toString 的结果
+            return ValueWriter.TO_STRING;
+        }
+        return BeanWriter.build(type);
+    }
+}
@@ -0,0 +1,383 @@
+package com.codeashen.mvcframework.v3.json;
+
+import com.codeashen.mvcframework.v3.convert.Converter;
+
+import java.io.IOException;
+import java.lang.reflect.Array;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * 一种目标类型的 JSON 读取方式，由 JsonReader 按类型创建并缓存
+ */
+abstract class ValueReader {
+
+    /**
+     * 读取不为 null 的值
+     *
+     * @param depth 当前嵌套层数
+     */
+    abstract Object read(JsonInput in, JsonReader json, int depth) throws IOException;
+
+    /**
+     * JSON 中的值为 null 时的结果，基本类型为默认值
+     */
+    Object nullValue() {
+        return null;
+    }
+
+    /**
+     * 读取整数，也接受字符串形式的整数
+     */
+    static long readIntegral(JsonInput in) throws IOException {
+        if (in.peek() == '"') {
+            String text = in.readString().trim();
+            try {
+                return Long.parseLong(text);
+            } catch (NumberFormatException e) {
+                throw in.error("Expected integer but found \"" + text + "\"");
+            }
+        }
+        return in.readLong();
+    }
+
+    static long checkRange(JsonInput in, long value, long min, long max) {
+        if (value < min || value > max) {
+            throw in.error("Integer " + value + " out of range");
+        }
+        return value;
+    }
+
+    static final ValueReader STRING = new ValueReader() {
+        @Override
+        Object read(JsonInput in, JsonReader json, int depth) throws IOException {
+            return in.readScalarText();
+        }
+    };
+
+    static ValueReader ofInt(boolean primitive) {
+        return new ValueReader() {
+            @Override
+            Object read(JsonInput in, JsonReader json, int depth) throws IOException {
+                return (int) checkRange(in, readIntegral(in), Integer.MIN_VALUE, Integer.MAX_VALUE);
+            }
+
+            @Override
+            Object nullValue() {
+                return primitive ? 0 : null;
+            }
+        };
+    }
+
+    static ValueReader ofLong(boolean primitive) {
+        return new ValueReader() {
+            @Override
+            Object read(JsonInput in, JsonReader json, int depth) throws IOException {
+                return readIntegral(in);
+            }
+
+            @Override
+            Object nullValue() {
+                return primitive ? 0L : null;
+            }
+        };
+    }
+
+    static ValueReader ofShort(boolean primitive) {
+        return new ValueReader() {
+            @Override
+            Object read(JsonInput in, JsonReader json, int depth) throws IOException {
+                return (short) checkRange(in, readIntegral(in), Short.MIN_VALUE, Short.MAX_VALUE);
+            }
+
+            @Override
+            Object nullValue() {
+                return primitive ? (short) 0 : null;
+            }
+        };
+    }
+
+    static ValueReader ofByte(boolean primitive) {
+        return new ValueReader() {
+            @Override
+            Object read(JsonInput in, JsonReader json, int depth) throws IOException {
+                return (byte) checkRange(in, readIntegral(in), Byte.MIN_VALUE, Byte.MAX_VALUE);
+            }
+
+            @Override
+            Object nullValue() {
+                return primitive ? (byte) 0 : null;
+            }
+        };
+    }
+
+    static ValueReader ofDouble(boolean primitive) {
+        return new ValueReader() {
+            @Override
+            Object read(JsonInput in, JsonReader json, int depth) throws IOException {
+                return Double.parseDouble(in.readScalarText());
+            }
+
+            @Override
+            Object nullValue() {
+                return primitive ? 0D : null;
+            }
+        };
+    }
+
+    static ValueReader ofFloat(boolean primitive) {
+        return new ValueReader() {
+            @Override
+            Object read(JsonInput in, JsonReader json, int depth) throws IOException {
+                return Float.parseFloat(in.readScalarText());
+            }
+
+            @Override
+            Object nullValue() {
+                return primitive ? 0F : null;
+            }
+        };
+    }
+
+    static ValueReader ofBoolean(boolean primitive) {
+        return new ValueReader() {
+            @Override
+            Object read(JsonInput in, JsonReader json, int depth) throws IOException {
+                return in.peek() == '"' ? Boolean.valueOf(in.readString().trim()) : Boolean.valueOf(in.readBoolean());
+            }
+
+            @Override
+            Object nullValue() {
+                return primitive ? Boolean.FALSE : null;
+            }
+        };
+    }
+
+    static ValueReader ofChar(boolean primitive) {
+        return new ValueReader() {
+            @Override
+            Object read(JsonInput in, JsonReader json, int depth) throws IOException {
+                String text = in.readScalarText();
+                if (text.length() != 1) {
+                    throw in.error("Expected a single character but found \"" + text + "\"");
+                }
+                return text.charAt(0);
+            }
+
+            @Override
+            Object nullValue() {
+                return primitive ? (char) 0 : null;
+            }
+        };
+    }
+
+    static final ValueReader BIG_DECIMAL = new ValueReader() {
+        @Override
+        Object read(JsonInput in, JsonReader json, int depth) throws IOException {
+            return new BigDecimal(in.readScalarText().trim());
+        }
+    };
+
+    static final ValueReader BIG_INTEGER = new ValueReader() {
+        @Override
+        Object read(JsonInput in, JsonReader json, int depth) throws IOException {
+            return new BigInteger(in.readScalarText().trim());
+        }
+    };
+
+    /**
+     * 枚举、日期时间等类型，读取文本后交给 ConversionService 中对应的转换器
+     */
+    static class Converted extends ValueReader {
+        private final Converter converter;
+
+        Converted(Converter converter) {
+            this.converter = converter;
+        }
+
+        @Override
+        Object read(JsonInput in, JsonReader json, int depth) throws IOException {
+            String text = in.readScalarText();
+            try {
+                return converter.convert(text);
+            } catch (RuntimeException e) {
+                throw in.error("Cannot convert \"" + text + "\"", e);
+            }
+        }
+    }
+
+    /**
+     * 目标类型为 Object 时按 JSON 的值类型读取：对象读为 LinkedHashMap，数组读为 ArrayList，
+     * 整数读为 Long，小数读为 Double
+     */
+    static final ValueReader UNTYPED = new ValueReader() {
+        @Override
+        Object read(JsonInput in, JsonReader json, int depth) throws IOException {
+            int b = in.peek();
+            if (b == '{') {
+                Map<String, Object> map = new LinkedHashMap<>();
+                in.expect('{');
+                if (!in.consume('}')) {
+                    do {
+                        String key = in.readString();
+                        in.expect(':');
+                        map.put(key, json.readValue(in, this, depth + 1));
+                    } while (in.consume(','));
+                    in.expect('}');
+                }
+                return map;
+            } else if (b == '[') {
+                List<Object> list = new ArrayList<>();
+                in.expect('[');
+                if (!in.consume(']')) {
+                    do {
+                        list.add(json.readValue(in, this, depth + 1));
+                    } while (in.consume(','));
+                    in.expect(']');
+                }
+                return list;
+            } else if (b == '"') {
+                return in.readString();
+            } else if (b == 't' || b == 'f') {
+                return in.readBoolean();
+            }
+            String number = in.readNumberText();
+            if (number.indexOf('.') < 0 && number.indexOf('e') < 0 && number.indexOf('E') < 0) {
+                try {
+                    return Long.parseLong(number);
+                } catch (NumberFormatException e) {
+                    return new BigInteger(number);
+                }
+            }
+            return Double.parseDouble(number);
+        }
+    };
+
+    /**
+     * List、Set 等集合
+     */
+    static class CollectionReader extends ValueReader {
+        private final Supplier<Collection<Object>> factory;
+        private final ValueReader elementReader;
+
+        CollectionReader(Supplier<Collection<Object>> factory, ValueReader elementReader) {
+            this.factory = factory;
+            this.elementReader = elementReader;
+        }
+
+        @Override
+        Object read(JsonInput in, JsonReader json, int depth) throws IOException {
+            Collection<Object> collection = factory.get();
+            in.expect('[');
+            if (!in.consume(']')) {
+                do {
+                    collection.add(json.readValue(in, elementReader, depth + 1));
+                } while (in.consume(','));
+                in.expect(']');
+            }
+            return collection;
+        }
+    }
+
+    /**
+     * Map，key 按 ConversionService 从字符串转换
+     */
+    static class MapReader extends ValueReader {
+        private final Supplier<Map<Object, Object>> factory;
+        private final Converter keyConverter;
+        private final ValueReader valueReader;
+
+        MapReader(Supplier<Map<Object, Object>> factory, Converter keyConverter, ValueReader valueReader) {
+            this.factory = factory;
+            this.keyConverter = keyConverter;
+            this.valueReader = valueReader;
+        }
+
+        @Override
+        Object read(JsonInput in, JsonReader json, int depth) throws IOException {
+            Map<Object, Object> map = factory.get();
+            in.expect('{');
+            if (!in.consume('}')) {
+                do {
+                    Object key = keyConverter.convert(in.readString());
+                    in.expect(':');
+                    map.put(key, json.readValue(in, valueReader, depth + 1));
+                } while (in.consume(','));
+                in.expect('}');
+            }
+            return map;
+        }
+    }
+
+    /**
+     * 数组，int[]、long[]、double[] 直接写入基本类型，不装箱
+     */
+    static class ArrayReader extends ValueReader {
+        private final Class<?> componentType;
+        private final ValueReader componentReader;
+
+        ArrayReader(Class<?> componentType, ValueReader componentReader) {
+            this.componentType = componentType;
+            this.componentReader = componentReader;
+        }
+
+        @Override
+        Object read(JsonInput in, JsonReader json, int depth) throws IOException {
+            in.expect('[');
+            if (in.consume(']')) {
+                return Array.newInstance(componentType, 0);
+            }
+            if (componentType == int.class) {
+                int[] values = new int[8];
+                int length = 0;
+                do {
+                    if (length == values.length) {
+                        values = Arrays.copyOf(values, length * 2);
+                    }
+                    values[length++] = (int) checkRange(in, readIntegral(in), Integer.MIN_VALUE, Integer.MAX_VALUE);
+                } while (in.consume(','));
+                in.expect(']');
+                return Arrays.copyOf(values, length);
+            } else if (componentType == long.class) {
+                long[] values = new long[8];
+                int length = 0;
+                do {
+                    if (length == values.length) {
+                        values = Arrays.copyOf(values, length * 2);
+                    }
+                    values[length++] = readIntegral(in);
+                } while (in.consume(','));
+                in.expect(']');
+                return Arrays.copyOf(values, length);
+            } else if (componentType == double.class) {
+                double[] values = new double[8];
+                int length = 0;
+                do {
+                    if (length == values.length) {
+                        values = Arrays.copyOf(values, length * 2);
+                    }
+                    values[length++] = in.readDouble();
+                } while (in.consume(','));
+                in.expect(']');
+                return Arrays.copyOf(values, length);
+            }
+            List<Object> values = new ArrayList<>();
+            do {
+                values.add(json.readValue(in, componentReader, depth + 1));
+            } while (in.consume(','));
+            in.expect(']');
+            Object array = Array.newInstance(componentType, values.size());
+            for (int i = 0; i < values.size(); i++) {
+                Array.set(array, i, values.get(i));
+            }
+            return array;
+        }
+    }
+}
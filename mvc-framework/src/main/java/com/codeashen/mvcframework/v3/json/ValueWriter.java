@@ -0,0 +1,235 @@
+package com.codeashen.mvcframework.v3.json;
+
+import java.io.IOException;
+import java.lang.reflect.Array;
+import java.nio.CharBuffer;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * 一种类型的 JSON 写出方式，由 JsonWriter 按 Class 创建并缓存
+ */
+abstract class ValueWriter {
+
+    /**
+     * 写出不为 null 的值
+     *
+     * @param depth 当前嵌套层数，超过上限时说明存在循环引用
+     */
+    abstract void write(Object value, JsonOutput out, JsonWriter json, int depth) throws IOException;
+
+    static final ValueWriter STRING = new ValueWriter() {
+        @Override
+        void write(Object value, JsonOutput out, JsonWriter json, int depth) throws IOException {
+            out.writeString((CharSequence) value);
+        }
+    };
+
+    static final ValueWriter CHARACTER = new ValueWriter() {
+        @Override
+        void write(Object value, JsonOutput out, JsonWriter json, int depth) throws IOException {
+            out.writeChar((Character) value);
+        }
+    };
+
+    static final ValueWriter BOOLEAN = new ValueWriter() {
+        @Override
+        void write(Object value, JsonOutput out, JsonWriter json, int depth) throws IOException {
+            out.writeBoolean((Boolean) value);
+        }
+    };
+
+    /**
+     * Byte、Short、Integer、Long 以及 AtomicInteger 等整数类型
+     */
+    static final ValueWriter INTEGRAL = new ValueWriter() {
+        @Override
+        void write(Object value, JsonOutput out, JsonWriter json, int depth) throws IOException {
+            out.writeLong(((Number) value).longValue());
+        }
+    };
+
+    static final ValueWriter DOUBLE = new ValueWriter() {
+        @Override
+        void write(Object value, JsonOutput out, JsonWriter json, int depth) throws IOException {
+            out.writeDouble((Double) value);
+        }
+    };
+
+    static final ValueWriter FLOAT = new ValueWriter() {
+        @Override
+        void write(Object value, JsonOutput out, JsonWriter json, int depth) throws IOException {
+            out.writeFloat((Float) value);
+        }
+    };
+
+    /**
+     * BigDecimal、BigInteger 等其他数字，toString 的结果就是合法的 JSON 数字
+     */
+    static final ValueWriter NUMBER = new ValueWriter() {
+        @Override
+        void write(Object value, JsonOutput out, JsonWriter json, int depth) throws IOException {
+            out.writeAscii(value.toString());
+        }
+    };
+
+    static final ValueWriter ENUM = new ValueWriter() {
+        @Override
+        void write(Object value, JsonOutput out, JsonWriter json, int depth) throws IOException {
+            out.writeString(((Enum<?>) value).name());
+        }
+    };
+
+    /**
+     * 日期时间、UUID 等没有合适 JSON 表示的 JDK 类型，写出 toString 的结果
+     */
+    static final ValueWriter TO_STRING = new ValueWriter() {
+        @Override
+        void write(Object value, JsonOutput out, JsonWriter json, int depth) throws IOException {
+            out.writeString(value.toString());
+        }
+    };
+
+    static final ValueWriter OPTIONAL = new ValueWriter() {
+        @Override
+        void write(Object value, JsonOutput out, JsonWriter json, int depth) throws IOException {
+            json.writeValue(((Optional<?>) value).orElse(null), out, depth);
+        }
+    };
+
+    static final ValueWriter MAP = new ValueWriter() {
+        @Override
+        void write(Object value, JsonOutput out, JsonWriter json, int depth) throws IOException {
+            out.writeByte('{');
+            boolean first = true;
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                if (!first) {
+                    out.writeByte(',');
+                }
+                first = false;
+                Object key = entry.getKey();
+                out.writeString(key instanceof CharSequence ? (CharSequence) key : String.valueOf(key));
+                out.writeByte(':');
+                json.writeValue(entry.getValue(), out, depth + 1);
+            }
+            out.writeByte('}');
+        }
+    };
+
+    static final ValueWriter ITERABLE = new ValueWriter() {
+        @Override
+        void write(Object value, JsonOutput out, JsonWriter json, int depth) throws IOException {
+            out.writeByte('[');
+            Iterator<?> iterator = ((Iterable<?>) value).iterator();
+            if (iterator.hasNext()) {
+                json.writeValue(iterator.next(), out, depth + 1);
+                while (iterator.hasNext()) {
+                    out.writeByte(',');
+                    json.writeValue(iterator.next(), out, depth + 1);
+                }
+            }
+            out.writeByte(']');
+        }
+    };
+
+    static final ValueWriter OBJECT_ARRAY = new ValueWriter() {
+        @Override
+        void write(Object value, JsonOutput out, JsonWriter json, int depth) throws IOException {
+            Object[] array = (Object[]) value;
+            out.writeByte('[');
+            for (int i = 0; i < array.length; i++) {
+                if (i > 0) {
+                    out.writeByte(',');
+                }
+                json.writeValue(array[i], out, depth + 1);
+            }
+            out.writeByte(']');
+        }
+    };
+
+    static final ValueWriter INT_ARRAY = new ValueWriter() {
+        @Override
+        void write(Object value, JsonOutput out, JsonWriter json, int depth) throws IOException {
+            int[] array = (int[]) value;
+            out.writeByte('[');
+            for (int i = 0; i < array.length; i++) {
+                if (i > 0) {
+                    out.writeByte(',');
+                }
+                out.writeLong(array[i]);
+            }
+            out.writeByte(']');
+        }
+    };
+
+    static final ValueWriter LONG_ARRAY = new ValueWriter() {
+        @Override
+        void write(Object value, JsonOutput out, JsonWriter json, int depth) throws IOException {
+            long[] array = (long[]) value;
+            out.writeByte('[');
+            for (int i = 0; i < array.length; i++) {
+                if (i > 0) {
+                    out.writeByte(',');
+                }
+                out.writeLong(array[i]);
+            }
+            out.writeByte(']');
+        }
+    };
+
+    static final ValueWriter DOUBLE_ARRAY = new ValueWriter() {
+        @Override
+        void write(Object value, JsonOutput out, JsonWriter json, int depth) throws IOException {
+            double[] array = (double[]) value;
+            out.writeByte('[');
+            for (int i = 0; i < array.length; i++) {
+                if (i > 0) {
+                    out.writeByte(',');
+                }
+                out.writeDouble(array[i]);
+            }
+            out.writeByte(']');
+        }
+    };
+
+    static final ValueWriter BOOLEAN_ARRAY = new ValueWriter() {
+        @Override
+        void write(Object value, JsonOutput out, JsonWriter json, int depth) throws IOException {
+            boolean[] array = (boolean[]) value;
+            out.writeByte('[');
+            for (int i = 0; i < array.length; i++) {
+                if (i > 0) {
+                    out.writeByte(',');
+                }
+                out.writeBoolean(array[i]);
+            }
+            out.writeByte(']');
+        }
+    };
+
+    static final ValueWriter CHAR_ARRAY = new ValueWriter() {
+        @Override
+        void write(Object value, JsonOutput out, JsonWriter json, int depth) throws IOException {
+            out.writeString(CharBuffer.wrap((char[]) value));
+        }
+    };
+
+    /**
+     * byte[]、short[]、float[] 使用较少，逐个装箱后按元素类型写出
+     */
+    static final ValueWriter PRIMITIVE_ARRAY = new ValueWriter() {
+        @Override
+        void write(Object value, JsonOutput out, JsonWriter json, int depth) throws IOException {
+            int length = Array.getLength(value);
+            out.writeByte('[');
+            for (int i = 0; i < length; i++) {
+                if (i > 0) {
+                    out.writeByte(',');
+                }
+                json.writeValue(Array.get(value, i), out, depth + 1);
+            }
+            out.writeByte(']');
+        }
+    };
+}
@@ -0,0 +1,105 @@
+package com.codeashen.mvcframework.v3.metrics;
+
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 一个处理器方法的指标：按状态码类别（1xx~5xx）分开的请求延迟、参数绑定耗时、异常次数和超时次数。
+ * 直方图在第一次记录时才创建，路由很多但大部分不被访问时不占内存。
+ */
+public class HandlerMetrics {
+
+    private final String path;
+    private final String handler;
+    // 下标为状态码的百位减一
+    private final AtomicReferenceArray<LatencyHistogram> latencies = new AtomicReferenceArray<>(5);
+    private final AtomicReference<LatencyHistogram> binding = new AtomicReference<>();
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder timeouts = new LongAdder();
+
+    /**
+     * @param path    映射的 url
+     * @param handler 处理器方法的名称，例如 DemoController#query
+     */
+    public HandlerMetrics(String path, String handler) {
+        this.path = path;
+        this.handler = handler;
+    }
+
+    /**
+     * 记录一次请求
+     *
+     * @param status       响应状态码
+     * @param latencyNanos 从找到处理器到写出响应的耗时，单位纳秒
+     * @param bindingNanos 参数绑定的耗时，单位纳秒，没有形参时为 0
+     */
+    public void record(int status, long latencyNanos, long bindingNanos) {
+        getLatency(statusClassIndex(status), true).record(latencyNanos);
+        LatencyHistogram histogram = binding.get();
+        if (histogram == null) {
+            binding.compareAndSet(null, new LatencyHistogram());
+            histogram = binding.get();
+        }
+        histogram.record(bindingNanos);
+    }
+
+    /**
+     * 记录一次处理器方法抛出的异常
+     */
+    public void recordError() {
+        errors.increment();
+    }
+
+    /**
+     * 记录一次处理器方法返回前请求已经超时，容器已经写出了 503，不再记录这次请求的延迟
+     */
+    public void recordTimeout() {
+        timeouts.increment();
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    public String getHandler() {
+        return handler;
+    }
+
+    /**
+     * @param statusClass 状态码类别，1~5
+     * @return 延迟直方图，没有这一类别的请求时返回 null
+     */
+    public LatencyHistogram getLatency(int statusClass) {
+        return getLatency(statusClass - 1, false);
+    }
+
+    /**
+     * @return 参数绑定耗时的直方图，没有请求时返回 null
+     */
+    public LatencyHistogram getBinding() {
+        return binding.get();
+    }
+
+    public long getErrorCount() {
+        return errors.sum();
+    }
+
+    public long getTimeoutCount() {
+        return timeouts.sum();
+    }
+
+    private LatencyHistogram getLatency(int index, boolean create) {
+        LatencyHistogram histogram = latencies.get(index);
+        if (histogram == null && create) {
+            latencies.compareAndSet(index, null, new LatencyHistogram());
+            histogram = latencies.get(index);
+        }
+        return histogram;
+    }
+
+    private static int statusClassIndex(int status) {
+        int index = status / 100 - 1;
+        return index < 0 ? 0 : Math.min(index, 4);
+    }
+}
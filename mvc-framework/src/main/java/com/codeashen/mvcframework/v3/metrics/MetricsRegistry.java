@@ -0,0 +1,263 @@
+package com.codeashen.mvcframework.v3.metrics;
+
+import com.codeashen.mvcframework.v3.beans.BeanPool;
+import com.codeashen.mvcframework.v3.cache.MethodCache;
+import com.codeashen.mvcframework.v3.router.Router;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 指标注册中心，汇总所有处理器方法的指标、没有匹配处理器的请求数、路由表的缓存统计、对象池和 @ASCacheable 缓存的命中统计，
+ * 按 Prometheus 文本格式（0.0.4）输出。
+ * <p>
+ * 延迟以 summary 输出，分位数由 LatencyHistogram 在抓取时计算，请求线程只负责计数。
+ */
+public class MetricsRegistry {
+
+    public static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+    private static final double[] QUANTILES = {0.5, 0.9, 0.99, 0.999};
+    private static final String[] STATUS_CLASSES = {"1xx", "2xx", "3xx", "4xx", "5xx"};
+
+    private final List<HandlerMetrics> handlers = new CopyOnWriteArrayList<>();
+    private final LongAdder notFound = new LongAdder();
+    private final LongAdder methodNotAllowed = new LongAdder();
+    // 热加载时会替换为新的路由表
+    private volatile Router<?> router;
+    // beanName -> 对象池，没有时为空
+    private volatile Map<String, BeanPool> beanPools = Collections.emptyMap();
+    // 缓存名称 -> @ASCacheable 方法的缓存，没有时为空
+    private volatile Map<String, MethodCache> methodCaches = Collections.emptyMap();
+
+    /**
+     * @param router 路由表，输出它的快速路径和缓存命中次数，可以为 null
+     */
+    public MetricsRegistry(Router<?> router) {
+        this.router = router;
+    }
+
+    /**
+     * 为处理器方法创建指标
+     *
+     * @param path    映射的 url
+     * @param handler 处理器方法的名称
+     */
+    public HandlerMetrics register(String path, String handler) {
+        HandlerMetrics metrics = new HandlerMetrics(path, handler);
+        handlers.add(metrics);
+        return metrics;
+    }
+
+    /**
+     * 移除处理器方法的指标，热加载替换了处理器方法时调用
+     */
+    public void unregister(HandlerMetrics metrics) {
+        handlers.remove(metrics);
+    }
+
+    /**
+     * 替换输出统计的路由表
+     */
+    public void setRouter(Router<?> router) {
+        this.router = router;
+    }
+
+    /**
+     * 输出对象池的统计，传入容器中的视图，之后新建的对象池也会输出
+     */
+    public void setBeanPools(Map<String, BeanPool> beanPools) {
+        this.beanPools = beanPools;
+    }
+
+    /**
+     * 输出 @ASCacheable 缓存的统计，传入的是视图，之后创建的缓存也会输出
+     */
+    public void setMethodCaches(Map<String, MethodCache> methodCaches) {
+        this.methodCaches = methodCaches;
+    }
+
+    /**
+     * 记录一次没有匹配处理器的请求
+     */
+    public void recordNotFound() {
+        notFound.increment();
+    }
+
+    /**
+     * 记录一次 url 匹配但请求方法没有映射的请求
+     */
+    public void recordMethodNotAllowed() {
+        methodNotAllowed.increment();
+    }
+
+    public long getNotFoundCount() {
+        return notFound.sum();
+    }
+
+    public long getMethodNotAllowedCount() {
+        return methodNotAllowed.sum();
+    }
+
+    /**
+     * 按 Prometheus 文本格式输出所有指标
+     */
+    public void writePrometheus(Appendable out) throws IOException {
+        header(out, "mvc_request_duration_seconds", "summary", "Handler latency by response status class");
+        for (HandlerMetrics metrics : handlers) {
+            for (int i = 0; i < STATUS_CLASSES.length; i++) {
+                LatencyHistogram histogram = metrics.getLatency(i + 1);
+                if (histogram != null) {
+                    String labels = labels(metrics) + ",status=\"" + STATUS_CLASSES[i] + "\"";
+                    summary(out, "mvc_request_duration_seconds", labels, histogram);
+                }
+            }
+        }
+
+        header(out, "mvc_binding_duration_seconds", "summary", "Time spent binding handler arguments");
+        for (HandlerMetrics metrics : handlers) {
+            LatencyHistogram histogram = metrics.getBinding();
+            if (histogram != null) {
+                summary(out, "mvc_binding_duration_seconds", labels(metrics), histogram);
+            }
+        }
+
+        header(out, "mvc_request_errors_total", "counter", "Exceptions thrown while handling requests");
+        for (HandlerMetrics metrics : handlers) {
+            long errors = metrics.getErrorCount();
+            if (errors > 0) {
+                sample(out, "mvc_request_errors_total", labels(metrics), errors);
+            }
+        }
+
+        header(out, "mvc_request_timeouts_total", "counter", "Requests that timed out before the handler returned");
+        for (HandlerMetrics metrics : handlers) {
+            long timeouts = metrics.getTimeoutCount();
+            if (timeouts > 0) {
+                sample(out, "mvc_request_timeouts_total", labels(metrics), timeouts);
+            }
+        }
+
+        header(out, "mvc_not_found_total", "counter", "Requests without a matching handler");
+        sample(out, "mvc_not_found_total", null, getNotFoundCount());
+        header(out, "mvc_method_not_allowed_total", "counter", "Requests whose method is not mapped for the url");
+        sample(out, "mvc_method_not_allowed_total", null, getMethodNotAllowedCount());
+
+        Router<?> router = this.router;
+        if (router != null) {
+            header(out, "mvc_route_exact_hits_total", "counter", "Lookups answered by the literal url map");
+            sample(out, "mvc_route_exact_hits_total", null, router.getExactHitCount());
+            header(out, "mvc_route_cache_hits_total", "counter", "Lookups answered by the route cache");
+            sample(out, "mvc_route_cache_hits_total", null, router.getCacheHitCount());
+            header(out, "mvc_route_cache_misses_total", "counter", "Lookups that missed the route cache");
+            sample(out, "mvc_route_cache_misses_total", null, router.getCacheMissCount());
+        }
+
+        Map<String, BeanPool> pools = new TreeMap<>(beanPools);
+        if (!pools.isEmpty()) {
+            header(out, "mvc_bean_pool_hits_total", "counter", "Instances taken from the bean pool");
+            for (Map.Entry<String, BeanPool> entry : pools.entrySet()) {
+                sample(out, "mvc_bean_pool_hits_total", beanLabel(entry.getKey()), entry.getValue().getHitCount());
+            }
+            header(out, "mvc_bean_pool_misses_total", "counter", "Instances created because the bean pool was empty");
+            for (Map.Entry<String, BeanPool> entry : pools.entrySet()) {
+                sample(out, "mvc_bean_pool_misses_total", beanLabel(entry.getKey()), entry.getValue().getMissCount());
+            }
+            header(out, "mvc_bean_pool_discards_total", "counter", "Released instances dropped by a full pool or a failed reset");
+            for (Map.Entry<String, BeanPool> entry : pools.entrySet()) {
+                sample(out, "mvc_bean_pool_discards_total", beanLabel(entry.getKey()), entry.getValue().getDiscardCount());
+            }
+            header(out, "mvc_bean_pool_idle", "gauge", "Idle instances in the bean pool");
+            for (Map.Entry<String, BeanPool> entry : pools.entrySet()) {
+                sample(out, "mvc_bean_pool_idle", beanLabel(entry.getKey()), entry.getValue().getIdleCount());
+            }
+        }
+
+        Map<String, MethodCache> caches = new TreeMap<>(methodCaches);
+        if (!caches.isEmpty()) {
+            header(out, "mvc_cache_hits_total", "counter", "@ASCacheable lookups answered by the cache");
+            for (MethodCache cache : caches.values()) {
+                sample(out, "mvc_cache_hits_total", cacheLabel(cache), cache.getHitCount());
+            }
+            header(out, "mvc_cache_misses_total", "counter", "@ASCacheable lookups that invoked the method");
+            for (MethodCache cache : caches.values()) {
+                sample(out, "mvc_cache_misses_total", cacheLabel(cache), cache.getMissCount());
+            }
+            header(out, "mvc_cache_evictions_total", "counter", "Entries evicted because the cache was full");
+            for (MethodCache cache : caches.values()) {
+                sample(out, "mvc_cache_evictions_total", cacheLabel(cache), cache.getEvictionCount());
+            }
+            header(out, "mvc_cache_expirations_total", "counter", "Entries found expired on lookup");
+            for (MethodCache cache : caches.values()) {
+                sample(out, "mvc_cache_expirations_total", cacheLabel(cache), cache.getExpirationCount());
+            }
+            header(out, "mvc_cache_size", "gauge", "Entries in the cache");
+            for (MethodCache cache : caches.values()) {
+                sample(out, "mvc_cache_size", cacheLabel(cache), cache.size());
+            }
+        }
+    }
+
+    private static void header(Appendable out, String name, String type, String help) throws IOException {
+        out.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        out.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+    }
+
+    private static void summary(Appendable out, String name, String labels, LatencyHistogram histogram) throws IOException {
+        long[] values = histogram.getValuesAtQuantiles(QUANTILES);
+        for (int i = 0; i < QUANTILES.length; i++) {
+            out.append(name).append('{').append(labels).append(",quantile=\"").append(String.valueOf(QUANTILES[i]))
+                    .append("\"} ").append(seconds(values[i])).append('\n');
+        }
+        out.append(name).append("_sum{").append(labels).append("} ").append(seconds(histogram.getSum())).append('\n');
+        out.append(name).append("_count{").append(labels).append("} ").append(String.valueOf(histogram.getCount())).append('\n');
+    }
+
+    private static void sample(Appendable out, String name, String labels, long value) throws IOException {
+        out.append(name);
+        if (labels != null) {
+            out.append('{').append(labels).append('}');
+        }
+        out.append(' ').append(String.valueOf(value)).append('\n');
+    }
+
+    private static String labels(HandlerMetrics metrics) {
+        return "path=\"" + escape(metrics.getPath()) + "\",handler=\"" + escape(metrics.getHandler()) + "\"";
+    }
+
+    private static String cacheLabel(MethodCache cache) {
+        return "cache=\"" + escape(cache.getName()) + "\"";
+    }
+
+    private static String beanLabel(String beanName) {
+        return "bean=\"" + escape(beanName) + "\"";
+    }
+
+    private static String seconds(long nanos) {
+        return String.valueOf(nanos / 1e9);
+    }
+
+    /**
+     * 标签值中的反斜杠、双引号和换行需要转义，正则 url 中常有反斜杠
+     */
+    static String escape(String value) {
+        StringBuilder sb = null;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '\\' || c == '"' || c == '\n') {
+                if (sb == null) {
+                    sb = new StringBuilder(value.length() + 8).append(value, 0, i);
+                }
+                sb.append('\\').append(c == '\n' ? 'n' : c);
+            } else if (sb != null) {
+                sb.append(c);
+            }
+        }
+        return sb == null ? value : sb.toString();
+    }
+}
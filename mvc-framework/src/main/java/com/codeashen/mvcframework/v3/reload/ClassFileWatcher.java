@@ -0,0 +1,150 @@
+package com.codeashen.mvcframework.v3.reload;
+
+import java.io.IOException;
+import java.nio.file.FileSystems;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * 使用 NIO WatchService 监听编译输出目录中 class 文件的新增和修改。
+ * IDE 或构建工具一次编译会写出很多文件，收到事件后等待一段时间没有新的变化，再把这一批变化一起交给回调。
+ * <p>
+ * 回调在监听线程上执行，同一时刻只有一次热加载。删除的 class 文件被忽略。
+ */
+public class ClassFileWatcher implements Runnable {
+
+    private final WatchService watchService;
+    private final Map<WatchKey, Path> watchedDirs = new HashMap<>();
+    // 监听的目录 -> 所在的类路径根目录
+    private final Map<Path, Path> roots = new HashMap<>();
+    private final long quietPeriodMillis;
+    private final Consumer<Map<String, Path>> listener;
+    private volatile Thread thread;
+
+    /**
+     * @param dirs              监听的目录，连同子目录一起监听
+     * @param classpathRoots    dirs 所在的类路径根目录，与 dirs 一一对应，用于把文件路径换算成类名
+     * @param quietPeriodMillis 最后一次变化之后等待的毫秒数
+     * @param listener          回调，参数为 类名 -> class 文件
+     */
+    public ClassFileWatcher(List<Path> dirs, List<Path> classpathRoots, long quietPeriodMillis,
+                            Consumer<Map<String, Path>> listener) throws IOException {
+        this.watchService = FileSystems.getDefault().newWatchService();
+        this.quietPeriodMillis = quietPeriodMillis;
+        this.listener = listener;
+        for (int i = 0; i < dirs.size(); i++) {
+            registerAll(dirs.get(i), classpathRoots.get(i));
+        }
+    }
+
+    /**
+     * 启动守护线程开始监听
+     */
+    public void start() {
+        Thread watcher = new Thread(this, "mvc-class-watcher");
+        watcher.setDaemon(true);
+        thread = watcher;
+        watcher.start();
+    }
+
+    public void stop() {
+        Thread watcher = thread;
+        thread = null;
+        if (watcher != null) {
+            watcher.interrupt();
+        }
+        try {
+            watchService.close();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    @Override
+    public void run() {
+        Map<String, Path> changed = new LinkedHashMap<>();
+        while (thread == Thread.currentThread()) {
+            try {
+                // 没有待处理的变化时一直等待，有变化时等到一段时间内没有新的事件
+                WatchKey key = changed.isEmpty() ? watchService.take()
+                        : watchService.poll(quietPeriodMillis, TimeUnit.MILLISECONDS);
+                if (key == null) {
+                    listener.accept(new LinkedHashMap<>(changed));
+                    changed.clear();
+                    continue;
+                }
+                collect(key, changed);
+            } catch (InterruptedException e) {
+                return;
+            } catch (Exception e) {
+                // WatchService 关闭后退出，其余异常不影响继续监听
+                if (thread != Thread.currentThread()) {
+                    return;
+                }
+                e.printStackTrace();
+                changed.clear();
+            }
+        }
+    }
+
+    private void collect(WatchKey key, Map<String, Path> changed) throws IOException {
+        Path dir = watchedDirs.get(key);
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (dir == null || event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                continue;
+            }
+            Path file = dir.resolve((Path) event.context());
+            Path root = roots.get(dir);
+            if (Files.isDirectory(file)) {
+                // 新建的包目录也要监听，里面可能已经写出了 class 文件
+                if (event.kind() == StandardWatchEventKinds.ENTRY_CREATE) {
+                    registerAll(file, root);
+                    try (Stream<Path> files = Files.walk(file)) {
+                        files.filter(ClassFileWatcher::isClassFile).forEach(f -> changed.put(className(root, f), f));
+                    }
+                }
+            } else if (isClassFile(file)) {
+                changed.put(className(root, file), file);
+            }
+        }
+        if (!key.reset()) {
+            watchedDirs.remove(key);
+        }
+    }
+
+    private void registerAll(Path dir, Path root) throws IOException {
+        Files.walkFileTree(dir, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path d, BasicFileAttributes attrs) throws IOException {
+                WatchKey key = d.register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                        StandardWatchEventKinds.ENTRY_MODIFY);
+                watchedDirs.put(key, d);
+                roots.put(d, root);
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+
+    private static boolean isClassFile(Path file) {
+        return file.getFileName().toString().endsWith(".class");
+    }
+
+    static String className(Path root, Path file) {
+        String relative = root.relativize(file).toString();
+        return relative.substring(0, relative.length() - ".class".length()).replace(file.getFileSystem().getSeparator(), ".");
+    }
+}
@@ -0,0 +1,59 @@
+package com.codeashen.mvcframework.v3.reload;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+
+/**
+ * 热加载使用的子类加载器，只加载发生变化的类，其余类委派给父加载器。
+ * 变化的类优先由自己加载（child-first），这样同名的新版本才能替换父加载器中的旧版本。
+ * <p>
+ * 每次热加载创建一个新的加载器，父加载器是上一次热加载的加载器，之前重新加载过的类仍然使用最新的版本。
+ */
+public class ReloadingClassLoader extends ClassLoader {
+
+    static {
+        registerAsParallelCapable();
+    }
+
+    // 类名 -> class 文件
+    private final Map<String, Path> classFiles;
+
+    public ReloadingClassLoader(ClassLoader parent, Map<String, Path> classFiles) {
+        super(parent);
+        this.classFiles = classFiles;
+    }
+
+    @Override
+    protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+        if (!classFiles.containsKey(name)) {
+            return super.loadClass(name, resolve);
+        }
+        synchronized (getClassLoadingLock(name)) {
+            Class<?> clazz = findLoadedClass(name);
+            if (clazz == null) {
+                clazz = findClass(name);
+            }
+            if (resolve) {
+                resolveClass(clazz);
+            }
+            return clazz;
+        }
+    }
+
+    @Override
+    protected Class<?> findClass(String name) throws ClassNotFoundException {
+        Path file = classFiles.get(name);
+        if (file == null) {
+            throw new ClassNotFoundException(name);
+        }
+        byte[] bytes;
+        try {
+            bytes = Files.readAllBytes(file);
+        } catch (IOException e) {
+            throw new ClassNotFoundException(name, e);
+        }
+        return defineClass(name, bytes, 0, bytes.length);
+    }
+}
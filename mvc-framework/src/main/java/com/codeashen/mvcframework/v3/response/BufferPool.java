@@ -0,0 +1,44 @@
+package com.codeashen.mvcframework.v3.response;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * 固定大小字节数组的缓冲池，写出流式响应时复用，避免每个请求分配新的缓冲区。
+ * 不使用 ThreadLocal：虚拟线程模式下每个请求都是新线程，ThreadLocal 起不到复用的作用。
+ */
+public class BufferPool {
+
+    private final int bufferSize;
+    private final BlockingQueue<byte[]> buffers;
+
+    /**
+     * @param bufferSize 每个缓冲区的字节数
+     * @param maxBuffers 最多缓存的缓冲区个数，超出时归还的缓冲区直接丢弃
+     */
+    public BufferPool(int bufferSize, int maxBuffers) {
+        this.bufferSize = bufferSize;
+        this.buffers = new ArrayBlockingQueue<>(maxBuffers);
+    }
+
+    /**
+     * 借出一个缓冲区，池为空时新建
+     */
+    public byte[] acquire() {
+        byte[] buffer = buffers.poll();
+        return buffer == null ? new byte[bufferSize] : buffer;
+    }
+
+    /**
+     * 归还缓冲区
+     */
+    public void release(byte[] buffer) {
+        if (buffer.length == bufferSize) {
+            buffers.offer(buffer);
+        }
+    }
+
+    public int getBufferSize() {
+        return bufferSize;
+    }
+}
@@ -0,0 +1,54 @@
+package com.codeashen.mvcframework.v3.response;
+
+import javax.servlet.ServletOutputStream;
+import javax.servlet.http.HttpServletResponse;
+import java.nio.ByteBuffer;
+
+/**
+ * byte[]、ByteBuffer 返回值，长度已知，设置 Content-Length 后一次写出
+ */
+public class ByteArrayReturnValueHandler implements ReturnValueHandler {
+
+    private final BufferPool bufferPool;
+
+    /**
+     * @param bufferPool 直接内存的 ByteBuffer 需要先复制到字节数组才能写入 ServletOutputStream
+     */
+    public ByteArrayReturnValueHandler(BufferPool bufferPool) {
+        this.bufferPool = bufferPool;
+    }
+
+    @Override
+    public boolean supportsReturnType(Class<?> returnType) {
+        return returnType == byte[].class || ByteBuffer.class.isAssignableFrom(returnType);
+    }
+
+    @Override
+    public void handleReturnValue(Object returnValue, HttpServletResponse resp) throws Exception {
+        ReturnValueHandlers.setDefaultContentType(resp, StreamingReturnValueHandler.OCTET_STREAM);
+        ServletOutputStream out = resp.getOutputStream();
+        if (returnValue instanceof byte[]) {
+            byte[] bytes = (byte[]) returnValue;
+            resp.setContentLength(bytes.length);
+            out.write(bytes);
+            return;
+        }
+
+        ByteBuffer buffer = ((ByteBuffer) returnValue).duplicate();
+        resp.setContentLength(buffer.remaining());
+        if (buffer.hasArray()) {
+            out.write(buffer.array(), buffer.arrayOffset() + buffer.position(), buffer.remaining());
+            return;
+        }
+        byte[] chunk = bufferPool.acquire();
+        try {
+            while (buffer.hasRemaining()) {
+                int length = Math.min(chunk.length, buffer.remaining());
+                buffer.get(chunk, 0, length);
+                out.write(chunk, 0, length);
+            }
+        } finally {
+            bufferPool.release(chunk);
+        }
+    }
+}
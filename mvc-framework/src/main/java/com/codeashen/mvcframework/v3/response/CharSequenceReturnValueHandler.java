@@ -0,0 +1,22 @@
+package com.codeashen.mvcframework.v3.response;
+
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * 字符串返回值，按 text/plain 写出
+ */
+public class CharSequenceReturnValueHandler implements ReturnValueHandler {
+
+    static final String TEXT_PLAIN = "text/plain;charset=UTF-8";
+
+    @Override
+    public boolean supportsReturnType(Class<?> returnType) {
+        return CharSequence.class.isAssignableFrom(returnType);
+    }
+
+    @Override
+    public void handleReturnValue(Object returnValue, HttpServletResponse resp) throws Exception {
+        ReturnValueHandlers.setDefaultContentType(resp, TEXT_PLAIN);
+        resp.getWriter().append((CharSequence) returnValue);
+    }
+}
@@ -0,0 +1,48 @@
+package com.codeashen.mvcframework.v3.response;
+
+import javax.servlet.ServletOutputStream;
+import javax.servlet.http.HttpServletResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.stream.BaseStream;
+
+/**
+ * Iterator、Stream 返回值，逐个元素写出并刷新，容器按分块传输编码发送，客户端可以边收边处理。
+ * 元素为 byte[] 时原样写出，其他元素按 toString() 的 UTF-8 编码写出，元素之间不添加分隔符。
+ * Stream 写完或出错后关闭。
+ */
+public class ChunkedReturnValueHandler implements ReturnValueHandler {
+
+    @Override
+    public boolean supportsReturnType(Class<?> returnType) {
+        return Iterator.class.isAssignableFrom(returnType) || BaseStream.class.isAssignableFrom(returnType);
+    }
+
+    @Override
+    public void handleReturnValue(Object returnValue, HttpServletResponse resp) throws Exception {
+        ReturnValueHandlers.setDefaultContentType(resp, CharSequenceReturnValueHandler.TEXT_PLAIN);
+        ServletOutputStream out = resp.getOutputStream();
+        if (returnValue instanceof Iterator) {
+            writeChunks((Iterator<?>) returnValue, out);
+            return;
+        }
+        try (BaseStream<?, ?> stream = (BaseStream<?, ?>) returnValue) {
+            writeChunks(stream.iterator(), out);
+        }
+    }
+
+    private void writeChunks(Iterator<?> iterator, ServletOutputStream out) throws Exception {
+        while (iterator.hasNext()) {
+            Object element = iterator.next();
+            if (element == null) {
+                continue;
+            }
+            if (element instanceof byte[]) {
+                out.write((byte[]) element);
+            } else {
+                out.write(element.toString().getBytes(StandardCharsets.UTF_8));
+            }
+            out.flush();
+        }
+    }
+}
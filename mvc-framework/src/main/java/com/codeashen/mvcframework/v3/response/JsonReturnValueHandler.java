@@ -0,0 +1,38 @@
+package com.codeashen.mvcframework.v3.response;
+
+import com.codeashen.mvcframework.v3.json.JsonWriter;
+
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * 带有 @ASResponseBody 的处理器方法，返回值序列化为 JSON 写出，String 返回值也按 JSON 字符串写出。
+ * 使用缓冲池中的缓冲区直接写入响应的 OutputStream。
+ */
+public class JsonReturnValueHandler implements ReturnValueHandler {
+
+    static final String APPLICATION_JSON = "application/json;charset=UTF-8";
+
+    private final JsonWriter jsonWriter;
+    private final BufferPool bufferPool;
+
+    public JsonReturnValueHandler(JsonWriter jsonWriter, BufferPool bufferPool) {
+        this.jsonWriter = jsonWriter;
+        this.bufferPool = bufferPool;
+    }
+
+    @Override
+    public boolean supportsReturnType(Class<?> returnType) {
+        return true;
+    }
+
+    @Override
+    public void handleReturnValue(Object returnValue, HttpServletResponse resp) throws Exception {
+        ReturnValueHandlers.setDefaultContentType(resp, APPLICATION_JSON);
+        byte[] buffer = bufferPool.acquire();
+        try {
+            jsonWriter.write(returnValue, resp.getOutputStream(), buffer);
+        } finally {
+            bufferPool.release(buffer);
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.codeashen.mvcframework.v3.response;
+
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * 兜底的返回值处理，写出 toString() 的结果
+ */
+public class ObjectReturnValueHandler implements ReturnValueHandler {
+
+    @Override
+    public boolean supportsReturnType(Class<?> returnType) {
+        return true;
+    }
+
+    @Override
+    public void handleReturnValue(Object returnValue, HttpServletResponse resp) throws Exception {
+        ReturnValueHandlers.setDefaultContentType(resp, CharSequenceReturnValueHandler.TEXT_PLAIN);
+        resp.getWriter().write(returnValue.toString());
+    }
+}
@@ -0,0 +1,25 @@
+package com.codeashen.mvcframework.v3.response;
+
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * 处理器方法返回值的处理器，负责把返回值写入响应。
+ * 在 initHandlerMapping 阶段按返回值类型为每个处理器方法选定一个，IoC 容器中实现了该接口的 bean 优先于内置的处理器。
+ */
+public interface ReturnValueHandler {
+
+    /**
+     * 是否能处理该类型的返回值
+     *
+     * @param returnType 返回值类型，可能是方法声明的类型，也可能是返回值的运行时类型
+     */
+    boolean supportsReturnType(Class<?> returnType);
+
+    /**
+     * 写出返回值
+     *
+     * @param returnValue 返回值，不为 null
+     * @param resp        响应对象
+     */
+    void handleReturnValue(Object returnValue, HttpServletResponse resp) throws Exception;
+}
@@ -0,0 +1,138 @@
+package com.codeashen.mvcframework.v3.response;
+
+import com.codeashen.mvcframework.annotation.ASResponseBody;
+import com.codeashen.mvcframework.v3.json.JsonWriter;
+
+import javax.servlet.http.HttpServletResponse;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * 返回值处理器链，依次为：自定义处理器、String、byte[]/ByteBuffer、InputStream/ReadableByteChannel、Iterator/Stream、Object。
+ * <p>
+ * 处理器在 initHandlerMapping 阶段按方法声明的返回值类型选定，请求时不再遍历处理器链。
+ * 声明类型只能匹配到兜底的 Object 处理器且不是 final 类时（例如声明为 Object），
+ * 按返回值的运行时类型选择处理器，结果按 Class 缓存。
+ * <p>
+ * 方法或 Controller 上有 @ASResponseBody 时，不论返回值类型都序列化为 JSON。
+ */
+public class ReturnValueHandlers {
+
+    private final ReturnValueHandler[] handlers;
+    private final ReturnValueHandler fallback = new ObjectReturnValueHandler();
+    private final JsonReturnValueHandler jsonHandler;
+    // 运行时类型 -> 处理器
+    private final ConcurrentMap<Class<?>, ReturnValueHandler> runtimeTypeCache = new ConcurrentHashMap<>();
+    private final ReturnValueHandler runtimeTypeHandler = new ReturnValueHandler() {
+        @Override
+        public boolean supportsReturnType(Class<?> returnType) {
+            return true;
+        }
+
+        @Override
+        public void handleReturnValue(Object returnValue, HttpServletResponse resp) throws Exception {
+            getHandler(returnValue.getClass()).handleReturnValue(returnValue, resp);
+        }
+    };
+
+    /**
+     * @param customHandlers 自定义处理器，优先于内置处理器
+     * @param bufferPool     写出二进制内容和 JSON 使用的缓冲池
+     * @param jsonWriter     @ASResponseBody 返回值的序列化
+     */
+    public ReturnValueHandlers(List<? extends ReturnValueHandler> customHandlers, BufferPool bufferPool,
+                               JsonWriter jsonWriter) {
+        List<ReturnValueHandler> handlers = new ArrayList<>(customHandlers);
+        handlers.addAll(Arrays.asList(
+                new CharSequenceReturnValueHandler(),
+                new ByteArrayReturnValueHandler(bufferPool),
+                new StreamingReturnValueHandler(bufferPool),
+                new ChunkedReturnValueHandler()));
+        this.handlers = handlers.toArray(new ReturnValueHandler[0]);
+        this.jsonHandler = new JsonReturnValueHandler(jsonWriter, bufferPool);
+    }
+
+    /**
+     * 按方法声明的返回值类型选择处理器
+     *
+     * @return 处理器，返回值为 void 时返回 null
+     */
+    public ReturnValueHandler getHandler(Method method) {
+        Class<?> returnType = method.getReturnType();
+        if (returnType == void.class || returnType == Void.class) {
+            return null;
+        }
+        if (isResponseBody(method)) {
+            return jsonHandler;
+        }
+        ReturnValueHandler handler = find(returnType);
+        if (handler != null) {
+            return handler;
+        }
+        if (returnType.isPrimitive() || Modifier.isFinal(returnType.getModifiers())) {
+            return fallback;
+        }
+        return runtimeTypeHandler;
+    }
+
+    /**
+     * 选择异步结果的处理器，结果的类型在完成时才能确定
+     *
+     * @param method 返回 CompletionStage 或 DeferredResult 的处理器方法
+     */
+    public ReturnValueHandler getAsyncResultHandler(Method method) {
+        return isResponseBody(method) ? jsonHandler : runtimeTypeHandler;
+    }
+
+    /**
+     * 按返回值的运行时类型选择处理器
+     */
+    public ReturnValueHandler getHandler(Class<?> runtimeType) {
+        ReturnValueHandler handler = runtimeTypeCache.get(runtimeType);
+        if (handler == null) {
+            handler = find(runtimeType);
+            if (handler == null) {
+                handler = fallback;
+            }
+            runtimeTypeCache.putIfAbsent(runtimeType, handler);
+        }
+        return handler;
+    }
+
+    /**
+     * 按运行时类型写出返回值，返回值为 null 时不写出
+     */
+    public void handleReturnValue(Object returnValue, HttpServletResponse resp) throws Exception {
+        if (returnValue != null) {
+            getHandler(returnValue.getClass()).handleReturnValue(returnValue, resp);
+        }
+    }
+
+    private static boolean isResponseBody(Method method) {
+        return method.isAnnotationPresent(ASResponseBody.class)
+                || method.getDeclaringClass().isAnnotationPresent(ASResponseBody.class);
+    }
+
+    private ReturnValueHandler find(Class<?> returnType) {
+        for (ReturnValueHandler handler : handlers) {
+            if (handler.supportsReturnType(returnType)) {
+                return handler;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 处理器方法没有设置 Content-Type 时使用默认值
+     */
+    static void setDefaultContentType(HttpServletResponse resp, String contentType) {
+        if (resp.getContentType() == null) {
+            resp.setContentType(contentType);
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.codeashen.mvcframework.v3.response;
+
+import javax.servlet.ServletOutputStream;
+import javax.servlet.http.HttpServletResponse;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+
+/**
+ * InputStream、ReadableByteChannel 返回值，使用缓冲池中的缓冲区边读边写，大文件下载不会整体读入堆内存。
+ * 长度未知，由容器按分块传输编码写出。写完或出错后关闭流。
+ */
+public class StreamingReturnValueHandler implements ReturnValueHandler {
+
+    static final String OCTET_STREAM = "application/octet-stream";
+
+    private final BufferPool bufferPool;
+
+    public StreamingReturnValueHandler(BufferPool bufferPool) {
+        this.bufferPool = bufferPool;
+    }
+
+    @Override
+    public boolean supportsReturnType(Class<?> returnType) {
+        return InputStream.class.isAssignableFrom(returnType) || ReadableByteChannel.class.isAssignableFrom(returnType);
+    }
+
+    @Override
+    public void handleReturnValue(Object returnValue, HttpServletResponse resp) throws Exception {
+        ReturnValueHandlers.setDefaultContentType(resp, OCTET_STREAM);
+        ServletOutputStream out = resp.getOutputStream();
+        byte[] buffer = bufferPool.acquire();
+        try {
+            if (returnValue instanceof InputStream) {
+                try (InputStream in = (InputStream) returnValue) {
+                    int n;
+                    while ((n = in.read(buffer)) != -1) {
+                        out.write(buffer, 0, n);
+                    }
+                }
+            } else {
+                try (ReadableByteChannel channel = (ReadableByteChannel) returnValue) {
+                    // ServletOutputStream 只接受字节数组，包装同一个数组读取，避免再复制一次
+                    ByteBuffer byteBuffer = ByteBuffer.wrap(buffer);
+                    while (channel.read(byteBuffer) != -1) {
+                        out.write(buffer, 0, byteBuffer.position());
+                        byteBuffer.clear();
+                    }
+                }
+            }
+        } finally {
+            bufferPool.release(buffer);
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.codeashen.mvcframework.v3.router;
+
+/**
+ * 路由匹配结果，包含匹配到的目标对象以及从 url 中提取出的路径变量。
+ * <p>
+ * 路径模板（如 /users/{id}）只记录每个变量在请求路径中的起止下标，需要时再截取或直接按区间转换；
+ * 正则路由的变量为各个捕获组的值。
+ *
+ * @param <T> 路由目标类型，例如 Handler
+ */
+public class RouteMatch<T> {
+
+    private static final String[] EMPTY = new String[0];
+
+    private final T target;
+    // 路径变量，正则路由时为各个捕获组的值
+    private final String[] variables;
+    // 路径模板匹配的请求路径以及变量的起止下标，依次为 start0, end0, start1, end1 ...
+    private final String path;
+    private final int[] offsets;
+    private final int variableCount;
+
+    public RouteMatch(T target) {
+        this(target, EMPTY);
+    }
+
+    public RouteMatch(T target, String[] variables) {
+        this.target = target;
+        this.variables = variables;
+        this.path = null;
+        this.offsets = null;
+        this.variableCount = variables.length;
+    }
+
+    /**
+     * 路径模板的匹配结果
+     *
+     * @param path          请求路径
+     * @param offsets       变量的起止下标
+     * @param variableCount 变量个数，offsets 可以比实际需要的长
+     */
+    public RouteMatch(T target, String path, int[] offsets, int variableCount) {
+        this.target = target;
+        this.variables = null;
+        this.path = path;
+        this.offsets = offsets;
+        this.variableCount = variableCount;
+    }
+
+    public T getTarget() {
+        return target;
+    }
+
+    public int getVariableCount() {
+        return variableCount;
+    }
+
+    public String getVariable(int index) {
+        if (offsets == null) {
+            return variables[index];
+        }
+        return path.substring(getVariableStart(index), getVariableEnd(index));
+    }
+
+    /**
+     * 是否为路径模板的匹配结果，此时可以通过 getPath 和变量的起止下标直接读取变量
+     */
+    public boolean isTemplate() {
+        return offsets != null;
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    public int getVariableStart(int index) {
+        return offsets[index * 2];
+    }
+
+    public int getVariableEnd(int index) {
+        return offsets[index * 2 + 1];
+    }
+}
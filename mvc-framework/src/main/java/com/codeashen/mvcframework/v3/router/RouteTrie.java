@@ -0,0 +1,416 @@
+package com.codeashen.mvcframework.v3.router;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 按 url 路径段构建的路由前缀树，在 initHandlerMapping 阶段一次性构建。
+ * - 纯字面量的 url 直接落在树的某个节点上，查找时逐段下钻即可，与映射数量无关；
+ * - 路径模板（如 /users/{id}/orders/{orderId}）中的变量段作为节点的通配分支，查找时先走字面量分支，
+ *   走不通再回溯到通配分支，只记录变量在请求路径中的起止下标，不创建 Matcher，也不截取子串；
+ * - 含正则元字符的 url，取其正则之前的字面量前缀挂到对应节点上，只有请求路径经过该节点时才会执行正则匹配。
+ * <p>
+ * 查找路径段时直接按请求路径中的区间比较，见 SegmentMap。
+ * 字面量 url 优先于路径模板；除此之外多个映射同时命中时，按注册顺序取最先注册的，与逐个遍历 List 做正则匹配的结果保持一致。
+ *
+ * @param <T> 路由目标类型，例如 Handler
+ */
+public class RouteTrie<T> {
+
+    private static final String REGEX_META_CHARS = "\\.[]{}()*+?^$|";
+    private static final String QUANTIFIER_CHARS = "*+?{";
+    // 路径模板中除变量段以外不能出现的字符，. 按字面量处理
+    private static final String TEMPLATE_FORBIDDEN_CHARS = "\\[]{}()*+?^$|";
+
+    private final Node<T> root = new Node<>();
+    // 注册顺序，用于多个映射同时命中时决定优先级
+    private int order;
+    private int size;
+    private int templateCount;
+    // 所有路径模板中最多的变量个数，决定匹配时记录下标的数组长度
+    private int maxVariables;
+
+    /**
+     * 注册一个 url 映射
+     *
+     * @param pattern url，可以包含正则
+     * @param target  路由目标
+     * @throws IllegalStateException 字面量 url 重复，或路径模板与已注册的模板形状相同（只有变量名不同）
+     */
+    public void add(String pattern, T target) {
+        String[] segments = pattern.split("/", -1);
+
+        // 路径模板，变量段走通配分支
+        if (isTemplate(pattern)) {
+            Node<T> node = root;
+            int variables = 0;
+            for (String segment : segments) {
+                if (isVariableSegment(segment)) {
+                    node = node.variableChild();
+                    variables++;
+                } else {
+                    node = node.child(segment);
+                }
+            }
+            // 变量名不同、形状相同的模板匹配完全相同的请求，后注册的永远不会命中
+            checkUnmapped(node, pattern);
+            node.route = new Route<>(pattern, target, nextOrder(), null, variables);
+            templateCount++;
+            maxVariables = Math.max(maxVariables, variables);
+            return;
+        }
+
+        int regexIndex = firstRegexSegment(pattern, segments);
+
+        // 纯字面量 url，整条路径放进树中
+        if (regexIndex < 0) {
+            Node<T> node = root;
+            for (String segment : segments) {
+                node = node.child(segment);
+            }
+            checkUnmapped(node, pattern);
+            node.route = new Route<>(pattern, target, nextOrder(), new RouteMatch<>(target), 0);
+            return;
+        }
+
+        // 含正则的 url，挂在正则之前的字面量前缀节点上
+        Node<T> node = root;
+        for (int i = 0; i < regexIndex; i++) {
+            node = node.child(segments[i]);
+        }
+        node.addRegex(new RegexRoute<>(Pattern.compile(pattern), target, nextOrder()));
+    }
+
+    private static void checkUnmapped(Node<?> node, String pattern) {
+        if (node.route != null) {
+            throw new IllegalStateException("Ambiguous mapping: " + pattern + " conflicts with " + node.route.pattern);
+        }
+    }
+
+    /**
+     * 分配注册顺序，只有注册成功的映射才计入 size
+     */
+    private int nextOrder() {
+        size++;
+        return order++;
+    }
+
+    /**
+     * 查找 url 对应的路由目标
+     *
+     * @param url 已去除 contextPath 的请求路径
+     * @return 匹配结果，没有匹配时返回 null
+     */
+    public RouteMatch<T> match(String url) {
+        Node<T> node = root;
+        // 记录沿途挂有正则映射的节点，大多数情况下不会用到
+        List<Node<T>> regexNodes = null;
+        int start = 0;
+        while (true) {
+            if (node.regexRoutes != null) {
+                if (regexNodes == null) {
+                    regexNodes = new ArrayList<>(4);
+                }
+                regexNodes.add(node);
+            }
+            if (start > url.length()) {
+                break;
+            }
+            int end = url.indexOf('/', start);
+            if (end < 0) {
+                end = url.length();
+            }
+            Node<T> next = node.children == null ? null : node.children.get(url, start, end);
+            if (next == null) {
+                node = null;
+                break;
+            }
+            node = next;
+            start = end + 1;
+        }
+
+        // 只经过字面量分支到达的节点上只会有字面量映射
+        Route<T> route = node == null ? null : node.route;
+        RouteMatch<T> best = route == null ? null : route.literalMatch;
+        int bestOrder = route == null ? Integer.MAX_VALUE : route.order;
+        if (best == null && templateCount > 0) {
+            int[] offsets = new int[maxVariables * 2];
+            route = find(root, url, 0, offsets, 0);
+            if (route != null) {
+                best = route.literalMatch != null ? route.literalMatch
+                        : new RouteMatch<>(route.target, url, offsets, route.variableCount);
+                bestOrder = route.order;
+            }
+        }
+        if (regexNodes == null) {
+            return best;
+        }
+
+        // 只需检查注册顺序比当前结果更靠前的正则映射
+        for (Node<T> regexNode : regexNodes) {
+            List<RegexRoute<T>> regexRoutes = regexNode.regexRoutes;
+            for (int i = 0; i < regexRoutes.size(); i++) {
+                RegexRoute<T> regexRoute = regexRoutes.get(i);
+                if (regexRoute.order >= bestOrder) {
+                    break;
+                }
+                Matcher matcher = regexRoute.pattern.matcher(url);
+                if (matcher.matches()) {
+                    best = new RouteMatch<>(regexRoute.target, groups(matcher));
+                    bestOrder = regexRoute.order;
+                    break;
+                }
+            }
+        }
+        return best;
+    }
+
+    /**
+     * 从 node 开始按路径段深度优先查找，字面量分支优先，变量段只记录起止下标
+     *
+     * @param start         当前路径段在 url 中的起始下标
+     * @param offsets       变量起止下标的输出数组
+     * @param variableIndex 当前已匹配的变量个数
+     */
+    private Route<T> find(Node<T> node, String url, int start, int[] offsets, int variableIndex) {
+        int end = url.indexOf('/', start);
+        if (end < 0) {
+            end = url.length();
+        }
+        boolean last = end == url.length();
+        Node<T> literal = node.children == null ? null : node.children.get(url, start, end);
+        if (literal != null) {
+            Route<T> route = last ? literal.route : find(literal, url, end + 1, offsets, variableIndex);
+            if (route != null) {
+                return route;
+            }
+        }
+        // 变量不能匹配空的路径段
+        if (node.variable != null && end > start) {
+            Route<T> route = last ? node.variable.route : find(node.variable, url, end + 1, offsets, variableIndex + 1);
+            if (route != null) {
+                // 回溯返回时才写入，失败的分支不会留下脏数据
+                offsets[variableIndex * 2] = start;
+                offsets[variableIndex * 2 + 1] = end;
+                return route;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 已注册的映射数量
+     */
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * 判断 url 是否为纯字面量，即不包含任何正则元字符
+     */
+    public static boolean isLiteral(String pattern) {
+        for (int i = 0; i < pattern.length(); i++) {
+            if (REGEX_META_CHARS.indexOf(pattern.charAt(i)) >= 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 判断 url 是否为路径模板：至少有一个形如 {name} 的完整路径段，其余路径段不含正则元字符（. 按字面量处理）
+     */
+    public static boolean isTemplate(String pattern) {
+        boolean hasVariable = false;
+        for (String segment : pattern.split("/", -1)) {
+            if (isVariableSegment(segment)) {
+                hasVariable = true;
+                continue;
+            }
+            for (int i = 0; i < segment.length(); i++) {
+                if (TEMPLATE_FORBIDDEN_CHARS.indexOf(segment.charAt(i)) >= 0) {
+                    return false;
+                }
+            }
+        }
+        return hasVariable;
+    }
+
+    /**
+     * 按出现顺序返回路径模板中的变量名，不是路径模板时返回空数组
+     */
+    public static String[] getVariableNames(String pattern) {
+        if (!isTemplate(pattern)) {
+            return new String[0];
+        }
+        List<String> names = new ArrayList<>();
+        for (String segment : pattern.split("/", -1)) {
+            if (isVariableSegment(segment)) {
+                names.add(segment.substring(1, segment.length() - 1));
+            }
+        }
+        return names.toArray(new String[0]);
+    }
+
+    /**
+     * 路径模板的形状：变量段替换为 {}，只有变量名不同的模板形状相同，匹配完全相同的请求。不是路径模板时原样返回
+     */
+    public static String getShape(String pattern) {
+        if (!isTemplate(pattern)) {
+            return pattern;
+        }
+        String[] segments = pattern.split("/", -1);
+        StringBuilder sb = new StringBuilder(pattern.length());
+        for (int i = 0; i < segments.length; i++) {
+            if (i > 0) {
+                sb.append('/');
+            }
+            sb.append(isVariableSegment(segments[i]) ? "{}" : segments[i]);
+        }
+        return sb.toString();
+    }
+
+    private static boolean isVariableSegment(String segment) {
+        int length = segment.length();
+        if (length < 3 || segment.charAt(0) != '{' || segment.charAt(length - 1) != '}'
+                || !Character.isJavaIdentifierStart(segment.charAt(1))) {
+            return false;
+        }
+        for (int i = 2; i < length - 1; i++) {
+            if (!Character.isJavaIdentifierPart(segment.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String[] groups(Matcher matcher) {
+        String[] groups = new String[matcher.groupCount()];
+        for (int i = 0; i < groups.length; i++) {
+            groups[i] = matcher.group(i + 1);
+        }
+        return groups;
+    }
+
+    /**
+     * 计算第一个包含正则元字符的路径段下标，纯字面量 url 返回 -1。
+     * 返回值也是该 url 可以挂到树上的字面量前缀深度。
+     */
+    private static int firstRegexSegment(String pattern, String[] segments) {
+        if (hasTopLevelAlternation(pattern)) {
+            // 顶层的 | 会让前缀失效，例如 /a/b|/c，只能挂在根节点
+            return 0;
+        }
+        for (int i = 0; i < segments.length; i++) {
+            String segment = segments[i];
+            for (int j = 0; j < segment.length(); j++) {
+                if (REGEX_META_CHARS.indexOf(segment.charAt(j)) >= 0) {
+                    // 段首的量词作用在前一个 / 上，例如 /demo/*abc，此时前一段也不能算作完整的字面量
+                    if (j == 0 && i > 0 && QUANTIFIER_CHARS.indexOf(segment.charAt(0)) >= 0) {
+                        return i - 1;
+                    }
+                    return i;
+                }
+            }
+        }
+        return -1;
+    }
+
+    private static boolean hasTopLevelAlternation(String pattern) {
+        int depth = 0;
+        boolean inClass = false;
+        for (int i = 0; i < pattern.length(); i++) {
+            char c = pattern.charAt(i);
+            if (c == '\\') {
+                i++;
+            } else if (inClass) {
+                if (c == ']') {
+                    inClass = false;
+                }
+            } else if (c == '[') {
+                inClass = true;
+            } else if (c == '(') {
+                depth++;
+            } else if (c == ')') {
+                depth--;
+            } else if (c == '|' && depth == 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static class Node<T> {
+        private SegmentMap<Node<T>> children;
+        // 路径模板中变量段的通配分支
+        private Node<T> variable;
+        // 以该节点结尾的字面量映射或路径模板
+        private Route<T> route;
+        // 以该节点为字面量前缀的正则映射，按注册顺序排列；匹配时按下标遍历，不创建迭代器
+        private List<RegexRoute<T>> regexRoutes;
+
+        private Node<T> child(String segment) {
+            if (children == null) {
+                children = new SegmentMap<>();
+            }
+            Node<T> child = children.get(segment);
+            if (child == null) {
+                child = new Node<>();
+                children.put(segment, child);
+            }
+            return child;
+        }
+
+        private Node<T> variableChild() {
+            if (variable == null) {
+                variable = new Node<>();
+            }
+            return variable;
+        }
+
+        private void addRegex(RegexRoute<T> route) {
+            if (regexRoutes == null) {
+                regexRoutes = new ArrayList<>(2);
+            }
+            regexRoutes.add(route);
+        }
+    }
+
+    /**
+     * 字面量映射或路径模板
+     */
+    private static class Route<T> {
+        private final String pattern;
+        private final T target;
+        private final int order;
+        // 字面量映射的匹配结果，每次命中都复用；路径模板为 null
+        private final RouteMatch<T> literalMatch;
+        private final int variableCount;
+
+        private Route(String pattern, T target, int order, RouteMatch<T> literalMatch, int variableCount) {
+            this.pattern = pattern;
+            this.target = target;
+            this.order = order;
+            this.literalMatch = literalMatch;
+            this.variableCount = variableCount;
+        }
+    }
+
+    private static class RegexRoute<T> {
+        private final Pattern pattern;
+        private final T target;
+        private final int order;
+
+        private RegexRoute(Pattern pattern, T target, int order) {
+            this.pattern = pattern;
+            this.target = target;
+            this.order = order;
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package com.codeashen.mvcframework.v3.router;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 路由表，在 RouteTrie 的基础上增加两级快速路径：
+ * 1. 纯字面量的 url（绝大多数映射）放进 HashMap，请求 url 与之完全相同时一次查找即可返回；
+ * 2. 经过前缀树匹配的 url，无论是否找到处理器，结果都放进有界的 LRU 缓存，重复的正则 url 和 404 不再重复匹配；
+ *    路径模板的匹配结果不缓存。
+ * <p>
+ * 字面量 url 的结果在注册时就通过前缀树计算好，所以即使它被更早注册的正则映射覆盖，结果也与逐个遍历一致。
+ *
+ * @param <T> 路由目标类型，例如 Handler
+ */
+public class Router<T> {
+
+    // 缓存中表示“没有匹配的处理器”的占位对象
+    private static final RouteMatch<Object> NOT_FOUND = new RouteMatch<>(null);
+
+    private final RouteTrie<T> trie = new RouteTrie<>();
+    private final Map<String, RouteMatch<T>> exactMatches = new HashMap<>();
+    private final LruCache<String, RouteMatch<T>> cache;
+    private final LongAdder exactHits = new LongAdder();
+
+    /**
+     * @param cacheSize 正则 url 和 404 结果缓存的最大条目数，小于等于 0 时不缓存
+     */
+    public Router(int cacheSize) {
+        this.cache = cacheSize > 0 ? new LruCache<>(cacheSize) : null;
+    }
+
+    /**
+     * @throws IllegalStateException 与已注册的映射冲突，见 RouteTrie#add
+     */
+    public void add(String pattern, T target) {
+        trie.add(pattern, target);
+        if (RouteTrie.isLiteral(pattern)) {
+            // 之后注册的映射优先级都更低，此时的匹配结果就是最终结果
+            exactMatches.put(pattern, trie.match(pattern));
+        }
+    }
+
+    /**
+     * 查找 url 对应的路由目标
+     *
+     * @param url 已规范化的请求路径，见 UrlPathHelper
+     * @return 匹配结果，没有匹配时返回 null
+     */
+    @SuppressWarnings("unchecked")
+    public RouteMatch<T> match(String url) {
+        RouteMatch<T> match = exactMatches.get(url);
+        if (match != null) {
+            exactHits.increment();
+            return match;
+        }
+        if (cache == null) {
+            return trie.match(url);
+        }
+        match = cache.get(url);
+        if (match == null) {
+            match = trie.match(url);
+            // 路径模板的匹配不需要正则，变量取值又很多，缓存起来只会挤掉正则 url 的结果
+            if (match == null || !match.isTemplate()) {
+                cache.put(url, match != null ? match : (RouteMatch<T>) NOT_FOUND);
+            }
+            return match;
+        }
+        return match == NOT_FOUND ? null : match;
+    }
+
+    public int size() {
+        return trie.size();
+    }
+
+    public boolean isEmpty() {
+        return trie.isEmpty();
+    }
+
+    /**
+     * 命中字面量快速路径的次数
+     */
+    public long getExactHitCount() {
+        return exactHits.sum();
+    }
+
+    /**
+     * 正则 url 和 404 缓存的命中次数
+     */
+    public long getCacheHitCount() {
+        return cache == null ? 0 : cache.getHitCount();
+    }
+
+    public long getCacheMissCount() {
+        return cache == null ? 0 : cache.getMissCount();
+    }
+
+    /**
+     * 正则 url 和 404 缓存的命中率
+     */
+    public double getCacheHitRate() {
+        return cache == null ? 0D : cache.getHitRate();
+    }
+
+    @Override
+    public String toString() {
+        return "Router{routes=" + size()
+                + ", exactHits=" + getExactHitCount()
+                + ", cacheHits=" + getCacheHitCount()
+                + ", cacheMisses=" + getCacheMissCount()
+                + ", cacheHitRate=" + String.format("%.2f", getCacheHitRate()) + "}";
+    }
+}
@@ -0,0 +1,86 @@
+package com.codeashen.mvcframework.v3.router;
+
+/**
+ * 以路径段为 key 的开放寻址哈希表，查找时直接按请求路径中的区间计算哈希并比较，
+ * 不需要先 substring 出路径段再查 HashMap。只在构建阶段写入，构建完成后只读。
+ *
+ * @param <V> 值类型
+ */
+class SegmentMap<V> {
+
+    private String[] keys = new String[4];
+    private Object[] values = new Object[4];
+    private int size;
+
+    /**
+     * 查找 path 中 [start, end) 区间对应的值
+     */
+    @SuppressWarnings("unchecked")
+    V get(String path, int start, int end) {
+        int length = end - start;
+        int mask = keys.length - 1;
+        for (int i = hash(path, start, end) & mask; ; i = (i + 1) & mask) {
+            String key = keys[i];
+            if (key == null) {
+                return null;
+            }
+            if (key.length() == length && path.regionMatches(start, key, 0, length)) {
+                return (V) values[i];
+            }
+        }
+    }
+
+    V get(String key) {
+        return get(key, 0, key.length());
+    }
+
+    void put(String key, V value) {
+        // 负载因子不超过 0.5，保证查找时总能遇到空槽
+        if ((size + 1) * 2 > keys.length) {
+            resize();
+        }
+        int mask = keys.length - 1;
+        for (int i = hash(key, 0, key.length()) & mask; ; i = (i + 1) & mask) {
+            if (keys[i] == null) {
+                keys[i] = key;
+                values[i] = value;
+                size++;
+                return;
+            }
+            if (keys[i].equals(key)) {
+                values[i] = value;
+                return;
+            }
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    private void resize() {
+        String[] oldKeys = keys;
+        Object[] oldValues = values;
+        keys = new String[oldKeys.length * 2];
+        values = new Object[oldValues.length * 2];
+        size = 0;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != null) {
+                put(oldKeys[i], cast(oldValues[i]));
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private V cast(Object value) {
+        return (V) value;
+    }
+
+    private static int hash(String path, int start, int end) {
+        int h = 0;
+        for (int i = start; i < end; i++) {
+            h = 31 * h + path.charAt(i);
+        }
+        return h ^ (h >>> 16);
+    }
+}
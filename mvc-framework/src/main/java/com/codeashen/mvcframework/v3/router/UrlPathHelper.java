@@ -0,0 +1,84 @@
+package com.codeashen.mvcframework.v3.router;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * url 路径处理工具，取代 url.replace(contextPath, "").replaceAll("/+", "/") 的写法
+ */
+public class UrlPathHelper {
+
+    private UrlPathHelper() {
+    }
+
+    /**
+     * 计算用于路由匹配的路径：去掉 contextPath 前缀，并把连续的 / 合并为一个。
+     * 只扫描一遍字符，不使用正则；路径本身已经规范时直接返回原字符串，不产生新对象。
+     *
+     * @param requestURI  请求 uri
+     * @param contextPath 应用的 contextPath
+     * @return 用于路由匹配的路径
+     */
+    public static String getLookupPath(String requestURI, String contextPath) {
+        int start = 0;
+        if (contextPath != null && !contextPath.isEmpty() && requestURI.startsWith(contextPath)) {
+            start = contextPath.length();
+        }
+        int duplicate = requestURI.indexOf("//", start);
+        if (duplicate < 0) {
+            return start == 0 ? requestURI : requestURI.substring(start);
+        }
+
+        // 重复的 / 之前的部分原样保留，之后逐个字符跳过连续的 /
+        int length = requestURI.length();
+        StringBuilder sb = new StringBuilder(length - start);
+        sb.append(requestURI, start, duplicate + 1);
+        char prev = '/';
+        for (int i = duplicate + 1; i < length; i++) {
+            char c = requestURI.charAt(i);
+            if (c == '/' && prev == '/') {
+                continue;
+            }
+            sb.append(c);
+            prev = c;
+        }
+        return sb.toString();
+    }
+
+    /**
+     * 按 UTF-8 解码 source 中 [start, end) 区间的百分号转义，用于路径变量。
+     * 与 URLDecoder 不同，路径中的 + 按字面量处理；%2F 解码为 /，此时路由已经完成，不会影响匹配。
+     *
+     * @throws IllegalArgumentException 转义不完整或不是十六进制
+     */
+    public static String decode(String source, int start, int end) {
+        int escape = source.indexOf('%', start);
+        if (escape < 0 || escape >= end) {
+            return source.substring(start, end);
+        }
+        StringBuilder sb = new StringBuilder(end - start);
+        sb.append(source, start, escape);
+        byte[] bytes = new byte[(end - escape) / 3];
+        int i = escape;
+        while (i < end) {
+            char c = source.charAt(i);
+            if (c != '%') {
+                sb.append(c);
+                i++;
+                continue;
+            }
+            // 连续的转义一起按 UTF-8 解码，多字节字符才能还原
+            int length = 0;
+            while (i < end && source.charAt(i) == '%') {
+                int hi = i + 2 < end ? Character.digit(source.charAt(i + 1), 16) : -1;
+                int lo = i + 2 < end ? Character.digit(source.charAt(i + 2), 16) : -1;
+                if (hi < 0 || lo < 0) {
+                    throw new IllegalArgumentException("Invalid escape in \"" + source.substring(start, end) + "\"");
+                }
+                bytes[length++] = (byte) ((hi << 4) + lo);
+                i += 3;
+            }
+            sb.append(new String(bytes, 0, length, StandardCharsets.UTF_8));
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,216 @@
+package com.codeashen.mvcframework.v3.scan;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 直接解析 class 文件字节，读取类上的注解，不需要加载或初始化类。
+ * 只关心 RuntimeVisibleAnnotations 中的注解类型，注解属性值跳过不解析。
+ */
+public class ClassFileReader {
+
+    private static final int MAGIC = 0xCAFEBABE;
+
+    private ClassFileReader() {
+    }
+
+    /**
+     * 读取类名和类上的注解
+     *
+     * @param in class 文件输入流，由调用方关闭
+     * @return 类的元数据；不是合法的 class 文件时抛出 IOException
+     */
+    public static ClassMetadata read(InputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(4096);
+        byte[] buffer = new byte[4096];
+        int n;
+        while ((n = in.read(buffer)) != -1) {
+            out.write(buffer, 0, n);
+        }
+        return read(out.toByteArray());
+    }
+
+    /**
+     * 读取类名和类上的注解
+     *
+     * @param bytes class 文件内容
+     * @return 类的元数据；不是合法的 class 文件时抛出 IOException
+     */
+    public static ClassMetadata read(byte[] bytes) throws IOException {
+        // 基于字节数组的流，skipBytes 总能跳过指定的字节数
+        DataInputStream data = new DataInputStream(new ByteArrayInputStream(bytes));
+        if (data.readInt() != MAGIC) {
+            throw new IOException("Not a class file");
+        }
+        data.readUnsignedShort();   // minor_version
+        data.readUnsignedShort();   // major_version
+
+        // 常量池，只保留 Utf8 和 Class 常量
+        int count = data.readUnsignedShort();
+        String[] utf8 = new String[count];
+        int[] classNameIndexes = new int[count];
+        for (int i = 1; i < count; i++) {
+            int tag = data.readUnsignedByte();
+            switch (tag) {
+                case 1:     // Utf8
+                    utf8[i] = data.readUTF();
+                    break;
+                case 7:     // Class
+                    classNameIndexes[i] = data.readUnsignedShort();
+                    break;
+                case 8:     // String
+                case 16:    // MethodType
+                case 19:    // Module
+                case 20:    // Package
+                    data.skipBytes(2);
+                    break;
+                case 15:    // MethodHandle
+                    data.skipBytes(3);
+                    break;
+                case 3:     // Integer
+                case 4:     // Float
+                case 9:     // Fieldref
+                case 10:    // Methodref
+                case 11:    // InterfaceMethodref
+                case 12:    // NameAndType
+                case 17:    // Dynamic
+                case 18:    // InvokeDynamic
+                    data.skipBytes(4);
+                    break;
+                case 5:     // Long
+                case 6:     // Double
+                    data.skipBytes(8);
+                    i++;    // 占用两个常量池位置
+                    break;
+                default:
+                    throw new IOException("Unknown constant pool tag " + tag);
+            }
+        }
+
+        int access = data.readUnsignedShort();
+        String className = utf8[classNameIndexes[data.readUnsignedShort()]].replace('/', '.');
+        data.readUnsignedShort();   // super_class
+        data.skipBytes(2 * data.readUnsignedShort());   // interfaces
+
+        skipMembers(data);          // fields
+        skipMembers(data);          // methods
+
+        List<String> annotations = Collections.emptyList();
+        int attributes = data.readUnsignedShort();
+        for (int i = 0; i < attributes; i++) {
+            String name = utf8[data.readUnsignedShort()];
+            int length = data.readInt();
+            if ("RuntimeVisibleAnnotations".equals(name)) {
+                annotations = readAnnotationTypes(data, utf8);
+            } else {
+                data.skipBytes(length);
+            }
+        }
+        return new ClassMetadata(className, access, annotations);
+    }
+
+    private static void skipMembers(DataInputStream data) throws IOException {
+        int count = data.readUnsignedShort();
+        for (int i = 0; i < count; i++) {
+            data.skipBytes(6);      // access_flags, name_index, descriptor_index
+            int attributes = data.readUnsignedShort();
+            for (int j = 0; j < attributes; j++) {
+                data.skipBytes(2);
+                data.skipBytes(data.readInt());
+            }
+        }
+    }
+
+    private static List<String> readAnnotationTypes(DataInputStream data, String[] utf8) throws IOException {
+        int count = data.readUnsignedShort();
+        List<String> types = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            types.add(descriptorToClassName(utf8[data.readUnsignedShort()]));
+            skipElementValuePairs(data);
+        }
+        return types;
+    }
+
+    private static void skipElementValuePairs(DataInputStream data) throws IOException {
+        int pairs = data.readUnsignedShort();
+        for (int i = 0; i < pairs; i++) {
+            data.skipBytes(2);      // element_name_index
+            skipElementValue(data);
+        }
+    }
+
+    private static void skipElementValue(DataInputStream data) throws IOException {
+        int tag = data.readUnsignedByte();
+        switch (tag) {
+            case 'e':               // 枚举：type_name_index, const_name_index
+                data.skipBytes(4);
+                break;
+            case '@':               // 嵌套注解
+                data.skipBytes(2);
+                skipElementValuePairs(data);
+                break;
+            case '[':               // 数组
+                int length = data.readUnsignedShort();
+                for (int i = 0; i < length; i++) {
+                    skipElementValue(data);
+                }
+                break;
+            default:                // 基本类型、String、Class 都是一个常量池下标
+                data.skipBytes(2);
+        }
+    }
+
+    /**
+     * Lcom/codeashen/Foo; 转为 com.codeashen.Foo
+     */
+    private static String descriptorToClassName(String descriptor) {
+        return descriptor.substring(1, descriptor.length() - 1).replace('/', '.');
+    }
+
+    /**
+     * 从 class 文件中读到的类元数据
+     */
+    public static class ClassMetadata {
+        private static final int ACC_INTERFACE = 0x0200;
+        private static final int ACC_ABSTRACT = 0x0400;
+        private static final int ACC_ANNOTATION = 0x2000;
+
+        private final String className;
+        private final int access;
+        private final List<String> annotationTypes;
+
+        ClassMetadata(String className, int access, List<String> annotationTypes) {
+            this.className = className;
+            this.access = access;
+            this.annotationTypes = annotationTypes;
+        }
+
+        public String getClassName() {
+            return className;
+        }
+
+        /**
+         * 类上的注解类型的全限定名
+         */
+        public List<String> getAnnotationTypes() {
+            return annotationTypes;
+        }
+
+        public boolean hasAnnotation(String annotationType) {
+            return annotationTypes.contains(annotationType);
+        }
+
+        /**
+         * 是否为可以实例化的普通类，接口、抽象类、注解返回 false
+         */
+        public boolean isConcrete() {
+            return (access & (ACC_INTERFACE | ACC_ABSTRACT | ACC_ANNOTATION)) == 0;
+        }
+    }
+}
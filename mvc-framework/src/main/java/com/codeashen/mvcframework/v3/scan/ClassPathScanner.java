@@ -0,0 +1,211 @@
+package com.codeashen.mvcframework.v3.scan;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.JarURLConnection;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLConnection;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+
+/**
+ * 并行的类路径扫描器，取代逐层 File.listFiles() 再逐个 Class.forName 的扫描方式。
+ * - 同时支持目录和 JAR 包中的类，扫描包所在的每个类路径根都会被扫描；
+ * - 在 ForkJoinPool 上并行遍历目录、读取 JAR 条目；
+ * - 直接解析 class 文件字节读取类上的注解，扫描过程中不会加载或初始化任何类；
+ * - 只返回带有指定注解的具体类，调用方只需要加载这些类。
+ * <p>
+ * 扫描包通过 ClassLoader.getResources 定位，JAR 包需要包含目录条目（jar 命令和 maven 打包默认都会写入）。
+ */
+public class ClassPathScanner {
+
+    // 单个任务处理的 JAR 条目数量，超过时拆分
+    private static final int JAR_BATCH_SIZE = 64;
+
+    private final ClassLoader classLoader;
+    private final Collection<String> annotationTypes;
+
+    /**
+     * @param classLoader     用于查找扫描包的类加载器
+     * @param annotationTypes 要查找的注解类型的全限定名，类上带有其中任意一个即可
+     */
+    public ClassPathScanner(ClassLoader classLoader, Collection<String> annotationTypes) {
+        this.classLoader = classLoader;
+        this.annotationTypes = annotationTypes;
+    }
+
+    /**
+     * 扫描包及其子包
+     *
+     * @param basePackage 扫描的包路径
+     * @return 带有指定注解的类名，按字母顺序排列
+     */
+    public List<String> scan(String basePackage) throws IOException {
+        String path = basePackage.replace('.', '/');
+        Queue<String> result = new ConcurrentLinkedQueue<>();
+        List<RecursiveAction> tasks = new ArrayList<>();
+        List<JarFile> jarFiles = new ArrayList<>();
+        try {
+            Enumeration<URL> roots = classLoader.getResources(path);
+            while (roots.hasMoreElements()) {
+                URL root = roots.nextElement();
+                if ("file".equals(root.getProtocol())) {
+                    tasks.add(new DirectoryTask(toFile(root), result));
+                } else if ("jar".equals(root.getProtocol())) {
+                    JarFile jarFile = openJar(root);
+                    jarFiles.add(jarFile);
+                    tasks.add(new JarTask(jarFile, jarEntries(jarFile, path + "/"), result));
+                } else {
+                    System.out.println("Unsupported class path root for scanning: " + root);
+                }
+            }
+
+            ForkJoinPool pool = new ForkJoinPool();
+            try {
+                for (RecursiveAction task : tasks) {
+                    pool.execute(task);
+                }
+                for (RecursiveAction task : tasks) {
+                    task.join();
+                }
+            } finally {
+                pool.shutdown();
+            }
+        } finally {
+            for (JarFile jarFile : jarFiles) {
+                jarFile.close();
+            }
+        }
+
+        List<String> clazzNames = new ArrayList<>(result);
+        Collections.sort(clazzNames);
+        return clazzNames;
+    }
+
+    private void accept(ClassFileReader.ClassMetadata metadata, Queue<String> result) {
+        if (!metadata.isConcrete()) {
+            return;
+        }
+        for (String annotationType : annotationTypes) {
+            if (metadata.hasAnnotation(annotationType)) {
+                result.add(metadata.getClassName());
+                return;
+            }
+        }
+    }
+
+    private static boolean isCandidate(String name) {
+        return name.endsWith(".class") && !name.endsWith("module-info.class") && !name.endsWith("package-info.class");
+    }
+
+    private static File toFile(URL url) throws IOException {
+        try {
+            return new File(url.toURI());
+        } catch (URISyntaxException e) {
+            return new File(url.getFile());
+        }
+    }
+
+    private static JarFile openJar(URL url) throws IOException {
+        URLConnection connection = url.openConnection();
+        if (connection instanceof JarURLConnection) {
+            // 不使用缓存，扫描结束后由扫描器自己关闭
+            connection.setUseCaches(false);
+            return ((JarURLConnection) connection).getJarFile();
+        }
+        String file = url.getFile();
+        return new JarFile(file.substring("file:".length(), file.indexOf("!/")));
+    }
+
+    private static List<JarEntry> jarEntries(JarFile jarFile, String prefix) {
+        List<JarEntry> entries = new ArrayList<>();
+        Enumeration<JarEntry> enumeration = jarFile.entries();
+        while (enumeration.hasMoreElements()) {
+            JarEntry entry = enumeration.nextElement();
+            if (!entry.isDirectory() && entry.getName().startsWith(prefix) && isCandidate(entry.getName())) {
+                entries.add(entry);
+            }
+        }
+        return entries;
+    }
+
+    /**
+     * 扫描一个目录，子目录拆分为新的任务并行处理
+     */
+    private class DirectoryTask extends RecursiveAction {
+        private final File directory;
+        private final Queue<String> result;
+
+        DirectoryTask(File directory, Queue<String> result) {
+            this.directory = directory;
+            this.result = result;
+        }
+
+        @Override
+        protected void compute() {
+            File[] files = directory.listFiles();
+            if (files == null) {
+                return;
+            }
+            List<DirectoryTask> subTasks = new ArrayList<>();
+            for (File file : files) {
+                if (file.isDirectory()) {
+                    subTasks.add(new DirectoryTask(file, result));
+                } else if (isCandidate(file.getName())) {
+                    try {
+                        accept(ClassFileReader.read(Files.readAllBytes(file.toPath())), result);
+                    } catch (IOException e) {
+                        // 无法解析的 class 文件直接跳过
+                        System.out.println("Skip unreadable class file: " + file);
+                    }
+                }
+            }
+            invokeAll(subTasks);
+        }
+    }
+
+    /**
+     * 读取 JAR 中的一批条目，数量较多时二分拆分
+     */
+    private class JarTask extends RecursiveAction {
+        private final JarFile jarFile;
+        private final List<JarEntry> entries;
+        private final Queue<String> result;
+
+        JarTask(JarFile jarFile, List<JarEntry> entries, Queue<String> result) {
+            this.jarFile = jarFile;
+            this.entries = entries;
+            this.result = result;
+        }
+
+        @Override
+        protected void compute() {
+            int size = entries.size();
+            if (size > JAR_BATCH_SIZE) {
+                int middle = size >>> 1;
+                invokeAll(new JarTask(jarFile, entries.subList(0, middle), result),
+                        new JarTask(jarFile, entries.subList(middle, size), result));
+                return;
+            }
+            for (JarEntry entry : entries) {
+                try (InputStream in = jarFile.getInputStream(entry)) {
+                    accept(ClassFileReader.read(in), result);
+                } catch (IOException e) {
+                    System.out.println("Skip unreadable class file: " + entry.getName());
+                }
+            }
+        }
+    }
+}
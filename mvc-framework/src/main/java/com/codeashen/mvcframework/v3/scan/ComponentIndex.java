@@ -0,0 +1,178 @@
+package com.codeashen.mvcframework.v3.scan;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.Writer;
+import java.net.URL;
+import java.net.URLConnection;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * 编译期生成的组件索引，记录所有带 @ASController、@ASService 的类。
+ * 索引由 {@link ComponentIndexProcessor} 在编译时写入 {@value #LOCATION}，启动时读取索引即可得到组件列表，不再需要扫描类路径。
+ * <p>
+ * 文件格式为 UTF-8 文本，每个组件一行，依次为类名、注解类型、注解 value，以 Tab 分隔：
+ * <pre>
+ * com.codeashen.demo.controller.DemoController	com.codeashen.mvcframework.annotation.ASController
+ * com.codeashen.demo.service.impl.DemoService	com.codeashen.mvcframework.annotation.ASService	demoService
+ * </pre>
+ * 处理器方法和注入字段仍由容器通过反射获取 Method、Field，索引中不再重复记录。以 Tab 开头的行是组件的附加条目，读取时忽略，
+ * 旧版本生成的 mapping、autowired 条目因此仍可读取，以后也可以用来扩展索引内容。
+ */
+public class ComponentIndex {
+
+    public static final String LOCATION = "META-INF/mvc-framework.components";
+
+    // 类名 -> 组件，按类名排序，保证生成的文件内容稳定
+    private final Map<String, Component> components = new TreeMap<>();
+
+    /**
+     * 读取类路径上所有的索引文件并合并
+     *
+     * @param classLoader 类加载器
+     * @return 组件索引，类路径上没有索引文件时返回 null
+     */
+    public static ComponentIndex load(ClassLoader classLoader) throws IOException {
+        Enumeration<URL> urls = classLoader.getResources(LOCATION);
+        if (!urls.hasMoreElements()) {
+            return null;
+        }
+        ComponentIndex index = new ComponentIndex();
+        while (urls.hasMoreElements()) {
+            URLConnection connection = urls.nextElement().openConnection();
+            // 避免 JarURLConnection 缓存导致 JAR 文件句柄无法释放
+            connection.setUseCaches(false);
+            try (InputStream in = connection.getInputStream()) {
+                index.read(new InputStreamReader(in, StandardCharsets.UTF_8));
+            }
+        }
+        return index;
+    }
+
+    /**
+     * 读取一个索引文件，合并到当前索引中
+     */
+    public void read(Reader reader) throws IOException {
+        BufferedReader in = new BufferedReader(reader);
+        Component current = null;
+        String line;
+        while ((line = in.readLine()) != null) {
+            if (line.isEmpty() || line.charAt(0) == '#') {
+                continue;
+            }
+            if (line.charAt(0) != '\t') {
+                String[] columns = split(line, 3);
+                current = new Component(columns[0], columns[1], columns[2]);
+                add(current);
+                continue;
+            }
+            if (current == null) {
+                throw new IOException("Malformed component index, entry without component: " + line);
+            }
+            // 组件的附加条目忽略，便于以后扩展索引内容
+        }
+    }
+
+    /**
+     * 写出索引文件
+     */
+    public void write(Writer writer) throws IOException {
+        writer.write("# Generated by " + ComponentIndexProcessor.class.getName() + ", do not edit\n");
+        for (Component component : components.values()) {
+            writer.write(component.className + '\t' + component.annotationType + '\t' + component.value + '\n');
+        }
+        writer.flush();
+    }
+
+    public void add(Component component) {
+        components.put(component.className, component);
+    }
+
+    public Component getComponent(String className) {
+        return components.get(className);
+    }
+
+    public Collection<Component> getComponents() {
+        return Collections.unmodifiableCollection(components.values());
+    }
+
+    /**
+     * 获取包及其子包下的组件类名
+     *
+     * @param basePackage 包路径
+     * @return 按字母顺序排列的类名
+     */
+    public List<String> getClassNames(String basePackage) {
+        String prefix = basePackage + ".";
+        List<String> clazzNames = new ArrayList<>();
+        for (String className : components.keySet()) {
+            if (className.startsWith(prefix)) {
+                clazzNames.add(className);
+            }
+        }
+        return clazzNames;
+    }
+
+    /**
+     * 按 Tab 拆分为固定列数，缺少的列补空串
+     */
+    private static String[] split(String line, int columns) {
+        String[] result = new String[columns];
+        int start = 0;
+        for (int i = 0; i < columns; i++) {
+            int end = i == columns - 1 ? -1 : line.indexOf('\t', start);
+            if (start > line.length()) {
+                result[i] = "";
+            } else if (end < 0) {
+                result[i] = line.substring(start);
+                start = line.length() + 1;
+            } else {
+                result[i] = line.substring(start, end);
+                start = end + 1;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 带有 @ASController 或 @ASService 的组件
+     */
+    public static class Component {
+        private final String className;
+        private final String annotationType;
+        private final String value;
+
+        /**
+         * @param className      类名，使用 Class.forName 可以识别的二进制名称
+         * @param annotationType 注解类型的全限定名
+         * @param value          注解的 value，例如 @ASService 自定义的 beanName
+         */
+        public Component(String className, String annotationType, String value) {
+            this.className = className;
+            this.annotationType = annotationType;
+            this.value = value;
+        }
+
+        public String getClassName() {
+            return className;
+        }
+
+        public String getAnnotationType() {
+            return annotationType;
+        }
+
+        public String getValue() {
+            return value;
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package com.codeashen.mvcframework.v3.scan;
+
+import com.codeashen.mvcframework.annotation.ASController;
+import com.codeashen.mvcframework.annotation.ASService;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * 编译期生成组件索引的注解处理器，通过 META-INF/services 注册，依赖 mvc-framework 的工程编译时自动生效。
+ * <p>
+ * 增量编译时只有部分类参与编译，因此写出索引前会读取上一次生成的索引，
+ * 保留本次没有参与编译、且仍然存在的组件，本次参与编译的类以本次的处理结果为准。
+ */
+public class ComponentIndexProcessor extends AbstractProcessor {
+
+    private final ComponentIndex index = new ComponentIndex();
+    // 本次编译处理过的所有类，这些类在旧索引中的记录全部作废
+    private final Set<String> processedTypes = new HashSet<>();
+
+    @Override
+    public Set<String> getSupportedAnnotationTypes() {
+        // 需要看到所有参与编译的类，才能移除去掉了注解的组件
+        return Collections.singleton("*");
+    }
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        if (roundEnv.processingOver()) {
+            writeIndex();
+            return false;
+        }
+        for (Element element : roundEnv.getRootElements()) {
+            processType(element);
+        }
+        // 不声明占有任何注解，其他处理器照常处理
+        return false;
+    }
+
+    private void processType(Element element) {
+        if (!(element instanceof TypeElement)) {
+            return;
+        }
+        TypeElement type = (TypeElement) element;
+        String className = processingEnv.getElementUtils().getBinaryName(type).toString();
+        processedTypes.add(className);
+
+        ComponentIndex.Component component = createComponent(type, className);
+        if (component != null) {
+            index.add(component);
+        }
+        // 静态内部类也可以是组件
+        for (Element enclosed : type.getEnclosedElements()) {
+            processType(enclosed);
+        }
+    }
+
+    private ComponentIndex.Component createComponent(TypeElement type, String className) {
+        // 与扫描器保持一致，只收录可以实例化的类
+        if (type.getKind() != ElementKind.CLASS || type.getModifiers().contains(Modifier.ABSTRACT)) {
+            return null;
+        }
+        ASController controller = type.getAnnotation(ASController.class);
+        ASService service = type.getAnnotation(ASService.class);
+        if (controller != null) {
+            return new ComponentIndex.Component(className, ASController.class.getName(), checked(type, controller.value()));
+        } else if (service != null) {
+            return new ComponentIndex.Component(className, ASService.class.getName(), checked(type, service.value()));
+        }
+        return null;
+    }
+
+    /**
+     * 注解值中出现 Tab 或换行会破坏索引格式，报编译错误
+     */
+    private String checked(Element element, String value) {
+        if (value.indexOf('\t') >= 0 || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                    "Annotation value must not contain tabs or line breaks: \"" + value + "\"", element);
+        }
+        return value;
+    }
+
+    private void writeIndex() {
+        // 旧索引存在时，即使组件全部被移除也要覆盖写出
+        if (!mergePreviousIndex() && index.getComponents().isEmpty()) {
+            return;
+        }
+        try {
+            FileObject file = processingEnv.getFiler().createResource(StandardLocation.CLASS_OUTPUT, "", ComponentIndex.LOCATION);
+            try (Writer writer = file.openWriter()) {
+                index.write(writer);
+            }
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                    "Unable to write " + ComponentIndex.LOCATION + ": " + e);
+        }
+    }
+
+    /**
+     * 合并上一次编译生成的索引，用于增量编译
+     *
+     * @return 是否存在旧索引
+     */
+    private boolean mergePreviousIndex() {
+        ComponentIndex previous = new ComponentIndex();
+        try {
+            FileObject file = processingEnv.getFiler().getResource(StandardLocation.CLASS_OUTPUT, "", ComponentIndex.LOCATION);
+            try (Reader reader = file.openReader(true)) {
+                previous.read(reader);
+            }
+        } catch (IOException | IllegalArgumentException e) {
+            // 没有旧索引，全量编译
+            return false;
+        }
+        for (ComponentIndex.Component component : previous.getComponents()) {
+            String className = component.getClassName();
+            if (processedTypes.contains(className)) {
+                continue;
+            }
+            // 类已被删除时不再保留
+            if (processingEnv.getElementUtils().getTypeElement(className.replace('$', '.')) != null) {
+                index.add(component);
+            }
+        }
+        return true;
+    }
+}
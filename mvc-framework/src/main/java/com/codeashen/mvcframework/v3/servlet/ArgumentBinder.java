@@ -0,0 +1,100 @@
+package com.codeashen.mvcframework.v3.servlet;
+
+import com.codeashen.mvcframework.v3.convert.Converter;
+import com.codeashen.mvcframework.v3.convert.ParameterConverter;
+import com.codeashen.mvcframework.v3.json.JsonBinding;
+import com.codeashen.mvcframework.v3.router.RouteMatch;
+import com.codeashen.mvcframework.v3.router.UrlPathHelper;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * 参数绑定器，负责为处理器方法的一个形参取值。
+ * 每个 Handler 在初始化时为每个形参准备好一个绑定器，请求时按下标依次调用即可。
+ */
+interface ArgumentBinder {
+
+    /**
+     * 无法绑定的形参，传 null
+     */
+    ArgumentBinder NONE = (req, resp, match) -> null;
+
+    ArgumentBinder REQUEST = (req, resp, match) -> req;
+
+    ArgumentBinder RESPONSE = (req, resp, match) -> resp;
+
+    /**
+     * @param match 路由匹配结果，包含路径变量
+     */
+    Object bind(HttpServletRequest req, HttpServletResponse resp, RouteMatch<?> match) throws Exception;
+
+    /**
+     * 绑定 @ASRequestParam 标注的 url 参数，转换器在初始化时已按形参类型解析好
+     */
+    class RequestParam implements ArgumentBinder {
+        private final String name;
+        private final ParameterConverter converter;
+
+        RequestParam(String name, ParameterConverter converter) {
+            this.name = name;
+            this.converter = converter;
+        }
+
+        @Override
+        public Object bind(HttpServletRequest req, HttpServletResponse resp, RouteMatch<?> match) {
+            return converter.convert(req.getParameterValues(name));
+        }
+    }
+
+    /**
+     * 绑定 @ASRequestBody 标注的形参，读取计划在初始化时已按形参类型解析好
+     */
+    class RequestBody implements ArgumentBinder {
+        private final RequestBodyReader reader;
+        private final JsonBinding binding;
+        private final boolean required;
+
+        RequestBody(RequestBodyReader reader, JsonBinding binding, boolean required) {
+            this.reader = reader;
+            this.binding = binding;
+            this.required = required;
+        }
+
+        @Override
+        public Object bind(HttpServletRequest req, HttpServletResponse resp, RouteMatch<?> match) throws Exception {
+            return reader.read(req, binding, required);
+        }
+    }
+
+    /**
+     * 绑定 @ASPathVariable 标注的路径变量，变量下标和转换器在初始化时已解析好。
+     * 变量取自未解码的请求 uri，绑定前先解码百分号转义；不含转义时路径模板的变量直接按起止下标交给转换器，
+     * 整数类型不会截取子串。
+     */
+    class PathVariable implements ArgumentBinder {
+        private final int index;
+        private final Converter converter;
+
+        PathVariable(int index, Converter converter) {
+            this.index = index;
+            this.converter = converter;
+        }
+
+        @Override
+        public Object bind(HttpServletRequest req, HttpServletResponse resp, RouteMatch<?> match) {
+            if (match.isTemplate()) {
+                String path = match.getPath();
+                int start = match.getVariableStart(index);
+                int end = match.getVariableEnd(index);
+                int escape = path.indexOf('%', start);
+                if (escape < 0 || escape >= end) {
+                    return converter.convert(path, start, end);
+                }
+                return converter.convert(UrlPathHelper.decode(path, start, end));
+            }
+            String value = match.getVariable(index);
+            return converter.convert(value == null ? null : UrlPathHelper.decode(value, 0, value.length()));
+        }
+    }
+}
@@ -0,0 +1,264 @@
+package com.codeashen.mvcframework.v3.servlet;
+
+import com.codeashen.mvcframework.v3.async.DeferredResult;
+import com.codeashen.mvcframework.v3.response.ReturnValueHandler;
+
+import javax.servlet.AsyncContext;
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BiConsumer;
+
+/**
+ * 异步请求处理：处理器方法返回 CompletionStage 或 DeferredResult 时，开启 AsyncContext 后立即释放容器线程，
+ * 结果完成后再写出响应并结束异步请求。
+ * <p>
+ * 容器不支持异步（例如 servlet 没有声明 async-supported）时，退化为在容器线程上等待结果。
+ * <p>
+ * 每个 AsyncContext 只有一个所有者负责设置超时和注册监听器：由这里开启的异步请求注册 Completion；
+ * 已经由 AsyncOwner 开启的异步请求（dispatchMode 不是 container 时的 DispatchTask）不再重复设置，
+ * 由所有者把超时和出错事件转交给 Completion。
+ */
+class AsyncRequestProcessor {
+
+    /**
+     * 写出结果的回调，由 DispatcherServlet 实现
+     */
+    interface ResultWriter {
+        void writeResult(HttpServletResponse resp, Object result) throws Exception;
+
+        void writeError(HttpServletResponse resp, Throwable error) throws IOException;
+    }
+
+    /**
+     * 已经开启 AsyncContext、设置了超时并注册为唯一监听器的一方。
+     * 容器线程返回后不能再设置超时或注册监听器，处理器方法返回异步结果时通过 handOver 接管结束处理。
+     */
+    interface AsyncOwner {
+        /**
+         * 之后的超时、出错事件转交给 listener，由它写出响应并结束异步请求
+         *
+         * @return 请求已经超时或出错、所有者已经结束了请求时返回 false
+         */
+        boolean handOver(AsyncListener listener);
+    }
+
+    private final long timeout;
+    private final Executor executor;
+    private final ResultWriter writer;
+
+    /**
+     * @param timeout  默认超时时间，单位毫秒，0 表示不超时
+     * @param executor 写出结果的线程池，为 null 时在完成结果的线程上直接写出
+     * @param writer   写出结果的回调
+     */
+    AsyncRequestProcessor(long timeout, Executor executor, ResultWriter writer) {
+        this.timeout = timeout;
+        this.executor = executor;
+        this.writer = writer;
+    }
+
+    /**
+     * 处理异步返回值
+     *
+     * @param returnValue   CompletionStage 或 DeferredResult
+     * @param resultHandler 写出结果的处理器，为 null 时由 ResultWriter 写出
+     * @param callback      写出响应后、结束异步请求前的回调，例如记录指标，可以为 null
+     * @param owner         已经开启了异步请求的所有者，为 null 时由这里开启。
+     *                      有所有者时沿用它设置的超时，DeferredResult 自带的超时不再生效
+     */
+    @SuppressWarnings("unchecked")
+    void process(HttpServletRequest req, HttpServletResponse resp, Object returnValue,
+                 ReturnValueHandler resultHandler, Runnable callback, AsyncOwner owner) throws Exception {
+        CompletionStage<Object> stage;
+        long requestTimeout = timeout;
+        DeferredResult<Object> deferredResult = null;
+        if (returnValue instanceof DeferredResult) {
+            deferredResult = (DeferredResult<Object>) returnValue;
+            stage = deferredResult.toCompletionStage();
+            if (deferredResult.getTimeout() != null) {
+                requestTimeout = deferredResult.getTimeout();
+            }
+        } else {
+            stage = (CompletionStage<Object>) returnValue;
+        }
+
+        if (!req.isAsyncSupported()) {
+            try {
+                await(resp, stage.toCompletableFuture(), requestTimeout, deferredResult, resultHandler);
+            } finally {
+                if (callback != null) {
+                    callback.run();
+                }
+            }
+            return;
+        }
+
+        Completion completion;
+        if (owner != null) {
+            // 处理器方法本身就在所有者开启的异步请求中执行，先接管再订阅结果，超时后到达的结果不会再写出
+            completion = new Completion(req.getAsyncContext(), resp, deferredResult, resultHandler, callback);
+            if (!owner.handOver(completion)) {
+                if (deferredResult != null) {
+                    deferredResult.expire();
+                }
+                if (callback != null) {
+                    callback.run();
+                }
+                return;
+            }
+        } else {
+            AsyncContext asyncContext = req.startAsync(req, resp);
+            asyncContext.setTimeout(requestTimeout > 0 ? requestTimeout : 0);
+            completion = new Completion(asyncContext, resp, deferredResult, resultHandler, callback);
+            asyncContext.addListener(completion);
+        }
+        if (executor == null) {
+            stage.whenComplete(completion);
+        } else {
+            stage.whenCompleteAsync(completion, executor);
+        }
+    }
+
+    /**
+     * 容器不支持异步时同步等待结果
+     */
+    private void await(HttpServletResponse resp, CompletableFuture<Object> future, long requestTimeout,
+                       DeferredResult<Object> deferredResult, ReturnValueHandler resultHandler) throws Exception {
+        Object result;
+        try {
+            result = requestTimeout > 0 ? future.get(requestTimeout, TimeUnit.MILLISECONDS) : future.get();
+        } catch (TimeoutException e) {
+            writeTimeout(resp, deferredResult, resultHandler);
+            return;
+        } catch (ExecutionException e) {
+            writer.writeError(resp, e.getCause());
+            return;
+        }
+        writeResult(resp, result, resultHandler);
+    }
+
+    private void writeResult(HttpServletResponse resp, Object result, ReturnValueHandler resultHandler) throws Exception {
+        if (resultHandler == null) {
+            writer.writeResult(resp, result);
+        } else if (result != null) {
+            resultHandler.handleReturnValue(result, resp);
+        }
+    }
+
+    private void writeTimeout(HttpServletResponse resp, DeferredResult<Object> deferredResult,
+                              ReturnValueHandler resultHandler) throws Exception {
+        if (deferredResult != null) {
+            deferredResult.expire();
+            if (deferredResult.hasTimeoutResult()) {
+                writeResult(resp, deferredResult.getTimeoutResult(), resultHandler);
+                return;
+            }
+        }
+        resp.setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+        resp.getWriter().write("503 Async request timed out");
+    }
+
+    private static Throwable unwrap(Throwable error) {
+        while ((error instanceof CompletionException || error instanceof ExecutionException) && error.getCause() != null) {
+            error = error.getCause();
+        }
+        return error;
+    }
+
+    /**
+     * 一次异步请求的结束处理，结果完成、超时、出错只有先到达的一个生效
+     */
+    private class Completion implements BiConsumer<Object, Throwable>, AsyncListener {
+        private final AsyncContext asyncContext;
+        // 写出结果的响应，可能是包装过的响应，不一定是 asyncContext.getResponse()
+        private final HttpServletResponse resp;
+        private final DeferredResult<Object> deferredResult;
+        private final ReturnValueHandler resultHandler;
+        private final Runnable callback;
+        private final AtomicBoolean done = new AtomicBoolean();
+
+        Completion(AsyncContext asyncContext, HttpServletResponse resp, DeferredResult<Object> deferredResult,
+                   ReturnValueHandler resultHandler, Runnable callback) {
+            this.asyncContext = asyncContext;
+            this.resp = resp;
+            this.deferredResult = deferredResult;
+            this.resultHandler = resultHandler;
+            this.callback = callback;
+        }
+
+        @Override
+        public void accept(Object result, Throwable error) {
+            // 超时后 DeferredResult 被取消，此时已经写出了超时响应
+            if (!done.compareAndSet(false, true)) {
+                return;
+            }
+            try {
+                if (error != null) {
+                    writer.writeError(resp, unwrap(error));
+                } else {
+                    writeResult(resp, result, resultHandler);
+                }
+            } catch (Exception e) {
+                e.printStackTrace();
+            } finally {
+                complete();
+            }
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) throws IOException {
+            if (!done.compareAndSet(false, true)) {
+                return;
+            }
+            try {
+                writeTimeout(resp, deferredResult, resultHandler);
+            } catch (IOException e) {
+                throw e;
+            } catch (Exception e) {
+                e.printStackTrace();
+            } finally {
+                complete();
+            }
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            // 连接异常断开等，不再写出响应
+            if (done.compareAndSet(false, true)) {
+                if (deferredResult != null) {
+                    deferredResult.expire();
+                }
+                complete();
+            }
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+        }
+
+        private void complete() {
+            try {
+                if (callback != null) {
+                    callback.run();
+                }
+            } finally {
+                asyncContext.complete();
+            }
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+        }
+    }
+}
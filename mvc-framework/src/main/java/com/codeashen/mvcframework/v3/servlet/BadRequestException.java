@@ -0,0 +1,12 @@
+package com.codeashen.mvcframework.v3.servlet;
+
+/**
+ * 参数绑定失败，例如 url 参数类型转换出错、请求体不是合法的 JSON 或缺少必须的请求体，响应 400。
+ * 原始异常作为 cause，不记录自己的调用栈。
+ */
+public class BadRequestException extends RuntimeException {
+
+    public BadRequestException(Throwable cause) {
+        super(cause.getMessage(), cause, false, false);
+    }
+}
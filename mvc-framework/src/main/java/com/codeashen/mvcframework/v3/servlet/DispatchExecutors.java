@@ -0,0 +1,78 @@
+package com.codeashen.mvcframework.v3.servlet;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 创建执行处理器方法的线程池，对应 dispatchMode 配置：
+ * <ul>
+ *     <li>container：默认值，在容器线程上执行，不创建线程池；</li>
+ *     <li>virtual：每个请求一个虚拟线程，需要 JDK 21 及以上，低版本 JDK 上退化为有界的平台线程池；</li>
+ *     <li>pool：有界的平台线程池。</li>
+ * </ul>
+ * 框架按 Java 8 编译，虚拟线程的执行器通过反射创建。
+ */
+class DispatchExecutors {
+
+    static final String CONTAINER = "container";
+    static final String VIRTUAL = "virtual";
+    static final String POOL = "pool";
+
+    private DispatchExecutors() {
+    }
+
+    /**
+     * 创建线程池
+     *
+     * @param mode          dispatchMode，为空时按 container 处理
+     * @param poolSize      平台线程池的线程数
+     * @param queueCapacity 平台线程池的等待队列长度，队列满时拒绝请求
+     * @return 线程池，container 模式返回 null
+     */
+    static ExecutorService create(String mode, int poolSize, int queueCapacity) {
+        if (mode == null || CONTAINER.equalsIgnoreCase(mode.trim())) {
+            return null;
+        }
+        mode = mode.trim();
+        if (VIRTUAL.equalsIgnoreCase(mode)) {
+            ExecutorService executor = newVirtualThreadPerTaskExecutor();
+            if (executor != null) {
+                System.out.println("Dispatching handlers on virtual threads");
+                return executor;
+            }
+            System.out.println("Virtual threads are not available on Java " + System.getProperty("java.version")
+                    + ", dispatching handlers on a pool of " + poolSize + " platform threads");
+        } else if (!POOL.equalsIgnoreCase(mode)) {
+            throw new IllegalArgumentException("Unknown dispatchMode: " + mode);
+        }
+        return newBoundedPool(poolSize, queueCapacity);
+    }
+
+    /**
+     * JDK 21 的 Executors.newVirtualThreadPerTaskExecutor()，不可用时返回 null
+     */
+    private static ExecutorService newVirtualThreadPerTaskExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException | UnsupportedOperationException e) {
+            return null;
+        }
+    }
+
+    private static ExecutorService newBoundedPool(int poolSize, int queueCapacity) {
+        AtomicInteger counter = new AtomicInteger();
+        ThreadFactory threadFactory = r -> {
+            Thread thread = new Thread(r, "mvc-dispatch-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+        // 队列满时抛出 RejectedExecutionException，由调用方返回 503
+        return new ThreadPoolExecutor(poolSize, poolSize, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(queueCapacity), threadFactory, new ThreadPoolExecutor.AbortPolicy());
+    }
+}
@@ -1,22 +1,53 @@
 package com.codeashen.mvcframework.v3.servlet;
 
 import com.codeashen.mvcframework.annotation.*;
-
+import com.codeashen.mvcframework.v3.beans.BeanContainer;
+import com.codeashen.mvcframework.v3.beans.BeanDefinition;
+import com.codeashen.mvcframework.v3.beans.BeanRefresh;
+import com.codeashen.mvcframework.v3.beans.RequestScope;
+import com.codeashen.mvcframework.v3.cache.CacheableBeanPostProcessor;
+import com.codeashen.mvcframework.v3.cache.MethodCache;
+import com.codeashen.mvcframework.v3.convert.ConversionService;
+import com.codeashen.mvcframework.v3.convert.ConverterRegistrar;
+import com.codeashen.mvcframework.v3.interceptor.ASHandlerInterceptor;
+import com.codeashen.mvcframework.v3.interceptor.HandlerInterceptors;
+import com.codeashen.mvcframework.v3.invoke.HandlerInvoker;
+import com.codeashen.mvcframework.v3.invoke.HandlerInvokerFactory;
+import com.codeashen.mvcframework.v3.json.JsonReader;
+import com.codeashen.mvcframework.v3.json.JsonWriter;
+import com.codeashen.mvcframework.v3.metrics.HandlerMetrics;
+import com.codeashen.mvcframework.v3.metrics.MetricsRegistry;
+import com.codeashen.mvcframework.v3.reload.ClassFileWatcher;
+import com.codeashen.mvcframework.v3.reload.ReloadingClassLoader;
+import com.codeashen.mvcframework.v3.response.BufferPool;
+import com.codeashen.mvcframework.v3.response.ReturnValueHandler;
+import com.codeashen.mvcframework.v3.response.ReturnValueHandlers;
+import com.codeashen.mvcframework.v3.router.RouteMatch;
+import com.codeashen.mvcframework.v3.router.UrlPathHelper;
+import com.codeashen.mvcframework.v3.scan.ClassPathScanner;
+import com.codeashen.mvcframework.v3.scan.ComponentIndex;
+
+import javax.servlet.AsyncContext;
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
 import javax.servlet.ServletConfig;
 import javax.servlet.ServletException;
 import javax.servlet.http.HttpServlet;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
-import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
-import java.lang.annotation.Annotation;
-import java.lang.reflect.Field;
+import java.io.PrintWriter;
 import java.lang.reflect.Method;
+import java.net.URISyntaxException;
 import java.net.URL;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.*;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * 优化 2.0 版本的以下问题
@@ -28,17 +59,55 @@ import java.util.regex.Pattern;
  */
 public class DispatcherServlet extends HttpServlet {
 
+    private static final String NOT_FOUND = "404 Not Found!";
+    // 热加载时，最后一次 class 文件变化之后等待的毫秒数，一次编译写出的文件合并为一次热加载
+    private static final long RELOAD_QUIET_PERIOD = 300;
+
     // 保存 application.properties 配置文件内容
     private final Properties contextConfig = new Properties();
-    // 保存扫描到的所有类名
+    // 保存扫描到的带有 @ASController、@ASService 注解的类名
     private final List<String> clazzNames = new ArrayList<>();
-    // IoC 容器，为了简化暂不考虑 ConcurrentHashMap，主要关注设计思想和原理
-    private final Map<String, Object> ioc = new HashMap<>();
-    // 保存 url 和 Method 的映射关系
-    private final List<Handler> handlerMapping = new ArrayList<>();
+    // IoC 容器，注册表并发安全，请求线程可以直接读取
+    private final BeanContainer ioc = new BeanContainer();
+    // 为带有 @ASCacheable 方法的 bean 创建缓存代理
+    private final CacheableBeanPostProcessor cacheableProcessor = new CacheableBeanPostProcessor();
+    // 保存 url 和 Handler 的映射关系，字面量 url 精确匹配，其余按 url 路径段构建的前缀树匹配；同一 url 下按请求方法索引。
+    // 快照构建后不再修改，热加载时构建新的快照整体替换，请求线程每次只读取一次
+    private volatile RoutingSnapshot handlerMapping;
+    // 创建处理器方法用到的配置，在 initHandlerMapping 中确定，热加载时复用
+    private int routeCacheSize;
+    private String invokerType;
+    private HandlerInterceptors handlerInterceptors;
+    private RequestBodyReader requestBodyReader;
+    // 类型转换注册中心，url 参数按形参类型转换
+    private final ConversionService conversionService = new ConversionService();
+    // 返回值处理器链，每个 Handler 在初始化时选定自己的处理器
+    private ReturnValueHandlers returnValueHandlers;
+    // 异常处理，@ASExceptionHandler 方法优先，其次按异常类型响应状态码
+    private ExceptionResolver exceptionResolver;
+    // 异步返回值的处理
+    private AsyncRequestProcessor asyncProcessor;
+    // 写出异步结果的线程池，未配置时为 null
+    private ExecutorService asyncExecutor;
+    // 异步请求的默认超时时间，单位毫秒
+    private long asyncTimeout;
+    // 执行处理器方法的线程池，dispatchMode 为 container 时为 null
+    private ExecutorService dispatchExecutor;
+    // 请求指标，配置 metrics=false 时为 null
+    private MetricsRegistry metricsRegistry;
+    // 配置的指标 url，不输出时为 null；与控制器的映射重复时由 RoutingSnapshot 忽略
+    private String metricsPath;
+    // 监听 class 文件变化，未开启热加载时为 null
+    private ClassFileWatcher classFileWatcher;
+    // 最近一次热加载的类加载器，下一次热加载以它为父加载器，没有变化的类仍使用最新的版本
+    private ClassLoader reloadClassLoader;
 
+    /**
+     * 所有请求方法都交给 doPost 分发，再按 @ASRequestMapping 的 method 选择处理器。
+     * 不覆盖时 HttpServlet 会直接应答 PUT、DELETE 等方法，HEAD 和 OPTIONS 也不会经过 handlerMapping。
+     */
     @Override
-    protected void doGet(HttpServletRequest req, HttpServletResponse resp) throws ServletException, IOException {
+    protected void service(HttpServletRequest req, HttpServletResponse resp) throws ServletException, IOException {
         this.doPost(req, resp);
     }
 
@@ -47,106 +116,254 @@ public class DispatcherServlet extends HttpServlet {
      */
     @Override
     protected void doPost(HttpServletRequest req, HttpServletResponse resp) throws ServletException, IOException {
+        if (dispatchExecutor != null && req.isAsyncSupported()) {
+            dispatchAsync(req, resp);
+            return;
+        }
         try {
-            doDispatch(req, resp);
+            doDispatch(req, resp, null);
         } catch (Exception e) {
-            resp.getWriter().write("500 Exception, Detail: " + Arrays.toString(e.getStackTrace()));
+            writeError(req, resp, e);
         }
     }
 
-    private void doDispatch(HttpServletRequest req, HttpServletResponse resp) throws Exception {
-        Handler handler = getHandler(req);
-        if (handler == null) {
-            resp.getWriter().write("404 Not Found!");
-            return;
+    /**
+     * 开启异步请求，在 dispatchExecutor 上执行处理器方法，容器线程立即返回
+     */
+    private void dispatchAsync(HttpServletRequest req, HttpServletResponse resp) throws IOException {
+        AsyncContext asyncContext = req.startAsync(req, resp);
+        asyncContext.setTimeout(asyncTimeout > 0 ? asyncTimeout : 0);
+        DispatchTask task = new DispatchTask(asyncContext);
+        asyncContext.addListener(task);
+        try {
+            dispatchExecutor.execute(task);
+        } catch (RejectedExecutionException e) {
+            task.finish(HttpServletResponse.SC_SERVICE_UNAVAILABLE, "503 Server is busy");
         }
+    }
 
-        // 获取方法的形参列表
-        Class<?>[] parameterTypes = handler.method.getParameterTypes();
-        // 保存赋值参数的位置
-        Object[] parameterValues = new Object[parameterTypes.length];
-        // 保存请求的 url 参数列表
-        Map<String, String[]> parameterMap = req.getParameterMap();
+    /**
+     * 分发请求
+     *
+     * @param task 已经开启了异步请求的 DispatchTask，在容器线程上分发时为 null。
+     *             写出同步的响应之前先通过 claim 取得结束请求的权利，请求已经超时时不再写出
+     * @return 处理器方法返回了异步结果，由 AsyncRequestProcessor 负责结束请求时返回 true
+     */
+    private boolean doDispatch(HttpServletRequest req, HttpServletResponse resp, DispatchTask task) throws Exception {
+        String url = UrlPathHelper.getLookupPath(req.getRequestURI(), req.getContextPath());
+        RoutingSnapshot mapping = handlerMapping;
+        if (url.equals(mapping.getMetricsPath())) {
+            if (claim(task)) {
+                writeMetrics(resp);
+            }
+            return false;
+        }
+        RouteMatch<MethodHandlers> match = mapping.match(url);
+        if (match == null) {
+            if (metricsRegistry != null) {
+                metricsRegistry.recordNotFound();
+            }
+            if (!claim(task)) {
+                return false;
+            }
+            resp.setStatus(HttpServletResponse.SC_NOT_FOUND);
+            resp.getWriter().write(NOT_FOUND);
+            return false;
+        }
+        MethodHandlers handlers = match.getTarget();
+        RequestMethod requestMethod = RequestMethod.resolve(req.getMethod());
+        Handler handler = handlers.getHandler(requestMethod);
+        if (handler == null) {
+            // OPTIONS 不调用处理器，直接返回允许的方法；其余方法没有映射时返回 405
+            if (!claim(task)) {
+                return false;
+            }
+            resp.setHeader("Allow", handlers.getAllow());
+            if (requestMethod != RequestMethod.OPTIONS) {
+                if (metricsRegistry != null) {
+                    metricsRegistry.recordMethodNotAllowed();
+                }
+                resp.setStatus(HttpServletResponse.SC_METHOD_NOT_ALLOWED);
+                resp.getWriter().write("405 Method Not Allowed");
+            }
+            return false;
+        }
+        // 没有单独映射 HEAD 时执行 GET 的处理器，丢弃响应体；无论成功、出错还是异步完成都要补上 Content-Length
+        NoBodyResponse noBodyResponse = requestMethod == RequestMethod.HEAD && !handlers.isMapped(RequestMethod.HEAD)
+                ? new NoBodyResponse(resp) : null;
+        if (noBodyResponse != null) {
+            resp = noBodyResponse;
+        }
 
-        // 设置方法参数列表
-        for (Map.Entry<String, String[]> param : parameterMap.entrySet()) {
-            if (!handler.paramIndexMapping.containsKey(param.getKey())) {
-                continue;
+        // 未开启指标时为 null；计时从找到处理器开始，路由本身的开销由 Router 统计
+        HandlerMetrics metrics = handler.metrics;
+        long start = metrics != null ? System.nanoTime() : 0L;
+        long bindingNanos = 0L;
+        // 初始化时解析好的拦截器链，applied 为 preHandle 返回 true 的个数，只有它们的 afterCompletion 会被调用
+        ASHandlerInterceptor[] interceptors = handler.interceptors;
+        int applied = 0;
+        boolean async = false;
+        // 处理器方法返回前请求已经超时或出错结束，响应可能已经被容器回收，不能再读写
+        boolean expired = false;
+        Exception failure = null;
+        // 存在 request 作用域或池化的 prototype bean 时才开启请求作用域，请求结束后池化的实例归还对象池
+        RequestScope requestScope = ioc.isRequestScopeRequired() ? ioc.beginRequest() : null;
+        try {
+            while (applied < interceptors.length) {
+                if (!interceptors[applied].preHandle(req, resp, handler.method)) {
+                    return false;
+                }
+                applied++;
             }
 
-            // 获取参数值
-            String value = Arrays.toString(param.getValue())
-                    .replaceAll("\\[|\\]", "")
-                    .replaceAll("\\s", ",");
-            // 根据参数名获取参数索引
-            int index = handler.paramIndexMapping.get(param.getKey());
-            // 设置参数列表
-            parameterValues[index] = convert(parameterTypes[index], value);
-        }
+            // 按参数绑定计划依次为每个形参赋值
+            long bindingStart = metrics != null && interceptors.length > 0 ? System.nanoTime() : start;
+            ArgumentBinder[] binders = handler.argumentBinders;
+            Object[] parameterValues = new Object[binders.length];
+            try {
+                for (int i = 0; i < binders.length; i++) {
+                    parameterValues[i] = binders[i].bind(req, resp, match);
+                }
+            } catch (PayloadTooLargeException e) {
+                throw e;
+            } catch (RuntimeException e) {
+                // 类型转换失败、请求体格式错误等都是客户端的问题，响应 400
+                throw new BadRequestException(e);
+            }
+            if (metrics != null && binders.length > 0) {
+                bindingNanos = System.nanoTime() - bindingStart;
+            }
 
-        // 设置 HttpServletRequest 类型参数
-        if (handler.paramIndexMapping.containsKey(HttpServletRequest.class.getName())) {
-            int index = handler.paramIndexMapping.get(HttpServletRequest.class.getName());
-            parameterValues[index] = req;
+            // 调用方法，写出相应
+            Object returnValue = handler.invoker.invoke(parameterValues);
+            if (handler.async && returnValue != null) {
+                // 结果完成后再写出，容器线程直接返回，afterCompletion 和指标在写出结果后处理
+                Runnable callback = null;
+                if (metrics != null || applied > 0 || requestScope != null || noBodyResponse != null) {
+                    HttpServletResponse asyncResp = resp;
+                    long asyncBindingNanos = bindingNanos;
+                    int asyncApplied = applied;
+                    callback = () -> {
+                        // 交接之前已经超时时，AsyncRequestProcessor 只执行回调，不再写出结果
+                        boolean asyncExpired = task != null && task.isExpired();
+                        if (noBodyResponse != null && !asyncExpired) {
+                            noBodyResponse.finish();
+                        }
+                        triggerAfterCompletion(interceptors, asyncApplied, req, asyncResp, handler, null);
+                        if (requestScope != null) {
+                            requestScope.destroy();
+                        }
+                        if (metrics != null) {
+                            recordMetrics(metrics, task, asyncExpired, asyncResp, start, asyncBindingNanos);
+                        }
+                    };
+                }
+                asyncProcessor.process(req, resp, returnValue, handler.returnValueHandler, callback, task);
+                async = true;
+                return true;
+            }
+            if (!claim(task)) {
+                expired = true;
+                return false;
+            }
+            for (int i = applied - 1; i >= 0; i--) {
+                interceptors[i].postHandle(req, resp, handler.method, returnValue);
+            }
+            ReturnValueHandler returnValueHandler = handler.returnValueHandler;
+            if (returnValueHandler != null && returnValue != null) {
+                returnValueHandler.handleReturnValue(returnValue, resp);
+            }
+            return false;
+        } catch (Exception e) {
+            failure = e;
+            if (metrics != null) {
+                metrics.recordError();
+            }
+            // 交给异常处理方法或按异常类型响应，只有写出响应失败时才向外抛出
+            if (claim(task)) {
+                exceptionResolver.resolve(req, resp, handler.exceptionHandlers, e);
+            } else {
+                expired = true;
+            }
+            return false;
+        } finally {
+            if (requestScope != null) {
+                requestScope.detach();
+            }
+            if (!async) {
+                if (noBodyResponse != null && !expired) {
+                    noBodyResponse.finish();
+                }
+                triggerAfterCompletion(interceptors, applied, req, resp, handler, failure);
+                if (requestScope != null) {
+                    requestScope.destroy();
+                }
+                if (metrics != null) {
+                    recordMetrics(metrics, task, expired, resp, start, bindingNanos);
+                }
+            }
         }
+    }
 
-        // 设置 HttpServletResponse 类型参数
-        if (handler.paramIndexMapping.containsKey(HttpServletResponse.class.getName())) {
-            int index = handler.paramIndexMapping.get(HttpServletResponse.class.getName());
-            parameterValues[index] = resp;
-        }
+    /**
+     * 在分发线程上写出同步的响应之前调用
+     *
+     * @return 可以写出响应时返回 true；请求已经超时或出错结束时返回 false
+     */
+    private static boolean claim(DispatchTask task) {
+        return task == null || task.claim();
+    }
 
-        // 调用方法，写出相应
-        Object returnValue = handler.method.invoke(handler.controller, parameterValues);
-        if (returnValue == null) {
-            return;
+    /**
+     * 记录一次请求的指标，请求已经超时时只记录超时次数，不再读取响应的状态码
+     */
+    private static void recordMetrics(HandlerMetrics metrics, DispatchTask task, boolean expired,
+                                      HttpServletResponse resp, long start, long bindingNanos) {
+        if (!expired) {
+            metrics.record(resp.getStatus(), System.nanoTime() - start, bindingNanos);
+        } else if (task.isTimedOut()) {
+            metrics.recordTimeout();
         }
-        resp.getWriter().write(returnValue.toString());
     }
 
     /**
-     * 处理 url 的正则匹配，返回请求对应的处理器
-     *
-     * @param req 请求对象
-     * @return 请求处理器
-     * @throws Exception
+     * 按相反顺序调用 preHandle 返回 true 的拦截器的 afterCompletion，异常只打印
      */
-    private Handler getHandler(HttpServletRequest req) throws Exception {
-        if (handlerMapping.isEmpty()) {
-            return null;
-        }
-        String url = req.getRequestURI();
-        String contextPath = req.getContextPath();
-        url = url.replace(contextPath, "").replaceAll("/+", "/");
-        for (Handler handler : handlerMapping) {
+    private static void triggerAfterCompletion(ASHandlerInterceptor[] interceptors, int applied, HttpServletRequest req,
+                                               HttpServletResponse resp, Handler handler, Exception ex) {
+        for (int i = applied - 1; i >= 0; i--) {
             try {
-                Matcher matcher = handler.pattern.matcher(url);
-                // 如果没匹配上，继续匹配下一个
-                if (!matcher.matches()) {
-                    continue;
-                }
-                return handler;
+                interceptors[i].afterCompletion(req, resp, handler.method, ex);
             } catch (Exception e) {
-                throw e;
+                e.printStackTrace();
             }
         }
-        return null;
     }
 
     /**
-     * 处理 url 参数的强制类型转换。
-     * url 传过来的参数都是 String 类型的，由于 HTTP 基于字符串协议，只需要把 String 转为任意类型。
+     * 输出 Prometheus 文本格式的指标
+     */
+    private void writeMetrics(HttpServletResponse resp) throws IOException {
+        resp.setContentType(MetricsRegistry.CONTENT_TYPE);
+        PrintWriter writer = resp.getWriter();
+        metricsRegistry.writePrometheus(writer);
+        writer.flush();
+    }
+
+    /**
+     * 按运行时类型写出结果，用于没有指定结果处理器的异步结果
+     */
+    private void writeResult(HttpServletResponse resp, Object returnValue) throws Exception {
+        returnValueHandlers.handleReturnValue(returnValue, resp);
+    }
+
+    /**
+     * 处理找到处理器方法之前或异步结果中抛出的异常，只有全局的异常处理方法生效
      *
-     * @param type  目标类型
-     * @param value 参数值
-     * @return 转换为目标类型的对象
+     * @param req 请求对象，异步结果出错时为 null
      */
-    private Object convert(Class<?> type, String value) {
-        if (Integer.class == type) {
-            return Integer.valueOf(value);
-        }
-        // 如果还有 double 等其他类型，继续加类型判断即可，还可以使用策略模式
-        return value;
+    private void writeError(HttpServletRequest req, HttpServletResponse resp, Throwable e) throws IOException {
+        exceptionResolver.resolve(req, resp, null, e);
     }
 
     @Override
@@ -155,15 +372,39 @@ public class DispatcherServlet extends HttpServlet {
         doLoadConfig(config.getInitParameter("contextConfigLocation"));
         // 2. 扫描相关类
         doScanner(contextConfig.getProperty("scanPackage"));
-        // 3. 实例化扫描到的类，并将实例放入 IoC 容器
+        // 3. 注册扫描到的类，并行实例化并完成依赖注入
         doInstance();
-        // 4. 完成依赖注入
-        doAutowired();
-        // 5. 初始化 handlerMapping
+        // 4. 初始化 handlerMapping
         initHandlerMapping();
+        // 5. 初始化异步请求处理和处理器方法的执行方式
+        initAsyncSupport();
+        // 6. 开启热加载时监听 class 文件的变化
+        initHotReload();
         System.out.println("MVC Framework is init");
     }
 
+    @Override
+    public void destroy() {
+        if (classFileWatcher != null) {
+            classFileWatcher.stop();
+        }
+        if (dispatchExecutor != null) {
+            dispatchExecutor.shutdown();
+        }
+        if (asyncExecutor != null) {
+            asyncExecutor.shutdown();
+        }
+        if (handlerMapping != null) {
+            System.out.println("MVC Framework is destroyed, " + handlerMapping);
+        }
+        if (!ioc.getBeanPools().isEmpty()) {
+            System.out.println("Bean pools " + ioc.getBeanPools());
+        }
+        for (MethodCache cache : cacheableProcessor.getCaches().values()) {
+            System.out.println(cache);
+        }
+    }
+
     /**
      * 加载配置文件
      *
@@ -187,30 +428,36 @@ public class DispatcherServlet extends HttpServlet {
     }
 
     /**
-     * 扫描相关类
+     * 扫描相关类。
+     * 优先读取编译期生成的组件索引，索引不存在或不包含扫描包下的类时，才回退到扫描类路径。
+     * 可以配置 componentIndex=false 强制扫描类路径。
      *
      * @param scanPackage 扫描的包路径
      */
     private void doScanner(String scanPackage) {
-        // 包路径转为文件路径
-        URL url = this.getClass().getClassLoader().getResource("/" + scanPackage.replaceAll("\\.", "/"));
-        File classPath = new File(url.getFile());
-        for (File file : classPath.listFiles()) {
-            if (file.isDirectory()) {
-                doScanner(scanPackage + "." + file.getName());
-            } else {
-                if (!file.getName().endsWith(".class")) {
-                    continue;
+        ClassLoader classLoader = this.getClass().getClassLoader();
+        try {
+            if (!"false".equalsIgnoreCase(contextConfig.getProperty("componentIndex", "true").trim())) {
+                ComponentIndex index = ComponentIndex.load(classLoader);
+                List<String> candidates = index == null ? Collections.<String>emptyList() : index.getClassNames(scanPackage);
+                if (!candidates.isEmpty()) {
+                    clazzNames.addAll(candidates);
+                    System.out.println("Loaded " + candidates.size() + " components from " + ComponentIndex.LOCATION);
+                    return;
                 }
-                String clazzName = scanPackage + "." + file.getName().replace(".class", "");
-                clazzNames.add(clazzName);
             }
+            // 并行扫描目录和 JAR 包，直接从 class 文件字节中读取注解，只有带 @ASController、@ASService 的类才会被加载
+            ClassPathScanner scanner = new ClassPathScanner(classLoader,
+                    Arrays.asList(ASController.class.getName(), ASService.class.getName()));
+            clazzNames.addAll(scanner.scan(scanPackage));
+        } catch (IOException e) {
+            e.printStackTrace();
         }
     }
 
     /**
-     * 实例化扫描到的类，并将实例放入 IoC 容器。
-     * 使用了工厂模式。
+     * 将扫描到的类注册到 IoC 容器，再创建所有非延迟的 bean。
+     * 使用了工厂模式，依赖注入在容器创建 bean 时完成。
      */
     private void doInstance() {
         // 初始化，为 DI 做准备
@@ -219,164 +466,464 @@ public class DispatcherServlet extends HttpServlet {
         }
 
         try {
+            ioc.addBeanPostProcessor(cacheableProcessor);
             for (String clazzName : clazzNames) {
-                Class<?> clazz = Class.forName(clazzName);
-
-                // 实例化添加了相关注解的类，处理 @Controller 和 @Service
-                if (clazz.isAnnotationPresent(ASController.class)) {
-                    // Spring 默认类名首字母小写
-                    String beanName = toLowerFirstCase(clazz.getSimpleName());
-                    ioc.put(beanName, clazz.newInstance());
-                } else if (clazz.isAnnotationPresent(ASService.class)) {
-                    // 获取自定义 beanName
-                    ASService service = clazz.getAnnotation(ASService.class);
-                    String beanName = service.value();
-                    // 未定义 beanName 就使用类名首字母小写
-                    if ("".equals(beanName.trim())) {
-                        beanName = toLowerFirstCase(clazz.getSimpleName());
-                    }
-
-                    Object instance = clazz.newInstance();
-                    ioc.put(beanName, instance);
-                    // 3. 根据类型自动赋值，这是投机取巧的方式
-                    for (Class<?> i : clazz.getInterfaces()) {
-                        if (ioc.containsKey(i.getName())) {
-                            throw new Exception("The \"" + i.getName() + "\" is exists!");
-                        }
-                        // 把接口类型直接当成 key
-                        ioc.put(i.getName(), instance);
-                    }
-                } else {
-                    continue;
+                BeanDefinition definition = toBeanDefinition(Class.forName(clazzName));
+                if (definition != null) {
+                    // 容器按 Class 建立父类和接口的类型索引，同一接口可以有多个实现
+                    ioc.registerBeanDefinition(definition);
                 }
             }
+            ioc.preInstantiateSingletons();
         } catch (Exception e) {
             e.printStackTrace();
         }
     }
 
     /**
-     * 自动进行依赖注入
+     * 处理 @Controller 和 @Service，其余类返回 null
      */
-    private void doAutowired() {
-        if (ioc.isEmpty()) {
-            return;
-        }
-        for (Map.Entry<String, Object> entry : ioc.entrySet()) {
-            // 获取所有字段
-            Field[] fields = entry.getValue().getClass().getDeclaredFields();
-            for (Field field : fields) {
-                if (!field.isAnnotationPresent(ASAutowired.class)) {
-                    continue;
-                }
-                ASAutowired autowired = field.getAnnotation(ASAutowired.class);
-
-                // 如果用户没有定义 beanName，默认就根据类型注入
-                String beanName = autowired.value().trim();
-                if ("".equals(beanName)) {
-                    // 获取接口类型作为 key
-                    beanName = field.getType().getName();
-                }
-
-                // 反射机制给 bean 的字段复制
-                field.setAccessible(true);
-                try {
-                    field.set(entry.getValue(), ioc.get(beanName));
-                } catch (IllegalAccessException e) {
-                    e.printStackTrace();
-                }
+    private BeanDefinition toBeanDefinition(Class<?> clazz) {
+        boolean lazy = clazz.isAnnotationPresent(ASLazy.class);
+        boolean primary = clazz.isAnnotationPresent(ASPrimary.class);
+        if (clazz.isAnnotationPresent(ASController.class)) {
+            // Spring 默认类名首字母小写
+            String beanName = toLowerFirstCase(clazz.getSimpleName());
+            return new BeanDefinition(beanName, clazz, lazy, primary);
+        } else if (clazz.isAnnotationPresent(ASService.class)) {
+            // 获取自定义 beanName
+            ASService service = clazz.getAnnotation(ASService.class);
+            String beanName = service.value();
+            // 未定义 beanName 就使用类名首字母小写
+            if ("".equals(beanName.trim())) {
+                beanName = toLowerFirstCase(clazz.getSimpleName());
             }
+            return new BeanDefinition(beanName, clazz, lazy, primary, service.scope(), service.poolSize());
         }
+        return null;
     }
 
     /**
      * 初始化 url 和 Method 的映射关系 handlerMapping。
      * handlerMapping 就是策略模式的应用案例。
+     * 同一个 url 的同一个请求方法映射了多个处理器时初始化失败。
      */
     private void initHandlerMapping() {
+        // 正则 url 和 404 结果的缓存大小，默认 1024，配置为 0 时不缓存
+        routeCacheSize = Integer.parseInt(contextConfig.getProperty("routeCacheSize", "1024").trim());
+        // 请求指标默认开启，按 Prometheus 文本格式输出到 metricsPath，metricsPath 为空时不输出
+        if (!"false".equalsIgnoreCase(contextConfig.getProperty("metrics", "true").trim())) {
+            metricsRegistry = new MetricsRegistry(null);
+            metricsRegistry.setBeanPools(ioc.getBeanPools());
+            metricsRegistry.setMethodCaches(cacheableProcessor.getCaches());
+            String path = contextConfig.getProperty("metricsPath", "/metrics").trim();
+            metricsPath = path.isEmpty() ? null : ("/" + path).replaceAll("/+", "/");
+        }
+        publish(new RoutingSnapshot(Collections.<String, Handler[]>emptyMap(), routeCacheSize, metricsPath));
+        // 异常处理，errorDebugSampling=N 时每 N 个异常打印一次调用栈，默认 0 不打印
+        ExceptionHandlerMethods globalExceptionHandlers = new ExceptionHandlerMethods();
+        exceptionResolver = new ExceptionResolver(globalExceptionHandlers,
+                Integer.parseInt(contextConfig.getProperty("errorDebugSampling", "0").trim()));
         if (ioc.isEmpty()) {
             return;
         }
+        // 处理器方法的调用方式，默认使用 MethodHandle，可配置为 generated（生成类直接调用）或 reflection
+        invokerType = contextConfig.getProperty("handlerInvoker");
+        // 注册自定义类型转换器，SPI 声明的和 IoC 容器中的 ConverterRegistrar 都会生效
+        conversionService.loadRegistrars(this.getClass().getClassLoader());
+        for (ConverterRegistrar registrar : ioc.getBeansOfType(ConverterRegistrar.class).values()) {
+            registrar.registerConverters(conversionService);
+        }
+        // 返回值处理器链，IoC 容器中的 ReturnValueHandler 优先于内置处理器；流式写出和 JSON 的缓冲区默认 8KB，最多缓存 64 个
+        int bufferSize = Math.max(Integer.parseInt(contextConfig.getProperty("responseBufferSize", "8192").trim()), 64);
+        BufferPool bufferPool = new BufferPool(bufferSize, 64);
+        returnValueHandlers = new ReturnValueHandlers(new ArrayList<>(ioc.getBeansOfType(ReturnValueHandler.class).values()),
+                bufferPool, new JsonWriter());
+        // @ASRequestBody 请求体的最大字节数，默认 2MB，0 表示不限制
+        long maxBodySize = Long.parseLong(contextConfig.getProperty("maxRequestBodySize", "2097152").trim());
+        requestBodyReader = new RequestBodyReader(new JsonReader(conversionService), bufferPool, maxBodySize);
+        // IoC 容器中的 ASHandlerInterceptor，每个处理器方法在这里确定自己的拦截器链
+        handlerInterceptors = new HandlerInterceptors(ioc.getBeansOfType(ASHandlerInterceptor.class).values());
+
+        // @ASService 中的异常处理方法处理所有处理器方法的异常
+        for (String beanName : ioc.getBeanDefinitionNames()) {
+            Class<?> clazz = ioc.getBeanDefinition(beanName).getBeanClass();
+            if (clazz.isAnnotationPresent(ASService.class) && hasExceptionHandlers(clazz)) {
+                addExceptionHandlers(globalExceptionHandlers, ioc.getBean(beanName), clazz);
+            }
+        }
+
+        Map<String, Handler[]> controllers = new LinkedHashMap<>();
+        for (String beanName : ioc.getBeanDefinitionNames()) {
+            Class<?> clazz = ioc.getBeanDefinition(beanName).getBeanClass();
+            if (clazz.isAnnotationPresent(ASController.class)) {
+                controllers.put(beanName, createHandlers(clazz, ioc.getBean(beanName)));
+            }
+        }
+        RoutingSnapshot snapshot = new RoutingSnapshot(controllers, routeCacheSize, metricsPath);
+        registerMetrics(snapshot.getHandlers());
+        publish(snapshot);
+        if (metricsPath != null && snapshot.getMetricsPath() == null) {
+            System.out.println("Metrics endpoint " + metricsPath + " is mapped by a controller, skipped");
+        }
+    }
+
+    /**
+     * 发布新的路由快照，请求线程之后读取到的都是新的快照
+     */
+    private void publish(RoutingSnapshot snapshot) {
+        if (metricsRegistry != null) {
+            metricsRegistry.setRouter(snapshot.getRouter());
+        }
+        handlerMapping = snapshot;
+    }
+
+    /**
+     * 为控制器中 @ASRequestMapping 标注的方法创建处理器
+     */
+    private Handler[] createHandlers(Class<?> clazz, Object controller) {
+        // 控制器自己的异常处理方法，没有时为 null
+        ExceptionHandlerMethods exceptionHandlers = null;
+        if (hasExceptionHandlers(clazz)) {
+            exceptionHandlers = new ExceptionHandlerMethods();
+            addExceptionHandlers(exceptionHandlers, controller, clazz);
+        }
+        String url = "";
+        RequestMethod[] classMethods = {};
+
+        // 获取 Controller 上的 RequestMapping 注解值
+        if (clazz.isAnnotationPresent(ASRequestMapping.class)) {
+            ASRequestMapping requestMapping = clazz.getAnnotation(ASRequestMapping.class);
+            url = requestMapping.value();
+            classMethods = requestMapping.method();
+        }
 
-        for (Map.Entry<String, Object> entry : ioc.entrySet()) {
-            Class<?> clazz = entry.getValue().getClass();
-            if (!clazz.isAnnotationPresent(ASController.class)) {
+        // 获取 Method 上的 RequestMapping 注解值
+        List<Handler> handlers = new ArrayList<>();
+        Method[] methods = clazz.getMethods();
+        for (Method method : methods) {
+            if (!method.isAnnotationPresent(ASRequestMapping.class)) {
                 continue;
             }
-            String url = "";
+            ASRequestMapping requestMapping = method.getAnnotation(ASRequestMapping.class);
+            String regex = ("/" + url + requestMapping.value()).replaceAll("/+", "/");
+            HandlerInvoker invoker = HandlerInvokerFactory.create(invokerType, controller, method);
+            Handler handler = new Handler(controller, method, regex, invoker, conversionService,
+                    returnValueHandlers, requestBodyReader);
+            handler.requestMethods = requestMapping.method().length > 0 ? requestMapping.method() : classMethods;
+            handler.interceptors = handlerInterceptors.getInterceptors(regex);
+            handler.exceptionHandlers = exceptionHandlers;
+            handlers.add(handler);
+            System.out.println("Mapped " + (handler.requestMethods.length == 0 ? "" : Arrays.toString(handler.requestMethods) + " ")
+                    + regex + ", " + method);
+        }
+        return handlers.toArray(new Handler[0]);
+    }
+
+    private void registerMetrics(Handler[] handlers) {
+        if (metricsRegistry == null) {
+            return;
+        }
+        for (Handler handler : handlers) {
+            handler.metrics = metricsRegistry.register(handler.url,
+                    handler.controller.getClass().getSimpleName() + "#" + handler.method.getName());
+        }
+    }
+
+    private static boolean hasExceptionHandlers(Class<?> clazz) {
+        for (Method method : clazz.getMethods()) {
+            if (method.isAnnotationPresent(ASExceptionHandler.class)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 收集 bean 中 @ASExceptionHandler 标注的方法
+     */
+    private void addExceptionHandlers(ExceptionHandlerMethods target, Object bean, Class<?> clazz) {
+        for (Method method : clazz.getMethods()) {
+            if (method.isAnnotationPresent(ASExceptionHandler.class)) {
+                HandlerInvoker invoker = HandlerInvokerFactory.create(invokerType, bean, method);
+                target.add(new ExceptionHandlerMethod(method, invoker, returnValueHandlers));
+                System.out.println("Mapped exception handler " + method);
+            }
+        }
+    }
+
+    /**
+     * 初始化异步请求处理，处理器方法可以返回 CompletionStage、CompletableFuture 或 DeferredResult
+     */
+    private void initAsyncSupport() {
+        // 异步请求的默认超时时间，单位毫秒，默认 30 秒，0 表示不超时
+        asyncTimeout = Long.parseLong(contextConfig.getProperty("asyncTimeout", "30000").trim());
+        // 写出异步结果的线程数，默认 0，即在完成结果的线程上直接写出
+        int threads = Integer.parseInt(contextConfig.getProperty("asyncExecutorThreads", "0").trim());
+        if (threads > 0) {
+            AtomicInteger counter = new AtomicInteger();
+            asyncExecutor = Executors.newFixedThreadPool(threads, r -> {
+                Thread thread = new Thread(r, "mvc-async-" + counter.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        asyncProcessor = new AsyncRequestProcessor(asyncTimeout, asyncExecutor, new AsyncRequestProcessor.ResultWriter() {
+            @Override
+            public void writeResult(HttpServletResponse resp, Object result) throws Exception {
+                DispatcherServlet.this.writeResult(resp, result);
+            }
 
-            // 获取 Controller 上的 RequestMapping 注解值
-            if (clazz.isAnnotationPresent(ASRequestMapping.class)) {
-                ASRequestMapping requestMapping = clazz.getAnnotation(ASRequestMapping.class);
-                url = requestMapping.value();
+            @Override
+            public void writeError(HttpServletResponse resp, Throwable error) throws IOException {
+                DispatcherServlet.this.writeError(null, resp, error);
             }
+        });
 
-            // 获取 Method 上的 RequestMapping 注解值
-            Method[] methods = clazz.getMethods();
-            for (Method method : methods) {
-                if (!method.isAnnotationPresent(ASRequestMapping.class)) {
+        // 处理器方法的执行方式：container（默认）、virtual、pool，后两者在异步请求中执行处理器方法
+        dispatchExecutor = DispatchExecutors.create(contextConfig.getProperty("dispatchMode"),
+                Integer.parseInt(contextConfig.getProperty("dispatchPoolSize", "200").trim()),
+                Integer.parseInt(contextConfig.getProperty("dispatchQueueCapacity", "1000").trim()));
+    }
+
+    /**
+     * 开启热加载，监听 scanPackage 所在的编译输出目录，JAR 包中的类不会变化，不需要监听
+     */
+    private void initHotReload() {
+        if (!"true".equalsIgnoreCase(contextConfig.getProperty("hotReload", "false").trim())) {
+            return;
+        }
+        String packagePath = contextConfig.getProperty("scanPackage", "").trim().replace('.', '/');
+        int depth = packagePath.isEmpty() ? 0 : packagePath.split("/").length;
+        ClassLoader classLoader = this.getClass().getClassLoader();
+        try {
+            List<Path> dirs = new ArrayList<>();
+            List<Path> roots = new ArrayList<>();
+            Enumeration<URL> urls = classLoader.getResources(packagePath);
+            while (urls.hasMoreElements()) {
+                URL url = urls.nextElement();
+                if (!"file".equals(url.getProtocol())) {
                     continue;
                 }
-                ASRequestMapping requestMapping = method.getAnnotation(ASRequestMapping.class);
-                String regex = ("/" + url + requestMapping.value()).replaceAll("/+", "/");
-                Pattern pattern = Pattern.compile(regex);
-                handlerMapping.add(new Handler(entry.getValue(), method, pattern));
-                System.out.println("Mapped " + regex + ", " + method);
+                Path dir = Paths.get(url.toURI());
+                Path root = dir;
+                for (int i = 0; i < depth; i++) {
+                    root = root.getParent();
+                }
+                dirs.add(dir);
+                roots.add(root);
             }
+            if (dirs.isEmpty()) {
+                System.out.println("Hot reload is disabled, no class directory found for " + packagePath);
+                return;
+            }
+            reloadClassLoader = classLoader;
+            classFileWatcher = new ClassFileWatcher(dirs, roots, RELOAD_QUIET_PERIOD, this::reload);
+            classFileWatcher.start();
+            System.out.println("Hot reload is watching " + dirs);
+        } catch (IOException | URISyntaxException e) {
+            e.printStackTrace();
         }
     }
 
     /**
-     * 将类名首字母改为小写
+     * 热加载：用新的类加载器加载变化的类，替换容器中的 bean 定义并重新创建受影响的单例，
+     * 再为受影响的控制器创建处理器方法，构建新的路由表后整体替换 handlerMapping。
+     * 正在处理的请求继续使用旧的路由表和旧的实例；任何一步失败都保留原来的路由表。
+     * <p>
+     * 在监听线程上执行。全局异常处理方法和拦截器不会重新加载，删除的类被忽略。
      *
-     * @param simpleName 类名
+     * @param changed 类名 -> class 文件
      */
-    private String toLowerFirstCase(String simpleName) {
-        char[] chars = simpleName.toCharArray();
-        // 大小写字母 ASCII 码相差 32，大写字母较小
-        chars[0] += 32;
-        return String.valueOf(chars);
+    private synchronized void reload(Map<String, Path> changed) {
+        long start = System.currentTimeMillis();
+        try {
+            ClassLoader loader = new ReloadingClassLoader(reloadClassLoader, changed);
+            List<BeanDefinition> definitions = new ArrayList<>();
+            for (String className : changed.keySet()) {
+                // 内部类随外部类一起从新的类加载器中加载
+                if (className.indexOf('$') >= 0) {
+                    continue;
+                }
+                BeanDefinition definition = toBeanDefinition(Class.forName(className, false, loader));
+                if (definition != null) {
+                    definitions.add(definition);
+                }
+            }
+            if (definitions.isEmpty()) {
+                return;
+            }
+            // 新的 bean 先在暂存容器中创建，与新的路由表一起生效，中途失败时容器和路由表都保持不变
+            BeanRefresh refresh = ioc.refreshBeanDefinitions(definitions);
+            Set<String> refreshed = refresh.getBeanNames();
+
+            RoutingSnapshot current = handlerMapping;
+            Map<String, Handler[]> controllers = new LinkedHashMap<>(current.getControllers());
+            Map<String, Handler[]> created = new LinkedHashMap<>();
+            for (String beanName : refreshed) {
+                Class<?> clazz = refresh.getBeanDefinition(beanName).getBeanClass();
+                if (clazz.isAnnotationPresent(ASController.class)) {
+                    Handler[] handlers = createHandlers(clazz, refresh.getBean(beanName));
+                    controllers.put(beanName, handlers);
+                    created.put(beanName, handlers);
+                }
+            }
+            RoutingSnapshot snapshot = new RoutingSnapshot(controllers, routeCacheSize, metricsPath);
+            for (Map.Entry<String, Handler[]> entry : created.entrySet()) {
+                registerMetrics(entry.getValue());
+                if (metricsRegistry != null) {
+                    for (Handler handler : current.getHandlers(entry.getKey())) {
+                        metricsRegistry.unregister(handler.metrics);
+                    }
+                }
+            }
+            refresh.commit();
+            publish(snapshot);
+            reloadClassLoader = loader;
+            System.out.println("Reloaded " + refreshed + " in " + (System.currentTimeMillis() - start) + "ms");
+        } catch (Exception | LinkageError e) {
+            // 类文件不完整、映射冲突等，保留原来的路由表，等待下一次编译
+            System.out.println("Reload failed, keeping the previous handler mapping");
+            e.printStackTrace();
+        }
     }
 
     /**
-     * 内部类 Handler，记录 Controller 中 RequestMapping 和 Method 的对应关系
+     * 在 dispatchExecutor 上执行一次请求分发，是 AsyncContext 唯一的监听器。
+     * 分发线程写出响应、超时、被拒绝、出错、交给 AsyncRequestProcessor 只有先到达的一个生效；
+     * 交接之后的超时、出错事件转发给 AsyncRequestProcessor 的结束处理。
+     * RUNNING 之外的状态都是最终状态。
      */
-    private class Handler {
-        protected Object controller;  // 保存方法对应的实力
-        protected Method method;      // 保存映射的方法
-        protected Pattern pattern;
-        protected Map<String, Integer> paramIndexMapping;  // 参数名 - 参数顺序
-
-        public Handler(Object controller, Method method, Pattern pattern) {
-            this.controller = controller;
-            this.method = method;
-            this.pattern = pattern;
-            paramIndexMapping = new HashMap<>();
-            putParamIndexMapping(method);
-        }
-
-        private void putParamIndexMapping(Method method) {
-            // 提取方法中加了注解的参数
-            Annotation[][] pa = method.getParameterAnnotations();
-            for (int i = 0; i < pa.length; i++) {
-                for (Annotation a : pa[i]) {
-                    if (a instanceof ASRequestParam) {
-                        String paramName = ((ASRequestParam) a).value();
-                        if (!"".equals(paramName.trim())) {
-                            paramIndexMapping.put(paramName, i);
-                        }
+    private class DispatchTask implements Runnable, AsyncListener, AsyncRequestProcessor.AsyncOwner {
+        private static final int RUNNING = 0;
+        // 已经交给 AsyncRequestProcessor
+        private static final int HANDED_OVER = 1;
+        // 分发线程取得了写出响应并结束请求的权利
+        private static final int CLAIMED = 2;
+        // 超时或被线程池拒绝，已经写出错误状态码并结束请求
+        private static final int FINISHED = 3;
+        // 连接出错，已经结束请求
+        private static final int ABORTED = 4;
+
+        private final AsyncContext asyncContext;
+        private final AtomicInteger state = new AtomicInteger(RUNNING);
+        // 交接后的监听器，在状态变为 HANDED_OVER 之前写入
+        private volatile AsyncListener handedOver;
+
+        DispatchTask(AsyncContext asyncContext) {
+            this.asyncContext = asyncContext;
+        }
+
+        @Override
+        public void run() {
+            HttpServletRequest req = (HttpServletRequest) asyncContext.getRequest();
+            HttpServletResponse resp = (HttpServletResponse) asyncContext.getResponse();
+            // 在队列中等待时已经超时，不再执行处理器方法
+            if (state.get() != RUNNING) {
+                return;
+            }
+            boolean async = false;
+            try {
+                async = doDispatch(req, resp, this);
+            } catch (Exception e) {
+                if (claim()) {
+                    try {
+                        writeError(req, resp, e);
+                    } catch (IOException ex) {
+                        ex.printStackTrace();
                     }
                 }
-            }
-            // 提取方法中 request 和 response 参数
-            Class<?>[] paramsTypes = method.getParameterTypes();
-            for (int i = 0; i < paramsTypes.length; i++) {
-                Class<?> type = paramsTypes[i];
-                if (type == HttpServletRequest.class || type == HttpServletResponse.class) {
-                    paramIndexMapping.put(type.getName(), i);
+            } finally {
+                // 返回异步结果时已经交接或已经超时，由先到达的一方结束请求
+                if (!async && claim()) {
+                    asyncContext.complete();
                 }
             }
         }
+
+        /**
+         * 由分发线程调用，取得写出响应并结束请求的权利，重复调用返回同样的结果
+         *
+         * @return 请求已经超时、出错或已经交接时返回 false
+         */
+        boolean claim() {
+            return state.get() == CLAIMED || state.compareAndSet(RUNNING, CLAIMED);
+        }
+
+        /**
+         * @return 请求已经由超时、出错结束
+         */
+        boolean isExpired() {
+            int current = state.get();
+            return current == FINISHED || current == ABORTED;
+        }
+
+        boolean isTimedOut() {
+            return state.get() == FINISHED;
+        }
+
+        @Override
+        public boolean handOver(AsyncListener listener) {
+            handedOver = listener;
+            return state.compareAndSet(RUNNING, HANDED_OVER);
+        }
+
+        /**
+         * 以指定的状态码结束请求
+         *
+         * @return 请求已经结束或已经交接时返回 false
+         */
+        boolean finish(int status, String message) throws IOException {
+            if (!state.compareAndSet(RUNNING, FINISHED)) {
+                return false;
+            }
+            try {
+                HttpServletResponse resp = (HttpServletResponse) asyncContext.getResponse();
+                resp.setStatus(status);
+                resp.getWriter().write(message);
+            } finally {
+                asyncContext.complete();
+            }
+            return true;
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) throws IOException {
+            // CAS 失败后读到的都是最终状态，不会再变
+            if (!finish(HttpServletResponse.SC_SERVICE_UNAVAILABLE, "503 Request timed out")
+                    && state.get() == HANDED_OVER) {
+                handedOver.onTimeout(event);
+            }
+        }
+
+        @Override
+        public void onError(AsyncEvent event) throws IOException {
+            if (state.compareAndSet(RUNNING, ABORTED)) {
+                asyncContext.complete();
+            } else if (state.get() == HANDED_OVER) {
+                handedOver.onError(event);
+            }
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+        }
+    }
+
+    /**
+     * 将类名首字母改为小写
+     *
+     * @param simpleName 类名
+     */
+    private String toLowerFirstCase(String simpleName) {
+        char[] chars = simpleName.toCharArray();
+        // 大小写字母 ASCII 码相差 32，大写字母较小
+        chars[0] += 32;
+        return String.valueOf(chars);
     }
 
 }
@@ -0,0 +1,108 @@
+package com.codeashen.mvcframework.v3.servlet;
+
+import com.codeashen.mvcframework.annotation.ASExceptionHandler;
+import com.codeashen.mvcframework.v3.invoke.HandlerInvoker;
+import com.codeashen.mvcframework.v3.response.ReturnValueHandler;
+import com.codeashen.mvcframework.v3.response.ReturnValueHandlers;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * @ASExceptionHandler 标注的异常处理方法，形参按类型绑定异常、请求和响应
+ */
+class ExceptionHandlerMethod {
+
+    private static final int EXCEPTION = 1;
+    private static final int REQUEST = 2;
+    private static final int RESPONSE = 3;
+
+    final Method method;
+    // 处理的异常类型
+    final List<Class<? extends Throwable>> exceptionTypes;
+    final int status;
+    private final HandlerInvoker invoker;
+    private final Class<?>[] parameterTypes;
+    // 每个形参的取值方式，0 表示传 null
+    private final int[] parameterKinds;
+    private final ReturnValueHandler returnValueHandler;
+
+    ExceptionHandlerMethod(Method method, HandlerInvoker invoker, ReturnValueHandlers returnValueHandlers) {
+        ASExceptionHandler annotation = method.getAnnotation(ASExceptionHandler.class);
+        this.method = method;
+        this.status = annotation.status();
+        this.invoker = invoker;
+        this.returnValueHandler = returnValueHandlers.getHandler(method);
+
+        Class<?>[] types = method.getParameterTypes();
+        this.parameterTypes = types;
+        List<Class<? extends Throwable>> declared = new ArrayList<>();
+        parameterKinds = new int[types.length];
+        for (int i = 0; i < types.length; i++) {
+            if (Throwable.class.isAssignableFrom(types[i])) {
+                parameterKinds[i] = EXCEPTION;
+                declared.add(types[i].asSubclass(Throwable.class));
+            } else if (types[i] == HttpServletRequest.class) {
+                parameterKinds[i] = REQUEST;
+            } else if (types[i] == HttpServletResponse.class) {
+                parameterKinds[i] = RESPONSE;
+            }
+        }
+        this.exceptionTypes = annotation.value().length > 0 ? Arrays.asList(annotation.value()) : declared;
+        if (exceptionTypes.isEmpty()) {
+            throw new IllegalArgumentException("No exception type declared for @ASExceptionHandler " + method);
+        }
+    }
+
+    /**
+     * 设置状态码，调用异常处理方法并写出返回值
+     *
+     * @param req 请求对象，异步结果出错时为 null
+     */
+    void handle(HttpServletRequest req, HttpServletResponse resp, Throwable ex) throws Exception {
+        Object[] args = new Object[parameterKinds.length];
+        for (int i = 0; i < args.length; i++) {
+            switch (parameterKinds[i]) {
+                case EXCEPTION:
+                    args[i] = parameterTypes[i].isInstance(ex) ? ex : null;
+                    break;
+                case REQUEST:
+                    args[i] = req;
+                    break;
+                case RESPONSE:
+                    args[i] = resp;
+                    break;
+                default:
+                    break;
+            }
+        }
+        resp.setStatus(status);
+        Object returnValue = invoker.invoke(args);
+        if (returnValueHandler != null && returnValue != null) {
+            returnValueHandler.handleReturnValue(returnValue, resp);
+        }
+    }
+
+    /**
+     * 与异常类型的继承距离，不能处理时返回 -1
+     */
+    int distance(Class<?> type) {
+        int best = -1;
+        for (Class<? extends Throwable> exceptionType : exceptionTypes) {
+            int distance = 0;
+            for (Class<?> c = type; c != null; c = c.getSuperclass(), distance++) {
+                if (c == exceptionType) {
+                    if (best < 0 || distance < best) {
+                        best = distance;
+                    }
+                    break;
+                }
+            }
+        }
+        return best;
+    }
+}
@@ -0,0 +1,63 @@
+package com.codeashen.mvcframework.v3.servlet;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * 一组异常处理方法，按异常类型选出继承距离最近的一个，解析结果按异常类型缓存，
+ * 同一种异常再次出现时一次查找即可。
+ */
+class ExceptionHandlerMethods {
+
+    // 缓存中表示“没有能处理的方法”的占位对象
+    private static final Object NONE = new Object();
+
+    private final List<ExceptionHandlerMethod> methods = new ArrayList<>();
+    private final ConcurrentMap<Class<?>, Object> cache = new ConcurrentHashMap<>();
+
+    /**
+     * 注册异常处理方法，只在初始化时调用
+     *
+     * @throws IllegalStateException 同一种异常有两个异常处理方法
+     */
+    void add(ExceptionHandlerMethod handlerMethod) {
+        for (Class<? extends Throwable> type : handlerMethod.exceptionTypes) {
+            for (ExceptionHandlerMethod existing : methods) {
+                if (existing.distance(type) == 0) {
+                    throw new IllegalStateException("Ambiguous @ASExceptionHandler for " + type.getName() + ": "
+                            + existing.method + " and " + handlerMethod.method);
+                }
+            }
+        }
+        methods.add(handlerMethod);
+    }
+
+    boolean isEmpty() {
+        return methods.isEmpty();
+    }
+
+    /**
+     * 查找能处理异常类型的方法
+     *
+     * @return 异常处理方法，没有时返回 null
+     */
+    ExceptionHandlerMethod find(Class<?> type) {
+        Object cached = cache.get(type);
+        if (cached == null) {
+            ExceptionHandlerMethod best = null;
+            int bestDistance = -1;
+            for (ExceptionHandlerMethod method : methods) {
+                int distance = method.distance(type);
+                if (distance >= 0 && (bestDistance < 0 || distance < bestDistance)) {
+                    best = method;
+                    bestDistance = distance;
+                }
+            }
+            cached = best != null ? best : NONE;
+            cache.putIfAbsent(type, cached);
+        }
+        return cached == NONE ? null : (ExceptionHandlerMethod) cached;
+    }
+}
@@ -0,0 +1,135 @@
+package com.codeashen.mvcframework.v3.servlet;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.UndeclaredThrowableException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 处理请求过程中抛出的异常：先交给 @ASExceptionHandler 方法，没有能处理的方法时按异常类型响应对应的状态码。
+ * <p>
+ * 默认的响应体是预先分配好的固定内容，不包含异常信息和调用栈，大量请求出错时也不会额外分配内存。
+ * 配置 errorDebugSampling=N 后每 N 个异常打印一次调用栈，用于排查问题。
+ */
+class ExceptionResolver {
+
+    private static final ErrorBody BAD_REQUEST = new ErrorBody(HttpServletResponse.SC_BAD_REQUEST, "400 Bad Request");
+    private static final ErrorBody PAYLOAD_TOO_LARGE = new ErrorBody(HttpServletResponse.SC_REQUEST_ENTITY_TOO_LARGE,
+            "413 Payload Too Large");
+    private static final ErrorBody INTERNAL_SERVER_ERROR = new ErrorBody(HttpServletResponse.SC_INTERNAL_SERVER_ERROR,
+            "500 Internal Server Error");
+    private static final ErrorBody SERVICE_UNAVAILABLE = new ErrorBody(HttpServletResponse.SC_SERVICE_UNAVAILABLE,
+            "503 Service Unavailable");
+
+    // @ASService 中声明的全局异常处理方法
+    private final ExceptionHandlerMethods globalHandlers;
+    // 每多少个异常打印一次调用栈，0 表示不打印
+    private final int debugSampling;
+    private final AtomicLong errors = new AtomicLong();
+
+    ExceptionResolver(ExceptionHandlerMethods globalHandlers, int debugSampling) {
+        this.globalHandlers = globalHandlers;
+        this.debugSampling = debugSampling;
+    }
+
+    /**
+     * 处理异常并写出响应
+     *
+     * @param req           请求对象，异步结果出错时为 null
+     * @param localHandlers 抛出异常的处理器方法所在控制器的异常处理方法，可以为 null
+     * @param error         抛出的异常
+     */
+    void resolve(HttpServletRequest req, HttpServletResponse resp, ExceptionHandlerMethods localHandlers,
+                 Throwable error) throws IOException {
+        Throwable ex = unwrap(error);
+        boolean sampled = debugSampling > 0 && errors.getAndIncrement() % debugSampling == 0;
+        if (sampled) {
+            System.out.println("Sampled exception while handling " + (req == null ? "async result" : req.getRequestURI()));
+            ex.printStackTrace();
+        }
+
+        ExceptionHandlerMethod handlerMethod = localHandlers != null ? localHandlers.find(ex.getClass()) : null;
+        if (handlerMethod == null) {
+            handlerMethod = globalHandlers.find(ex.getClass());
+        }
+        if (handlerMethod != null) {
+            resetBuffer(resp);
+            try {
+                handlerMethod.handle(req, resp, ex);
+                return;
+            } catch (Exception e) {
+                if (sampled) {
+                    System.out.println("Exception handler failed: " + handlerMethod.method);
+                    e.printStackTrace();
+                }
+            }
+        }
+        writeErrorBody(resp, errorBody(ex));
+    }
+
+    /**
+     * 去掉反射调用和异步结果的包装，取出真正的异常
+     */
+    static Throwable unwrap(Throwable error) {
+        while (error.getCause() != null && (error instanceof InvocationTargetException
+                || error instanceof UndeclaredThrowableException
+                || error instanceof CompletionException
+                || error instanceof ExecutionException)) {
+            error = error.getCause();
+        }
+        return error;
+    }
+
+    private static ErrorBody errorBody(Throwable ex) {
+        if (ex instanceof BadRequestException) {
+            return BAD_REQUEST;
+        }
+        if (ex instanceof PayloadTooLargeException) {
+            return PAYLOAD_TOO_LARGE;
+        }
+        if (ex instanceof RejectedExecutionException) {
+            return SERVICE_UNAVAILABLE;
+        }
+        return INTERNAL_SERVER_ERROR;
+    }
+
+    private static void resetBuffer(HttpServletResponse resp) {
+        if (!resp.isCommitted()) {
+            resp.resetBuffer();
+        }
+    }
+
+    private static void writeErrorBody(HttpServletResponse resp, ErrorBody body) throws IOException {
+        if (resp.isCommitted()) {
+            // 响应头已经发出，只能丢弃剩余内容
+            return;
+        }
+        resp.resetBuffer();
+        resp.setStatus(body.status);
+        resp.setContentType("text/plain;charset=UTF-8");
+        try {
+            resp.getOutputStream().write(body.bytes);
+        } catch (IllegalStateException e) {
+            // 处理器方法已经使用了 getWriter
+            resp.getWriter().write(body.text);
+        }
+    }
+
+    private static final class ErrorBody {
+        final int status;
+        final String text;
+        final byte[] bytes;
+
+        ErrorBody(int status, String text) {
+            this.status = status;
+            this.text = text;
+            this.bytes = text.getBytes(StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package com.codeashen.mvcframework.v3.servlet;
+
+import com.codeashen.mvcframework.annotation.ASPathVariable;
+import com.codeashen.mvcframework.annotation.ASRequestBody;
+import com.codeashen.mvcframework.annotation.ASRequestParam;
+import com.codeashen.mvcframework.annotation.RequestMethod;
+import com.codeashen.mvcframework.v3.async.DeferredResult;
+import com.codeashen.mvcframework.v3.convert.ConversionService;
+import com.codeashen.mvcframework.v3.interceptor.ASHandlerInterceptor;
+import com.codeashen.mvcframework.v3.interceptor.HandlerInterceptors;
+import com.codeashen.mvcframework.v3.invoke.HandlerInvoker;
+import com.codeashen.mvcframework.v3.metrics.HandlerMetrics;
+import com.codeashen.mvcframework.v3.response.ReturnValueHandler;
+import com.codeashen.mvcframework.v3.response.ReturnValueHandlers;
+import com.codeashen.mvcframework.v3.router.RouteTrie;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Method;
+import java.lang.reflect.Parameter;
+import java.lang.reflect.Type;
+import java.util.concurrent.CompletionStage;
+
+/**
+ * Handler，记录 Controller 中 RequestMapping 和 Method 的对应关系
+ */
+class Handler {
+    protected Object controller;  // 保存方法对应的实力
+    protected Method method;      // 保存映射的方法
+    protected String url;         // 映射的 url，可以是路径模板或正则
+    protected RequestMethod[] requestMethods = {};  // 处理的请求方法，为空时处理所有请求方法
+    protected ArgumentBinder[] argumentBinders;  // 参数绑定计划，每个形参对应一个绑定器
+    protected HandlerInvoker invoker;   // 方法调用器，已绑定 controller
+    protected boolean async;      // 返回值是否为 CompletionStage 或 DeferredResult，需要异步写出
+    protected ReturnValueHandler returnValueHandler;  // 写出返回值的处理器，异步时为写出结果的处理器，返回值为 void 时为 null
+    protected HandlerMetrics metrics;  // 请求指标，未开启时为 null
+    protected ASHandlerInterceptor[] interceptors = HandlerInterceptors.EMPTY;  // 拦截器链，初始化时按映射的 url 解析
+    protected ExceptionHandlerMethods exceptionHandlers;  // 所在控制器的异常处理方法，没有时为 null
+
+    public Handler(Object controller, Method method, String url, HandlerInvoker invoker,
+                   ConversionService conversionService, ReturnValueHandlers returnValueHandlers,
+                   RequestBodyReader requestBodyReader) {
+        this.controller = controller;
+        this.method = method;
+        this.url = url;
+        this.invoker = invoker;
+        Class<?> returnType = method.getReturnType();
+        this.async = CompletionStage.class.isAssignableFrom(returnType) || DeferredResult.class.isAssignableFrom(returnType);
+        this.returnValueHandler = async ? returnValueHandlers.getAsyncResultHandler(method)
+                : returnValueHandlers.getHandler(method);
+        putParamIndexMapping(method, conversionService, requestBodyReader);
+    }
+
+    private void putParamIndexMapping(Method method, ConversionService conversionService,
+                                      RequestBodyReader requestBodyReader) {
+        Class<?>[] paramsTypes = method.getParameterTypes();
+        Type[] genericTypes = method.getGenericParameterTypes();
+        argumentBinders = new ArgumentBinder[paramsTypes.length];
+        // 提取方法中加了注解的参数
+        Annotation[][] pa = method.getParameterAnnotations();
+        Parameter[] parameters = method.getParameters();
+        String[] variableNames = RouteTrie.getVariableNames(url);
+        for (int i = 0; i < pa.length; i++) {
+            argumentBinders[i] = ArgumentBinder.NONE;
+            for (Annotation a : pa[i]) {
+                if (a instanceof ASRequestParam) {
+                    String paramName = ((ASRequestParam) a).value();
+                    if (!"".equals(paramName.trim())) {
+                        argumentBinders[i] = new ArgumentBinder.RequestParam(paramName,
+                                conversionService.getParameterConverter(paramsTypes[i], genericTypes[i]));
+                    }
+                } else if (a instanceof ASPathVariable) {
+                    int index = indexOfVariable(variableNames, ((ASPathVariable) a).value().trim(), parameters[i]);
+                    argumentBinders[i] = new ArgumentBinder.PathVariable(index, conversionService.getConverter(paramsTypes[i]));
+                } else if (a instanceof ASRequestBody) {
+                    argumentBinders[i] = requestBodyReader.binderFor(genericTypes[i], ((ASRequestBody) a).required());
+                }
+            }
+        }
+        // 提取方法中 request 和 response 参数
+        for (int i = 0; i < paramsTypes.length; i++) {
+            Class<?> type = paramsTypes[i];
+            if (type == HttpServletRequest.class) {
+                argumentBinders[i] = ArgumentBinder.REQUEST;
+            } else if (type == HttpServletResponse.class) {
+                argumentBinders[i] = ArgumentBinder.RESPONSE;
+            }
+        }
+    }
+
+    /**
+     * 确定路径变量的下标：按注解指定的名称查找，未指定时使用形参名（需要 -parameters 编译），
+     * 模板只有一个变量时直接使用该变量
+     */
+    private int indexOfVariable(String[] variableNames, String name, Parameter parameter) {
+        if (variableNames.length == 0) {
+            throw new IllegalArgumentException("@ASPathVariable requires a path template like /users/{id}, but " + url
+                    + " is not one: " + method);
+        }
+        if (name.isEmpty()) {
+            if (parameter.isNamePresent()) {
+                name = parameter.getName();
+            } else if (variableNames.length == 1) {
+                return 0;
+            }
+        }
+        for (int i = 0; i < variableNames.length; i++) {
+            if (variableNames[i].equals(name)) {
+                return i;
+            }
+        }
+        throw new IllegalArgumentException("No path variable '" + name + "' in " + url + ": " + method);
+    }
+}
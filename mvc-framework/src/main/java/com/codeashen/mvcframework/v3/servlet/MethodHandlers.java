@@ -0,0 +1,103 @@
+package com.codeashen.mvcframework.v3.servlet;
+
+import com.codeashen.mvcframework.annotation.RequestMethod;
+
+/**
+ * 同一个 url 下按请求方法索引的处理器，作为路由表的目标对象。
+ * 先按 url 匹配到 MethodHandlers，再按请求方法的 ordinal 直接取数组元素，不需要逐个比较候选处理器。
+ */
+final class MethodHandlers {
+
+    private static final RequestMethod[] METHODS = RequestMethod.values();
+
+    // 声明了 method 的处理器，按 RequestMethod.ordinal() 索引
+    private final Handler[] handlers = new Handler[METHODS.length];
+    // 没有声明 method 的处理器，处理其余所有方法
+    private Handler defaultHandler;
+    // 405 和 OPTIONS 响应的 Allow 头
+    private String allow = "";
+
+    /**
+     * 注册处理器，同一个请求方法只能映射一个处理器
+     *
+     * @param methods 处理的请求方法，为空时处理所有方法
+     * @throws IllegalStateException 请求方法已经映射了其他处理器
+     */
+    void add(RequestMethod[] methods, Handler handler) {
+        if (methods.length == 0) {
+            if (defaultHandler != null) {
+                throw ambiguous("*", defaultHandler, handler);
+            }
+            defaultHandler = handler;
+        }
+        for (RequestMethod method : methods) {
+            Handler existing = handlers[method.ordinal()];
+            if (existing != null && existing != handler) {
+                throw ambiguous(method.name(), existing, handler);
+            }
+            handlers[method.ordinal()] = handler;
+        }
+        allow = buildAllow();
+    }
+
+    /**
+     * 查找请求方法对应的处理器。
+     * HEAD 没有单独映射时使用 GET 的处理器；OPTIONS 没有单独映射时返回 null，由调用方直接应答。
+     *
+     * @param method 请求方法，非标准方法为 null
+     * @return 处理器，没有时返回 null
+     */
+    Handler getHandler(RequestMethod method) {
+        if (method == null) {
+            return defaultHandler;
+        }
+        Handler handler = handlers[method.ordinal()];
+        if (handler != null) {
+            return handler;
+        }
+        if (method == RequestMethod.HEAD) {
+            handler = handlers[RequestMethod.GET.ordinal()];
+            if (handler != null) {
+                return handler;
+            }
+        } else if (method == RequestMethod.OPTIONS) {
+            return null;
+        }
+        return defaultHandler;
+    }
+
+    /**
+     * 请求方法是否单独声明了处理器
+     */
+    boolean isMapped(RequestMethod method) {
+        return handlers[method.ordinal()] != null;
+    }
+
+    /**
+     * 允许的请求方法，逗号分隔，用作 Allow 响应头
+     */
+    String getAllow() {
+        return allow;
+    }
+
+    private String buildAllow() {
+        StringBuilder sb = new StringBuilder();
+        for (RequestMethod method : METHODS) {
+            boolean allowed = defaultHandler != null || handlers[method.ordinal()] != null
+                    || method == RequestMethod.OPTIONS
+                    || method == RequestMethod.HEAD && handlers[RequestMethod.GET.ordinal()] != null;
+            if (allowed) {
+                if (sb.length() > 0) {
+                    sb.append(", ");
+                }
+                sb.append(method.name());
+            }
+        }
+        return sb.toString();
+    }
+
+    private static IllegalStateException ambiguous(String method, Handler existing, Handler handler) {
+        return new IllegalStateException("Ambiguous mapping: " + method + " " + handler.url + " is mapped to both "
+                + existing.method + " and " + handler.method);
+    }
+}
@@ -0,0 +1,90 @@
+package com.codeashen.mvcframework.v3.servlet;
+
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpServletResponseWrapper;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.io.UnsupportedEncodingException;
+
+/**
+ * 自动处理 HEAD 请求时包装响应：丢弃处理器写出的响应体，只统计字节数，
+ * 处理器没有设置 Content-Length 时按统计的字节数补上，与 GET 请求的响应头保持一致。
+ */
+class NoBodyResponse extends HttpServletResponseWrapper {
+
+    private final NoBodyOutputStream out = new NoBodyOutputStream();
+    private PrintWriter writer;
+    private boolean contentLengthSet;
+
+    NoBodyResponse(HttpServletResponse response) {
+        super(response);
+    }
+
+    @Override
+    public ServletOutputStream getOutputStream() {
+        return out;
+    }
+
+    @Override
+    public PrintWriter getWriter() throws UnsupportedEncodingException {
+        if (writer == null) {
+            writer = new PrintWriter(new OutputStreamWriter(out, getCharacterEncoding()));
+        }
+        return writer;
+    }
+
+    @Override
+    public void setContentLength(int len) {
+        super.setContentLength(len);
+        contentLengthSet = true;
+    }
+
+    @Override
+    public void setContentLengthLong(long len) {
+        super.setContentLengthLong(len);
+        contentLengthSet = true;
+    }
+
+    /**
+     * 处理器写出结束后调用，补上 Content-Length
+     */
+    void finish() {
+        if (writer != null) {
+            writer.flush();
+        }
+        if (!contentLengthSet && !isCommitted()) {
+            super.setContentLengthLong(out.count);
+        }
+    }
+
+    private static class NoBodyOutputStream extends ServletOutputStream {
+        private long count;
+
+        @Override
+        public void write(int b) {
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            count += len;
+        }
+
+        @Override
+        public boolean isReady() {
+            return true;
+        }
+
+        @Override
+        public void setWriteListener(WriteListener writeListener) {
+            try {
+                writeListener.onWritePossible();
+            } catch (IOException e) {
+                writeListener.onError(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package com.codeashen.mvcframework.v3.servlet;
+
+/**
+ * 请求体超过 maxRequestBodySize 配置的大小，响应 413。
+ * 属于客户端错误，不记录调用栈。
+ */
+public class PayloadTooLargeException extends RuntimeException {
+
+    public PayloadTooLargeException(long maxSize) {
+        super("Request body exceeds " + maxSize + " bytes", null, false, false);
+    }
+}
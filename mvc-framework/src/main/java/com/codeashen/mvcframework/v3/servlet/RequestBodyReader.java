@@ -0,0 +1,101 @@
+package com.codeashen.mvcframework.v3.servlet;
+
+import com.codeashen.mvcframework.v3.json.JsonBinding;
+import com.codeashen.mvcframework.v3.json.JsonReader;
+import com.codeashen.mvcframework.v3.response.BufferPool;
+
+import javax.servlet.http.HttpServletRequest;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Type;
+
+/**
+ * 读取 @ASRequestBody 形参，请求体从 InputStream 边读边解析，不会整体读入内存。
+ * 请求头声明的 Content-Length 超过上限时直接拒绝，没有声明长度（分块传输）时在读取过程中计数。
+ */
+class RequestBodyReader {
+
+    private final JsonReader jsonReader;
+    private final BufferPool bufferPool;
+    private final long maxBodySize;
+
+    /**
+     * @param maxBodySize 请求体的最大字节数，0 表示不限制
+     */
+    RequestBodyReader(JsonReader jsonReader, BufferPool bufferPool, long maxBodySize) {
+        this.jsonReader = jsonReader;
+        this.bufferPool = bufferPool;
+        this.maxBodySize = maxBodySize;
+    }
+
+    /**
+     * 为形参创建绑定器，目标类型的读取计划在这里解析好
+     */
+    ArgumentBinder binderFor(Type genericType, boolean required) {
+        return new ArgumentBinder.RequestBody(this, jsonReader.getBinding(genericType), required);
+    }
+
+    Object read(HttpServletRequest req, JsonBinding binding, boolean required) throws IOException {
+        if (maxBodySize > 0 && req.getContentLengthLong() > maxBodySize) {
+            throw new PayloadTooLargeException(maxBodySize);
+        }
+        InputStream in = req.getInputStream();
+        if (maxBodySize > 0) {
+            in = new BoundedInputStream(in, maxBodySize);
+        }
+        byte[] buffer = bufferPool.acquire();
+        Object value;
+        try {
+            value = binding.read(in, buffer);
+        } finally {
+            bufferPool.release(buffer);
+        }
+        if (value == null) {
+            if (required) {
+                throw new IllegalArgumentException("Required request body is missing");
+            }
+            return binding.nullValue();
+        }
+        return value;
+    }
+
+    /**
+     * 读取超过上限时抛出 PayloadTooLargeException
+     */
+    private static class BoundedInputStream extends FilterInputStream {
+        private final long maxSize;
+        private long count;
+
+        BoundedInputStream(InputStream in, long maxSize) {
+            super(in);
+            this.maxSize = maxSize;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b != -1) {
+                count(1);
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            // 多读一个字节，恰好等于上限的请求体仍然可以读完
+            int n = super.read(b, off, (int) Math.min(len, maxSize - count + 1));
+            if (n > 0) {
+                count(n);
+            }
+            return n;
+        }
+
+        private void count(int n) {
+            count += n;
+            if (count > maxSize) {
+                throw new PayloadTooLargeException(maxSize);
+            }
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.codeashen.mvcframework.v3.servlet;
+
+import com.codeashen.mvcframework.v3.router.RouteMatch;
+import com.codeashen.mvcframework.v3.router.RouteTrie;
+import com.codeashen.mvcframework.v3.router.Router;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 路由快照：路由表、每个控制器的处理器方法和指标的 url，构建完成后不再修改。
+ * <p>
+ * DispatcherServlet 通过一个 volatile 引用发布快照，请求线程读取一次引用后不加锁地使用；
+ * 热加载等重新注册时构建新的快照整体替换，正在处理的请求继续使用旧的快照。
+ */
+final class RoutingSnapshot {
+
+    private static final Handler[] NO_HANDLERS = {};
+
+    private final Router<MethodHandlers> router;
+    // beanName -> 控制器的处理器方法，按注册顺序排列
+    private final Map<String, Handler[]> controllers;
+    // 所有处理器方法
+    private final Handler[] handlers;
+    // 输出指标的 url，不输出或与控制器的映射重复时为 null
+    private final String metricsPath;
+
+    /**
+     * @param controllers    beanName -> 控制器的处理器方法
+     * @param routeCacheSize 正则 url 和 404 结果的缓存大小
+     * @param metricsPath    配置的指标 url，可以为 null
+     * @throws IllegalStateException 同一个 url（或形状相同的路径模板）的同一个请求方法映射了多个处理器
+     */
+    RoutingSnapshot(Map<String, Handler[]> controllers, int routeCacheSize, String metricsPath) {
+        this.controllers = Collections.unmodifiableMap(new LinkedHashMap<>(controllers));
+        this.router = new Router<>(routeCacheSize);
+        int count = 0;
+        for (Handler[] controllerHandlers : controllers.values()) {
+            count += controllerHandlers.length;
+        }
+        this.handlers = new Handler[count];
+
+        // 同一个 url 只注册一次路由，不同请求方法的处理器放在同一个 MethodHandlers 中。
+        // 路径模板按形状分组，/users/{id} 和 /users/{uid} 是同一个路由；变量按下标绑定，各处理器保留自己的变量名
+        Map<String, MethodHandlers> mappings = new HashMap<>();
+        int i = 0;
+        for (Handler[] controllerHandlers : controllers.values()) {
+            for (Handler handler : controllerHandlers) {
+                handlers[i++] = handler;
+                String shape = RouteTrie.getShape(handler.url);
+                MethodHandlers methodHandlers = mappings.get(shape);
+                if (methodHandlers == null) {
+                    methodHandlers = new MethodHandlers();
+                    mappings.put(shape, methodHandlers);
+                    router.add(handler.url, methodHandlers);
+                }
+                methodHandlers.add(handler.requestMethods, handler);
+            }
+        }
+        // 指标的 url 在路由之前处理，与控制器的映射重复时以控制器为准
+        this.metricsPath = metricsPath == null || mappings.containsKey(metricsPath) ? null : metricsPath;
+    }
+
+    /**
+     * 查找 url 对应的处理器
+     *
+     * @return 路由匹配结果，没有对应的处理器时返回 null
+     */
+    RouteMatch<MethodHandlers> match(String url) {
+        return router.isEmpty() ? null : router.match(url);
+    }
+
+    Router<MethodHandlers> getRouter() {
+        return router;
+    }
+
+    /**
+     * 控制器的处理器方法，没有时返回空数组
+     */
+    Handler[] getHandlers(String beanName) {
+        Handler[] controllerHandlers = controllers.get(beanName);
+        return controllerHandlers == null ? NO_HANDLERS : controllerHandlers;
+    }
+
+    Map<String, Handler[]> getControllers() {
+        return controllers;
+    }
+
+    Handler[] getHandlers() {
+        return handlers;
+    }
+
+    String getMetricsPath() {
+        return metricsPath;
+    }
+
+    @Override
+    public String toString() {
+        return router.toString();
+    }
+}
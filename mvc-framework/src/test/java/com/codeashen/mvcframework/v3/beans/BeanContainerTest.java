@@ -0,0 +1,554 @@
+package com.codeashen.mvcframework.v3.beans;
+
+import com.codeashen.mvcframework.annotation.ASAutowired;
+import com.codeashen.mvcframework.annotation.BeanScope;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.BrokenBarrierException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BeanContainerTest {
+
+    public static class A {
+        @ASAutowired("b")
+        B b;
+    }
+
+    public static class B {
+        @ASAutowired("a")
+        A a;
+        @ASAutowired("lazy")
+        LazyBean lazy;
+    }
+
+    public static class LazyBean {
+        static final AtomicInteger CREATED = new AtomicInteger();
+        @ASAutowired("a")
+        A a;
+
+        public LazyBean() {
+            CREATED.incrementAndGet();
+        }
+    }
+
+    public static class Counted {
+        static final AtomicInteger CREATED = new AtomicInteger();
+
+        public Counted() {
+            CREATED.incrementAndGet();
+        }
+    }
+
+    public static class SlowInjected {
+        static final CountDownLatch INJECTING = new CountDownLatch(1);
+        static final CountDownLatch RELEASE = new CountDownLatch(1);
+        Counted counted;
+
+        @ASAutowired
+        public void setCounted(Counted counted) throws InterruptedException {
+            INJECTING.countDown();
+            RELEASE.await();
+            this.counted = counted;
+        }
+    }
+
+    public static class LeftHolder {
+        @ASAutowired("lazyLeft")
+        LazyLeft lazy;
+    }
+
+    public static class RightHolder {
+        @ASAutowired("lazyRight")
+        LazyRight lazy;
+    }
+
+    public static class LazyLeft {
+        // 两个延迟 bean 在不同的注入线程上同时实例化
+        static final CyclicBarrier INSTANTIATING = new CyclicBarrier(2);
+        @ASAutowired("lazyRight")
+        LazyRight right;
+
+        public LazyLeft() {
+            meet(INSTANTIATING);
+        }
+    }
+
+    public static class LazyRight {
+        @ASAutowired("lazyLeft")
+        LazyLeft left;
+
+        public LazyRight() {
+            meet(LazyLeft.INSTANTIATING);
+        }
+    }
+
+    static void meet(CyclicBarrier barrier) {
+        try {
+            barrier.await(1, TimeUnit.SECONDS);
+        } catch (InterruptedException | BrokenBarrierException | TimeoutException e) {
+            // 并行流把两个 bean 分到了同一个线程上，依次创建
+        }
+    }
+
+    public static class SlowPeerHolder {
+        static final CountDownLatch INJECTING = new CountDownLatch(1);
+        static final CountDownLatch RELEASE = new CountDownLatch(1);
+        LazyPeer peer;
+
+        @ASAutowired
+        public void setPeer(LazyPeer peer) throws InterruptedException {
+            INJECTING.countDown();
+            RELEASE.await();
+            this.peer = peer;
+        }
+    }
+
+    public static class LazyPeer {
+        @ASAutowired
+        SlowPeerHolder holder;
+    }
+
+    public interface Api {
+    }
+
+    public static class ApiImpl implements Api {
+    }
+
+    public interface Greeter {
+    }
+
+    public static abstract class AbstractGreeter implements Greeter {
+    }
+
+    public static class English extends AbstractGreeter {
+    }
+
+    public static class Chinese extends AbstractGreeter {
+    }
+
+    public static class GreeterClient {
+        @ASAutowired
+        Greeter greeter;
+        @ASAutowired
+        AbstractGreeter chinese;
+        @ASAutowired
+        List<Greeter> all;
+        @ASAutowired
+        Map<String, AbstractGreeter> byName;
+        @ASAutowired
+        Greeter[] array;
+        @ASAutowired("english")
+        Greeter qualified;
+    }
+
+    public static class AmbiguousClient {
+        @ASAutowired
+        Greeter greeter;
+    }
+
+    @Test
+    void injectByType() {
+        BeanContainer container = new BeanContainer();
+        container.registerBeanDefinition(new BeanDefinition("english", English.class, false));
+        container.registerBeanDefinition(new BeanDefinition("chinese", Chinese.class, false, true));
+        container.registerBeanDefinition(new BeanDefinition("client", GreeterClient.class, false));
+        container.preInstantiateSingletons();
+
+        Object english = container.getBean("english");
+        Object chinese = container.getBean("chinese");
+        GreeterClient client = container.getBean(GreeterClient.class);
+        assertArrayEquals(new String[]{"english", "chinese"}, container.getBeanNamesForType(Greeter.class));
+        // 多个候选时注入 @ASPrimary 的 bean
+        assertSame(chinese, client.greeter);
+        assertSame(chinese, client.chinese);
+        assertEquals(Arrays.asList(english, chinese), client.all);
+        assertEquals(Arrays.asList("english", "chinese"), new ArrayList<>(client.byName.keySet()));
+        assertArrayEquals(new Object[]{english, chinese}, client.array);
+        assertSame(english, client.qualified);
+        assertSame(chinese, container.getBean(Greeter.class));
+    }
+
+    @Test
+    void reportAmbiguousCandidates() {
+        BeanContainer container = new BeanContainer();
+        container.registerBeanDefinition(new BeanDefinition("english", English.class, false));
+        container.registerBeanDefinition(new BeanDefinition("chinese", Chinese.class, false));
+        container.registerBeanDefinition(new BeanDefinition("client", AmbiguousClient.class, true));
+        container.preInstantiateSingletons();
+
+        BeanCreationException e = assertThrows(BeanCreationException.class, () -> container.getBean("client"));
+        assertTrue(e.getMessage().contains("english, chinese"), e.getMessage());
+        assertThrows(BeanCreationException.class, () -> container.getBean(Greeter.class));
+    }
+
+    public static class Repository {
+    }
+
+    public static class BaseService {
+        @ASAutowired
+        Repository inherited;
+    }
+
+    public static class OrderService extends BaseService {
+        final Repository constructed;
+        Greeter viaSetter;
+        int setterCalls;
+
+        public OrderService(Repository repository) {
+            this.constructed = repository;
+        }
+
+        @ASAutowired("english")
+        public void setGreeter(Greeter greeter) {
+            this.viaSetter = greeter;
+            setterCalls++;
+        }
+    }
+
+    public static class SubOrderService extends OrderService {
+        @ASAutowired
+        public SubOrderService(Repository repository) {
+            super(repository);
+        }
+
+        @Override
+        @ASAutowired("english")
+        public void setGreeter(Greeter greeter) {
+            super.setGreeter(greeter);
+        }
+    }
+
+    public static class CycleA {
+        public CycleA(CycleB b) {
+        }
+    }
+
+    public static class CycleB {
+        public CycleB(CycleA a) {
+        }
+    }
+
+    @Test
+    void injectConstructorSetterAndInheritedFields() {
+        BeanContainer container = new BeanContainer();
+        container.registerBeanDefinition(new BeanDefinition("subOrderService", SubOrderService.class, false));
+        container.registerBeanDefinition(new BeanDefinition("english", English.class, false));
+        container.registerBeanDefinition(new BeanDefinition("repository", Repository.class, false));
+        container.preInstantiateSingletons();
+
+        Object repository = container.getBean("repository");
+        SubOrderService service = container.getBean(SubOrderService.class);
+        assertSame(repository, service.constructed);
+        assertSame(repository, service.inherited);
+        assertSame(container.getBean("english"), service.viaSetter);
+        // 子类重写的注入方法只调用一次
+        assertEquals(1, service.setterCalls);
+    }
+
+    @Test
+    void reportCircularConstructorDependencies() {
+        BeanContainer container = new BeanContainer();
+        container.registerBeanDefinition(new BeanDefinition("cycleA", CycleA.class, false));
+        container.registerBeanDefinition(new BeanDefinition("cycleB", CycleB.class, false));
+        BeanCreationException e = assertThrows(BeanCreationException.class, container::preInstantiateSingletons);
+        assertTrue(e.getMessage().contains("Circular constructor dependency"), e.getMessage());
+    }
+
+    @Test
+    void createEagerBeansWithCircularDependencies() {
+        BeanContainer container = new BeanContainer();
+        container.registerBeanDefinition(new BeanDefinition("a", A.class, false));
+        container.registerBeanDefinition(new BeanDefinition("b", B.class, false));
+        container.registerBeanDefinition(new BeanDefinition("lazy", LazyBean.class, true));
+        container.preInstantiateSingletons();
+
+        A a = (A) container.getBean("a");
+        B b = (B) container.getBean("b");
+        assertSame(b, a.b);
+        assertSame(a, b.a);
+        // 被非延迟 bean 依赖的延迟 bean 在注入时创建
+        assertSame(b.lazy, container.getBean("lazy"));
+        assertSame(a, b.lazy.a);
+    }
+
+    @Test
+    void otherThreadsWaitForBeansInCreation() throws Exception {
+        BeanContainer container = new BeanContainer();
+        container.registerBeanDefinition(new BeanDefinition("counted", Counted.class, false));
+        container.registerBeanDefinition(new BeanDefinition("slow", SlowInjected.class, false));
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<?> startup = executor.submit(container::preInstantiateSingletons);
+            assertTrue(SlowInjected.INJECTING.await(5, TimeUnit.SECONDS));
+            // 正在注入的 bean 对不参与创建的线程不可见，等待发布后拿到注入完成的实例
+            Future<Object> lookup = executor.submit(() -> container.getBean("slow"));
+            assertThrows(TimeoutException.class, () -> lookup.get(100, TimeUnit.MILLISECONDS));
+            SlowInjected.RELEASE.countDown();
+            startup.get(5, TimeUnit.SECONDS);
+            SlowInjected slow = (SlowInjected) lookup.get(5, TimeUnit.SECONDS);
+            assertSame(container.getBean("counted"), slow.counted);
+        } finally {
+            SlowInjected.RELEASE.countDown();
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void createMutuallyDependentLazyBeansOnParallelInjectionThreads() throws Exception {
+        BeanContainer container = new BeanContainer();
+        container.registerBeanDefinition(new BeanDefinition("leftHolder", LeftHolder.class, false));
+        container.registerBeanDefinition(new BeanDefinition("rightHolder", RightHolder.class, false));
+        container.registerBeanDefinition(new BeanDefinition("lazyLeft", LazyLeft.class, true));
+        container.registerBeanDefinition(new BeanDefinition("lazyRight", LazyRight.class, true));
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            // 注入在锁外进行，两个线程各自创建的延迟 bean 互相引用时不会死锁
+            executor.submit(container::preInstantiateSingletons).get(5, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+        LazyLeft left = (LazyLeft) container.getBean("lazyLeft");
+        LazyRight right = (LazyRight) container.getBean("lazyRight");
+        assertSame(left, ((LeftHolder) container.getBean("leftHolder")).lazy);
+        assertSame(right, ((RightHolder) container.getBean("rightHolder")).lazy);
+        assertSame(right, left.right);
+        assertSame(left, right.left);
+    }
+
+    @Test
+    void lazyBeansCreatedDuringStartupArePublishedWithTheBatch() throws Exception {
+        BeanContainer container = new BeanContainer();
+        container.registerBeanDefinition(new BeanDefinition("holder", SlowPeerHolder.class, false));
+        container.registerBeanDefinition(new BeanDefinition("peer", LazyPeer.class, true));
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<?> startup = executor.submit(container::preInstantiateSingletons);
+            assertTrue(SlowPeerHolder.INJECTING.await(5, TimeUnit.SECONDS));
+            // 延迟 bean 已经注入完成，但引用的 holder 还在注入，同样要等这批 bean 一起发布
+            Future<Object> lookup = executor.submit(() -> container.getBean("peer"));
+            assertThrows(TimeoutException.class, () -> lookup.get(100, TimeUnit.MILLISECONDS));
+            SlowPeerHolder.RELEASE.countDown();
+            startup.get(5, TimeUnit.SECONDS);
+            LazyPeer peer = (LazyPeer) lookup.get(5, TimeUnit.SECONDS);
+            SlowPeerHolder holder = (SlowPeerHolder) container.getBean("holder");
+            assertSame(holder, peer.holder);
+            assertSame(peer, holder.peer);
+        } finally {
+            SlowPeerHolder.RELEASE.countDown();
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void createLazyBeanOnceUnderConcurrentLookup() throws Exception {
+        BeanContainer container = new BeanContainer();
+        container.registerBeanDefinition(new BeanDefinition("counted", Counted.class, true));
+        container.preInstantiateSingletons();
+        int before = Counted.CREATED.get();
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Callable<Object>> lookups = new ArrayList<>();
+            for (int i = 0; i < 64; i++) {
+                lookups.add(() -> container.getBean("counted"));
+            }
+            Set<Object> beans = new HashSet<>();
+            for (Future<Object> future : executor.invokeAll(lookups)) {
+                beans.add(future.get());
+            }
+            assertEquals(1, beans.size());
+            assertEquals(before + 1, Counted.CREATED.get());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void refreshBeanDefinitionRecreatesDependents() {
+        BeanContainer container = new BeanContainer();
+        container.registerBeanDefinition(new BeanDefinition("subOrderService", SubOrderService.class, false));
+        container.registerBeanDefinition(new BeanDefinition("english", English.class, false));
+        container.registerBeanDefinition(new BeanDefinition("repository", Repository.class, false));
+        container.preInstantiateSingletons();
+        Object repository = container.getBean("repository");
+        Object service = container.getBean("subOrderService");
+
+        BeanRefresh refresh = container.refreshBeanDefinitions(
+                Arrays.asList(new BeanDefinition("english", Chinese.class, false)));
+
+        // 依赖被替换的 bean 的单例按注册顺序重新创建，提交前容器对外不变
+        assertEquals(Arrays.asList("subOrderService", "english"), new ArrayList<>(refresh.getBeanNames()));
+        assertTrue(refresh.getBean("english") instanceof Chinese);
+        assertTrue(container.getBean("english") instanceof English);
+        assertSame(service, container.getBean("subOrderService"));
+        assertArrayEquals(new String[]{"english"}, container.getBeanNamesForType(English.class));
+
+        refresh.commit();
+        assertSame(refresh.getBean("english"), container.getBean("english"));
+        assertTrue(container.getBean("english") instanceof Chinese);
+        assertArrayEquals(new String[]{"english"}, container.getBeanNamesForType(Chinese.class));
+        assertArrayEquals(new String[0], container.getBeanNamesForType(English.class));
+        SubOrderService recreated = container.getBean(SubOrderService.class);
+        assertNotSame(service, recreated);
+        assertSame(container.getBean("english"), recreated.viaSetter);
+        assertSame(repository, container.getBean("repository"));
+        assertSame(repository, recreated.constructed);
+
+        // 新的定义无法注入时抛出异常，容器中的定义和单例都不变
+        Object chinese = container.getBean("english");
+        assertThrows(BeanCreationException.class, () -> container.refreshBeanDefinitions(
+                Arrays.asList(new BeanDefinition("english", AmbiguousClient.class, false))));
+        assertSame(chinese, container.getBean("english"));
+        assertSame(recreated, container.getBean(SubOrderService.class));
+        assertArrayEquals(new String[0], container.getBeanNamesForType(AmbiguousClient.class));
+    }
+
+    public static class Buffer implements PoolableBean {
+        final StringBuilder content = new StringBuilder();
+        int resets;
+
+        @Override
+        public void reset() {
+            content.setLength(0);
+            resets++;
+        }
+    }
+
+    public static class RequestContext {
+        @ASAutowired
+        Repository repository;
+    }
+
+    public static class ScopedClient {
+        @ASAutowired
+        BeanProvider<Buffer> buffer;
+        @ASAutowired
+        BeanProvider<RequestContext> context;
+    }
+
+    public static class EagerRequestClient {
+        @ASAutowired
+        RequestContext context;
+    }
+
+    @Test
+    void prototypeBeansAreReusedThroughPool() {
+        BeanContainer container = new BeanContainer();
+        container.registerBeanDefinition(new BeanDefinition("buffer", Buffer.class, false, false, BeanScope.PROTOTYPE, 2));
+        container.registerBeanDefinition(new BeanDefinition("client", ScopedClient.class, false));
+        container.registerBeanDefinition(new BeanDefinition("repository", Repository.class, false));
+        container.registerBeanDefinition(new BeanDefinition("context", RequestContext.class, false, false, BeanScope.REQUEST, 0));
+        container.preInstantiateSingletons();
+        ScopedClient client = container.getBean(ScopedClient.class);
+        assertTrue(container.isRequestScopeRequired());
+
+        // 请求之外取出的实例需要手动归还，归还前调用 reset
+        Buffer first = client.buffer.get();
+        first.content.append("dirty");
+        assertNotSame(first, client.buffer.get());
+        client.buffer.release(first);
+        assertEquals(1, first.resets);
+        assertEquals(0, first.content.length());
+
+        // 请求中取出的实例在请求结束时自动归还
+        RequestScope scope = container.beginRequest();
+        Buffer reused = client.buffer.get();
+        assertSame(first, reused);
+        scope.detach();
+        scope.destroy();
+        assertEquals(2, first.resets);
+
+        BeanPool pool = container.getBeanPools().get("buffer");
+        assertEquals(1, pool.getHitCount());
+        assertEquals(2, pool.getMissCount());
+        assertEquals(1, pool.getIdleCount());
+        assertThrows(BeanCreationException.class,
+                () -> new BeanDefinition("pooled", Buffer.class, false, false, BeanScope.SINGLETON, 4));
+    }
+
+    @Test
+    void requestScopedBeansAreBoundToRequest() {
+        BeanContainer container = new BeanContainer();
+        container.registerBeanDefinition(new BeanDefinition("context", RequestContext.class, false, false, BeanScope.REQUEST, 0));
+        container.registerBeanDefinition(new BeanDefinition("repository", Repository.class, false));
+        container.registerBeanDefinition(new BeanDefinition("client", ScopedClient.class, false));
+        container.registerBeanDefinition(new BeanDefinition("buffer", Buffer.class, false, false, BeanScope.PROTOTYPE, 0));
+        container.preInstantiateSingletons();
+        ScopedClient client = container.getBean(ScopedClient.class);
+
+        assertThrows(BeanCreationException.class, client.context::get);
+        RequestScope first = container.beginRequest();
+        RequestContext context = client.context.get();
+        assertSame(context, client.context.get());
+        assertSame(container.getBean("repository"), context.repository);
+        first.detach();
+        first.destroy();
+
+        RequestScope second = container.beginRequest();
+        assertNotSame(context, client.context.get());
+        second.detach();
+        assertThrows(BeanCreationException.class, client.context::get);
+
+        // 单例直接注入 request 作用域的 bean 时启动失败
+        BeanContainer eager = new BeanContainer();
+        eager.registerBeanDefinition(new BeanDefinition("context", RequestContext.class, false, false, BeanScope.REQUEST, 0));
+        eager.registerBeanDefinition(new BeanDefinition("repository", Repository.class, false));
+        eager.registerBeanDefinition(new BeanDefinition("client", EagerRequestClient.class, false));
+        assertThrows(BeanCreationException.class, eager::preInstantiateSingletons);
+    }
+
+    public static class ApiClient {
+        @ASAutowired
+        Api api;
+    }
+
+    public static class CircularApi implements Api {
+        @ASAutowired
+        ApiClient client;
+    }
+
+    @Test
+    void exposeWrappedBeansToDependents() {
+        BeanContainer container = new BeanContainer();
+        container.addBeanPostProcessor((beanName, bean) -> bean instanceof CircularApi ? new Api() {
+        } : bean);
+        container.registerBeanDefinition(new BeanDefinition("client", ApiClient.class, false));
+        container.registerBeanDefinition(new BeanDefinition("api", CircularApi.class, false));
+        container.preInstantiateSingletons();
+
+        // 创建期间注入的和最终发布的是同一个包装对象
+        Object api = container.getBean("api");
+        assertFalse(api instanceof CircularApi);
+        assertSame(api, container.getBean(ApiClient.class).api);
+    }
+
+    @Test
+    void aliasAndDuplicates() {
+        BeanContainer container = new BeanContainer();
+        container.registerBeanDefinition(new BeanDefinition("apiImpl", ApiImpl.class, false));
+        container.registerAlias(Api.class.getName(), "apiImpl");
+        container.preInstantiateSingletons();
+
+        assertSame(container.getBean("apiImpl"), container.getBean(Api.class.getName()));
+        assertNull(container.getBean("missing"));
+        assertThrows(BeanCreationException.class, () -> container.registerAlias(Api.class.getName(), "other"));
+        assertThrows(BeanCreationException.class,
+                () -> container.registerBeanDefinition(new BeanDefinition("apiImpl", ApiImpl.class, false)));
+    }
+}
@@ -0,0 +1,164 @@
+package com.codeashen.mvcframework.v3.cache;
+
+import com.codeashen.mvcframework.annotation.ASCacheable;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MethodCacheTest {
+
+    public interface Lookup {
+        String find(String name);
+
+        String describe(String name);
+
+        String join(String a, int b);
+
+        int sum(int[] values);
+
+        String missing(String name);
+
+        int calls();
+    }
+
+    public static class LookupImpl implements Lookup {
+        final AtomicInteger calls = new AtomicInteger();
+
+        @Override
+        @ASCacheable("names")
+        public String find(String name) {
+            calls.incrementAndGet();
+            return "found " + name;
+        }
+
+        @Override
+        @ASCacheable("names")
+        public String describe(String name) {
+            calls.incrementAndGet();
+            return "described " + name;
+        }
+
+        @Override
+        @ASCacheable
+        public String join(String a, int b) {
+            calls.incrementAndGet();
+            return a + b;
+        }
+
+        @Override
+        @ASCacheable
+        public int sum(int[] values) {
+            calls.incrementAndGet();
+            int sum = 0;
+            for (int value : values) {
+                sum += value;
+            }
+            return sum;
+        }
+
+        @Override
+        @ASCacheable
+        public String missing(String name) {
+            calls.incrementAndGet();
+            return null;
+        }
+
+        @Override
+        public int calls() {
+            return calls.get();
+        }
+    }
+
+    @Test
+    void frequentlyUsedEntriesSurviveScan() {
+        MethodCache cache = new MethodCache("test", 10, 0);
+        for (int i = 0; i < 5; i++) {
+            cache.put(i, "v" + i);
+        }
+        // 再次命中的条目晋升到保护区
+        for (int i = 0; i < 5; i++) {
+            assertEquals("v" + i, cache.get(i));
+        }
+        for (int i = 100; i < 200; i++) {
+            cache.put(i, "v" + i);
+        }
+        for (int i = 0; i < 5; i++) {
+            assertEquals("v" + i, cache.get(i));
+        }
+        assertEquals(10, cache.size());
+        assertEquals(95, cache.getEvictionCount());
+        assertEquals(10, cache.getHitCount());
+        assertNull(cache.get(100));
+        assertEquals(1, cache.getMissCount());
+    }
+
+    @Test
+    void expireAfterWrite() throws Exception {
+        MethodCache cache = new MethodCache("ttl", 100, 1);
+        cache.put("key", "value");
+        Thread.sleep(20);
+        assertNull(cache.get("key"));
+        assertEquals(1, cache.getExpirationCount());
+        assertEquals(0, cache.size());
+        assertThrows(IllegalArgumentException.class, () -> new MethodCache("invalid", 0, 0));
+    }
+
+    @Test
+    void singleArgumentIsTheKey() {
+        String arg = "name";
+        assertSame(arg, CacheKey.of(new Object[]{arg}));
+        assertSame(CacheKey.NULL, CacheKey.of(new Object[]{null}));
+        assertSame(CacheKey.EMPTY, CacheKey.of(null));
+        int[] values = {1, 2};
+        Object key = CacheKey.of(new Object[]{values});
+        values[0] = 9;
+        assertEquals(CacheKey.of(new Object[]{new int[]{1, 2}}), key);
+        assertEquals(CacheKey.of(new Object[]{"a", 1}), CacheKey.of(new Object[]{"a", 1}));
+    }
+
+    @Test
+    void sharedCacheKeysIncludeTheMethod() throws Exception {
+        Lookup lookup = (Lookup) new CacheableBeanPostProcessor().postProcess("lookup", new LookupImpl());
+        // find 和 describe 共用 names 缓存，相同参数的结果不会互相覆盖
+        assertEquals("found a", lookup.find("a"));
+        assertEquals("described a", lookup.describe("a"));
+        assertEquals("found a", lookup.find("a"));
+        assertEquals(2, lookup.calls());
+
+        Object[] args = {"a"};
+        assertEquals(CacheKey.of(Lookup.class.getMethod("find", String.class), args),
+                CacheKey.of(Lookup.class.getMethod("find", String.class), args));
+        assertNotEquals(CacheKey.of(Lookup.class.getMethod("find", String.class), args),
+                CacheKey.of(Lookup.class.getMethod("describe", String.class), args));
+    }
+
+    @Test
+    void proxyCachesAnnotatedMethods() {
+        CacheableBeanPostProcessor processor = new CacheableBeanPostProcessor();
+        LookupImpl target = new LookupImpl();
+        Lookup lookup = (Lookup) processor.postProcess("lookup", target);
+        assertNotSame(target, lookup);
+
+        assertEquals("found a", lookup.find("a"));
+        assertEquals("found a", lookup.find("a"));
+        assertEquals("x1", lookup.join("x", 1));
+        assertEquals("x1", lookup.join("x", 1));
+        assertEquals("x2", lookup.join("x", 2));
+        assertEquals(3, lookup.sum(new int[]{1, 2}));
+        assertEquals(3, lookup.sum(new int[]{1, 2}));
+        assertNull(lookup.missing("a"));
+        assertNull(lookup.missing("a"));
+        assertEquals(5, target.calls());
+        // 没有注解的方法直接转发
+        assertEquals(5, lookup.calls());
+
+        assertEquals(1, processor.getCaches().get("names").getHitCount());
+        assertEquals(2, processor.getCaches().get("lookup.join").getMissCount());
+        assertTrue(processor.getCaches().containsKey("lookup.sum"));
+        // 没有接口或没有注解的 bean 不需要代理
+        Object plain = new Object();
+        assertSame(plain, processor.postProcess("plain", plain));
+    }
+}
@@ -0,0 +1,86 @@
+package com.codeashen.mvcframework.v3.convert;
+
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Method;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConversionServiceTest {
+
+    private final ConversionService conversionService = new ConversionService();
+
+    @SuppressWarnings("unused")
+    public void sample(int i, Long l, boolean b, TimeUnit unit, int[] ints, List<Integer> list, String s,
+                       BigDecimal decimal, LocalDate date) {
+    }
+
+    @Test
+    void convertScalars() throws Exception {
+        ParameterConverter[] converters = converters();
+        assertEquals(12, converters[0].convert(new String[]{"12"}));
+        assertThrows(IllegalArgumentException.class, () -> converters[0].convert(null));
+        assertEquals(7L, converters[1].convert(new String[]{"7"}));
+        assertNull(converters[1].convert(null));
+        assertEquals(Boolean.TRUE, converters[2].convert(new String[]{"on"}));
+        assertEquals(TimeUnit.SECONDS, converters[3].convert(new String[]{"SECONDS"}));
+        assertEquals(TimeUnit.SECONDS, converters[3].convert(new String[]{"seconds"}));
+        assertEquals("a,b", converters[6].convert(new String[]{"a", "b"}));
+        assertEquals(new BigDecimal("1.50"), converters[7].convert(new String[]{"1.50"}));
+        assertEquals(LocalDate.of(2020, 1, 2), converters[8].convert(new String[]{"2020-01-02"}));
+    }
+
+    @Test
+    void rejectInvalidBooleanAndMissingPrimitive() throws Exception {
+        ParameterConverter[] converters = converters();
+        assertEquals(Boolean.FALSE, converters[2].convert(new String[]{"Off"}));
+        assertThrows(IllegalArgumentException.class, () -> converters[2].convert(new String[]{"maybe"}));
+        assertThrows(IllegalArgumentException.class, () -> converters[2].convert(new String[0]));
+        assertThrows(IllegalArgumentException.class, () -> conversionService.getConverter(char.class).convert(""));
+        assertNull(conversionService.getConverter(Character.class).convert(""));
+    }
+
+    @Test
+    void convertMultiValues() throws Exception {
+        ParameterConverter[] converters = converters();
+        assertArrayEquals(new int[]{1, 2, 3}, (int[]) converters[4].convert(new String[]{"1", "2", "3"}));
+        assertEquals(Arrays.asList(4, 5), converters[5].convert(new String[]{"4", "5"}));
+    }
+
+    @Test
+    void convertRegionWithoutSubstring() {
+        String path = "/users/ 42/orders/-9223372036854775808/x";
+        assertEquals(42, conversionService.getConverter(int.class).convert(path, 7, 10));
+        assertEquals(Long.MIN_VALUE, conversionService.getConverter(Long.class).convert(path, 18, 38));
+        assertEquals("orders", conversionService.getConverter(String.class).convert(path, 11, 17));
+        assertThrows(NumberFormatException.class, () -> conversionService.getConverter(int.class).convert(path, 18, 38));
+        assertThrows(NumberFormatException.class, () -> conversionService.getConverter(int.class).convert(path, 39, 40));
+    }
+
+    @Test
+    void customConverter() {
+        conversionService.register(StringBuilder.class, StringBuilder::new);
+        Object value = conversionService.getConverter(StringBuilder.class).convert("abc");
+        assertEquals("abc", value.toString());
+    }
+
+    private ParameterConverter[] converters() throws Exception {
+        Method method = null;
+        for (Method m : getClass().getMethods()) {
+            if (m.getName().equals("sample")) {
+                method = m;
+            }
+        }
+        Class<?>[] types = method.getParameterTypes();
+        ParameterConverter[] converters = new ParameterConverter[types.length];
+        for (int i = 0; i < types.length; i++) {
+            converters[i] = conversionService.getParameterConverter(types[i], method.getGenericParameterTypes()[i]);
+        }
+        return converters;
+    }
+}
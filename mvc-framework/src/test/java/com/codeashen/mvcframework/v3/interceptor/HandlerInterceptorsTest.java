@@ -0,0 +1,54 @@
+package com.codeashen.mvcframework.v3.interceptor;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HandlerInterceptorsTest {
+
+    @Test
+    void matchPathPatterns() {
+        assertTrue(HandlerInterceptors.matches("/**", "/"));
+        assertTrue(HandlerInterceptors.matches("/**", "/demo/query"));
+        assertTrue(HandlerInterceptors.matches("/demo/*", "/demo/query"));
+        assertFalse(HandlerInterceptors.matches("/demo/*", "/demo/users/1"));
+        assertTrue(HandlerInterceptors.matches("/demo/**/orders/*", "/demo/users/{id}/orders/{orderId}"));
+        assertTrue(HandlerInterceptors.matches("/demo/q*y", "/demo/query"));
+        assertTrue(HandlerInterceptors.matches("/demo/?dd", "/demo/add"));
+        assertFalse(HandlerInterceptors.matches("/demo/?dd", "/demo/addJson"));
+        assertTrue(HandlerInterceptors.matches("/demo/**", "/demo"));
+    }
+
+    @Test
+    void resolveChainByOrderAndPattern() {
+        ASHandlerInterceptor all = interceptor(new String[]{"/**"}, new String[]{"/health"}, 0);
+        ASHandlerInterceptor auth = interceptor(new String[]{"/admin/**"}, new String[0], -1);
+        ASHandlerInterceptor trace = interceptor(new String[]{"/**"}, new String[0], 0);
+        HandlerInterceptors interceptors = new HandlerInterceptors(Arrays.asList(all, auth, trace));
+
+        assertArrayEquals(new ASHandlerInterceptor[]{auth, all, trace}, interceptors.getInterceptors("/admin/users"));
+        assertArrayEquals(new ASHandlerInterceptor[]{trace}, interceptors.getInterceptors("/health"));
+        assertSame(HandlerInterceptors.EMPTY, new HandlerInterceptors(Arrays.asList(auth)).getInterceptors("/health"));
+    }
+
+    private static ASHandlerInterceptor interceptor(String[] includes, String[] excludes, int order) {
+        return new ASHandlerInterceptor() {
+            @Override
+            public String[] getPathPatterns() {
+                return includes;
+            }
+
+            @Override
+            public String[] getExcludePathPatterns() {
+                return excludes;
+            }
+
+            @Override
+            public int getOrder() {
+                return order;
+            }
+        };
+    }
+}
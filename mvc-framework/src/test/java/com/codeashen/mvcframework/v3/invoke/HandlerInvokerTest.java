@@ -0,0 +1,117 @@
+package com.codeashen.mvcframework.v3.invoke;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HandlerInvokerTest {
+
+    private static final String[] TYPES = {
+            HandlerInvokerFactory.GENERATED, HandlerInvokerFactory.METHOD_HANDLE, HandlerInvokerFactory.REFLECTION
+    };
+
+    public static class SampleController {
+        public String last;
+
+        public String concat(String a, Integer b, int c) {
+            return a + b + c;
+        }
+
+        public long sum(long a, double b, boolean add) {
+            return add ? a + (long) b : a;
+        }
+
+        public void remember(String[] values) {
+            last = String.join(",", values);
+        }
+
+        public String fail(String message) throws IOException {
+            throw new IOException(message);
+        }
+    }
+
+    @Test
+    void methodHandleIsDefaultAndGeneratedIsOptIn() throws Exception {
+        assertTrue(HandlerInvokerFactory.create(null, new SampleController(), method("concat")) instanceof MethodHandleInvoker);
+        HandlerInvoker invoker = HandlerInvokerFactory.create(HandlerInvokerFactory.GENERATED, new SampleController(),
+                method("concat"));
+        assertFalse(invoker instanceof MethodHandleInvoker);
+        assertFalse(invoker instanceof ReflectiveInvoker);
+    }
+
+    @Test
+    void generatedInvokerForManyParametersInChildLoader(@TempDir Path dir) throws Exception {
+        // 超过 127 个参数时下标需要 sipush；控制器由单独的类加载器加载，模拟热加载
+        int count = 200;
+        StringBuilder source = new StringBuilder("package gen;\npublic class Wide {\n    public String last(");
+        for (int i = 0; i < count; i++) {
+            source.append(i == 0 ? "" : ", ").append("String p").append(i);
+        }
+        source.append(") {\n        return p").append(count - 1).append(";\n    }\n}\n");
+        Path file = Files.createDirectories(dir.resolve("gen")).resolve("Wide.java");
+        Files.write(file, source.toString().getBytes(StandardCharsets.UTF_8));
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        assertEquals(0, compiler.run(null, null, null, "-proc:none", "-d", dir.toString(), file.toString()));
+
+        try (URLClassLoader loader = new URLClassLoader(new URL[]{dir.toUri().toURL()}, getClass().getClassLoader())) {
+            Class<?> clazz = loader.loadClass("gen.Wide");
+            Object target = clazz.getConstructor().newInstance();
+            Class<?>[] types = new Class<?>[count];
+            Arrays.fill(types, String.class);
+            HandlerInvoker invoker = HandlerInvokerFactory.create(HandlerInvokerFactory.GENERATED, target,
+                    clazz.getMethod("last", types));
+            assertFalse(invoker instanceof MethodHandleInvoker);
+            // 生成类的加载器以控制器的类加载器为父加载器，不被全局缓存持有
+            assertSame(loader, invoker.getClass().getClassLoader().getParent());
+            Object[] args = new Object[count];
+            for (int i = 0; i < count; i++) {
+                args[i] = "v" + i;
+            }
+            assertEquals("v" + (count - 1), invoker.invoke(args));
+        }
+    }
+
+    @Test
+    void invokeAllTypes() throws Exception {
+        for (String type : TYPES) {
+            SampleController controller = new SampleController();
+            assertEquals("a12", HandlerInvokerFactory.create(type, controller, method("concat"))
+                    .invoke(new Object[]{"a", 1, 2}), type);
+            assertEquals(5L, HandlerInvokerFactory.create(type, controller, method("sum"))
+                    .invoke(new Object[]{2L, 3.5D, true}), type);
+            assertNull(HandlerInvokerFactory.create(type, controller, method("remember"))
+                    .invoke(new Object[]{new String[]{"x", "y"}}), type);
+            assertEquals("x,y", controller.last, type);
+        }
+    }
+
+    @Test
+    void exceptionIsNotWrapped() throws Exception {
+        for (String type : TYPES) {
+            HandlerInvoker invoker = HandlerInvokerFactory.create(type, new SampleController(), method("fail"));
+            IOException e = assertThrows(IOException.class, () -> invoker.invoke(new Object[]{"boom"}), type);
+            assertEquals("boom", e.getMessage());
+        }
+    }
+
+    private static Method method(String name) {
+        for (Method method : SampleController.class.getMethods()) {
+            if (method.getName().equals(name)) {
+                return method;
+            }
+        }
+        throw new IllegalArgumentException(name);
+    }
+}
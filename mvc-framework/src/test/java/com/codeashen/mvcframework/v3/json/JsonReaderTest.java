@@ -0,0 +1,114 @@
+package com.codeashen.mvcframework.v3.json;
+
+import com.codeashen.mvcframework.v3.convert.ConversionService;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JsonReaderTest {
+
+    private final JsonReader json = new JsonReader(new ConversionService());
+
+    @Test
+    void readBeanWithNestedTypes() throws Exception {
+        Order order = (Order) read("{\"id\": 7, \"amount\": 12.5, \"paid\": true, \"unknown\": {\"a\": [1, null]},"
+                + " \"customer\": \"张三\\n\", \"unit\": \"seconds\", \"date\": \"2024-01-02\", \"price\": \"9.90\","
+                + " \"items\": [{\"name\": \"a\", \"count\": 1}, {\"name\": \"b\", \"count\": 2}],"
+                + " \"tags\": [3, 4], \"attributes\": {\"k\": [1, 2.5, \"x\", false]}, \"createdAt\": 100}", Order.class);
+        assertEquals(7, order.id);
+        assertEquals(12.5, order.amount);
+        assertTrue(order.paid);
+        assertEquals("张三\n", order.customer);
+        assertEquals(TimeUnit.SECONDS, order.unit);
+        assertEquals(LocalDate.of(2024, 1, 2), order.date);
+        assertEquals(new BigDecimal("9.90"), order.price);
+        assertEquals(2, order.items.size());
+        assertEquals("b", order.items.get(1).name);
+        assertEquals(2, order.items.get(1).count);
+        assertArrayEquals(new int[]{3, 4}, order.tags);
+        assertEquals(Arrays.asList(1L, 2.5, "x", false), order.attributes.get("k"));
+        assertEquals(100, order.createdAt);
+    }
+
+    @Test
+    void readGenericTypes() throws Exception {
+        Type listOfItems = Holder.class.getDeclaredField("items").getGenericType();
+        @SuppressWarnings("unchecked")
+        List<Item> items = (List<Item>) read("[{\"name\":\"a\"}, null]", listOfItems);
+        assertEquals("a", items.get(0).name);
+        assertNull(items.get(1));
+
+        Type mapOfSets = Holder.class.getDeclaredField("index").getGenericType();
+        assertEquals(Collections.singletonMap(1, Collections.singleton(2L)), read("{\"1\": [2, 2]}", mapOfSets));
+        assertArrayEquals(new long[]{Long.MIN_VALUE, Long.MAX_VALUE},
+                (long[]) read("[-9223372036854775808, 9223372036854775807]", long[].class));
+        assertEquals(0, read("null", int.class));
+        assertNull(read("  ", Item.class));
+    }
+
+    @Test
+    void parseAcrossSmallBuffer() throws Exception {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 50; i++) {
+            text.append("中😀");
+        }
+        String body = "{\"name\": \"" + text + "\", \"count\": 123456}";
+        Item item = (Item) json.read(new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)), Item.class, new byte[3]);
+        assertEquals(text.toString(), item.name);
+        assertEquals(123456, item.count);
+    }
+
+    @Test
+    void rejectMalformedJson() {
+        assertThrows(JsonException.class, () -> read("{\"id\": 1", Order.class));
+        assertThrows(JsonException.class, () -> read("{\"id\": 1.5}", Order.class));
+        assertThrows(JsonException.class, () -> read("{\"id\": 99999999999}", Order.class));
+        assertThrows(JsonException.class, () -> read("[1] [2]", int[].class));
+        assertThrows(JsonException.class, () -> read("\"abc", String.class));
+        assertThrows(JsonException.class, () -> json.getBinding(Runnable.class));
+    }
+
+    private Object read(String body, Type type) throws IOException {
+        return json.read(new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)), type, new byte[16]);
+    }
+
+    static class Base {
+        long createdAt;
+    }
+
+    static class Order extends Base {
+        int id;
+        double amount;
+        boolean paid;
+        String customer;
+        TimeUnit unit;
+        LocalDate date;
+        BigDecimal price;
+        List<Item> items;
+        int[] tags;
+        Map<String, Object> attributes;
+    }
+
+    static class Item {
+        String name;
+        int count;
+    }
+
+    static class Holder {
+        List<Item> items;
+        Map<Integer, Set<Long>> index;
+    }
+}
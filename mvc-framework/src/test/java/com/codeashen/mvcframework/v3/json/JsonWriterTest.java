@@ -0,0 +1,115 @@
+package com.codeashen.mvcframework.v3.json;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JsonWriterTest {
+
+    private final JsonWriter json = new JsonWriter();
+
+    @Test
+    void writeScalars() {
+        assertEquals("null", json.toJson(null));
+        assertEquals("\"a\\\"b\\\\c\\n\\u0001\"", json.toJson("a\"b\\c\n\u0001"));
+        assertEquals("-9223372036854775808", json.toJson(Long.MIN_VALUE));
+        assertEquals("-42", json.toJson(-42));
+        assertEquals("1.5", json.toJson(1.5d));
+        assertEquals("2.0", json.toJson(2d));
+        assertEquals("-0.0", json.toJson(-0.0d));
+        assertEquals("0.0", json.toJson(0.0d));
+        assertEquals("-3.0", json.toJson(-3d));
+        assertEquals("null", json.toJson(Double.NaN));
+        assertEquals("0.1", json.toJson(0.1f));
+        assertEquals("12.30", json.toJson(new BigDecimal("12.30")));
+        assertEquals("true", json.toJson(true));
+        assertEquals("\"SECONDS\"", json.toJson(java.util.concurrent.TimeUnit.SECONDS));
+    }
+
+    @Test
+    void encodeUtf8WithoutIntermediateString() {
+        assertEquals("\"中文😀\"", json.toJson("中文😀"));
+        // 不成对的代理字符转义输出
+        assertEquals("\"\\ud800\"", json.toJson("\ud800"));
+    }
+
+    @Test
+    void writeBeanFieldsInDeclarationOrder() {
+        Order order = new Order();
+        order.id = 7;
+        order.amount = 0.25;
+        order.paid = true;
+        order.code = 'x';
+        order.customer = "张三";
+        order.items = Arrays.asList(new Item("a", 1), new Item("b", 2));
+        order.tags = new int[]{1, 2};
+        order.note = Optional.empty();
+        assertEquals("{\"createdAt\":0,\"id\":7,\"amount\":0.25,\"paid\":true,\"code\":\"x\",\"customer\":\"张三\","
+                + "\"items\":[{\"name\":\"a\",\"count\":1},{\"name\":\"b\",\"count\":2}],\"tags\":[1,2],"
+                + "\"attributes\":null,\"note\":null}", json.toJson(order));
+
+        Map<Object, Object> map = new LinkedHashMap<>();
+        map.put(1, order.items.get(0));
+        map.put("k", null);
+        assertEquals("{\"1\":{\"name\":\"a\",\"count\":1},\"k\":null}", json.toJson(map));
+    }
+
+    @Test
+    void flushThroughSmallBuffer() throws Exception {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 100; i++) {
+            text.append("中");
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        json.write(Arrays.asList(text, Long.MAX_VALUE, text), out, new byte[32]);
+        assertEquals(json.toJson(Arrays.asList(text, Long.MAX_VALUE, text)),
+                new String(out.toByteArray(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void rejectCircularReference() {
+        Node node = new Node();
+        node.next = node;
+        assertThrows(JsonException.class, () -> json.toJson(node));
+    }
+
+    static class Base {
+        long createdAt;
+        static int ignoredStatic = 1;
+    }
+
+    static class Order extends Base {
+        int id;
+        double amount;
+        boolean paid;
+        char code;
+        String customer;
+        java.util.List<Item> items;
+        int[] tags;
+        Map<String, Object> attributes;
+        Optional<String> note;
+        transient String ignored = "ignored";
+    }
+
+    static final class Item {
+        final String name;
+        final int count;
+
+        Item(String name, int count) {
+            this.name = name;
+            this.count = count;
+        }
+    }
+
+    static class Node {
+        Node next;
+    }
+}
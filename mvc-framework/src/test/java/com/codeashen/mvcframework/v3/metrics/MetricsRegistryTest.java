@@ -0,0 +1,62 @@
+package com.codeashen.mvcframework.v3.metrics;
+
+import com.codeashen.mvcframework.v3.router.Router;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MetricsRegistryTest {
+
+    @Test
+    void histogramBucketsKeepRelativeError() {
+        for (long value : new long[]{0, 7, 8, 15, 16, 1000, 123456789, 1L << 36}) {
+            long upper = LatencyHistogram.highestEquivalentValue(LatencyHistogram.indexOf(value));
+            assertTrue(upper >= value, "upper bound of " + value);
+            assertTrue(upper - value <= value / 8, "relative error of " + value);
+        }
+        assertEquals(LatencyHistogram.BUCKETS - 1, LatencyHistogram.indexOf(Long.MAX_VALUE));
+    }
+
+    @Test
+    void histogramQuantiles() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        assertArrayEquals(new long[]{0, 0}, histogram.getValuesAtQuantiles(0.5, 0.99));
+        for (int i = 1; i <= 100; i++) {
+            histogram.record(i * 1000L);
+        }
+        long[] values = histogram.getValuesAtQuantiles(0.5, 0.99, 1.0);
+        assertEquals(50000, values[0], 50000 / 8);
+        assertEquals(99000, values[1], 99000 / 8);
+        assertEquals(100000, values[2], 100000 / 8);
+        assertEquals(100, histogram.getCount());
+        assertEquals(5050000, histogram.getSum());
+    }
+
+    @Test
+    void writePrometheusText() throws Exception {
+        Router<String> router = new Router<>(16);
+        router.add("/a", "a");
+        MetricsRegistry registry = new MetricsRegistry(router);
+        HandlerMetrics metrics = registry.register("/a/.*\\.json", "DemoController#query");
+        metrics.record(200, 2_000_000, 1000);
+        metrics.record(500, 4_000_000, 1000);
+        metrics.recordError();
+        metrics.recordTimeout();
+        registry.recordNotFound();
+        router.match("/a");
+
+        StringBuilder out = new StringBuilder();
+        registry.writePrometheus(out);
+        String text = out.toString();
+        String labels = "path=\"/a/.*\\\\.json\",handler=\"DemoController#query\"";
+        assertTrue(text.contains("# TYPE mvc_request_duration_seconds summary\n"), text);
+        assertTrue(text.contains("mvc_request_duration_seconds_count{" + labels + ",status=\"2xx\"} 1\n"), text);
+        assertTrue(text.contains("mvc_request_duration_seconds_sum{" + labels + ",status=\"5xx\"} 0.004\n"), text);
+        assertFalse(text.contains("status=\"4xx\""), text);
+        assertTrue(text.contains("mvc_binding_duration_seconds_count{" + labels + "} 2\n"), text);
+        assertTrue(text.contains("mvc_request_errors_total{" + labels + "} 1\n"), text);
+        assertTrue(text.contains("mvc_request_timeouts_total{" + labels + "} 1\n"), text);
+        assertTrue(text.contains("mvc_not_found_total 1\n"), text);
+        assertTrue(text.contains("mvc_route_exact_hits_total 1\n"), text);
+    }
+}
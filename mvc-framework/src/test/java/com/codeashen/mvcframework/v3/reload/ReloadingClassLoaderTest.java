@@ -0,0 +1,39 @@
+package com.codeashen.mvcframework.v3.reload;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReloadingClassLoaderTest {
+
+    public static class Sample {
+    }
+
+    @Test
+    void loadChangedClassFromFile() throws Exception {
+        Path file = Paths.get(Sample.class.getResource("ReloadingClassLoaderTest$Sample.class").toURI());
+        ClassLoader parent = getClass().getClassLoader();
+        ReloadingClassLoader loader = new ReloadingClassLoader(parent, Collections.singletonMap(Sample.class.getName(), file));
+
+        Class<?> reloaded = Class.forName(Sample.class.getName(), false, loader);
+        assertNotSame(Sample.class, reloaded);
+        assertSame(loader, reloaded.getClassLoader());
+        assertSame(reloaded, loader.loadClass(Sample.class.getName()));
+        // 没有变化的类仍由父加载器加载
+        assertSame(ReloadingClassLoaderTest.class, loader.loadClass(ReloadingClassLoaderTest.class.getName()));
+        // 下一次热加载以上一次的加载器为父加载器，仍然拿到最新的版本
+        ReloadingClassLoader next = new ReloadingClassLoader(loader, Collections.emptyMap());
+        assertSame(reloaded, next.loadClass(Sample.class.getName()));
+    }
+
+    @Test
+    void classNameFromClassFile() {
+        Path root = Paths.get("target", "classes");
+        Path file = root.resolve(Paths.get("com", "example", "Foo$Bar.class"));
+        assertEquals("com.example.Foo$Bar", ClassFileWatcher.className(root, file));
+    }
+}
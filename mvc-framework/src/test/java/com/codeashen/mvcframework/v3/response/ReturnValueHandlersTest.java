@@ -0,0 +1,132 @@
+package com.codeashen.mvcframework.v3.response;
+
+import com.codeashen.mvcframework.annotation.ASResponseBody;
+import com.codeashen.mvcframework.v3.json.JsonWriter;
+import com.codeashen.mvcframework.v3.servlet.HandlerFixtures.CapturingResponse;
+import org.junit.jupiter.api.Test;
+
+import javax.servlet.http.HttpServletResponse;
+import java.io.ByteArrayInputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReturnValueHandlersTest {
+
+    private final ReturnValueHandlers handlers = new ReturnValueHandlers(Collections.<ReturnValueHandler>emptyList(),
+            new BufferPool(4, 2), new JsonWriter());
+
+    @Test
+    void selectHandlerByDeclaredReturnType() throws Exception {
+        assertNull(handlers.getHandler(Samples.class.getMethod("none")));
+        assertTrue(handlers.getHandler(Samples.class.getMethod("text")) instanceof CharSequenceReturnValueHandler);
+        assertTrue(handlers.getHandler(Samples.class.getMethod("bytes")) instanceof ByteArrayReturnValueHandler);
+        assertTrue(handlers.getHandler(Samples.class.getMethod("stream")) instanceof ChunkedReturnValueHandler);
+        assertTrue(handlers.getHandler(Samples.class.getMethod("number")) instanceof ObjectReturnValueHandler);
+    }
+
+    @Test
+    void dispatchOnRuntimeTypeWhenDeclaredAsObject() throws Exception {
+        ReturnValueHandler handler = handlers.getHandler(Samples.class.getMethod("any"));
+        CapturingResponse exchange = new CapturingResponse();
+        handler.handleReturnValue("hello".getBytes(StandardCharsets.UTF_8), exchange.proxy);
+        assertEquals("hello", exchange.body());
+        assertEquals(5, exchange.contentLength);
+        assertEquals("application/octet-stream", exchange.contentType);
+    }
+
+    @Test
+    void writeText() throws Exception {
+        CapturingResponse exchange = new CapturingResponse();
+        handlers.handleReturnValue("中文", exchange.proxy);
+        assertEquals("中文", exchange.body());
+        assertEquals("text/plain;charset=UTF-8", exchange.contentType);
+    }
+
+    @Test
+    void streamWithReusableBuffer() throws Exception {
+        byte[] content = "streamed in chunks".getBytes(StandardCharsets.UTF_8);
+        CapturingResponse exchange = new CapturingResponse();
+        handlers.handleReturnValue(new ByteArrayInputStream(content), exchange.proxy);
+        assertEquals("streamed in chunks", exchange.body());
+
+        CapturingResponse channel = new CapturingResponse();
+        handlers.handleReturnValue(Channels.newChannel(new ByteArrayInputStream(content)), channel.proxy);
+        assertEquals("streamed in chunks", channel.body());
+
+        CapturingResponse direct = new CapturingResponse();
+        ByteBuffer buffer = ByteBuffer.allocateDirect(content.length);
+        buffer.put(content).flip();
+        handlers.handleReturnValue(buffer, direct.proxy);
+        assertEquals("streamed in chunks", direct.body());
+        assertEquals(content.length, direct.contentLength);
+    }
+
+    @Test
+    void writeChunkPerElement() throws Exception {
+        CapturingResponse exchange = new CapturingResponse();
+        handlers.handleReturnValue(Stream.of("a", "b", "c"), exchange.proxy);
+        assertEquals("abc", exchange.body());
+        assertEquals(3, exchange.flushes);
+
+        CapturingResponse iterator = new CapturingResponse();
+        handlers.handleReturnValue(Arrays.asList("x", null, "y").iterator(), iterator.proxy);
+        assertEquals("xy", iterator.body());
+    }
+
+    @Test
+    void customHandlerComesFirst() throws Exception {
+        ReturnValueHandler upperCase = new ReturnValueHandler() {
+            @Override
+            public boolean supportsReturnType(Class<?> returnType) {
+                return returnType == String.class;
+            }
+
+            @Override
+            public void handleReturnValue(Object returnValue, HttpServletResponse resp) throws Exception {
+                resp.getWriter().write(returnValue.toString().toUpperCase());
+            }
+        };
+        ReturnValueHandlers custom = new ReturnValueHandlers(Collections.singletonList(upperCase), new BufferPool(4, 2),
+                new JsonWriter());
+        assertSame(upperCase, custom.getHandler(Samples.class.getMethod("text")));
+    }
+
+    @Test
+    void responseBodyWritesJson() throws Exception {
+        ReturnValueHandlers json = new ReturnValueHandlers(Collections.<ReturnValueHandler>emptyList(),
+                new BufferPool(64, 2), new JsonWriter());
+        ReturnValueHandler handler = json.getHandler(JsonSamples.class.getMethod("text"));
+        assertTrue(handler instanceof JsonReturnValueHandler);
+        assertSame(handler, json.getAsyncResultHandler(JsonSamples.class.getMethod("text")));
+
+        CapturingResponse exchange = new CapturingResponse();
+        handler.handleReturnValue("say \"hi\"", exchange.proxy);
+        assertEquals("\"say \\\"hi\\\"\"", exchange.body());
+        assertEquals("application/json;charset=UTF-8", exchange.contentType);
+    }
+
+    @ASResponseBody
+    public interface JsonSamples {
+        String text();
+    }
+
+    public interface Samples {
+        void none();
+
+        String text();
+
+        byte[] bytes();
+
+        Stream<String> stream();
+
+        Integer number();
+
+        Object any();
+    }
+}
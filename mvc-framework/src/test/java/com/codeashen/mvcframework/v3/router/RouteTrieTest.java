@@ -0,0 +1,134 @@
+package com.codeashen.mvcframework.v3.router;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RouteTrieTest {
+
+    private static final String[] PATTERNS = {
+            "/demo/query",
+            "/demo/add",
+            "/demo/.*",
+            "/demo/quer(y)",
+            "/demo/item/[0-9]+",
+            "/demo/item/(\\w+)/detail",
+            "/demo/*abc",
+            "/static/.*|/assets/.*",
+            "/user/(a|b)/info",
+            "/",
+    };
+
+    private static final String[] URLS = {
+            "/demo/query", "/demo/add", "/demo/remove", "/demo/item/12", "/demo/item/x1/detail",
+            "/demoabc", "/demo//abc", "/static/a.js", "/assets/b.css", "/user/a/info", "/user/c/info",
+            "/", "", "/demo", "/demo/", "/none", "/demo/query/",
+    };
+
+    @Test
+    void matchSameAsListScan() {
+        RouteTrie<String> trie = new RouteTrie<>();
+        List<Pattern> list = new ArrayList<>();
+        for (String pattern : PATTERNS) {
+            trie.add(pattern, pattern + "#" + list.size());
+            list.add(Pattern.compile(pattern));
+        }
+        for (String url : URLS) {
+            String expected = null;
+            for (int i = 0; i < list.size(); i++) {
+                if (list.get(i).matcher(url).matches()) {
+                    expected = PATTERNS[i] + "#" + i;
+                    break;
+                }
+            }
+            RouteMatch<String> match = trie.match(url);
+            assertEquals(expected, match == null ? null : match.getTarget(), url);
+        }
+    }
+
+    @Test
+    void extractGroups() {
+        RouteTrie<String> trie = new RouteTrie<>();
+        trie.add("/demo/item/(\\w+)/detail", "detail");
+        RouteMatch<String> match = trie.match("/demo/item/x1/detail");
+        assertNotNull(match);
+        assertEquals(1, match.getVariableCount());
+        assertEquals("x1", match.getVariable(0));
+    }
+
+    @Test
+    void thousandsOfLiteralRoutes() {
+        RouteTrie<Integer> trie = new RouteTrie<>();
+        for (int i = 0; i < 5000; i++) {
+            trie.add("/c" + (i % 50) + "/m" + i, i);
+        }
+        assertEquals(5000, trie.size());
+        assertEquals(Integer.valueOf(4321), trie.match("/c21/m4321").getTarget());
+        assertNull(trie.match("/c21/m4322"));
+    }
+
+    @Test
+    void matchPathTemplates() {
+        RouteTrie<String> trie = new RouteTrie<>();
+        trie.add("/users/{id}", "user");
+        trie.add("/users/me", "me");
+        trie.add("/users/{id}/orders/{orderId}", "order");
+        trie.add("/users/{id}/orders/latest", "latest");
+        trie.add("/v1.0/{name}", "dot");
+        trie.add("/users/[0-9]+/avatar", "avatar");
+
+        assertEquals("me", trie.match("/users/me").getTarget());
+        assertFalse(trie.match("/users/me").isTemplate());
+
+        RouteMatch<String> match = trie.match("/users/42/orders/7");
+        assertEquals("order", match.getTarget());
+        assertTrue(match.isTemplate());
+        assertEquals(2, match.getVariableCount());
+        assertEquals(7, match.getVariableStart(0));
+        assertEquals(9, match.getVariableEnd(0));
+        assertEquals("42", match.getVariable(0));
+        assertEquals("7", match.getVariable(1));
+
+        // 字面量分支走不通时回溯到变量分支
+        RouteMatch<String> latest = trie.match("/users/me/orders/latest");
+        assertEquals("latest", latest.getTarget());
+        assertEquals("me", latest.getVariable(0));
+
+        assertEquals("x", trie.match("/v1.0/x").getVariable(0));
+        assertNull(trie.match("/v1x0/x"));
+        assertEquals("avatar", trie.match("/users/1/avatar").getTarget());
+        assertNull(trie.match("/users/"));
+        assertNull(trie.match("/users/1/orders"));
+    }
+
+    @Test
+    void parseTemplateVariables() {
+        assertArrayEquals(new String[]{"id", "orderId"}, RouteTrie.getVariableNames("/users/{id}/orders/{orderId}"));
+        assertArrayEquals(new String[0], RouteTrie.getVariableNames("/item/[0-9]{2}"));
+        assertFalse(RouteTrie.isTemplate("/users/{id}/.*"));
+        assertFalse(RouteTrie.isTemplate("/users/{1}"));
+        assertEquals("/users/{}/orders/{}", RouteTrie.getShape("/users/{id}/orders/{orderId}"));
+        assertEquals(RouteTrie.getShape("/users/{id}"), RouteTrie.getShape("/users/{uid}"));
+        assertEquals("/item/[0-9]{2}", RouteTrie.getShape("/item/[0-9]{2}"));
+    }
+
+    @Test
+    void rejectAmbiguousMappings() {
+        RouteTrie<String> trie = new RouteTrie<>();
+        trie.add("/users/{id}", "user");
+        trie.add("/users/list", "list");
+        // 只有变量名不同的模板和重复的字面量都无法区分，注册时报错而不是静默丢弃
+        assertThrows(IllegalStateException.class, () -> trie.add("/users/{uid}", "other"));
+        assertThrows(IllegalStateException.class, () -> trie.add("/users/list", "other"));
+        assertEquals(2, trie.size());
+        assertEquals("user", trie.match("/users/1").getTarget());
+        assertEquals("list", trie.match("/users/list").getTarget());
+        // 形状不同的模板可以共存
+        trie.add("/users/{id}/orders/{orderId}", "order");
+        assertEquals("order", trie.match("/users/1/orders/2").getTarget());
+    }
+}
@@ -0,0 +1,61 @@
+package com.codeashen.mvcframework.v3.router;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RouterTest {
+
+    @Test
+    void exactMatchRespectsEarlierRegex() {
+        Router<String> router = new Router<>(16);
+        router.add("/demo/.*", "regex");
+        router.add("/demo/query", "literal");
+        router.add("/other", "other");
+        assertEquals("regex", router.match("/demo/query").getTarget());
+        assertEquals("other", router.match("/other").getTarget());
+        assertEquals(2, router.getExactHitCount());
+    }
+
+    @Test
+    void cachePatternAndMissResults() {
+        Router<String> router = new Router<>(16);
+        router.add("/item/([0-9]+)", "item");
+        assertEquals("7", router.match("/item/7").getVariable(0));
+        assertEquals("7", router.match("/item/7").getVariable(0));
+        assertNull(router.match("/none"));
+        assertNull(router.match("/none"));
+        assertEquals(2, router.getCacheHitCount());
+        assertEquals(2, router.getCacheMissCount());
+        assertEquals(0.5D, router.getCacheHitRate());
+    }
+
+    @Test
+    void templateMatchesAreNotCached() {
+        Router<String> router = new Router<>(16);
+        router.add("/users/{id}", "user");
+        assertEquals("1", router.match("/users/1").getVariable(0));
+        assertEquals("1", router.match("/users/1").getVariable(0));
+        assertEquals(0, router.getCacheHitCount());
+    }
+
+    @Test
+    void lruEvictsEldest() {
+        LruCache<Integer, Integer> cache = new LruCache<>(16);
+        for (int i = 0; i < 1000; i++) {
+            cache.put(i, i);
+        }
+        assertTrue(cache.size() <= 16);
+        assertEquals(Integer.valueOf(999), cache.get(999));
+    }
+
+    @Test
+    void lookupPath() {
+        String uri = "/demo/query";
+        assertSame(uri, UrlPathHelper.getLookupPath(uri, ""));
+        assertEquals("/demo/query", UrlPathHelper.getLookupPath("/app/demo/query", "/app"));
+        assertEquals("/demo/query", UrlPathHelper.getLookupPath("/app//demo///query", "/app"));
+        assertEquals("/demo/", UrlPathHelper.getLookupPath("//demo//", null));
+        assertEquals("", UrlPathHelper.getLookupPath("/app", "/app"));
+    }
+}
@@ -0,0 +1,89 @@
+package com.codeashen.mvcframework.v3.scan;
+
+import com.codeashen.mvcframework.annotation.ASController;
+import com.codeashen.mvcframework.annotation.ASService;
+import com.codeashen.mvcframework.v3.scan.fixture.SampleController;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.List;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ClassPathScannerTest {
+
+    private static final String FIXTURE_PACKAGE = "com.codeashen.mvcframework.v3.scan.fixture";
+    private static final List<String> ANNOTATIONS = Arrays.asList(ASController.class.getName(), ASService.class.getName());
+    private static final List<String> EXPECTED = Arrays.asList(
+            FIXTURE_PACKAGE + ".SampleController",
+            FIXTURE_PACKAGE + ".SampleService",
+            FIXTURE_PACKAGE + ".sub.NestedController",
+            FIXTURE_PACKAGE + ".sub.NestedController$Inner");
+
+    @Test
+    void readAnnotationsFromClassBytes() throws Exception {
+        try (InputStream in = SampleController.class.getResourceAsStream("SampleController.class")) {
+            ClassFileReader.ClassMetadata metadata = ClassFileReader.read(in);
+            assertEquals(SampleController.class.getName(), metadata.getClassName());
+            assertTrue(metadata.isConcrete());
+            assertTrue(metadata.hasAnnotation(ASController.class.getName()));
+            assertEquals(2, metadata.getAnnotationTypes().size());
+        }
+    }
+
+    @Test
+    void scanDirectory() throws Exception {
+        ClassPathScanner scanner = new ClassPathScanner(getClass().getClassLoader(), ANNOTATIONS);
+        assertEquals(EXPECTED, scanner.scan(FIXTURE_PACKAGE));
+        assertEquals(Arrays.asList(FIXTURE_PACKAGE + ".sub.NestedController", FIXTURE_PACKAGE + ".sub.NestedController$Inner"),
+                scanner.scan(FIXTURE_PACKAGE + ".sub"));
+    }
+
+    @Test
+    void scanJar(@TempDir Path tempDir) throws Exception {
+        Path classes = Paths.get(SampleController.class.getProtectionDomain().getCodeSource().getLocation().toURI());
+        Path fixtureDir = classes.resolve(FIXTURE_PACKAGE.replace('.', '/'));
+        Path jar = tempDir.resolve("fixture.jar");
+        try (OutputStream out = Files.newOutputStream(jar);
+             JarOutputStream jarOut = new JarOutputStream(out);
+             Stream<Path> files = Files.walk(fixtureDir)) {
+            // 与 jar 命令、maven 打包一致写入目录条目，ClassLoader.getResources 依赖目录条目定位包
+            String parent = "";
+            for (String segment : FIXTURE_PACKAGE.split("\\.")) {
+                parent += segment + "/";
+                jarOut.putNextEntry(new JarEntry(parent));
+                jarOut.closeEntry();
+            }
+            for (Path file : (Iterable<Path>) files::iterator) {
+                String name = classes.relativize(file).toString().replace('\\', '/');
+                if (Files.isDirectory(file)) {
+                    if (!file.equals(fixtureDir)) {
+                        jarOut.putNextEntry(new JarEntry(name + "/"));
+                        jarOut.closeEntry();
+                    }
+                    continue;
+                }
+                jarOut.putNextEntry(new JarEntry(name));
+                Files.copy(file, jarOut);
+                jarOut.closeEntry();
+            }
+        }
+
+        // 父加载器为 null，只能从 JAR 中找到扫描包
+        try (URLClassLoader classLoader = new URLClassLoader(new URL[]{jar.toUri().toURL()}, null)) {
+            ClassPathScanner scanner = new ClassPathScanner(classLoader, ANNOTATIONS);
+            assertEquals(EXPECTED, scanner.scan(FIXTURE_PACKAGE));
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package com.codeashen.mvcframework.v3.scan;
+
+import com.codeashen.mvcframework.annotation.ASController;
+import com.codeashen.mvcframework.annotation.ASService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ComponentIndexTest {
+
+    private static final String FIXTURE_PACKAGE = "com.codeashen.mvcframework.v3.scan.fixture";
+
+    @Test
+    void indexGeneratedForTestSources() throws Exception {
+        // 测试代码编译时同样会运行 ComponentIndexProcessor，索引内容应与扫描结果一致
+        ComponentIndex index = ComponentIndex.load(getClass().getClassLoader());
+        assertNotNull(index);
+        ClassPathScanner scanner = new ClassPathScanner(getClass().getClassLoader(),
+                Arrays.asList(ASController.class.getName(), ASService.class.getName()));
+        assertEquals(scanner.scan(FIXTURE_PACKAGE), index.getClassNames(FIXTURE_PACKAGE));
+
+        ComponentIndex.Component controller = index.getComponent(FIXTURE_PACKAGE + ".SampleController");
+        assertEquals(ASController.class.getName(), controller.getAnnotationType());
+        assertEquals("sample", index.getComponent(FIXTURE_PACKAGE + ".SampleService").getValue());
+    }
+
+    @Test
+    void writeAndRead() throws Exception {
+        ComponentIndex index = new ComponentIndex();
+        index.add(new ComponentIndex.Component("a.b.Demo", ASController.class.getName(), ""));
+        index.add(new ComponentIndex.Component("a.c.Service", ASService.class.getName(), "custom"));
+
+        StringWriter writer = new StringWriter();
+        index.write(writer);
+        ComponentIndex copy = new ComponentIndex();
+        copy.read(new StringReader(writer.toString()));
+
+        assertEquals(Collections.singletonList("a.b.Demo"), copy.getClassNames("a.b"));
+        assertEquals(ASController.class.getName(), copy.getComponent("a.b.Demo").getAnnotationType());
+        assertEquals("custom", copy.getComponent("a.c.Service").getValue());
+    }
+
+    @Test
+    void readIgnoresComponentEntries() throws Exception {
+        // 旧版本索引中组件下的 mapping、autowired 条目不影响读取
+        ComponentIndex index = new ComponentIndex();
+        index.read(new StringReader("a.b.Demo\t" + ASController.class.getName() + "\t\n"
+                + "\tmapping\t\t/demo\n"
+                + "\tautowired\tservice\ta.b.Service\t\n"
+                + "a.b.Service\t" + ASService.class.getName() + "\tcustom\n"));
+        assertEquals(Arrays.asList("a.b.Demo", "a.b.Service"), index.getClassNames("a.b"));
+        assertEquals("custom", index.getComponent("a.b.Service").getValue());
+    }
+
+    @Test
+    void incrementalCompilationKeepsOtherComponents(@TempDir Path dir) throws Exception {
+        Path classes = Files.createDirectories(dir.resolve("classes"));
+        Path first = source(dir, "First", "@ASController public class First {}");
+        Path second = source(dir, "Second", "@ASService public class Second {}");
+        compile(classes, first, second);
+        assertEquals(Arrays.asList("gen.First", "gen.Second"), readIndex(classes).getClassNames("gen"));
+
+        // 只重新编译 Second 并去掉注解，First 仍然保留在索引中
+        second = source(dir, "Second", "public class Second {}");
+        compile(classes, second);
+        assertEquals(Collections.singletonList("gen.First"), readIndex(classes).getClassNames("gen"));
+    }
+
+    private static Path source(Path dir, String name, String body) throws IOException {
+        Path file = Files.createDirectories(dir.resolve("src/gen")).resolve(name + ".java");
+        String source = "package gen;\nimport com.codeashen.mvcframework.annotation.*;\n" + body + "\n";
+        return Files.write(file, source.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static void compile(Path classes, Path... sources) {
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        List<String> args = new ArrayList<>(Arrays.asList(
+                "-classpath", System.getProperty("java.class.path") + File.pathSeparator + classes,
+                "-processor", ComponentIndexProcessor.class.getName(),
+                "-d", classes.toString()));
+        for (Path source : sources) {
+            args.add(source.toString());
+        }
+        ByteArrayOutputStream err = new ByteArrayOutputStream();
+        assertEquals(0, compiler.run(null, null, err, args.toArray(new String[0])), err.toString());
+    }
+
+    private static ComponentIndex readIndex(Path classes) throws IOException {
+        ComponentIndex index = new ComponentIndex();
+        try (Reader reader = Files.newBufferedReader(classes.resolve(ComponentIndex.LOCATION), StandardCharsets.UTF_8)) {
+            index.read(reader);
+        }
+        return index;
+    }
+}
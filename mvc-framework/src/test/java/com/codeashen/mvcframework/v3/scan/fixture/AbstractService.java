@@ -0,0 +1,7 @@
+package com.codeashen.mvcframework.v3.scan.fixture;
+
+import com.codeashen.mvcframework.annotation.ASService;
+
+@ASService
+public abstract class AbstractService {
+}
@@ -0,0 +1,4 @@
+package com.codeashen.mvcframework.v3.scan.fixture;
+
+public class PlainHelper {
+}
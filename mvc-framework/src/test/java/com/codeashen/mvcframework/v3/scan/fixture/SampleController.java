@@ -0,0 +1,9 @@
+package com.codeashen.mvcframework.v3.scan.fixture;
+
+import com.codeashen.mvcframework.annotation.ASController;
+import com.codeashen.mvcframework.annotation.ASRequestMapping;
+
+@ASController
+@ASRequestMapping("/sample")
+public class SampleController {
+}
@@ -0,0 +1,11 @@
+package com.codeashen.mvcframework.v3.scan.fixture;
+
+import com.codeashen.mvcframework.annotation.ASService;
+
+@ASService("sample")
+public class SampleService {
+
+    // 常量池中带 Long、Double 常量，验证占两个位置的常量能被正确跳过
+    public static final long LONG_VALUE = 1L << 40;
+    public static final double DOUBLE_VALUE = 0.5;
+}
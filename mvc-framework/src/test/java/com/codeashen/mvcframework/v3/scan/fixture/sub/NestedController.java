@@ -0,0 +1,11 @@
+package com.codeashen.mvcframework.v3.scan.fixture.sub;
+
+import com.codeashen.mvcframework.annotation.ASController;
+
+@ASController
+public class NestedController {
+
+    @ASController
+    public static class Inner {
+    }
+}
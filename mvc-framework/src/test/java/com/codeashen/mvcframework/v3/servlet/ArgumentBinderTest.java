@@ -0,0 +1,105 @@
+package com.codeashen.mvcframework.v3.servlet;
+
+import com.codeashen.mvcframework.annotation.ASPathVariable;
+import com.codeashen.mvcframework.annotation.ASRequestParam;
+import com.codeashen.mvcframework.v3.router.RouteMatch;
+import com.codeashen.mvcframework.v3.router.RouteTrie;
+import org.junit.jupiter.api.Test;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.lang.reflect.Proxy;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.codeashen.mvcframework.v3.servlet.HandlerFixtures.handler;
+import static org.junit.jupiter.api.Assertions.*;
+
+class ArgumentBinderTest {
+
+    @SuppressWarnings("unused")
+    public static class BindingController {
+        public String bind(HttpServletRequest req, HttpServletResponse resp, @ASRequestParam("name") String name,
+                           @ASRequestParam("ids") int[] ids, @ASRequestParam("tags") List<Long> tags,
+                           @ASRequestParam("size") Integer size, String unbound) {
+            return name;
+        }
+
+        public String page(@ASRequestParam("page") int page) {
+            return String.valueOf(page);
+        }
+
+        public String file(@ASPathVariable("name") String name, @ASPathVariable("id") long id) {
+            return name + id;
+        }
+    }
+
+    @Test
+    void bindByPrecomputedPlan() throws Exception {
+        Handler handler = handler(new BindingController(), "bind", "/bind");
+        ArgumentBinder[] binders = handler.argumentBinders;
+        assertEquals(7, binders.length);
+        assertSame(ArgumentBinder.REQUEST, binders[0]);
+        assertSame(ArgumentBinder.RESPONSE, binders[1]);
+        assertSame(ArgumentBinder.NONE, binders[6]);
+
+        Map<String, String[]> params = new HashMap<>();
+        params.put("name", new String[]{"a", "b"});
+        params.put("ids", new String[]{"1", "2", "3"});
+        params.put("tags", new String[]{"7", "8"});
+        HttpServletRequest req = request(params);
+        HttpServletResponse resp = (HttpServletResponse) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[]{HttpServletResponse.class}, (p, method, args) -> null);
+
+        assertSame(req, binders[0].bind(req, resp, null));
+        assertSame(resp, binders[1].bind(req, resp, null));
+        // 同名的多个值用逗号拼接，不再经过 Arrays.toString 和正则替换
+        assertEquals("a,b", binders[2].bind(req, resp, null));
+        assertArrayEquals(new int[]{1, 2, 3}, (int[]) binders[3].bind(req, resp, null));
+        assertEquals(Arrays.asList(7L, 8L), binders[4].bind(req, resp, null));
+        // 请求中没有的参数：包装类型、数组、集合为 null
+        assertNull(binders[5].bind(req, resp, null));
+        assertNull(binders[3].bind(request(new HashMap<>()), resp, null));
+        assertNull(binders[6].bind(req, resp, null));
+    }
+
+    @Test
+    void missingPrimitiveIsRejected() throws Exception {
+        ArgumentBinder binder = handler(new BindingController(), "page", "/page").argumentBinders[0];
+        Map<String, String[]> params = new HashMap<>();
+        params.put("page", new String[]{"3"});
+        assertEquals(3, binder.bind(request(params), null, null));
+        // 由 doDispatch 转换为 400
+        assertThrows(IllegalArgumentException.class, () -> binder.bind(request(new HashMap<>()), null, null));
+        params.put("page", new String[]{"x"});
+        assertThrows(NumberFormatException.class, () -> binder.bind(request(params), null, null));
+    }
+
+    private static HttpServletRequest request(Map<String, String[]> params) {
+        return (HttpServletRequest) Proxy.newProxyInstance(ArgumentBinderTest.class.getClassLoader(),
+                new Class<?>[]{HttpServletRequest.class}, (p, method, args) -> {
+                    if (method.getName().equals("getParameterValues")) {
+                        return params.get((String) args[0]);
+                    }
+                    throw new UnsupportedOperationException(method.getName());
+                });
+    }
+
+    @Test
+    void pathVariablesArePercentDecoded() throws Exception {
+        String url = "/files/{name}/{id}";
+        ArgumentBinder[] binders = handler(new BindingController(), "file", url).argumentBinders;
+        RouteTrie<String> trie = new RouteTrie<>();
+        trie.add(url, url);
+
+        RouteMatch<String> match = trie.match("/files/a%20b%2Fc+d/42");
+        assertEquals("a b/c+d", binders[0].bind(null, null, match));
+        assertEquals(42L, binders[1].bind(null, null, match));
+        assertEquals("中文", binders[0].bind(null, null, trie.match("/files/%E4%B8%AD%E6%96%87/1")));
+        // 不完整的转义由 doDispatch 转换为 400
+        assertThrows(IllegalArgumentException.class, () -> binders[0].bind(null, null, trie.match("/files/a%2/1")));
+        assertThrows(IllegalArgumentException.class, () -> binders[0].bind(null, null, trie.match("/files/%zz/1")));
+    }
+}
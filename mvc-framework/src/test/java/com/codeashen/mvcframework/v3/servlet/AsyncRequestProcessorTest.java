@@ -0,0 +1,184 @@
+package com.codeashen.mvcframework.v3.servlet;
+
+import com.codeashen.mvcframework.v3.async.DeferredResult;
+import org.junit.jupiter.api.Test;
+
+import javax.servlet.AsyncContext;
+import javax.servlet.AsyncListener;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.lang.reflect.Proxy;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AsyncRequestProcessorTest {
+
+    private final AsyncRequestProcessor processor = new AsyncRequestProcessor(1000, null, new AsyncRequestProcessor.ResultWriter() {
+        @Override
+        public void writeResult(HttpServletResponse resp, Object result) throws IOException {
+            resp.getWriter().write(String.valueOf(result));
+        }
+
+        @Override
+        public void writeError(HttpServletResponse resp, Throwable error) throws IOException {
+            resp.getWriter().write("error:" + error.getMessage());
+        }
+    });
+
+    @Test
+    void completeResponseWhenFutureCompletes() throws Exception {
+        Exchange exchange = new Exchange(true);
+        CompletableFuture<String> future = new CompletableFuture<>();
+        processor.process(exchange.request, exchange.response, future, null, null, null);
+        assertEquals(1000, exchange.timeout);
+        assertEquals(1, exchange.completed.getCount());
+
+        new Thread(() -> future.complete("done")).start();
+        assertTrue(exchange.completed.await(5, TimeUnit.SECONDS));
+        assertEquals("done", exchange.body.toString());
+    }
+
+    @Test
+    void writeErrorWhenFutureFails() throws Exception {
+        Exchange exchange = new Exchange(true);
+        CompletableFuture<String> future = CompletableFuture.supplyAsync(() -> {
+            throw new IllegalStateException("boom");
+        });
+        processor.process(exchange.request, exchange.response, future, null, null, null);
+        assertTrue(exchange.completed.await(5, TimeUnit.SECONDS));
+        assertEquals("error:boom", exchange.body.toString());
+    }
+
+    @Test
+    void deferredResultTimeout() throws Exception {
+        Exchange exchange = new Exchange(true);
+        DeferredResult<String> result = new DeferredResult<>(50L);
+        processor.process(exchange.request, exchange.response, result, null, null, null);
+        assertEquals(50, exchange.timeout);
+
+        // 模拟容器触发超时
+        exchange.listener.onTimeout(null);
+        assertEquals(0, exchange.completed.getCount());
+        assertEquals(HttpServletResponse.SC_SERVICE_UNAVAILABLE, exchange.status);
+        assertFalse(result.setResult("late"));
+    }
+
+    @Test
+    void handOverToOwnerOfStartedAsyncContext() throws Exception {
+        Exchange exchange = new Exchange(true);
+        AtomicReference<AsyncListener> handedOver = new AtomicReference<>();
+        DeferredResult<String> result = new DeferredResult<>(50L);
+        processor.process(exchange.request, exchange.response, result, null, null, listener -> {
+            handedOver.set(listener);
+            return true;
+        });
+        // 所有者已经设置了超时并注册了监听器，容器线程返回后不能再调用
+        assertEquals(-1, exchange.timeout);
+        assertNull(exchange.listener);
+
+        // 所有者把超时转发给交接的监听器，之后到达的结果不再写出
+        handedOver.get().onTimeout(null);
+        assertEquals(0, exchange.completed.getCount());
+        assertEquals(HttpServletResponse.SC_SERVICE_UNAVAILABLE, exchange.status);
+        assertFalse(result.setResult("late"));
+
+        // 所有者已经因超时结束了请求：不订阅结果，只执行回调
+        Exchange timedOut = new Exchange(true);
+        AtomicBoolean callback = new AtomicBoolean();
+        CompletableFuture<String> future = new CompletableFuture<>();
+        processor.process(timedOut.request, timedOut.response, future, null, () -> callback.set(true), listener -> false);
+        future.complete("late");
+        assertTrue(callback.get());
+        assertEquals(1, timedOut.completed.getCount());
+        assertEquals("", timedOut.body.toString());
+    }
+
+    @Test
+    void waitForResultWhenAsyncNotSupported() throws Exception {
+        Exchange exchange = new Exchange(false);
+        DeferredResult<String> result = new DeferredResult<>(5000L);
+        new Thread(() -> result.setResult("sync")).start();
+        processor.process(exchange.request, exchange.response, result, null, null, null);
+        assertEquals("sync", exchange.body.toString());
+
+        Exchange timedOut = new Exchange(false);
+        processor.process(timedOut.request, timedOut.response, new DeferredResult<>(10L, "fallback"), null, null, null);
+        assertEquals("fallback", timedOut.body.toString());
+    }
+
+    /**
+     * 用动态代理模拟一次请求，只实现用到的方法
+     */
+    private static class Exchange {
+        final StringWriter body = new StringWriter();
+        final PrintWriter writer = new PrintWriter(body, true);
+        final CountDownLatch completed = new CountDownLatch(1);
+        volatile long timeout = -1;
+        volatile int status = HttpServletResponse.SC_OK;
+        volatile AsyncListener listener;
+        final HttpServletResponse response;
+        final HttpServletRequest request;
+
+        Exchange(boolean asyncSupported) {
+            response = proxy(HttpServletResponse.class, (method, args) -> {
+                switch (method) {
+                    case "getWriter":
+                        return writer;
+                    case "setStatus":
+                        status = (Integer) args[0];
+                        return null;
+                    default:
+                        throw new UnsupportedOperationException(method);
+                }
+            });
+            AsyncContext asyncContext = proxy(AsyncContext.class, (method, args) -> {
+                switch (method) {
+                    case "setTimeout":
+                        timeout = (Long) args[0];
+                        return null;
+                    case "addListener":
+                        listener = (AsyncListener) args[0];
+                        return null;
+                    case "getResponse":
+                        return response;
+                    case "complete":
+                        completed.countDown();
+                        return null;
+                    default:
+                        throw new UnsupportedOperationException(method);
+                }
+            });
+            request = proxy(HttpServletRequest.class, (method, args) -> {
+                switch (method) {
+                    case "isAsyncSupported":
+                        return asyncSupported;
+                    case "isAsyncStarted":
+                        return false;
+                    case "startAsync":
+                    case "getAsyncContext":
+                        return asyncContext;
+                    default:
+                        throw new UnsupportedOperationException(method);
+                }
+            });
+        }
+
+        interface Answer {
+            Object answer(String method, Object[] args);
+        }
+
+        @SuppressWarnings("unchecked")
+        static <T> T proxy(Class<T> type, Answer answer) {
+            return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type},
+                    (p, method, args) -> answer.answer(method.getName(), args));
+        }
+    }
+}
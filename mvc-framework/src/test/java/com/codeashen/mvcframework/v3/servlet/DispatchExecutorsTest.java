@@ -0,0 +1,37 @@
+package com.codeashen.mvcframework.v3.servlet;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DispatchExecutorsTest {
+
+    @Test
+    void containerModeHasNoExecutor() {
+        assertNull(DispatchExecutors.create(null, 4, 16));
+        assertNull(DispatchExecutors.create(" container ", 4, 16));
+        assertThrows(IllegalArgumentException.class, () -> DispatchExecutors.create("fibers", 4, 16));
+    }
+
+    @Test
+    void virtualModeRunsTasks() throws Exception {
+        ExecutorService executor = DispatchExecutors.create("virtual", 4, 16);
+        try {
+            Future<Boolean> virtual = executor.submit(() -> Thread.currentThread().getName().isEmpty());
+            if (executor instanceof ThreadPoolExecutor) {
+                // JDK 21 以下退化为有界的平台线程池
+                assertEquals(4, ((ThreadPoolExecutor) executor).getMaximumPoolSize());
+                assertFalse(virtual.get());
+            } else {
+                // 虚拟线程默认没有名称
+                assertTrue(virtual.get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package com.codeashen.mvcframework.v3.servlet;
+
+import com.codeashen.mvcframework.v3.servlet.HandlerFixtures.CapturingResponse;
+import com.codeashen.mvcframework.v3.servlet.fixture.SlowController;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.servlet.AsyncContext;
+import javax.servlet.AsyncListener;
+import javax.servlet.ServletConfig;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.lang.reflect.Proxy;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DispatcherServletTest {
+
+    private final DispatcherServlet servlet = new DispatcherServlet();
+
+    @BeforeEach
+    void init() throws Exception {
+        servlet.init(proxy(ServletConfig.class, (method, args) -> {
+            if (method.equals("getInitParameter")) {
+                return "dispatch-timeout.properties";
+            }
+            throw new UnsupportedOperationException(method);
+        }));
+    }
+
+    @AfterEach
+    void destroy() {
+        servlet.destroy();
+    }
+
+    @Test
+    void handlerOutlivingTimeoutDoesNotWriteResponse() throws Exception {
+        SlowController.started = new CountDownLatch(1);
+        SlowController.release = new CountDownLatch(1);
+        AtomicInteger completed = new AtomicInteger();
+        AsyncListener[] listener = new AsyncListener[1];
+        CapturingResponse response = new CapturingResponse();
+        HttpServletRequest[] request = new HttpServletRequest[1];
+        AsyncContext asyncContext = proxy(AsyncContext.class, (method, args) -> {
+            switch (method) {
+                case "setTimeout":
+                    return null;
+                case "addListener":
+                    listener[0] = (AsyncListener) args[0];
+                    return null;
+                case "getRequest":
+                    return request[0];
+                case "getResponse":
+                    return response.proxy;
+                case "complete":
+                    completed.incrementAndGet();
+                    return null;
+                default:
+                    throw new UnsupportedOperationException(method);
+            }
+        });
+        request[0] = request("/slow", true, asyncContext);
+
+        servlet.service(request[0], response.proxy);
+        assertTrue(SlowController.started.await(5, TimeUnit.SECONDS));
+        // 模拟容器在处理器方法返回之前触发超时
+        listener[0].onTimeout(null);
+        assertEquals(HttpServletResponse.SC_SERVICE_UNAVAILABLE, response.status);
+        assertEquals(1, completed.get());
+
+        // 处理器方法返回后不再写出结果，只记录一次超时
+        SlowController.release.countDown();
+        String timeouts = "mvc_request_timeouts_total{path=\"/slow\",handler=\"SlowController#slow\"} 1\n";
+        long deadline = System.currentTimeMillis() + 5000;
+        String metrics;
+        do {
+            CapturingResponse metricsResponse = new CapturingResponse();
+            servlet.service(request("/metrics", false, null), metricsResponse.proxy);
+            metrics = metricsResponse.body();
+        } while (!metrics.contains(timeouts) && System.currentTimeMillis() < deadline);
+        assertTrue(metrics.contains(timeouts), metrics);
+        assertFalse(metrics.contains("mvc_request_duration_seconds_count{path=\"/slow\""), metrics);
+        assertEquals("503 Request timed out", response.body());
+        assertEquals(1, completed.get());
+    }
+
+    private static HttpServletRequest request(String uri, boolean asyncSupported, AsyncContext asyncContext) {
+        return proxy(HttpServletRequest.class, (method, args) -> {
+            switch (method) {
+                case "getRequestURI":
+                    return uri;
+                case "getContextPath":
+                    return "";
+                case "getMethod":
+                    return "GET";
+                case "isAsyncSupported":
+                    return asyncSupported;
+                case "startAsync":
+                    return asyncContext;
+                default:
+                    throw new UnsupportedOperationException(method);
+            }
+        });
+    }
+
+    interface Answer {
+        Object answer(String method, Object[] args);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, Answer answer) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type},
+                (p, method, args) -> answer.answer(method.getName(), args));
+    }
+}
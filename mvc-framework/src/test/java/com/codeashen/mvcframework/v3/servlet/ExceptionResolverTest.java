@@ -0,0 +1,99 @@
+package com.codeashen.mvcframework.v3.servlet;
+
+import com.codeashen.mvcframework.annotation.ASExceptionHandler;
+import com.codeashen.mvcframework.v3.invoke.HandlerInvokerFactory;
+import com.codeashen.mvcframework.v3.servlet.HandlerFixtures.CapturingResponse;
+import org.junit.jupiter.api.Test;
+
+import javax.servlet.http.HttpServletResponse;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.concurrent.CompletionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ExceptionResolverTest {
+
+    @SuppressWarnings("unused")
+    public static class Advice {
+        @ASExceptionHandler(status = 409)
+        public String conflict(IllegalStateException e) {
+            return "conflict:" + e.getMessage();
+        }
+
+        @ASExceptionHandler(value = {RuntimeException.class}, status = 418)
+        public String runtime(HttpServletResponse resp) {
+            return "runtime";
+        }
+
+        @ASExceptionHandler(status = 400)
+        public String local(IllegalArgumentException e) {
+            return "local:" + e.getMessage();
+        }
+    }
+
+    @Test
+    void resolveNearestExceptionHandler() throws Exception {
+        ExceptionHandlerMethods global = handlers("conflict", "runtime");
+        ExceptionResolver resolver = new ExceptionResolver(global, 0);
+
+        CapturingResponse response = new CapturingResponse();
+        resolver.resolve(null, response.proxy, null, new InvocationTargetException(new IllegalStateException("busy")));
+        assertEquals(409, response.status);
+        assertEquals("conflict:busy", response.body());
+
+        response = new CapturingResponse();
+        resolver.resolve(null, response.proxy, null, new CompletionException(new UnsupportedOperationException()));
+        assertEquals(418, response.status);
+        assertEquals("runtime", response.body());
+        // 解析结果按异常类型缓存
+        assertSame(global.find(UnsupportedOperationException.class), global.find(UnsupportedOperationException.class));
+        assertNull(global.find(Exception.class));
+
+        // 控制器自己的异常处理方法优先
+        response = new CapturingResponse();
+        resolver.resolve(null, response.proxy, handlers("local"), new NumberFormatException("x"));
+        assertEquals(400, response.status);
+        assertEquals("local:x", response.body());
+    }
+
+    @Test
+    void writePreallocatedErrorBody() throws Exception {
+        ExceptionResolver resolver = new ExceptionResolver(new ExceptionHandlerMethods(), 0);
+        CapturingResponse response = new CapturingResponse();
+        resolver.resolve(null, response.proxy, null, new Exception("secret"));
+        assertEquals(500, response.status);
+        assertEquals("500 Internal Server Error", response.body());
+
+        response = new CapturingResponse();
+        resolver.resolve(null, response.proxy, null, new BadRequestException(new NumberFormatException("abc")));
+        assertEquals(400, response.status);
+        assertEquals("400 Bad Request", response.body());
+
+        response = new CapturingResponse();
+        resolver.resolve(null, response.proxy, null, new PayloadTooLargeException(10));
+        assertEquals(413, response.status);
+        assertEquals(0, new PayloadTooLargeException(10).getStackTrace().length);
+    }
+
+    @Test
+    void rejectAmbiguousExceptionHandlers() {
+        assertThrows(IllegalStateException.class, () -> handlers("conflict", "conflict"));
+    }
+
+    private ExceptionHandlerMethods handlers(String... names) throws Exception {
+        ExceptionHandlerMethods handlers = new ExceptionHandlerMethods();
+        Advice advice = new Advice();
+        for (String name : names) {
+            Method method = null;
+            for (Method m : Advice.class.getMethods()) {
+                if (m.getName().equals(name)) {
+                    method = m;
+                }
+            }
+            handlers.add(new ExceptionHandlerMethod(method, HandlerInvokerFactory.create(null, advice, method),
+                    HandlerFixtures.RETURN_VALUE_HANDLERS));
+        }
+        return handlers;
+    }
+}
@@ -0,0 +1,146 @@
+package com.codeashen.mvcframework.v3.servlet;
+
+import com.codeashen.mvcframework.annotation.RequestMethod;
+import com.codeashen.mvcframework.v3.convert.ConversionService;
+import com.codeashen.mvcframework.v3.invoke.HandlerInvokerFactory;
+import com.codeashen.mvcframework.v3.json.JsonWriter;
+import com.codeashen.mvcframework.v3.response.BufferPool;
+import com.codeashen.mvcframework.v3.response.ReturnValueHandlers;
+
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import javax.servlet.http.HttpServletResponse;
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+
+/**
+ * 测试共用的处理器和响应。控制器都是 public 类，各种调用器都可以直接访问处理器方法。
+ */
+public final class HandlerFixtures {
+
+    static final ReturnValueHandlers RETURN_VALUE_HANDLERS = new ReturnValueHandlers(Collections.emptyList(),
+            new BufferPool(64, 1), new JsonWriter());
+
+    private HandlerFixtures() {
+    }
+
+    @SuppressWarnings("unused")
+    public static class SampleController {
+        public String get() {
+            return "get";
+        }
+
+        public String post() {
+            return "post";
+        }
+
+        public String any() {
+            return "any";
+        }
+    }
+
+    /**
+     * 为 SampleController 的方法创建处理器
+     */
+    static Handler handler(String name, String url, RequestMethod... methods) throws Exception {
+        return handler(new SampleController(), name, url, methods);
+    }
+
+    /**
+     * 为 controller 中指定名称的 public 方法创建处理器
+     */
+    static Handler handler(Object controller, String name, String url, RequestMethod... methods) {
+        Method method = null;
+        for (Method m : controller.getClass().getMethods()) {
+            if (m.getName().equals(name)) {
+                method = m;
+            }
+        }
+        if (method == null) {
+            throw new IllegalArgumentException("No method " + name + " in " + controller.getClass());
+        }
+        Handler handler = new Handler(controller, method, url, HandlerInvokerFactory.create(null, controller, method),
+                new ConversionService(), RETURN_VALUE_HANDLERS, null);
+        handler.requestMethods = methods;
+        return handler;
+    }
+
+    /**
+     * 用动态代理模拟响应，记录状态码、响应头和响应体。
+     * 未模拟的 void 方法直接忽略，其余方法抛出 UnsupportedOperationException
+     */
+    public static final class CapturingResponse {
+        private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        private final PrintWriter writer = new PrintWriter(new OutputStreamWriter(bytes, StandardCharsets.UTF_8));
+        public int status = HttpServletResponse.SC_OK;
+        public String contentType;
+        public long contentLength = -1;
+        public int flushes;
+        private final ServletOutputStream out = new ServletOutputStream() {
+            @Override
+            public void write(int b) {
+                bytes.write(b);
+            }
+
+            @Override
+            public void flush() {
+                flushes++;
+            }
+
+            @Override
+            public boolean isReady() {
+                return true;
+            }
+
+            @Override
+            public void setWriteListener(WriteListener writeListener) {
+            }
+        };
+        public final HttpServletResponse proxy = (HttpServletResponse) Proxy.newProxyInstance(
+                getClass().getClassLoader(), new Class<?>[]{HttpServletResponse.class}, (p, method, args) -> {
+                    switch (method.getName()) {
+                        case "getWriter":
+                            return writer;
+                        case "getOutputStream":
+                            return out;
+                        case "getCharacterEncoding":
+                            return "UTF-8";
+                        case "isCommitted":
+                            return false;
+                        case "resetBuffer":
+                            writer.flush();
+                            bytes.reset();
+                            return null;
+                        case "getStatus":
+                            return status;
+                        case "setStatus":
+                            status = (Integer) args[0];
+                            return null;
+                        case "getContentType":
+                            return contentType;
+                        case "setContentType":
+                            contentType = (String) args[0];
+                            return null;
+                        case "setContentLength":
+                        case "setContentLengthLong":
+                            contentLength = ((Number) args[0]).longValue();
+                            return null;
+                        default:
+                            if (method.getReturnType() == void.class) {
+                                return null;
+                            }
+                            throw new UnsupportedOperationException(method.getName());
+                    }
+                });
+
+        public String body() {
+            writer.flush();
+            return new String(bytes.toByteArray(), StandardCharsets.UTF_8);
+        }
+    }
+}
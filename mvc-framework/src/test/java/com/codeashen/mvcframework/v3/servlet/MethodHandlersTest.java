@@ -0,0 +1,74 @@
+package com.codeashen.mvcframework.v3.servlet;
+
+import com.codeashen.mvcframework.annotation.RequestMethod;
+import com.codeashen.mvcframework.v3.servlet.HandlerFixtures.CapturingResponse;
+import org.junit.jupiter.api.Test;
+
+import java.io.PrintWriter;
+
+import static com.codeashen.mvcframework.annotation.RequestMethod.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class MethodHandlersTest {
+
+    @Test
+    void selectHandlerByMethod() throws Exception {
+        MethodHandlers handlers = new MethodHandlers();
+        Handler get = handler("get");
+        Handler post = handler("post");
+        handlers.add(new RequestMethod[]{GET}, get);
+        handlers.add(new RequestMethod[]{POST, PUT}, post);
+
+        assertSame(get, handlers.getHandler(GET));
+        assertSame(post, handlers.getHandler(PUT));
+        // HEAD 使用 GET 的处理器，OPTIONS 由框架应答
+        assertSame(get, handlers.getHandler(HEAD));
+        assertFalse(handlers.isMapped(HEAD));
+        assertNull(handlers.getHandler(OPTIONS));
+        assertNull(handlers.getHandler(DELETE));
+        assertNull(handlers.getHandler(null));
+        assertEquals("GET, HEAD, POST, PUT, OPTIONS", handlers.getAllow());
+    }
+
+    @Test
+    void defaultHandlerServesUnmappedMethods() throws Exception {
+        MethodHandlers handlers = new MethodHandlers();
+        Handler any = handler("any");
+        Handler post = handler("post");
+        handlers.add(new RequestMethod[0], any);
+        handlers.add(new RequestMethod[]{POST}, post);
+
+        assertSame(post, handlers.getHandler(POST));
+        assertSame(any, handlers.getHandler(DELETE));
+        assertSame(any, handlers.getHandler(HEAD));
+        assertSame(any, handlers.getHandler(null));
+        assertNull(handlers.getHandler(OPTIONS));
+        assertEquals("GET, HEAD, POST, PUT, PATCH, DELETE, OPTIONS, TRACE", handlers.getAllow());
+    }
+
+    @Test
+    void rejectAmbiguousMapping() throws Exception {
+        MethodHandlers handlers = new MethodHandlers();
+        handlers.add(new RequestMethod[]{GET, POST}, handler("get"));
+        assertThrows(IllegalStateException.class, () -> handlers.add(new RequestMethod[]{POST}, handler("post")));
+        handlers.add(new RequestMethod[0], handler("any"));
+        assertThrows(IllegalStateException.class, () -> handlers.add(new RequestMethod[0], handler("any")));
+    }
+
+    @Test
+    void headResponseDiscardsBody() throws Exception {
+        CapturingResponse response = new CapturingResponse();
+        NoBodyResponse noBody = new NoBodyResponse(response.proxy);
+        handler("get").returnValueHandler.handleReturnValue("中文", noBody);
+        noBody.getOutputStream().write(new byte[4], 0, 4);
+        noBody.finish();
+        assertEquals(10L, response.contentLength);
+        assertEquals("", response.body());
+        assertEquals("text/plain;charset=UTF-8", response.contentType);
+        assertTrue(noBody.getWriter() instanceof PrintWriter);
+    }
+
+    private static Handler handler(String name) throws Exception {
+        return HandlerFixtures.handler(name, "/" + name);
+    }
+}
@@ -0,0 +1,82 @@
+package com.codeashen.mvcframework.v3.servlet;
+
+import com.codeashen.mvcframework.v3.convert.ConversionService;
+import com.codeashen.mvcframework.v3.json.JsonReader;
+import com.codeashen.mvcframework.v3.response.BufferPool;
+import org.junit.jupiter.api.Test;
+
+import javax.servlet.ReadListener;
+import javax.servlet.ServletInputStream;
+import javax.servlet.http.HttpServletRequest;
+import java.io.ByteArrayInputStream;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RequestBodyReaderTest {
+
+    private final RequestBodyReader reader = new RequestBodyReader(new JsonReader(new ConversionService()),
+            new BufferPool(64, 2), 32);
+
+    @Test
+    void bindRequestBody() throws Exception {
+        ArgumentBinder binder = reader.binderFor(Map.class, true);
+        Map<?, ?> body = (Map<?, ?>) binder.bind(request("{\"a\": 1}", -1), null, null);
+        assertEquals(1L, body.get("a"));
+
+        assertThrows(IllegalArgumentException.class, () -> binder.bind(request("", 0), null, null));
+        assertEquals(0, reader.binderFor(int.class, false).bind(request("", 0), null, null));
+    }
+
+    @Test
+    void rejectOversizedBody() {
+        ArgumentBinder binder = reader.binderFor(Map.class, true);
+        String large = "{\"a\": \"0123456789012345678901234567890123456789\"}";
+        // 声明了 Content-Length 时直接拒绝
+        assertThrows(PayloadTooLargeException.class, () -> binder.bind(request(large, large.length()), null, null));
+        // 分块传输时在读取过程中拒绝
+        assertThrows(PayloadTooLargeException.class, () -> binder.bind(request(large, -1), null, null));
+    }
+
+    private static HttpServletRequest request(String body, long contentLength) {
+        ByteArrayInputStream bytes = new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8));
+        ServletInputStream in = new ServletInputStream() {
+            @Override
+            public int read() {
+                return bytes.read();
+            }
+
+            @Override
+            public int read(byte[] b, int off, int len) {
+                return bytes.read(b, off, len);
+            }
+
+            @Override
+            public boolean isFinished() {
+                return bytes.available() == 0;
+            }
+
+            @Override
+            public boolean isReady() {
+                return true;
+            }
+
+            @Override
+            public void setReadListener(ReadListener readListener) {
+            }
+        };
+        return (HttpServletRequest) Proxy.newProxyInstance(RequestBodyReaderTest.class.getClassLoader(),
+                new Class<?>[]{HttpServletRequest.class}, (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "getContentLengthLong":
+                            return contentLength;
+                        case "getInputStream":
+                            return in;
+                        default:
+                            return null;
+                    }
+                });
+    }
+}
@@ -0,0 +1,80 @@
+package com.codeashen.mvcframework.v3.servlet;
+
+import com.codeashen.mvcframework.annotation.ASPathVariable;
+import com.codeashen.mvcframework.annotation.RequestMethod;
+import com.codeashen.mvcframework.v3.router.RouteMatch;
+import org.junit.jupiter.api.Test;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static com.codeashen.mvcframework.v3.servlet.HandlerFixtures.handler;
+import static org.junit.jupiter.api.Assertions.*;
+
+class RoutingSnapshotTest {
+
+    @SuppressWarnings("unused")
+    public static class UserController {
+        public long find(@ASPathVariable("id") long id) {
+            return id;
+        }
+
+        public String update(@ASPathVariable("uid") String uid) {
+            return uid;
+        }
+    }
+
+    @Test
+    void buildRoutesFromControllers() throws Exception {
+        Handler list = handler("get", "/users", RequestMethod.GET);
+        Handler create = handler("post", "/users", RequestMethod.POST);
+        Handler metrics = handler("get", "/metrics");
+        Map<String, Handler[]> controllers = new LinkedHashMap<>();
+        controllers.put("users", new Handler[]{list, create});
+        controllers.put("stats", new Handler[]{metrics});
+
+        RoutingSnapshot snapshot = new RoutingSnapshot(controllers, 16, "/metrics");
+        assertArrayEquals(new Handler[]{list, create, metrics}, snapshot.getHandlers());
+        assertSame(create, snapshot.match("/users").getTarget().getHandler(RequestMethod.POST));
+        assertNull(snapshot.match("/orders"));
+        // 控制器映射了指标的 url 时以控制器为准
+        assertNull(snapshot.getMetricsPath());
+        assertEquals(0, snapshot.getHandlers("missing").length);
+        assertThrows(UnsupportedOperationException.class, () -> snapshot.getControllers().remove("users"));
+
+        // 替换一个控制器后构建新的快照，旧的快照不受影响
+        Map<String, Handler[]> replaced = new LinkedHashMap<>(snapshot.getControllers());
+        replaced.put("stats", new Handler[0]);
+        RoutingSnapshot next = new RoutingSnapshot(replaced, 16, "/metrics");
+        assertEquals("/metrics", next.getMetricsPath());
+        assertNull(next.match("/metrics"));
+        assertNotNull(snapshot.match("/metrics"));
+    }
+
+    @Test
+    void rejectAmbiguousMappings() throws Exception {
+        Map<String, Handler[]> controllers = new LinkedHashMap<>();
+        controllers.put("a", new Handler[]{handler("get", "/users", RequestMethod.GET)});
+        controllers.put("b", new Handler[]{handler("post", "/users", RequestMethod.GET)});
+        assertThrows(IllegalStateException.class, () -> new RoutingSnapshot(controllers, 16, null));
+    }
+
+    @Test
+    void groupTemplatesByShape() throws Exception {
+        UserController controller = new UserController();
+        Handler find = handler(controller, "find", "/users/{id}", RequestMethod.GET);
+        Handler update = handler(controller, "update", "/users/{uid}", RequestMethod.POST);
+        Map<String, Handler[]> controllers = new LinkedHashMap<>();
+        controllers.put("users", new Handler[]{find, update});
+
+        // 变量名不同的同形模板是同一个路由，不会因为只注册了第一个 url 而返回 405
+        RouteMatch<MethodHandlers> match = new RoutingSnapshot(controllers, 16, null).match("/users/7");
+        assertSame(find, match.getTarget().getHandler(RequestMethod.GET));
+        assertSame(update, match.getTarget().getHandler(RequestMethod.POST));
+        assertEquals(7L, find.argumentBinders[0].bind(null, null, match));
+        assertEquals("7", update.argumentBinders[0].bind(null, null, match));
+
+        controllers.put("other", new Handler[]{handler(controller, "update", "/users/{uid}", RequestMethod.GET)});
+        assertThrows(IllegalStateException.class, () -> new RoutingSnapshot(controllers, 16, null));
+    }
+}
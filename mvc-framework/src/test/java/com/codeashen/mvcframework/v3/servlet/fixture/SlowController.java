@@ -0,0 +1,22 @@
+package com.codeashen.mvcframework.v3.servlet.fixture;
+
+import com.codeashen.mvcframework.annotation.ASController;
+import com.codeashen.mvcframework.annotation.ASRequestMapping;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+@ASController
+public class SlowController {
+
+    // 由测试设置：处理器方法开始执行后计数，等待 release 之后才返回
+    public static volatile CountDownLatch started;
+    public static volatile CountDownLatch release;
+
+    @ASRequestMapping("/slow")
+    public String slow() throws InterruptedException {
+        started.countDown();
+        release.await(5, TimeUnit.SECONDS);
+        return "late";
+    }
+}